@@ -0,0 +1,430 @@
+package com.aircraft;
+
+import com.aircraft.config.AppConfig;
+import com.aircraft.dao.BulkImportDAO;
+import com.aircraft.dao.DaoExecutor;
+import com.aircraft.dao.ReferenceDataCache;
+import com.aircraft.dao.SchemaMigration;
+import com.aircraft.model.Aircraft;
+import com.aircraft.model.Launcher;
+import com.aircraft.model.Mission;
+import com.aircraft.model.MissionPosition;
+import com.aircraft.model.RecordedData;
+import com.aircraft.model.Weapon;
+import com.aircraft.util.DBUtil;
+import com.aircraft.util.QueryMetrics;
+import com.aircraft.util.SlowQueryLog;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command line bulk import of missions (missione) and recorded flight data
+ * (dati_registrati) from CSV files, e.g. after an exercise.
+ *
+ * <pre>
+ * BulkImport missions|recorded &lt;file.csv&gt; [--restart]
+ * </pre>
+ *
+ * The first line of the file names the columns, in any order:
+ * <ul>
+ *     <li>missions: MatricolaVelivolo, DataMissione (yyyy-MM-dd), NumeroVolo, OraPartenza and
+ *     OraArrivo (HH:mm, may be empty), and optionally PartNumberLanciatoreP1..P13 and
+ *     PartNumberMissileP1..P13</li>
+ *     <li>recorded: MatricolaVelivolo, NumeroVolo, GloadMax, GloadMin, QuotaMedia, VelocitaMassima,
+ *     StatoMissili, and optionally StatoElaborato (true/false)</li>
+ * </ul>
+ * Lines are read in chunks of import.chunkSize lines, parsed and validated
+ * against the cached reference data (ignoring case, as MySQL compares keys) on import.parserThreads threads, and
+ * written in file order, one transaction per chunk (see {@link BulkImportDAO}).
+ * Lines that fail validation are written with the reason to
+ * &lt;file&gt;.rejects.txt. A failed import resumes after the last committed
+ * chunk when run again; --restart imports the file from the start.
+ * Fields may be quoted, but not span several lines.
+ */
+public class BulkImport {
+
+    // Weapon stations P1 to P13
+    private static final int POSITIONS = 13;
+
+    private final BulkImportDAO bulkImportDAO = new BulkImportDAO();
+    private final ReferenceDataCache referenceData = ReferenceDataCache.getInstance();
+    private final int chunkSize;
+    private final int parserThreads;
+
+    private BulkImport(AppConfig config) {
+        this.chunkSize = Math.max(1, config.getInt("import.chunkSize", 1000));
+        int threads = config.getInt("import.parserThreads", 0);
+        this.parserThreads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Runs an import.
+     *
+     * @param args The type of data (missions or recorded), the CSV file and optionally --restart
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equals("--restart"))) {
+            System.err.println("Usage: BulkImport missions|recorded <file.csv> [--restart]");
+            System.exit(2);
+        }
+
+        int status = 0;
+        try {
+            BulkImport bulkImport = new BulkImport(AppConfig.getInstance());
+            SchemaMigration.migrate();
+            File file = new File(args[1]);
+            boolean restart = args.length == 3;
+            switch (args[0]) {
+                case "missions":
+                    bulkImport.run("missions", file, restart, bulkImport::parseMission, bulkImport.bulkImportDAO::writeMissions);
+                    break;
+                case "recorded":
+                    bulkImport.run("recorded", file, restart, bulkImport::parseRecordedData, bulkImport.bulkImportDAO::writeRecordedData);
+                    break;
+                default:
+                    System.err.println("Unknown data type: " + args[0] + " (expected missions or recorded)");
+                    status = 2;
+            }
+        } catch (Exception e) {
+            System.err.println("Import failed: " + e.getMessage());
+            e.printStackTrace();
+            System.err.println("Run the import again to resume after the last committed chunk");
+            status = 1;
+        } finally {
+            QueryMetrics.getInstance().shutdown();
+            SlowQueryLog.getInstance().shutdown();
+            DaoExecutor.shutdown();
+            DBUtil.shutdown();
+        }
+        System.exit(status);
+    }
+
+    private <T> void run(String type, File file, boolean restart, RowParser<T> parser, ChunkWriter<T> writer)
+            throws IOException, SQLException, InterruptedException, ExecutionException {
+        String source = sourceOf(type, file);
+        long fileSize = file.length();
+        if (restart) {
+            bulkImportDAO.clearCheckpoint(source);
+        }
+        long linesDone = bulkImportDAO.getCheckpoint(source, fileSize);
+        if (linesDone > 0) {
+            System.out.println("Resuming " + file + " after line " + (linesDone + 1));
+        }
+
+        File rejectsFile = new File(file.getPath() + ".rejects.txt");
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads);
+        long inserted = 0;
+        long skipped = 0;
+        long rejected = 0;
+        long start = System.nanoTime();
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+             BufferedWriter rejects = Files.newBufferedWriter(rejectsFile.toPath(), StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, restart || linesDone == 0
+                             ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND)) {
+            String header = reader.readLine();
+            if (header == null) {
+                System.out.println(file + " is empty");
+                return;
+            }
+            Map<String, Integer> columns = columnsOf(header);
+
+            // Skip the lines imported by a previous run
+            for (long i = 0; i < linesDone; i++) {
+                if (reader.readLine() == null) {
+                    break;
+                }
+            }
+
+            // Chunks are parsed in parallel but written in file order, so the checkpoint stays exact;
+            // the number of chunks in flight is bounded to keep memory constant
+            Deque<Future<ParsedChunk<T>>> pending = new ArrayDeque<>();
+            long nextLine = linesDone;
+            boolean endOfFile = false;
+            while (!endOfFile || !pending.isEmpty()) {
+                while (!endOfFile && pending.size() < parserThreads * 2) {
+                    List<String> lines = new ArrayList<>(chunkSize);
+                    String line;
+                    while (lines.size() < chunkSize && (line = reader.readLine()) != null) {
+                        lines.add(line);
+                    }
+                    endOfFile = lines.size() < chunkSize;
+                    if (!lines.isEmpty()) {
+                        long firstLine = nextLine;
+                        pending.add(parsers.submit(() -> parseChunk(firstLine, lines, columns, parser)));
+                        nextLine += lines.size();
+                    }
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+
+                ParsedChunk<T> chunk = pending.poll().get();
+                int chunkInserted = writer.write(source, fileSize, chunk.linesDone, chunk.rows);
+                for (String reject : chunk.rejects) {
+                    rejects.write(reject);
+                    rejects.newLine();
+                }
+                rejects.flush();
+
+                inserted += chunkInserted;
+                skipped += chunk.rows.size() - chunkInserted;
+                rejected += chunk.rejects.size();
+                System.out.println("Committed up to line " + (chunk.linesDone + 1) + ": "
+                        + inserted + " inserted, " + skipped + " already present, " + rejected + " rejected");
+            }
+        } finally {
+            parsers.shutdownNow();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Imported " + file + " in " + elapsedMillis + " ms: " + inserted + " inserted, "
+                + skipped + " already present, " + rejected + " rejected"
+                + (rejected > 0 ? " (see " + rejectsFile + ")" : ""));
+    }
+
+    /**
+     * Parses and validates the lines of a chunk. Runs on a parser thread.
+     */
+    private <T> ParsedChunk<T> parseChunk(long firstLine, List<String> lines, Map<String, Integer> columns,
+                                          RowParser<T> parser) throws SQLException {
+        ParsedChunk<T> chunk = new ParsedChunk<>(firstLine + lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            // Data lines are numbered after the header line
+            long lineNumber = firstLine + i + 2;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunk.rows.add(parser.parse(new Row(splitCsvLine(line), columns)));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                chunk.rejects.add("line " + lineNumber + ": " + e.getMessage() + ": " + line);
+            }
+        }
+        return chunk;
+    }
+
+    private BulkImportDAO.MissionImport parseMission(Row row) throws SQLException {
+        Mission mission = new Mission();
+        mission.setMatricolaVelivolo(requireAircraft(row.required("MatricolaVelivolo")));
+        mission.setDataMissione(Date.valueOf(LocalDate.parse(row.required("DataMissione"))));
+        mission.setNumeroVolo(row.requiredInt("NumeroVolo"));
+        mission.setOraPartenza(parseTime(row.optional("OraPartenza")));
+        mission.setOraArrivo(parseTime(row.optional("OraArrivo")));
+
+        List<MissionPosition> loadout = new ArrayList<>();
+        for (int i = 1; i <= POSITIONS; i++) {
+            String launcher = requireLauncher(row.optional("PartNumberLanciatoreP" + i));
+            String missile = requireWeapon(row.optional("PartNumberMissileP" + i));
+            if (missile != null && launcher == null) {
+                throw new IllegalArgumentException("a missile needs a launcher at the same position (P" + i + ")");
+            }
+            if (launcher != null) {
+                loadout.add(new MissionPosition("P" + i, launcher, missile));
+            }
+            // Views still read P1 and P13 from the fixed columns
+            if (i == 1) {
+                mission.setLauncherPN1(launcher);
+                mission.setMissilePN1(missile);
+            } else if (i == POSITIONS) {
+                mission.setLauncherPN13(launcher);
+                mission.setMissilePN13(missile);
+            }
+        }
+        return new BulkImportDAO.MissionImport(mission, loadout);
+    }
+
+    private RecordedData parseRecordedData(Row row) throws SQLException {
+        RecordedData recordedData = new RecordedData();
+        recordedData.setMatricolaVelivolo(requireAircraft(row.required("MatricolaVelivolo")));
+        recordedData.setNumeroVolo(row.requiredInt("NumeroVolo"));
+        recordedData.setGloadMax(new BigDecimal(row.required("GloadMax")));
+        recordedData.setGloadMin(new BigDecimal(row.required("GloadMin")));
+        recordedData.setQuotaMedia(row.requiredInt("QuotaMedia"));
+        recordedData.setVelocitaMassima(row.requiredInt("VelocitaMassima"));
+        recordedData.setStatoMissili(row.optional("StatoMissili"));
+        recordedData.setStatoElaborato(Boolean.parseBoolean(row.optional("StatoElaborato")));
+        if (recordedData.getGloadMin().compareTo(recordedData.getGloadMax()) > 0) {
+            throw new IllegalArgumentException("GloadMin is greater than GloadMax");
+        }
+        return recordedData;
+    }
+
+    /**
+     * Checks that an aircraft exists, ignoring case as MySQL does.
+     *
+     * @return The serial number as stored in the registry
+     */
+    private String requireAircraft(String matricolaVelivolo) throws SQLException {
+        Aircraft aircraft = referenceData.getAircraft(matricolaVelivolo);
+        if (aircraft == null) {
+            throw new IllegalArgumentException("unknown aircraft " + matricolaVelivolo);
+        }
+        return aircraft.getMatricolaVelivolo();
+    }
+
+    private String requireLauncher(String partNumber) throws SQLException {
+        if (partNumber == null) {
+            return null;
+        }
+        Launcher launcher = referenceData.getLauncher(partNumber);
+        if (launcher == null) {
+            throw new IllegalArgumentException("unknown launcher " + partNumber);
+        }
+        return launcher.getPartNumber();
+    }
+
+    private String requireWeapon(String partNumber) throws SQLException {
+        if (partNumber == null) {
+            return null;
+        }
+        Weapon weapon = referenceData.getWeapon(partNumber);
+        if (weapon == null) {
+            throw new IllegalArgumentException("unknown missile " + partNumber);
+        }
+        return weapon.getPartNumber();
+    }
+
+    private static Time parseTime(String value) {
+        return value != null ? Time.valueOf(LocalTime.parse(value)) : null;
+    }
+
+    private static String sourceOf(String type, File file) throws IOException {
+        String source = type + ":" + file.getCanonicalPath();
+        // Source is a VARCHAR(255) key
+        return source.length() <= 255 ? source
+                : type + ":" + Integer.toHexString(source.hashCode()) + ":" + source.substring(source.length() - 200);
+    }
+
+    private static Map<String, Integer> columnsOf(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        return columns;
+    }
+
+    /**
+     * Splits a CSV line into fields. Fields may be enclosed in double quotes, with
+     * quotes inside them doubled.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * The fields of a CSV line, looked up by column name.
+     */
+    private static class Row {
+        private final List<String> fields;
+        private final Map<String, Integer> columns;
+
+        private Row(List<String> fields, Map<String, Integer> columns) {
+            this.fields = fields;
+            this.columns = columns;
+        }
+
+        private String optional(String column) {
+            Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private String required(String column) {
+            String value = optional(column);
+            if (value == null) {
+                throw new IllegalArgumentException(column + " is required");
+            }
+            return value;
+        }
+
+        private int requiredInt(String column) {
+            String value = required(column);
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " must be an integer: " + value);
+            }
+        }
+    }
+
+    /**
+     * The valid rows and the rejected lines of a chunk.
+     */
+    private static class ParsedChunk<T> {
+        private final long linesDone;
+        private final List<T> rows = new ArrayList<>();
+        private final List<String> rejects = new ArrayList<>();
+
+        private ParsedChunk(long linesDone) {
+            this.linesDone = linesDone;
+        }
+    }
+
+    /**
+     * Parses and validates a CSV line; throws IllegalArgumentException if it is invalid.
+     */
+    private interface RowParser<T> {
+        T parse(Row row) throws SQLException;
+    }
+
+    /**
+     * Writes a chunk of rows and its checkpoint, see {@link BulkImportDAO}.
+     */
+    private interface ChunkWriter<T> {
+        int write(String source, long fileSize, long linesDone, List<T> rows) throws SQLException;
+    }
+}
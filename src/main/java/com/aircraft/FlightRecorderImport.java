@@ -0,0 +1,249 @@
+package com.aircraft;
+
+import com.aircraft.config.AppConfig;
+import com.aircraft.dao.DaoExecutor;
+import com.aircraft.dao.RecordedDataDAO;
+import com.aircraft.dao.ReferenceDataCache;
+import com.aircraft.model.RecordedData;
+import com.aircraft.util.DBUtil;
+import com.aircraft.util.FlightAggregates;
+import com.aircraft.util.FlightRecorderFile;
+import com.aircraft.util.FlightSampleStore;
+import com.aircraft.util.FlightSampleWriter;
+import com.aircraft.util.QueryMetrics;
+import com.aircraft.util.SlowQueryLog;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command line ingestion of raw flight recorder files into dati_registrati.
+ *
+ * <pre>
+ * FlightRecorderImport &lt;file.clfr|directory&gt;...
+ * </pre>
+ *
+ * Each file (see {@link FlightRecorderFile} for the format) is scanned once
+ * through a memory mapping to compute the flight's aggregates, on
+ * ingest.threads threads. The resulting rows are inserted in batches of
+ * ingest.batchSize. In the same pass the raw samples are written to the
+ * {@link FlightSampleStore} (ingest.storeSamples). Flights that already have
+ * recorded data and stored samples, or whose aircraft is unknown, are skipped,
+ * so a directory can be ingested again after a failure.
+ */
+public class FlightRecorderImport {
+
+    private final RecordedDataDAO recordedDataDAO = new RecordedDataDAO();
+    private final ReferenceDataCache referenceData = ReferenceDataCache.getInstance();
+    private final int threads;
+    private final int batchSize;
+    private final boolean storeSamples;
+    private final FlightSampleStore sampleStore = FlightSampleStore.getInstance();
+
+    private FlightRecorderImport(AppConfig config) {
+        int configuredThreads = config.getInt("ingest.threads", 0);
+        this.threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        this.batchSize = Math.max(1, config.getInt("ingest.batchSize", 50));
+        this.storeSamples = config.getBoolean("ingest.storeSamples", true);
+    }
+
+    /**
+     * Runs an ingestion.
+     *
+     * @param args The flight recorder files, or directories whose .clfr files are ingested
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: FlightRecorderImport <file.clfr|directory>...");
+            System.exit(2);
+        }
+
+        int status = 0;
+        try {
+            List<Path> files = listFiles(args);
+            if (!new FlightRecorderImport(AppConfig.getInstance()).run(files)) {
+                status = 1;
+            }
+        } catch (Exception e) {
+            System.err.println("Ingestion failed: " + e.getMessage());
+            e.printStackTrace();
+            status = 1;
+        } finally {
+            QueryMetrics.getInstance().shutdown();
+            SlowQueryLog.getInstance().shutdown();
+            DaoExecutor.shutdown();
+            DBUtil.shutdown();
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Ingests files.
+     *
+     * @return true if every file was ingested or skipped, false if some could not be read
+     */
+    private boolean run(List<Path> files) throws InterruptedException, SQLException {
+        long start = System.nanoTime();
+        ExecutorService scanners = Executors.newFixedThreadPool(threads);
+        int inserted = 0;
+        int skipped = 0;
+        int failed = 0;
+        long samples = 0;
+        long bytes = 0;
+        List<RecordedData> batch = new ArrayList<>(batchSize);
+        List<Path> scannedFiles = new ArrayList<>();
+        List<Future<FileResult>> results = new ArrayList<>();
+        try {
+            // Two files of the same flight would write the same segment, so only the first one is scanned
+            Set<String> flights = new HashSet<>();
+            for (Path file : files) {
+                String flight;
+                try (FlightRecorderFile recorderFile = FlightRecorderFile.open(file)) {
+                    flight = recorderFile.getMatricolaVelivolo().toLowerCase(Locale.ROOT) + "/" + recorderFile.getNumeroVolo();
+                } catch (IOException e) {
+                    System.err.println("Error reading " + file + ": " + e.getMessage());
+                    failed++;
+                    continue;
+                }
+                if (!flights.add(flight)) {
+                    System.out.println("Skipping " + file + ": flight already ingested from another file");
+                    skipped++;
+                    continue;
+                }
+                scannedFiles.add(file);
+                results.add(scanners.submit(() -> scan(file)));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                FileResult result;
+                try {
+                    result = results.get(i).get();
+                } catch (ExecutionException e) {
+                    System.err.println("Error reading " + scannedFiles.get(i) + ": " + e.getCause().getMessage());
+                    failed++;
+                    continue;
+                }
+                samples += result.samples;
+                bytes += result.bytes;
+                if (result.recordedData == null) {
+                    skipped++;
+                    continue;
+                }
+                RecordedData recordedData = result.recordedData;
+
+                batch.add(recordedData);
+                if (batch.size() == batchSize) {
+                    recordedDataDAO.insertBatch(batch);
+                    inserted += batch.size();
+                    batch.clear();
+                }
+            }
+            recordedDataDAO.insertBatch(batch);
+            inserted += batch.size();
+        } finally {
+            scanners.shutdownNow();
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Ingested " + files.size() + " files (" + (bytes >> 20) + " MB, " + samples + " samples) in "
+                + elapsedMillis + " ms: " + inserted + " inserted, " + skipped + " skipped, " + failed + " failed");
+        return failed == 0;
+    }
+
+    /**
+     * Computes the aggregates of a file. Runs on a scanner thread.
+     *
+     * @return The result; its recorded data is null if the file is skipped
+     */
+    private FileResult scan(Path file) throws IOException, SQLException {
+        try (FlightRecorderFile recorderFile = FlightRecorderFile.open(file)) {
+            String matricolaVelivolo = recorderFile.getMatricolaVelivolo();
+            int numeroVolo = recorderFile.getNumeroVolo();
+            FileResult result = new FileResult(Files.size(file));
+
+            if (referenceData.getAircraft(matricolaVelivolo) == null) {
+                System.out.println("Skipping " + file + ": unknown aircraft " + matricolaVelivolo);
+                return result;
+            }
+            // Checked before scanning, so ingesting a directory again only reads the new files
+            boolean needsRecordedData = recordedDataDAO.getByFlightNumber(matricolaVelivolo, numeroVolo) == null;
+            boolean needsSamples = storeSamples && !sampleStore.contains(matricolaVelivolo, numeroVolo);
+            if (!needsRecordedData && !needsSamples) {
+                System.out.println("Skipping " + file + ": flight " + numeroVolo + " of " + matricolaVelivolo
+                        + " already has recorded data");
+                return result;
+            }
+
+            FlightAggregates aggregates = new FlightAggregates();
+            if (needsSamples) {
+                try (FlightSampleWriter writer = sampleStore.create(matricolaVelivolo, numeroVolo, recorderFile.getStartMillis())) {
+                    // One pass feeds both the aggregates and the sample store
+                    recorderFile.scan((timeMillis, gLoad, altitude, speed) -> {
+                        aggregates.sample(timeMillis, gLoad, altitude, speed);
+                        writer.sample(timeMillis, gLoad, altitude, speed);
+                    });
+                    writer.commit();
+                }
+            } else {
+                recorderFile.scan(aggregates);
+            }
+            result.samples = aggregates.getSamples();
+            if (!needsRecordedData) {
+                return result;
+            }
+            if (!aggregates.hasGLoad()) {
+                System.out.println("Skipping " + file + ": no G-load samples");
+                return result;
+            }
+            result.recordedData = aggregates.toRecordedData(matricolaVelivolo, numeroVolo);
+            return result;
+        }
+    }
+
+    private static List<Path> listFiles(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (!Files.isDirectory(path)) {
+                files.add(path);
+                continue;
+            }
+            List<Path> directoryFiles = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*" + FlightRecorderFile.EXTENSION)) {
+                for (Path file : stream) {
+                    directoryFiles.add(file);
+                }
+            }
+            Collections.sort(directoryFiles);
+            files.addAll(directoryFiles);
+        }
+        return files;
+    }
+
+    /**
+     * The outcome of scanning one file.
+     */
+    private static class FileResult {
+        private final long bytes;
+        private long samples;
+        private RecordedData recordedData;
+
+        private FileResult(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
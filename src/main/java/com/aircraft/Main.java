@@ -1,7 +1,17 @@
 package com.aircraft;
 
+import com.aircraft.config.DBConfig;
+import com.aircraft.dao.DaoExecutor;
+import com.aircraft.dao.ExistenceFilter;
+import com.aircraft.dao.LauncherLifeDAO;
+import com.aircraft.dao.SchemaMigration;
+import com.aircraft.util.AlertUtils;
+import com.aircraft.util.DBUtil;
 import com.aircraft.util.FXMLUtils;
+import com.aircraft.util.QueryMetrics;
+import com.aircraft.util.SlowQueryLog;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
@@ -17,6 +27,23 @@ public class Main extends Application {
 
     @Override
     public void start(Stage primaryStage) throws IOException {
+        // Fail fast on an invalid configuration instead of on the first query
+        try {
+            DBConfig.getInstance();
+        } catch (IllegalStateException e) {
+            System.err.println("Configuration error: " + e.getMessage());
+            AlertUtils.showError(null, "Configuration Error", e.getMessage());
+            Platform.exit();
+            return;
+        }
+
+        // Create the tables the application maintains before anything reads them
+        SchemaMigration.migrate();
+
+        // Build the existence filters while the user logs in
+        ExistenceFilter.warmUpAll();
+        LauncherLifeDAO.startReconcileJob();
+
         // Load the login screen with dimensions to accommodate the floating card design
         Scene scene = new Scene(FXMLUtils.loadFXML("login"), 900, 700);
 
@@ -52,6 +79,23 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    /**
+     * Releases application resources when the window is closed.
+     */
+    @Override
+    public void stop() {
+        // Write the final query report before the pool statistics are lost
+        QueryMetrics.getInstance().shutdown();
+        SlowQueryLog.getInstance().shutdown();
+
+        // Stop asynchronous DAO calls before their connections are closed
+        LauncherLifeDAO.stopReconcileJob();
+        DaoExecutor.shutdown();
+
+        // Close pooled database connections
+        DBUtil.shutdown();
+    }
+
     /**
      * Main method that launches the JavaFX application.
      * @param args Command line arguments
@@ -0,0 +1,266 @@
+package com.aircraft.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Application settings loaded from layered property sources.
+ * Values are resolved from the built-in defaults, the selected profile
+ * (workstation, wan or batch), an external properties file, environment
+ * variables and system properties, each overriding the previous one.
+ * See config/clims-defaults.properties for the available keys.
+ */
+public class AppConfig {
+    private static final String DEFAULTS_RESOURCE = "/config/clims-defaults.properties";
+    private static final String PROFILE_RESOURCE = "/config/profile-%s.properties";
+    private static final String EXTERNAL_FILE_NAME = "clims.properties";
+    private static final String SYSTEM_PROPERTY_PREFIX = "clims.";
+    private static final String ENV_PREFIX = "CLIMS_";
+
+    // Singleton instance
+    private static AppConfig instance;
+
+    private final Properties properties;
+    private final String profile;
+    private final String externalSource;
+
+    private AppConfig(Properties properties, String profile, String externalSource) {
+        this.properties = properties;
+        this.profile = profile;
+        this.externalSource = externalSource;
+    }
+
+    /**
+     * Gets the singleton instance of the AppConfig, loading it on first use.
+     *
+     * @return The AppConfig instance
+     */
+    public static synchronized AppConfig getInstance() {
+        if (instance == null) {
+            instance = load();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the name of the active profile.
+     *
+     * @return The profile name
+     */
+    public String getProfile() {
+        return profile;
+    }
+
+    /**
+     * Gets the external file the settings were read from.
+     *
+     * @return The path of the external file, or null if none was found
+     */
+    public String getExternalSource() {
+        return externalSource;
+    }
+
+    /**
+     * Gets a string setting.
+     *
+     * @param key The setting key
+     * @param defaultValue The value returned if the key is not set
+     * @return The trimmed value or the default value
+     */
+    public String getString(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    /**
+     * Gets an integer setting.
+     *
+     * @param key The setting key
+     * @param defaultValue The value returned if the key is not set
+     * @return The parsed value or the default value
+     * @throws IllegalStateException If the value is not a valid integer
+     */
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Setting " + key + " must be an integer but was '" + value + "'");
+        }
+    }
+
+    /**
+     * Gets a long setting.
+     *
+     * @param key The setting key
+     * @param defaultValue The value returned if the key is not set
+     * @return The parsed value or the default value
+     * @throws IllegalStateException If the value is not a valid number
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Setting " + key + " must be a number but was '" + value + "'");
+        }
+    }
+
+    /**
+     * Gets a decimal setting.
+     *
+     * @param key The setting key
+     * @param defaultValue The value returned if the key is not set
+     * @return The parsed value or the default value
+     * @throws IllegalStateException If the value is not a valid number
+     */
+    public double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Setting " + key + " must be a number but was '" + value + "'");
+        }
+    }
+
+    /**
+     * Gets a boolean setting.
+     *
+     * @param key The setting key
+     * @param defaultValue The value returned if the key is not set
+     * @return The parsed value or the default value
+     * @throws IllegalStateException If the value is not true or false
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        throw new IllegalStateException("Setting " + key + " must be true or false but was '" + value + "'");
+    }
+
+    /**
+     * Loads the settings from all sources.
+     */
+    private static AppConfig load() {
+        Properties merged = new Properties();
+        readResource(merged, DEFAULTS_RESOURCE, true);
+
+        // The external file is read first so that it can select the profile
+        Properties external = new Properties();
+        Path externalFile = findExternalFile();
+        if (externalFile != null) {
+            try (Reader reader = Files.newBufferedReader(externalFile, StandardCharsets.UTF_8)) {
+                external.load(reader);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read configuration file " + externalFile + ": " + e.getMessage(), e);
+            }
+        }
+
+        String profile = firstNonEmpty(
+                System.getProperty(SYSTEM_PROPERTY_PREFIX + "profile"),
+                System.getenv(ENV_PREFIX + "PROFILE"),
+                external.getProperty("profile"),
+                merged.getProperty("profile"),
+                "workstation").trim().toLowerCase(Locale.ROOT);
+
+        if (!readResource(merged, String.format(PROFILE_RESOURCE, profile), false)) {
+            throw new IllegalStateException("Unknown configuration profile: " + profile);
+        }
+
+        merged.putAll(external);
+
+        // Environment variables and system properties override any known key
+        for (String key : merged.stringPropertyNames()) {
+            String envValue = System.getenv(ENV_PREFIX + key.toUpperCase(Locale.ROOT).replace('.', '_'));
+            if (envValue != null) {
+                merged.setProperty(key, envValue);
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(SYSTEM_PROPERTY_PREFIX)) {
+                merged.setProperty(name.substring(SYSTEM_PROPERTY_PREFIX.length()), System.getProperty(name));
+            }
+        }
+        merged.setProperty("profile", profile);
+
+        System.out.println("Loaded configuration profile '" + profile + "'" +
+                (externalFile != null ? " with overrides from " + externalFile : ""));
+
+        return new AppConfig(merged, profile, externalFile != null ? externalFile.toString() : null);
+    }
+
+    /**
+     * Locates the external configuration file, if any.
+     */
+    private static Path findExternalFile() {
+        String explicit = firstNonEmpty(
+                System.getProperty(SYSTEM_PROPERTY_PREFIX + "config"),
+                System.getenv(ENV_PREFIX + "CONFIG"));
+        if (explicit != null) {
+            Path path = Paths.get(explicit);
+            if (!Files.isReadable(path)) {
+                throw new IllegalStateException("Configuration file not found: " + path.toAbsolutePath());
+            }
+            return path;
+        }
+
+        Path workingDir = Paths.get(EXTERNAL_FILE_NAME);
+        if (Files.isReadable(workingDir)) {
+            return workingDir;
+        }
+
+        Path userHome = Paths.get(System.getProperty("user.home"), ".clims", EXTERNAL_FILE_NAME);
+        if (Files.isReadable(userHome)) {
+            return userHome;
+        }
+
+        return null;
+    }
+
+    private static boolean readResource(Properties target, String resource, boolean required) {
+        try (InputStream in = AppConfig.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                if (required) {
+                    throw new IllegalStateException("Missing configuration resource " + resource);
+                }
+                return false;
+            }
+            target.load(in);
+            return true;
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read configuration resource " + resource, e);
+        }
+    }
+
+    private static String firstNonEmpty(String... values) {
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
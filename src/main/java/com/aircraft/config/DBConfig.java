@@ -1,18 +1,248 @@
 package com.aircraft.config;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 /**
  * Configuration class for database connection parameters.
+ * Values come from {@link AppConfig} (keys starting with "db.") and are
+ * validated once when the configuration is first loaded.
  */
 public class DBConfig {
-    // JDBC URL for MySQL database connection
-    public static final String JDBC_URL = "jdbc:mysql://localhost:3306/manutenzione_am?useSSL=false&serverTimezone=UTC";
+    // Singleton instance
+    private static DBConfig instance;
+
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final String driverClass;
+
+    // Connector/J performance properties
+    private final boolean cachePrepStmts;
+    private final int prepStmtCacheSize;
+    private final int prepStmtCacheSqlLimit;
+    private final boolean useServerPrepStmts;
+    private final boolean rewriteBatchedStatements;
+    private final boolean useCompression;
+    private final int connectTimeoutMs;
+    private final int socketTimeoutMs;
+    private final int queryTimeoutSeconds;
+
+    // Connection pool
+    private final int poolMaxSize;
+    private final int poolMinIdle;
+    private final long poolBorrowTimeoutMs;
+    private final long poolIdleTimeoutMs;
+    private final long poolMaxLifetimeMs;
+    private final int poolValidationTimeoutSeconds;
+    private final long poolHousekeepingIntervalMs;
+
+    private DBConfig(AppConfig config) {
+        jdbcUrl = config.getString("db.url", "");
+        username = config.getString("db.username", "");
+        password = config.getString("db.password", "");
+        driverClass = config.getString("db.driverClass", "com.mysql.cj.jdbc.Driver");
+
+        cachePrepStmts = config.getBoolean("db.cachePrepStmts", true);
+        prepStmtCacheSize = config.getInt("db.prepStmtCacheSize", 250);
+        prepStmtCacheSqlLimit = config.getInt("db.prepStmtCacheSqlLimit", 2048);
+        useServerPrepStmts = config.getBoolean("db.useServerPrepStmts", false);
+        rewriteBatchedStatements = config.getBoolean("db.rewriteBatchedStatements", true);
+        useCompression = config.getBoolean("db.useCompression", false);
+        connectTimeoutMs = config.getInt("db.connectTimeoutMs", 10_000);
+        socketTimeoutMs = config.getInt("db.socketTimeoutMs", 30_000);
+        queryTimeoutSeconds = config.getInt("db.queryTimeoutSeconds", 30);
+
+        poolMaxSize = config.getInt("db.pool.maxSize", 10);
+        poolMinIdle = config.getInt("db.pool.minIdle", 2);
+        poolBorrowTimeoutMs = config.getLong("db.pool.borrowTimeoutMs", 30_000);
+        poolIdleTimeoutMs = config.getLong("db.pool.idleTimeoutMs", 600_000);
+        poolMaxLifetimeMs = config.getLong("db.pool.maxLifetimeMs", 1_800_000);
+        poolValidationTimeoutSeconds = config.getInt("db.pool.validationTimeoutSeconds", 2);
+        poolHousekeepingIntervalMs = config.getLong("db.pool.housekeepingIntervalMs", 30_000);
+    }
+
+    /**
+     * Gets the singleton instance of the DBConfig, loading and validating it on first use.
+     *
+     * @return The DBConfig instance
+     * @throws IllegalStateException If the configuration is invalid
+     */
+    public static synchronized DBConfig getInstance() {
+        if (instance == null) {
+            DBConfig config = new DBConfig(AppConfig.getInstance());
+            config.validate();
+            instance = config;
+        }
+        return instance;
+    }
+
+    /**
+     * Checks that all settings are present and within range.
+     *
+     * @throws IllegalStateException Listing every invalid setting
+     */
+    private void validate() {
+        List<String> errors = new ArrayList<>();
+
+        if (!jdbcUrl.startsWith("jdbc:")) {
+            errors.add("db.url must be a JDBC URL");
+        }
+        if (username.isEmpty()) {
+            errors.add("db.username is required");
+        }
+        if (driverClass.isEmpty()) {
+            errors.add("db.driverClass is required");
+        }
+        if (prepStmtCacheSize < 0) {
+            errors.add("db.prepStmtCacheSize must not be negative");
+        }
+        if (prepStmtCacheSqlLimit < 0) {
+            errors.add("db.prepStmtCacheSqlLimit must not be negative");
+        }
+        if (connectTimeoutMs < 0) {
+            errors.add("db.connectTimeoutMs must not be negative");
+        }
+        if (socketTimeoutMs < 0) {
+            errors.add("db.socketTimeoutMs must not be negative");
+        }
+        if (queryTimeoutSeconds < 0) {
+            errors.add("db.queryTimeoutSeconds must not be negative");
+        }
+        if (poolMaxSize < 1) {
+            errors.add("db.pool.maxSize must be at least 1");
+        }
+        if (poolMinIdle < 0 || poolMinIdle > poolMaxSize) {
+            errors.add("db.pool.minIdle must be between 0 and db.pool.maxSize");
+        }
+        if (poolBorrowTimeoutMs < 1) {
+            errors.add("db.pool.borrowTimeoutMs must be positive");
+        }
+        if (poolIdleTimeoutMs < 0) {
+            errors.add("db.pool.idleTimeoutMs must not be negative");
+        }
+        if (poolMaxLifetimeMs < 0) {
+            errors.add("db.pool.maxLifetimeMs must not be negative");
+        }
+        if (poolValidationTimeoutSeconds < 1) {
+            errors.add("db.pool.validationTimeoutSeconds must be at least 1");
+        }
+        if (poolHousekeepingIntervalMs < 1000) {
+            errors.add("db.pool.housekeepingIntervalMs must be at least 1000");
+        }
+        if (socketTimeoutMs > 0 && queryTimeoutSeconds * 1000L > socketTimeoutMs) {
+            errors.add("db.queryTimeoutSeconds must be shorter than db.socketTimeoutMs");
+        }
+
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Invalid database configuration:\n - " + String.join("\n - ", errors));
+        }
+    }
+
+    /**
+     * Builds the driver properties passed when opening a connection,
+     * including credentials and Connector/J tuning properties.
+     *
+     * @return A new Properties object
+     */
+    public Properties toConnectionProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        properties.setProperty("password", password);
+        properties.setProperty("cachePrepStmts", String.valueOf(cachePrepStmts));
+        properties.setProperty("prepStmtCacheSize", String.valueOf(prepStmtCacheSize));
+        properties.setProperty("prepStmtCacheSqlLimit", String.valueOf(prepStmtCacheSqlLimit));
+        properties.setProperty("useServerPrepStmts", String.valueOf(useServerPrepStmts));
+        properties.setProperty("rewriteBatchedStatements", String.valueOf(rewriteBatchedStatements));
+        properties.setProperty("useCompression", String.valueOf(useCompression));
+        properties.setProperty("connectTimeout", String.valueOf(connectTimeoutMs));
+        properties.setProperty("socketTimeout", String.valueOf(socketTimeoutMs));
+        return properties;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getDriverClass() {
+        return driverClass;
+    }
+
+    public boolean isCachePrepStmts() {
+        return cachePrepStmts;
+    }
+
+    public int getPrepStmtCacheSize() {
+        return prepStmtCacheSize;
+    }
+
+    public boolean isUseServerPrepStmts() {
+        return useServerPrepStmts;
+    }
+
+    public boolean isRewriteBatchedStatements() {
+        return rewriteBatchedStatements;
+    }
+
+    public boolean isUseCompression() {
+        return useCompression;
+    }
+
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public int getSocketTimeoutMs() {
+        return socketTimeoutMs;
+    }
+
+    public int getQueryTimeoutSeconds() {
+        return queryTimeoutSeconds;
+    }
+
+    public int getPoolMaxSize() {
+        return poolMaxSize;
+    }
+
+    public int getPoolMinIdle() {
+        return poolMinIdle;
+    }
+
+    public long getPoolBorrowTimeoutMs() {
+        return poolBorrowTimeoutMs;
+    }
+
+    public long getPoolIdleTimeoutMs() {
+        return poolIdleTimeoutMs;
+    }
+
+    public long getPoolMaxLifetimeMs() {
+        return poolMaxLifetimeMs;
+    }
 
-    // Database username - replace with your MySQL username if not root
-    public static final String USERNAME = "root";
+    public int getPoolValidationTimeoutSeconds() {
+        return poolValidationTimeoutSeconds;
+    }
 
-    // Database password - replace with your MySQL password
-    public static final String PASSWORD = "100K";
+    public long getPoolHousekeepingIntervalMs() {
+        return poolHousekeepingIntervalMs;
+    }
 
-    // JDBC driver class name
-    public static final String DRIVER_CLASS = "com.mysql.cj.jdbc.Driver";
-}
\ No newline at end of file
+    @Override
+    public String toString() {
+        // Password intentionally omitted
+        return "DBConfig[url=" + jdbcUrl +
+                ", user=" + username +
+                ", pool=" + poolMinIdle + ".." + poolMaxSize +
+                ", queryTimeout=" + queryTimeoutSeconds + "s" +
+                ", socketTimeout=" + socketTimeoutMs + "ms" +
+                ", compression=" + useCompression +
+                ", serverPrepStmts=" + useServerPrepStmts +
+                ", stmtCache=" + (cachePrepStmts ? prepStmtCacheSize : 0) + "]";
+    }
+}
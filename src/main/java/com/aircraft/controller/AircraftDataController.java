@@ -3,6 +3,7 @@ package com.aircraft.controller;
  import com.aircraft.dao.AircraftDAO;
  import com.aircraft.model.Aircraft;
  import com.aircraft.util.AlertUtils;
+ import com.aircraft.util.BackgroundLoader;
  import javafx.collections.FXCollections;
  import javafx.collections.ObservableList;
  import javafx.event.ActionEvent;
@@ -12,8 +13,6 @@ package com.aircraft.controller;
  import javafx.scene.layout.VBox;
  import javafx.stage.Window;
 
- import java.util.List;
-
  /**
   * Controller for the Aircraft Data management screen.
   * Handles creating, updating, and deleting aircraft records.
@@ -30,6 +29,8 @@ package com.aircraft.controller;
      @FXML private TableView<Aircraft> aircraftTable;
      @FXML private TableColumn<Aircraft, String> registrationColumn;
 
+     private static final String DUPLICATE_AIRCRAFT_MESSAGE = "Aircraft with this Matricola already exists";
+
      private final AircraftDAO aircraftDAO = new AircraftDAO();
      private ObservableList<Aircraft> aircraftList = FXCollections.observableArrayList();
      private Aircraft selectedAircraft = null;
@@ -94,10 +95,11 @@ package com.aircraft.controller;
       * Refreshes the aircraft table with data from the database.
       */
      private void refreshAircraftTable() {
-         List<Aircraft> aircraft = aircraftDAO.getAll();
-         aircraftList.clear();
-         aircraftList.addAll(aircraft);
-         aircraftTable.setItems(aircraftList);
+         BackgroundLoader.load(aircraftTable, "Load Error", aircraftDAO::getAll, aircraft -> {
+             aircraftList.clear();
+             aircraftList.addAll(aircraft);
+             aircraftTable.setItems(aircraftList);
+         });
      }
 
      /**
@@ -125,30 +127,33 @@ package com.aircraft.controller;
 
          aircraft.setMatricolaVelivolo(registrationField.getText());
 
-         // Save aircraft
-         boolean success;
-         if (selectedAircraft == null) {
-             // Check if aircraft already exists
-             if (aircraftDAO.exists(aircraft.getMatricolaVelivolo())) {
-                 AlertUtils.showError(owner, "Validation Error", "Aircraft with this Matricola already exists");
-                 return;
+         // Save aircraft in the background; the result is an error message or null on success
+         boolean isNew = selectedAircraft == null;
+         BackgroundLoader.load(saveButton, "Save Error", () -> {
+             if (isNew) {
+                 // Check if aircraft already exists
+                 if (aircraftDAO.exists(aircraft.getMatricolaVelivolo())) {
+                     return DUPLICATE_AIRCRAFT_MESSAGE;
+                 }
+                 // Another workstation may have registered it since the check
+                 return aircraftDAO.insertIfAbsent(aircraft) ? null : DUPLICATE_AIRCRAFT_MESSAGE;
              }
-             success = aircraftDAO.insert(aircraft);
-         } else {
-             success = aircraftDAO.update(aircraft);
-         }
-
-         if (success) {
-             AlertUtils.showInformation(owner, "Success", "Aircraft saved successfully");
-             clearForm();
-             selectedAircraft = null;
-             refreshAircraftTable();
-
-             // Return to main screen after saving
-             onBackButtonClick(event);
-         } else {
-             AlertUtils.showError(owner, "Error", "Failed to save aircraft");
-         }
+             return aircraftDAO.update(aircraft) ? null : "Failed to save aircraft";
+         }, error -> {
+             if (error == null) {
+                 AlertUtils.showInformation(owner, "Success", "Aircraft saved successfully");
+                 clearForm();
+                 selectedAircraft = null;
+                 refreshAircraftTable();
+
+                 // Return to main screen after saving
+                 onBackButtonClick(event);
+             } else if (DUPLICATE_AIRCRAFT_MESSAGE.equals(error)) {
+                 AlertUtils.showError(owner, "Validation Error", error);
+             } else {
+                 AlertUtils.showError(owner, "Error", error);
+             }
+         });
      }
 
      /**
@@ -205,14 +210,15 @@ package com.aircraft.controller;
              );
 
              if (confirmed) {
-                 boolean success = aircraftDAO.delete(aircraft.getMatricolaVelivolo());
-
-                 if (success) {
-                     AlertUtils.showInformation(owner, "Success", "Aircraft deleted successfully");
-                     refreshAircraftTable();
-                 } else {
-                     AlertUtils.showError(owner, "Error", "Failed to delete aircraft");
-                 }
+                 BackgroundLoader.load(aircraftTable, "Delete Error",
+                         () -> aircraftDAO.delete(aircraft.getMatricolaVelivolo()), success -> {
+                     if (success) {
+                         AlertUtils.showInformation(owner, "Success", "Aircraft deleted successfully");
+                         refreshAircraftTable();
+                     } else {
+                         AlertUtils.showError(owner, "Error", "Failed to delete aircraft");
+                     }
+                 });
              }
          }
      }
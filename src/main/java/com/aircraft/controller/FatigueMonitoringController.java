@@ -1,10 +1,14 @@
 package com.aircraft.controller;
 
 import com.aircraft.dao.LauncherDAO;
+import com.aircraft.dao.LoadScope;
 import com.aircraft.model.Launcher;
 import com.aircraft.model.LauncherMission;
 import com.aircraft.model.LauncherStatus;
 import com.aircraft.util.AlertUtils;
+import com.aircraft.util.BackgroundLoader;
+import com.aircraft.util.FatigueEngine;
+import com.aircraft.util.LatestLoad;
 import com.aircraft.util.PDFGenerator;
 import com.aircraft.util.SessionManager;
 import javafx.collections.FXCollections;
@@ -25,6 +29,7 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 import java.util.ArrayList;
+import java.util.Collections;
 
 import java.io.File;
 import java.text.DecimalFormat;
@@ -105,6 +110,7 @@ public class FatigueMonitoringController {
     private Button expandGraphButton;
 
     private final LauncherDAO launcherDAO = new LauncherDAO();
+    private final LatestLoad launcherLoad = new LatestLoad();
     private LauncherStatus currentLauncherStatus = null;
     private ObservableList<LauncherMission> missionList = FXCollections.observableList(FXCollections.observableArrayList());
     private LineChart<Number, Number> currentChart; // Store the current chart instance
@@ -168,6 +174,15 @@ public class FatigueMonitoringController {
         missionAircraftColumn.setCellValueFactory(new PropertyValueFactory<>("aircraft"));
         missionFlightTimeColumn.setCellValueFactory(new PropertyValueFactory<>("flightTime"));
         missionDamageColumn.setCellValueFactory(new PropertyValueFactory<>("damageFactor"));
+        // Damage is a fraction of life, usually far below 1% per mission
+        DecimalFormat damageFormat = new DecimalFormat("0.0000'%'");
+        missionDamageColumn.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(Double damage, boolean empty) {
+                super.updateItem(damage, empty);
+                setText(empty || damage == null ? null : damageFormat.format(damage * 100));
+            }
+        });
 
         // Add debug logging to ensure TableView is correctly set up
         System.out.println("Table columns initialized");
@@ -177,11 +192,11 @@ public class FatigueMonitoringController {
      * Changed from loadLauncherSerialNumbers()
      */
     private void loadLauncherPartNumbers() {
-        List<String> partNumbers = launcherDAO.getAllLauncherPartNumbers();
-        launcherPartNumberComboBox.setItems(FXCollections.observableArrayList(partNumbers));
-
         // Update the prompt text to reflect the change
         launcherPartNumberComboBox.setPromptText("Select Part Number");
+
+        BackgroundLoader.load(launcherPartNumberComboBox, "Load Error", launcherDAO::getAllLauncherPartNumbers,
+                partNumbers -> launcherPartNumberComboBox.setItems(FXCollections.observableArrayList(partNumbers)));
     }
 
     /**
@@ -200,17 +215,30 @@ public class FatigueMonitoringController {
         if (selectedPartNumber != null && !selectedPartNumber.isEmpty()) {
             System.out.println("Selected part number: " + selectedPartNumber);
 
-            try {
-                // Load launcher status data using part number
-                currentLauncherStatus = launcherDAO.getLauncherStatusByPartNumber(selectedPartNumber);
+            // A newer selection cancels the load of the previous one
+            launcherLoad.load(missionHistoryTable, "Error", () -> {
+                // Load launcher status and mission history concurrently using part number
+                System.out.println("Loading mission history for part number: " + selectedPartNumber);
+                try (LoadScope scope = new LoadScope()) {
+                    LoadScope.Subtask<LauncherStatus> status = scope.fork(() -> launcherDAO.getLauncherStatusByPartNumber(selectedPartNumber));
+                    LoadScope.Subtask<List<LauncherMission>> missions = scope.fork(() -> launcherDAO.getMissionHistoryByPartNumber(selectedPartNumber));
+                    scope.join();
+
+                    LauncherData data = new LauncherData();
+                    data.status = status.get();
+                    if (data.status != null) {
+                        data.missions = missions.get();
+                    }
+                    return data;
+                }
+            }, data -> {
+                currentLauncherStatus = data.status;
 
                 if (currentLauncherStatus != null) {
                     // Populate form fields
                     populateFormFields(currentLauncherStatus);
 
-                    // Load mission history with better error handling
-                    System.out.println("Loading mission history for part number: " + selectedPartNumber);
-                    List<LauncherMission> missions = launcherDAO.getMissionHistoryByPartNumber(selectedPartNumber);
+                    List<LauncherMission> missions = data.missions;
 
                     // Debug output
                     System.out.println("Found " + (missions != null ? missions.size() : 0) + " missions");
@@ -244,13 +272,7 @@ public class FatigueMonitoringController {
                     clearForm();
                     updateUIState(false);
                 }
-            } catch (Exception e) {
-                System.err.println("Error loading launcher data: " + e.getMessage());
-                e.printStackTrace();
-                AlertUtils.showError(null, "Error", "Failed to load launcher data: " + e.getMessage());
-                clearForm();
-                updateUIState(false);
-            }
+            });
         }
     }
 
@@ -440,18 +462,15 @@ public class FatigueMonitoringController {
         if (missions.isEmpty()) {
             series.getData().add(new XYChart.Data<>(1, 100.0));
         } else {
-            // Add data points from missions
-            double remainingLife = 100.0;
-
-            // Sort missions by date if needed
-            // We'll use the missions in reverse chronological order (newest first)
+            // The query returns the newest missions first; damage accumulates from the oldest
             List<LauncherMission> sortedMissions = new ArrayList<>(missions);
-            // No need to sort as the query already sorts them
+            Collections.reverse(sortedMissions);
 
+            // Palmgren-Miner: the damage of each mission adds up, no life is left at 1
+            double cumulativeDamage = 0;
             for (int i = 0; i < sortedMissions.size(); i++) {
-                // For each mission, reduce remaining life by damage factor
-                remainingLife -= sortedMissions.get(i).getDamageFactor() * 100;
-                remainingLife = Math.max(0, remainingLife); // Don't go below 0
+                cumulativeDamage += sortedMissions.get(i).getDamageFactor();
+                double remainingLife = FatigueEngine.remainingLifePercentage(cumulativeDamage);
 
                 // Add point to chart (mission number, remaining life)
                 series.getData().add(new XYChart.Data<>(i + 1, remainingLife));
@@ -506,4 +525,12 @@ public class FatigueMonitoringController {
             expandGraphButton.setDisable(!launcherLoaded || currentChart == null);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Data loaded for a selected launcher.
+     */
+    private static class LauncherData {
+        private LauncherStatus status;
+        private List<LauncherMission> missions;
+    }
+}
@@ -3,6 +3,7 @@ package com.aircraft.controller;
 import com.aircraft.dao.LauncherDAO;
 import com.aircraft.model.Launcher;
 import com.aircraft.util.AlertUtils;
+import com.aircraft.util.BackgroundLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -125,9 +126,11 @@ public class LauncherController {
      * Refreshes the launcher table with data from the database.
      */
     private void refreshLauncherTable() {
-        launcherList.clear();
-        launcherList.addAll(launcherDAO.getAll());
-        launcherTable.setItems(launcherList);
+        BackgroundLoader.load(launcherTable, "Load Error", launcherDAO::getAll, launchers -> {
+            launcherList.clear();
+            launcherList.addAll(launchers);
+            launcherTable.setItems(launcherList);
+        });
     }
 
     /**
@@ -171,24 +174,21 @@ public class LauncherController {
         }
 
         // Save launcher
-        boolean success;
-        if (selectedLauncher == null) {
-            success = launcherDAO.insert(launcher);
-        } else {
-            success = launcherDAO.update(launcher);
-        }
-
-        if (success) {
-            AlertUtils.showInformation(owner, "Success", "Launcher saved successfully");
-            clearForm();
-            selectedLauncher = null;
-            refreshLauncherTable();
-
-            // Return to main screen after saving
-            onBackButtonClick(event);
-        } else {
-            AlertUtils.showError(owner, "Error", "Failed to save launcher");
-        }
+        boolean isNew = selectedLauncher == null;
+        BackgroundLoader.load(saveButton, "Save Error",
+                () -> isNew ? launcherDAO.insert(launcher) : launcherDAO.update(launcher), success -> {
+            if (success) {
+                AlertUtils.showInformation(owner, "Success", "Launcher saved successfully");
+                clearForm();
+                selectedLauncher = null;
+                refreshLauncherTable();
+
+                // Return to main screen after saving
+                onBackButtonClick(event);
+            } else {
+                AlertUtils.showError(owner, "Error", "Failed to save launcher");
+            }
+        });
     }
 
     /**
@@ -253,14 +253,15 @@ public class LauncherController {
 
             if (confirmed) {
                 // Delete launcher
-                boolean success = launcherDAO.delete(launcher.getPartNumber());
-
-                if (success) {
-                    AlertUtils.showInformation(owner, "Success", "Launcher deleted successfully");
-                    refreshLauncherTable();
-                } else {
-                    AlertUtils.showError(owner, "Error", "Failed to delete launcher");
-                }
+                BackgroundLoader.load(launcherTable, "Delete Error",
+                        () -> launcherDAO.delete(launcher.getPartNumber()), success -> {
+                    if (success) {
+                        AlertUtils.showInformation(owner, "Success", "Launcher deleted successfully");
+                        refreshLauncherTable();
+                    } else {
+                        AlertUtils.showError(owner, "Error", "Failed to delete launcher");
+                    }
+                });
             }
         }
     }
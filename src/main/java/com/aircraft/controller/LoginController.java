@@ -3,6 +3,8 @@ package com.aircraft.controller;
 import com.aircraft.dao.UserDAO;
 import com.aircraft.model.User;
 import com.aircraft.util.AlertUtils;
+import com.aircraft.util.BackgroundLoader;
+import com.aircraft.util.QueryMetrics;
 import com.aircraft.util.SessionManager;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -57,47 +59,60 @@ public class LoginController {
             return;
         }
 
+        // Get the current stage
+        Stage stage = (Stage)((Node)event.getSource()).getScene().getWindow();
+
         // Authenticate user against database
-        User user = userDAO.authenticate(username, password);
-
-        // Support legacy hardcoded admin user during transition
-        boolean isLegacyAdmin = username.equals("admin") && password.equals("admin");
-
-        if (user != null || isLegacyAdmin) {
-            try {
-                // If using legacy admin, create a User object for session
-                if (isLegacyAdmin && user == null) {
-                    user = new User();
-                    user.setId(0);
-                    user.setUsername("admin");
-                    user.setPassword("admin");
-                }
-
-                // Store user in session manager
-                SessionManager.getInstance().setCurrentUser(user);
-
-                // Load the dashboard scene
-                FXMLLoader loader = new FXMLLoader();
-                loader.setLocation(getClass().getResource("/fxml/dashboard.fxml"));
-                Parent dashboardParent = loader.load();
-
-                // Get the current stage
-                Stage stage = (Stage)((Node)event.getSource()).getScene().getWindow();
-
-                // Create scene
-                Scene dashboardScene = new Scene(dashboardParent);
-
-                // Set the scene
-                stage.setScene(dashboardScene);
-                stage.centerOnScreen();
-                stage.show();
-
-            } catch (IOException e) {
-                AlertUtils.showError(owner, "Navigation Error", "Error loading dashboard: " + e.getMessage());
-                e.printStackTrace();
+        BackgroundLoader.load(loginButton, "Login Error", () -> userDAO.authenticate(username, password), user -> {
+            // Support legacy hardcoded admin user during transition
+            boolean isLegacyAdmin = username.equals("admin") && password.equals("admin");
+
+            if (user != null || isLegacyAdmin) {
+                openDashboard(user, isLegacyAdmin, stage, owner);
+            } else {
+                AlertUtils.showError(owner, "Login Error", "Invalid username or password.");
+            }
+        });
+    }
+
+    /**
+     * Stores the authenticated user in the session and shows the dashboard.
+     *
+     * @param user The authenticated user, or null for the legacy admin
+     * @param isLegacyAdmin true if the legacy hardcoded admin credentials were used
+     * @param stage The stage to show the dashboard in
+     * @param owner The owner window for error alerts
+     */
+    private void openDashboard(User user, boolean isLegacyAdmin, Stage stage, Window owner) {
+        try {
+            // If using legacy admin, create a User object for session
+            if (isLegacyAdmin && user == null) {
+                user = new User();
+                user.setId(0);
+                user.setUsername("admin");
+                user.setPassword("admin");
             }
-        } else {
-            AlertUtils.showError(owner, "Login Error", "Invalid username or password.");
+
+            // Store user in session manager
+            SessionManager.getInstance().setCurrentUser(user);
+
+            // Load the dashboard scene
+            QueryMetrics.getInstance().setCurrentScreen("dashboard");
+            FXMLLoader loader = new FXMLLoader();
+            loader.setLocation(getClass().getResource("/fxml/dashboard.fxml"));
+            Parent dashboardParent = loader.load();
+
+            // Create scene
+            Scene dashboardScene = new Scene(dashboardParent);
+
+            // Set the scene
+            stage.setScene(dashboardScene);
+            stage.centerOnScreen();
+            stage.show();
+
+        } catch (IOException e) {
+            AlertUtils.showError(owner, "Navigation Error", "Error loading dashboard: " + e.getMessage());
+            e.printStackTrace();
         }
     }
 
@@ -111,6 +126,7 @@ public class LoginController {
     protected void onSignUpLinkClick(ActionEvent event) {
         try {
             // Load the signup screen
+            QueryMetrics.getInstance().setCurrentScreen("signup");
             FXMLLoader loader = new FXMLLoader();
             loader.setLocation(getClass().getResource("/fxml/signup.fxml"));
             Parent signupParent = loader.load();
@@ -3,16 +3,14 @@ package com.aircraft.controller;
 import com.aircraft.dao.MovementHistoryDAO;
 import com.aircraft.model.MovementHistory;
 import com.aircraft.util.AlertUtils;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.aircraft.util.BackgroundLoader;
+import com.aircraft.util.PagedTableLoader;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Window;
 
-import java.util.List;
-
 /**
  * Controller for the Material Handling screen.
  * Handles viewing launcher and missile embarkation/disembarkation history.
@@ -56,7 +54,7 @@ public class MaterialHandlingController {
     private TableColumn<MovementHistory, String> aircraftIdColumn;
 
     private final MovementHistoryDAO movementHistoryDAO = new MovementHistoryDAO();
-    private ObservableList<MovementHistory> historyList = FXCollections.observableArrayList();
+    private PagedTableLoader<MovementHistory> historyPages;
 
     /**
      * Initializes the controller after its root element has been processed.
@@ -74,8 +72,8 @@ public class MaterialHandlingController {
         locationColumn.setCellValueFactory(new PropertyValueFactory<>("location"));
         aircraftIdColumn.setCellValueFactory(new PropertyValueFactory<>("aircraftId"));
 
-        // Clear the table initially
-        historyTable.setItems(historyList);
+        // History records are fetched page by page as the table is scrolled
+        historyPages = new PagedTableLoader<>(historyTable);
 
         // Set up enter key press on the part number field to trigger search
         partNumberSearchField.setOnAction(this::onSearchButtonClick);
@@ -100,38 +98,56 @@ public class MaterialHandlingController {
             return;
         }
 
-        // Determine item type (launcher or missile/load)
-        String itemType = movementHistoryDAO.getItemTypeByPartNumber(partNumber);
-
-        if (itemType != null) {
-            String itemName = movementHistoryDAO.getItemNameByPartNumber(partNumber);
-            itemTypeLabel.setText("Item Type: " + itemType + (itemName != null ? " - " + itemName : ""));
-
-            // Retrieve movement history based on item type
-            List<MovementHistory> history;
-            if (itemType.equalsIgnoreCase("Launcher")) {
-                history = movementHistoryDAO.getLauncherHistoryByPartNumber(partNumber);
+        // Look up the item in the background, then page through its history
+        BackgroundLoader.load(searchButton, "Search Error", () -> search(partNumber), result -> {
+            if (result.itemType != null) {
+                itemTypeLabel.setText("Item Type: " + result.itemType +
+                        (result.itemName != null ? " - " + result.itemName : ""));
+
+                // Retrieve movement history based on item type; any other type is a load/missile
+                String tipoComponente = result.itemType.equalsIgnoreCase("Launcher") ? "Lanciatore" : "Carico";
+                historyPages.reset("Search Error", (anchor, after, limit) ->
+                        movementHistoryDAO.getHistoryPage(partNumber, tipoComponente, anchor, after, limit),
+                        firstPage -> {
+                            if (firstPage.isEmpty()) {
+                                AlertUtils.showInformation(owner, "No Records Found",
+                                        "No movement history found for Part Number: " + partNumber);
+                            }
+                        });
             } else {
-                // Assuming any other type is a load/missile
-                history = movementHistoryDAO.getLoadHistoryByPartNumber(partNumber);
+                itemTypeLabel.setText("Unknown Part Number");
+                historyPages.clear();
+                AlertUtils.showInformation(owner, "Unknown Part Number",
+                        "No information found for Part Number: " + partNumber);
             }
+        });
+    }
 
-            if (history.isEmpty()) {
-                AlertUtils.showInformation(owner, "No Records Found",
-                        "No movement history found for Part Number: " + partNumber);
-                historyList.clear();
-                historyTable.setItems(historyList);
-            } else {
-                // Update table with history data
-                historyList.clear();
-                historyList.addAll(history);
-                historyTable.setItems(historyList);
-            }
-        } else {
-            itemTypeLabel.setText("Unknown Part Number");
-            historyList.clear();
-            AlertUtils.showInformation(owner, "Unknown Part Number",
-                    "No information found for Part Number: " + partNumber);
+    /**
+     * Retrieves the item type and name for a part number.
+     * Runs on a background thread.
+     *
+     * @param partNumber The part number to search for
+     * @return The search result
+     */
+    private SearchResult search(String partNumber) {
+        SearchResult result = new SearchResult();
+
+        // Determine item type (launcher or missile/load)
+        result.itemType = movementHistoryDAO.getItemTypeByPartNumber(partNumber);
+        if (result.itemType == null) {
+            return result;
         }
+
+        result.itemName = movementHistoryDAO.getItemNameByPartNumber(partNumber);
+        return result;
+    }
+
+    /**
+     * Result of a part number search.
+     */
+    private static class SearchResult {
+        private String itemType;
+        private String itemName;
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,12 @@
 package com.aircraft.controller;
 
+import com.aircraft.dao.LoadScope;
 import com.aircraft.dao.MissionDAO;
 import com.aircraft.model.Mission;
+import com.aircraft.model.MissionFlightSummary;
 import com.aircraft.model.WeaponStatus;
 import com.aircraft.util.AlertUtils;
-import com.aircraft.util.DBUtil;
+import com.aircraft.util.BackgroundLoader;
 import com.aircraft.util.PDFGenerator;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -17,9 +19,6 @@ import javafx.stage.Stage;
 import javafx.stage.Window;
 
 import java.io.File;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.Time;
 import java.time.LocalTime;
 import java.util.List;
@@ -113,28 +112,43 @@ public class MissionDetailsController {
     }
 
     /**
-     * Sets the mission to be displayed and loads its details.
+     * Sets the mission to be displayed and loads its details in the background.
      *
      * @param missionId The ID of the mission to display
      */
     public void setMission(int missionId) {
-        // Get full mission details from DAO
-        mission = missionDAO.getMissionById(missionId);
+        BackgroundLoader.load(weaponsTable, "Error", () -> {
+            // Get the mission, its flight data and its weapons concurrently
+            try (LoadScope scope = new LoadScope()) {
+                LoadScope.Subtask<Mission> mission = scope.fork(() -> missionDAO.getMissionById(missionId));
+                LoadScope.Subtask<MissionFlightSummary> flightSummary = scope.fork(() -> missionDAO.getFlightSummary(missionId));
+                LoadScope.Subtask<List<WeaponStatus>> weapons = scope.fork(() -> missionDAO.getWeaponsForMission(missionId));
+                scope.join();
+
+                MissionDetails details = new MissionDetails();
+                details.mission = mission.get();
+                details.flightSummary = flightSummary.get();
+                details.weapons = weapons.get();
+                return details;
+            }
+        }, details -> {
+            mission = details.mission;
 
-        if (mission != null) {
-            // Load mission data
-            loadMissionData(missionId);
+            if (mission != null) {
+                // Load mission data
+                loadMissionData(missionId);
 
-            // Load flight data from vista_gui_missione
-            loadFlightDataFromView(missionId);
+                // Load flight data from vista_gui_missione
+                showFlightSummary(details.flightSummary);
 
-            // Load weapons data
-            loadWeaponsData(missionId);
-        } else {
-            // Handle error - mission not found
-            AlertUtils.showError(null, "Error", "Mission not found: ID " + missionId);
-            clearAllFields();
-        }
+                // Load weapons data
+                showWeapons(details.weapons);
+            } else {
+                // Handle error - mission not found
+                AlertUtils.showError(null, "Error", "Mission not found: ID " + missionId);
+                clearAllFields();
+            }
+        });
     }
 
     private void clearAllFields() {
@@ -188,67 +202,38 @@ public class MissionDetailsController {
     }
 
     /**
-     * Loads flight data from vista_gui_missione view
+     * Shows the flight data loaded from the vista_gui_missione view.
      */
-    private void loadFlightDataFromView(int missionId) {
-        Connection connection = null;
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
-
-        try {
-            connection = DBUtil.getConnection();
-
-            // Query from vista_gui_missione view
-            String query = "SELECT GloadMin, GloadMax, QuotaMedia, PosizioniSparo FROM vista_gui_missione " +
-                    "WHERE ID_Missione = ?";
-
-            statement = connection.prepareStatement(query);
-            statement.setInt(1, missionId);
-            resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                // Populate flight data fields
-                double gloadMin = resultSet.getDouble("GloadMin");
-                double gloadMax = resultSet.getDouble("GloadMax");
-                int quotaMedia = resultSet.getInt("QuotaMedia");
-                String posizioniSparo = resultSet.getString("PosizioniSparo");
-
-                minGLoadField.setText(String.valueOf(gloadMin));
-                maxGLoadField.setText(String.valueOf(gloadMax));
-                avgAltitudeField.setText(String.valueOf(quotaMedia));
-
-                // If there are fired positions, display them
-                if (posizioniSparo != null && !posizioniSparo.isEmpty()) {
-                    firedPositionsField.setText(posizioniSparo);
-                } else {
-                    firedPositionsField.setText("None");
-                }
+    private void showFlightSummary(MissionFlightSummary summary) {
+        if (summary != null) {
+            // Populate flight data fields
+            minGLoadField.setText(String.valueOf(summary.getGLoadMin()));
+            maxGLoadField.setText(String.valueOf(summary.getGLoadMax()));
+            avgAltitudeField.setText(String.valueOf(summary.getQuotaMedia()));
+
+            // If there are fired positions, display them
+            String posizioniSparo = summary.getPosizioniSparo();
+            if (posizioniSparo != null && !posizioniSparo.isEmpty()) {
+                firedPositionsField.setText(posizioniSparo);
             } else {
-                // Clear fields if no data found
-                minGLoadField.clear();
-                maxGLoadField.clear();
-                avgAltitudeField.clear();
                 firedPositionsField.setText("None");
             }
-
-        } catch (Exception e) {
-            System.err.println("Error loading flight data: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeResources(connection, statement, resultSet);
+        } else {
+            // Clear fields if no data found
+            minGLoadField.clear();
+            maxGLoadField.clear();
+            avgAltitudeField.clear();
+            firedPositionsField.setText("None");
         }
     }
 
     /**
-     * Loads weapons (launchers and missiles) data into the table.
+     * Shows the weapons (launchers and missiles) in the table.
      */
-    private void loadWeaponsData(int missionId) {
+    private void showWeapons(List<WeaponStatus> weapons) {
         // Clear existing data
         weaponsList.clear();
 
-        // Load weapons data from database
-        List<WeaponStatus> weapons = missionDAO.getWeaponsForMission(missionId);
-
         if (weapons != null && !weapons.isEmpty()) {
             weaponsList.addAll(weapons);
         }
@@ -275,6 +260,11 @@ public class MissionDetailsController {
     protected void onExportButtonClick(ActionEvent event) {
         Window owner = exportButton.getScene().getWindow();
 
+        // Nothing to export until the mission has been loaded
+        if (mission == null) {
+            return;
+        }
+
         // Show file save dialog
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Mission Report");
@@ -322,4 +312,13 @@ public class MissionDetailsController {
             stage.close();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Data loaded for the details view.
+     */
+    private static class MissionDetails {
+        private Mission mission;
+        private MissionFlightSummary flightSummary;
+        private List<WeaponStatus> weapons;
+    }
+}
@@ -5,8 +5,12 @@ import com.aircraft.dao.MissionDAO;
 import com.aircraft.model.Aircraft;
 import com.aircraft.model.Mission;
 import com.aircraft.util.AlertUtils;
+import com.aircraft.util.BackgroundLoader;
+import com.aircraft.util.PagedTableLoader;
+import com.aircraft.util.QueryMetrics;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -19,13 +23,18 @@ import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.sql.Time;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controller for the Mission History screen.
@@ -33,6 +42,9 @@ import java.util.List;
  */
 public class MissionHistoryController {
 
+    // Buffer of the export writer and of the gzip stream
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     @FXML
     private ComboBox<Aircraft> aircraftComboBox;
 
@@ -72,9 +84,20 @@ public class MissionHistoryController {
     @FXML
     private TableColumn<Mission, Void> detailsColumn;
 
+    @FXML
+    private ProgressBar exportProgressBar;
+
+    @FXML
+    private Label exportStatusLabel;
+
     private final MissionDAO missionDAO = new MissionDAO();
     private final AircraftDAO aircraftDAO = new AircraftDAO();
-    private ObservableList<Mission> missionList = FXCollections.observableArrayList();
+    private PagedTableLoader<Mission> missionPages;
+    // Filters of the search shown in the table, exported again by the export
+    private String searchAircraft;
+    private Date searchFromDate;
+    private Date searchToDate;
+    private Task<Long> exportTask;
     private ObservableList<Aircraft> aircraftList = FXCollections.observableArrayList();
 
     /**
@@ -97,6 +120,9 @@ public class MissionHistoryController {
         // Set up details column with View Details button
         setupDetailsColumn();
 
+        // Missions are fetched page by page as the table is scrolled
+        missionPages = new PagedTableLoader<>(missionTable);
+
         // Set default date range to last 30 days
         LocalDate today = LocalDate.now();
         LocalDate thirtyDaysAgo = today.minusDays(30);
@@ -111,21 +137,20 @@ public class MissionHistoryController {
      * Loads aircraft data for the combo box.
      */
     private void loadAircraftData() {
-        List<Aircraft> aircraft = aircraftDAO.getAll();
         aircraftList.clear();
 
         // Add an "All Aircraft" option
         Aircraft allAircraft = new Aircraft();
         allAircraft.setMatricolaVelivolo("All Aircraft");
         aircraftList.add(allAircraft);
-
-        // Add actual aircraft
-        aircraftList.addAll(aircraft);
         aircraftComboBox.setItems(aircraftList);
 
         // Set default selection to "All Aircraft"
         aircraftComboBox.getSelectionModel().selectFirst();
 
+        // Add actual aircraft once loaded
+        BackgroundLoader.load(aircraftComboBox, "Load Error", aircraftDAO::getAll, aircraftList::addAll);
+
         // Set up cell factory to display aircraft matricola
         aircraftComboBox.setCellFactory(param -> new ListCell<>() {
             @Override
@@ -186,7 +211,12 @@ public class MissionHistoryController {
      * @param mission The Mission object to view details for
      */
     private void viewMissionDetails(Mission mission) {
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        String previousScreen = metrics.getCurrentScreen();
         try {
+            // Attribute the details queries to their own screen while the window is open
+            metrics.setCurrentScreen("mission_details");
+
             // Load the mission details FXML
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/mission_details.fxml"));
             Parent root = loader.load();
@@ -216,6 +246,8 @@ public class MissionHistoryController {
                     "Error opening mission details: " + e.getMessage()
             );
             e.printStackTrace();
+        } finally {
+            metrics.setCurrentScreen(previousScreen);
         }
     }
 
@@ -252,26 +284,19 @@ public class MissionHistoryController {
         Date sqlToDate = Date.valueOf(toDate);
 
         // Search for missions
-        List<Mission> missions;
-        if (selectedAircraft != null && !selectedAircraft.getMatricolaVelivolo().equals("All Aircraft")) {
-            // Search by aircraft and date range
-            missions = missionDAO.getMissionsByAircraftAndDateRange(
-                    selectedAircraft.getMatricolaVelivolo(),
-                    sqlFromDate,
-                    sqlToDate
-            );
-        } else {
-            // Search by date range only
-            missions = missionDAO.getMissionsByDateRange(sqlFromDate, sqlToDate);
-        }
-
-        // Update table
-        missionList.clear();
-        missionList.addAll(missions);
-        missionTable.setItems(missionList);
-
-        // Enable/disable export button based on results
-        exportButton.setDisable(missions.isEmpty());
+        String aircraftFilter = selectedAircraft != null && !selectedAircraft.getMatricolaVelivolo().equals("All Aircraft")
+                ? selectedAircraft.getMatricolaVelivolo() : null;
+        searchAircraft = aircraftFilter;
+        searchFromDate = sqlFromDate;
+        searchToDate = sqlToDate;
+
+        // A newer search cancels the previous one; an aircraft filter of null means all aircraft
+        missionPages.reset("Search Error", (anchor, after, limit) ->
+                missionDAO.getMissionsPage(aircraftFilter, sqlFromDate, sqlToDate, anchor, after, limit),
+                firstPage -> {
+                    // Enable/disable export button based on results
+                    exportButton.setDisable(firstPage.isEmpty());
+                });
     }
 
     /**
@@ -308,13 +333,18 @@ public class MissionHistoryController {
 
     /**
      * Handles the "Export Results" button click.
-     * Exports the mission results to a CSV file.
+     * Exports the mission results to a CSV file, or cancels the export in progress.
      *
      * @param event The ActionEvent object
      */
     @FXML
     protected void onExportButtonClick(ActionEvent event) {
-        if (missionList.isEmpty()) {
+        if (exportTask != null) {
+            exportTask.cancel();
+            return;
+        }
+
+        if (missionTable.getItems().isEmpty()) {
             AlertUtils.showError(
                     exportButton.getScene().getWindow(),
                     "Export Error",
@@ -326,8 +356,9 @@ public class MissionHistoryController {
         // Show file save dialog
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Save Mission Data");
-        fileChooser.getExtensionFilters().add(
-                new FileChooser.ExtensionFilter("CSV Files", "*.csv")
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+                new FileChooser.ExtensionFilter("Compressed CSV Files", "*.csv.gz")
         );
         fileChooser.setInitialFileName("mission_data.csv");
 
@@ -338,39 +369,107 @@ public class MissionHistoryController {
     }
 
     /**
-     * Exports mission data to a CSV file.
+     * Exports mission data to a CSV file, gzip-compressed if its name ends with .gz.
+     * The search shown in the table is run again in the background and its rows
+     * are streamed to the file as they arrive, so all missions are exported, not
+     * only those loaded in the table, in constant memory. The export button
+     * cancels the export while it runs; the partial file is then deleted.
      *
      * @param file The file to export data to
      */
     private void exportToCSV(File file) {
-        try (FileWriter writer = new FileWriter(file)) {
-            // Write CSV header
-            writer.write("ID,Aircraft,Flight Number,Date,Departure Time,Arrival Time\n");
-
-            // Write data rows
-            for (Mission mission : missionList) {
-                writer.write(String.format("%d,%s,%d,%s,%s,%s\n",
-                        mission.getId(),
-                        mission.getMatricolaVelivolo(),
-                        mission.getNumeroVolo(),
-                        mission.getDataMissione(),
-                        mission.getOraPartenza(),
-                        mission.getOraArrivo()
-                ));
+        String aircraftFilter = searchAircraft;
+        Date fromDate = searchFromDate;
+        Date toDate = searchToDate;
+
+        Task<Long> task = BackgroundLoader.loadWithProgress(null, "Export Error", progress -> {
+            long total = missionDAO.countMissions(aircraftFilter, fromDate, toDate);
+            progress.update(0, total, "Exporting " + total + " missions...");
+
+            boolean complete = false;
+            try (Writer writer = openExportWriter(file)) {
+                // Write CSV header
+                writer.write("ID,Aircraft,Flight Number,Date,Departure Time,Arrival Time\n");
+
+                // Write data rows as they are read
+                long[] written = {0};
+                missionDAO.streamMissions(aircraftFilter, fromDate, toDate, mission -> {
+                    writer.write(Integer.toString(mission.getId()));
+                    writer.write(',');
+                    writer.write(csvField(mission.getMatricolaVelivolo()));
+                    writer.write(',');
+                    writer.write(Integer.toString(mission.getNumeroVolo()));
+                    writer.write(',');
+                    writer.write(String.valueOf(mission.getDataMissione()));
+                    writer.write(',');
+                    writer.write(String.valueOf(mission.getOraPartenza()));
+                    writer.write(',');
+                    writer.write(String.valueOf(mission.getOraArrivo()));
+                    writer.write('\n');
+
+                    if (++written[0] % 1000 == 0) {
+                        progress.update(written[0], Math.max(total, written[0]),
+                                "Exported " + written[0] + " of " + total + " missions");
+                    }
+                });
+                complete = true;
+                return written[0];
+            } finally {
+                if (!complete && !file.delete()) {
+                    System.err.println("Could not delete partial export " + file.getAbsolutePath());
+                }
+            }
+        }, count -> AlertUtils.showInformation(
+                exportButton.getScene().getWindow(),
+                "Export Successful",
+                count + " missions exported successfully to:\n" + file.getAbsolutePath()
+        ));
+
+        // Show the progress until the export ends, however it ends
+        exportTask = task;
+        exportButton.setText("Cancel Export");
+        exportProgressBar.progressProperty().bind(task.progressProperty());
+        exportStatusLabel.textProperty().bind(task.messageProperty());
+        exportProgressBar.setVisible(true);
+        exportStatusLabel.setVisible(true);
+        task.runningProperty().addListener((obs, wasRunning, running) -> {
+            if (!running && task.isDone()) {
+                exportTask = null;
+                exportButton.setText("Export Results");
+                exportProgressBar.progressProperty().unbind();
+                exportStatusLabel.textProperty().unbind();
+                exportProgressBar.setVisible(false);
+                exportStatusLabel.setVisible(false);
             }
+        });
+    }
 
-            AlertUtils.showInformation(
-                    exportButton.getScene().getWindow(),
-                    "Export Successful",
-                    "Mission data exported successfully to:\n" + file.getAbsolutePath()
-            );
+    /**
+     * Opens a buffered UTF-8 writer on an export file, compressing it if its name ends with .gz.
+     */
+    private static Writer openExportWriter(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            if (file.getName().toLowerCase().endsWith(".gz")) {
+                out = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+            }
+            return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
         } catch (IOException e) {
-            AlertUtils.showError(
-                    exportButton.getScene().getWindow(),
-                    "Export Error",
-                    "Error exporting data: " + e.getMessage()
-            );
-            e.printStackTrace();
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Quotes a CSV field if it contains a separator, a quote or a line break.
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
         }
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
-}
\ No newline at end of file
+}
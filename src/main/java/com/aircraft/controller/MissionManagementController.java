@@ -1,15 +1,15 @@
 package com.aircraft.controller;
 
 import com.aircraft.dao.AircraftDAO;
-import com.aircraft.dao.LauncherDAO;
 import com.aircraft.dao.MissionDAO;
-import com.aircraft.dao.WeaponDAO;
+import com.aircraft.dao.ReferenceDataCache;
 import com.aircraft.model.Aircraft;
 import com.aircraft.model.Launcher;
 import com.aircraft.model.Mission;
+import com.aircraft.model.MissionPosition;
 import com.aircraft.model.Weapon;
 import com.aircraft.util.AlertUtils;
-import com.aircraft.util.DBUtil;
+import com.aircraft.util.BackgroundLoader;
 
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -30,7 +30,8 @@ import javafx.stage.Window;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.sql.*;
+import java.sql.SQLException;
+import java.sql.Time;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
@@ -97,11 +98,15 @@ public class MissionManagementController {
 
     private final AircraftDAO aircraftDAO = new AircraftDAO();
     private final MissionDAO missionDAO = new MissionDAO();
-    private final LauncherDAO launcherDAO = new LauncherDAO();
-    private final WeaponDAO weaponDAO = new WeaponDAO();
 
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
 
+    // Launchers and weapons shown in the position selection panel
+    private List<Launcher> launchers = new ArrayList<>();
+    private Map<String, Launcher> launchersByPartNumber = new HashMap<>();
+    private List<Weapon> weapons = new ArrayList<>();
+    private Map<String, Weapon> weaponsByPartNumber = new HashMap<>();
+
     public void updateSelectedPositions(Map<String, Map<String, String>> selectedPositions) {
     }
 
@@ -219,9 +224,8 @@ public class MissionManagementController {
      */
     private void setupComboBoxes() {
         // Load aircraft list
-        List<Aircraft> aircraftList = aircraftDAO.getAll();
-        ObservableList<Aircraft> aircraftItems = FXCollections.observableArrayList(aircraftList);
-        aircraftComboBox.setItems(aircraftItems);
+        BackgroundLoader.load(aircraftComboBox, "Load Error", aircraftDAO::getAll,
+                aircraftList -> aircraftComboBox.setItems(FXCollections.observableArrayList(aircraftList)));
 
         // Set up cell factory for aircraft display
         aircraftComboBox.setCellFactory(param -> new ListCell<>() {
@@ -249,6 +253,9 @@ public class MissionManagementController {
             }
         });
 
+        // Set up launcher and weapon selection listeners
+        setupWeaponSelectionListeners();
+
         // Initially hide weapon selection panel
         weaponSelectionPanel.setVisible(false);
 
@@ -298,7 +305,7 @@ public class MissionManagementController {
      * Creates missile point indicators at the predefined positions.
      */
     private void createMissilePoints() {
-        // Define all positions but only show P1 and P13
+        // Define all positions
         Map<String, double[]> positions = new HashMap<>();
         positions.put("P1", new double[]{90, 170});
         positions.put("P2", new double[]{130, 170});
@@ -329,32 +336,28 @@ public class MissionManagementController {
 
             // Create a missile point indicator (rectangle)
             Rectangle point = new Rectangle(24, 40);
+            point.setFill(Color.TRANSPARENT);
+            point.setStroke(Color.GREEN);
+            point.setStrokeWidth(2.0);
 
-            // Only positions P1 and P13 are configurable, hide others
-            if (position.equals("P1") || position.equals("P13")) {
-                point.setFill(Color.TRANSPARENT);
-                point.setStroke(Color.GREEN); // Highlight configurable positions
-                point.setStrokeWidth(2.0);
-
-                // Create position label
-                Text label = new Text(position);
-                label.getStyleClass().add("missile-point-label");
-                label.setFill(Color.BLACK);
+            // Create position label
+            Text label = new Text(position);
+            label.getStyleClass().add("missile-point-label");
+            label.setFill(Color.BLACK);
 
-                // Combine in a StackPane
-                StackPane missilePoint = new StackPane(point, label);
-                missilePoint.setLayoutX(coords[0] - 12);
-                missilePoint.setLayoutY(coords[1] - 20);
+            // Combine in a StackPane
+            StackPane missilePoint = new StackPane(point, label);
+            missilePoint.setLayoutX(coords[0] - 12);
+            missilePoint.setLayoutY(coords[1] - 20);
 
-                // Add click event only to configurable positions
-                missilePoint.setOnMouseClicked(event -> selectPosition(position));
+            // Add click event
+            missilePoint.setOnMouseClicked(event -> selectPosition(position));
 
-                // Store for later reference
-                missilePointsMap.put(position, missilePoint);
+            // Store for later reference
+            missilePointsMap.put(position, missilePoint);
 
-                // Add to container
-                missilePointsContainer.getChildren().add(missilePoint);
-            }
+            // Add to container
+            missilePointsContainer.getChildren().add(missilePoint);
         }
     }
 
@@ -384,20 +387,52 @@ public class MissionManagementController {
     }
 
     /**
-     * Loads the launcher and weapon lists for the position selection panel.
+     * Loads the launcher and weapon lists for the position selection panel in the background.
      */
     private void loadLauncherAndWeaponLists() {
-        // Load launcher list
-        List<Launcher> launcherList = launcherDAO.getAll();
-        ObservableList<String> launcherItems = FXCollections.observableArrayList();
-        launcherItems.add(""); // Empty option
-
-        // Show both nomenclature and part number in the dropdown
-        launcherItems.addAll(launcherList.stream()
-                .map(l -> l.getNomenclatura() + " (" + l.getPartNumber() + ")")
-                .collect(Collectors.toList()));
-        launcherComboBox.setItems(launcherItems);
+        BackgroundLoader.load(weaponSelectionPanel, "Load Error", () -> {
+            ReferenceData data = new ReferenceData();
+            ReferenceDataCache cache = ReferenceDataCache.getInstance();
+            data.launchers = cache.getLaunchers();
+            data.launchersByPartNumber = cache.getLaunchersByPartNumber();
+            data.weapons = cache.getWeapons();
+            data.weaponsByPartNumber = cache.getWeaponsByPartNumber();
+            return data;
+        }, data -> {
+            launchers = data.launchers;
+            launchersByPartNumber = data.launchersByPartNumber;
+            weapons = data.weapons;
+            weaponsByPartNumber = data.weaponsByPartNumber;
+
+            ObservableList<String> launcherItems = FXCollections.observableArrayList();
+            launcherItems.add(""); // Empty option
+
+            // Show both nomenclature and part number in the dropdown
+            launcherItems.addAll(launchers.stream()
+                    .map(l -> l.getNomenclatura() + " (" + l.getPartNumber() + ")")
+                    .collect(Collectors.toList()));
+            launcherComboBox.setItems(launcherItems);
+
+            // Update the weapons dropdown similarly
+            ObservableList<String> weaponItems = FXCollections.observableArrayList();
+            weaponItems.add(""); // Empty option
+
+            // Show both nomenclature and part number in the dropdown
+            weaponItems.addAll(weapons.stream()
+                    .map(w -> w.getNomenclatura() + " (" + w.getPartNumber() + ")")
+                    .collect(Collectors.toList()));
+            weaponComboBox.setItems(weaponItems);
+
+            // Weapon selection is only enabled once a launcher is selected
+            String launcherValue = launcherComboBox.getValue();
+            weaponComboBox.setDisable(launcherValue == null || launcherValue.isEmpty());
+        });
+    }
 
+    /**
+     * Sets up the launcher and weapon selection listeners of the position selection panel.
+     */
+    private void setupWeaponSelectionListeners() {
         // Set up launcher selection listener
         launcherComboBox.valueProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null && !newVal.isEmpty()) {
@@ -406,9 +441,7 @@ public class MissionManagementController {
                 String partNumber = partNumberWithParens.substring(1, partNumberWithParens.length() - 1);
 
                 // Find the selected launcher
-                Optional<Launcher> selectedLauncher = launcherList.stream()
-                        .filter(l -> l.getPartNumber().equals(partNumber))
-                        .findFirst();
+                Optional<Launcher> selectedLauncher = Optional.ofNullable(launchersByPartNumber.get(partNumber));
 
                 // Update part number field
                 selectedLauncher.ifPresent(launcher -> {
@@ -441,16 +474,6 @@ public class MissionManagementController {
             }
         });
 
-        // Update the weapons dropdown similarly
-        List<Weapon> weaponList = weaponDAO.getAll();
-        ObservableList<String> weaponItems = FXCollections.observableArrayList();
-        weaponItems.add(""); // Empty option
-
-        // Show both nomenclature and part number in the dropdown
-        weaponItems.addAll(weaponList.stream()
-                .map(w -> w.getNomenclatura() + " (" + w.getPartNumber() + ")")
-                .collect(Collectors.toList()));
-        weaponComboBox.setItems(weaponItems);
         weaponComboBox.setDisable(true); // Initially disabled
 
         // Set up weapon selection listener
@@ -470,9 +493,7 @@ public class MissionManagementController {
                 String partNumber = partNumberWithParens.substring(1, partNumberWithParens.length() - 1);
 
                 // Find the selected weapon
-                Optional<Weapon> selectedWeapon = weaponList.stream()
-                        .filter(w -> w.getPartNumber().equals(partNumber))
-                        .findFirst();
+                Optional<Weapon> selectedWeapon = Optional.ofNullable(weaponsByPartNumber.get(partNumber));
 
                 // Update part number field
                 selectedWeapon.ifPresent(weapon -> {
@@ -498,13 +519,6 @@ public class MissionManagementController {
      * @param position The position identifier (e.g., "P1")
      */
     private void selectPosition(String position) {
-
-        // Only positions P1 and P13 are configurable
-        if (!position.equals("P1") && !position.equals("P13")) {
-            validationMessageLabel.setText("Only positions P1 and P13 are configurable");
-            validationMessageLabel.setVisible(true);
-            return;
-        }
         // Update previous position based on its actual configuration
         if (currentSelectedPosition != null && missilePointsMap.containsKey(currentSelectedPosition)) {
             // First update based on configuration
@@ -535,9 +549,7 @@ public class MissionManagementController {
         // Set launcher and weapon selections based on loaded data
         if (config.hasLauncher()) {
             // Find launcher by part number
-            Optional<Launcher> launcher = launcherDAO.getAll().stream()
-                    .filter(l -> l.getPartNumber().equals(config.getLauncherId()))
-                    .findFirst();
+            Optional<Launcher> launcher = Optional.ofNullable(launchersByPartNumber.get(config.getLauncherId()));
 
             launcher.ifPresent(l -> launcherComboBox.setValue(l.getNomenclatura() + " (" + l.getPartNumber() + ")"));
         } else {
@@ -546,9 +558,7 @@ public class MissionManagementController {
 
         if (config.hasWeapon()) {
             // Find weapon by part number
-            Optional<Weapon> weapon = weaponDAO.getAll().stream()
-                    .filter(w -> w.getPartNumber().equals(config.getWeaponId()))
-                    .findFirst();
+            Optional<Weapon> weapon = Optional.ofNullable(weaponsByPartNumber.get(config.getWeaponId()));
 
             weapon.ifPresent(w -> weaponComboBox.setValue(w.getNomenclatura() + " (" + w.getPartNumber() + ")"));
         } else {
@@ -587,14 +597,8 @@ public class MissionManagementController {
             return;
         }
 
-        // We only care about positions 1 and 13 (the extremes)
-        if (!currentSelectedPosition.equals("P1") && !currentSelectedPosition.equals("P13")) {
-            AlertUtils.showError(owner, "Invalid Position",
-                    "Only positions P1 and P13 are configurable in this version.");
-            return;
-        }
-
         // First, save the mission if it hasn't been saved yet
+        Mission newMission = null;
         if (currentMissionId == null || currentMissionId <= 0) {
             // Mission validation
             Aircraft selectedAircraft = aircraftComboBox.getValue();
@@ -630,15 +634,6 @@ public class MissionManagementController {
                 return;
             }
 
-            // Check if this flight number already exists for this aircraft
-            if (missionDAO.flightNumberExists(selectedAircraft.getMatricolaVelivolo(), flightNum)) {
-                AlertUtils.showError(owner, "Validation Error",
-                        "Flight number " + flightNum + " already exists for aircraft " + selectedAircraft.getMatricolaVelivolo());
-                validationMessageLabel.setText("Flight number " + flightNum + " already exists for aircraft " + selectedAircraft.getMatricolaVelivolo());
-                validationMessageLabel.setVisible(true);
-                return;
-            }
-
             // Create mission object with the new fields
             Mission mission = new Mission();
             mission.setMatricolaVelivolo(selectedAircraft.getMatricolaVelivolo());
@@ -668,87 +663,75 @@ public class MissionManagementController {
                 }
             }
 
-            // Set the launcher and missile values for positions 1 and 13
-            if (currentSelectedPosition.equals("P1")) {
-                mission.setLauncherPN1(config.getLauncherId());
-                mission.setMissilePN1(config.getWeaponId());
-            } else if (currentSelectedPosition.equals("P13")) {
-                mission.setLauncherPN13(config.getLauncherId());
-                mission.setMissilePN13(config.getWeaponId());
-            }
+            newMission = mission;
+        }
 
-            // Save mission and get ID
-            try {
-                currentMissionId = missionDAO.insertAndGetId(mission);
-                if (currentMissionId <= 0) {
-                    validationMessageLabel.setText("Failed to save mission");
-                    validationMessageLabel.setVisible(true);
-                    return;
-                }
-            } catch (Exception e) {
-                validationMessageLabel.setText("Error saving mission: " + e.getMessage());
+        // Save the mission or replace the loadout of the existing one in the background,
+        // always with every configured position, not only the selected one
+        Mission missionToInsert = newMission;
+        Integer missionId = currentMissionId;
+        String position = currentSelectedPosition;
+        List<MissionPosition> loadout = buildLoadout();
+        BackgroundLoader.load(savePositionButton, "Save Error", () -> {
+            if (missionToInsert != null) {
+                return insertMission(missionToInsert, loadout);
+            }
+            missionDAO.saveLoadout(missionId, loadout);
+            return SaveResult.saved(missionId);
+        }, result -> {
+            if (result.duplicateFlight) {
+                String message = "Flight number " + missionToInsert.getNumeroVolo() +
+                        " already exists for aircraft " + missionToInsert.getMatricolaVelivolo();
+                AlertUtils.showError(owner, "Validation Error", message);
+                validationMessageLabel.setText(message);
                 validationMessageLabel.setVisible(true);
-                e.printStackTrace();
                 return;
             }
-        } else {
-            // Update existing mission with the selected position data
-            Connection conn = null;
-            PreparedStatement stmt = null;
+            currentMissionId = result.missionId;
 
-            try {
-                conn = DBUtil.getConnection();
-
-                // Determine which fields to update based on position
-                String updateField1, updateField2;
-                Object value1, value2;
-
-                if (currentSelectedPosition.equals("P1")) {
-                    updateField1 = "PartNumberLanciatoreP1";
-                    updateField2 = "PartNumberMissileP1";
-                    value1 = config.getLauncherId();
-                    value2 = config.getWeaponId();
-                } else if (currentSelectedPosition.equals("P13")) {
-                    updateField1 = "PartNumberLanciatoreP13";
-                    updateField2 = "PartNumberMissileP13";
-                    value1 = config.getLauncherId();
-                    value2 = config.getWeaponId();
-                } else {
-                    throw new IllegalArgumentException("Only positions P1 and P13 are configurable");
-                }
+            // Update UI to reflect saved state
+            updateMissilePointUI(position);
 
-                // Update the mission record
-                String sql = "UPDATE missione SET " + updateField1 + " = ?, " + updateField2 + " = ? WHERE ID = ?";
-                stmt = conn.prepareStatement(sql);
-                stmt.setString(1, (String)value1);
-                stmt.setString(2, (String)value2);
-                stmt.setInt(3, currentMissionId);
+            // Turn the save button green to indicate successful save
+            savePositionButton.setStyle("-fx-background-color: #2e7d32;");
 
-                int rowsUpdated = stmt.executeUpdate();
-                if (rowsUpdated == 0) {
-                    throw new SQLException("Failed to update mission, no rows affected");
-                }
-            } catch (SQLException e) {
-                validationMessageLabel.setText("Error updating mission: " + e.getMessage());
-                validationMessageLabel.setVisible(true);
-                e.printStackTrace();
-                return;
-            } finally {
-                DBUtil.closeResources(conn, stmt, null);
-            }
-        }
+            // Hide validation message
+            validationMessageLabel.setVisible(false);
 
-        // Update UI to reflect saved state
-        updateMissilePointUI(currentSelectedPosition);
-
-        // Turn the save button green to indicate successful save
-        savePositionButton.setStyle("-fx-background-color: #2e7d32;");
+            AlertUtils.showInformation(owner, "Position Saved",
+                    "Position " + position + " configuration saved to database successfully.");
+        });
+    }
 
-        // Hide validation message
-        validationMessageLabel.setVisible(false);
+    /**
+     * Inserts a new mission with its configured positions unless its flight number
+     * is already used by the aircraft. Runs on a background thread.
+     *
+     * @param mission The mission to insert
+     * @param loadout The configured positions
+     * @return The result of the insert
+     * @throws SQLException if the mission could not be saved
+     */
+    private SaveResult insertMission(Mission mission, List<MissionPosition> loadout) throws SQLException {
+        // The insert itself rejects a flight number already used by the aircraft
+        int missionId = missionDAO.createMission(mission, loadout);
+        return missionId > 0 ? SaveResult.saved(missionId) : SaveResult.duplicateFlight();
+    }
 
-        AlertUtils.showInformation(owner, "Position Saved",
-                "Position " + currentSelectedPosition + " configuration saved to database successfully.");
+    /**
+     * Collects the positions that have a launcher, ordered from P1 to P13.
+     *
+     * @return The loadout to save
+     */
+    private List<MissionPosition> buildLoadout() {
+        List<MissionPosition> loadout = new ArrayList<>();
+        for (int i = 1; i <= 13; i++) {
+            MissionWeaponConfig config = missilePositionsData.get("P" + i);
+            if (config != null && config.hasLauncher()) {
+                loadout.add(new MissionPosition(config.getPosition(), config.getLauncherId(), config.getWeaponId()));
+            }
+        }
+        return loadout;
     }
 
     /**
@@ -823,13 +806,6 @@ public class MissionManagementController {
             return;
         }
 
-        // Check if this flight number already exists for this aircraft
-        if (missionDAO.flightNumberExists(selectedAircraft.getMatricolaVelivolo(), flightNum)) {
-            AlertUtils.showError(owner, "Validation Error",
-                    "Flight number " + flightNum + " already exists for aircraft " + selectedAircraft.getMatricolaVelivolo());
-            return;
-        }
-
         // Count loaded positions
         long loadedPositions = missilePositionsData.values().stream()
                 .filter(MissionWeaponConfig::isLoaded)
@@ -862,41 +838,30 @@ public class MissionManagementController {
             }
         }
 
-        // Set launcher and missile part numbers for positions 1 and 13
-        MissionWeaponConfig config1 = missilePositionsData.get("P1");
-        if (config1 != null && config1.isLoaded()) {
-            mission.setLauncherPN1(config1.getLauncherId());
-            mission.setMissilePN1(config1.getWeaponId());
-        }
+        // Save every configured position with the mission
+        List<MissionPosition> loadout = buildLoadout();
 
-        MissionWeaponConfig config13 = missilePositionsData.get("P13");
-        if (config13 != null && config13.isLoaded()) {
-            mission.setLauncherPN13(config13.getLauncherId());
-            mission.setMissilePN13(config13.getWeaponId());
+        String message = "Mission saved successfully";
+        if (!loadout.isEmpty()) {
+            message += " with launcher data for " + loadout.size() + " position(s), "
+                    + loadedPositions + " with a missile";
         }
+        String successMessage = message;
 
-        // Save the mission
-        int missionId = missionDAO.insertAndGetId(mission);
+        // Save the mission in the background
+        BackgroundLoader.load(saveAllButton, "Save Error", () -> insertMission(mission, loadout), result -> {
+            if (result.duplicateFlight) {
+                AlertUtils.showError(owner, "Validation Error",
+                        "Flight number " + flightNum + " already exists for aircraft " + selectedAircraft.getMatricolaVelivolo());
+            } else {
+                currentMissionId = result.missionId;
 
-        if (missionId > 0) {
-            currentMissionId = missionId;
+                AlertUtils.showInformation(owner, "Success", successMessage);
 
-            String message = "Mission saved successfully";
-            if (config1 != null && config1.isLoaded() && config13 != null && config13.isLoaded()) {
-                message += " with launcher and missile data for positions P1 and P13";
-            } else if (config1 != null && config1.isLoaded()) {
-                message += " with launcher and missile data for position P1";
-            } else if (config13 != null && config13.isLoaded()) {
-                message += " with launcher and missile data for position P13";
+                // Clear form and reset UI
+                clearForm();
             }
-
-            AlertUtils.showInformation(owner, "Success", message);
-
-            // Clear form and reset UI
-            clearForm();
-        } else {
-            AlertUtils.showError(owner, "Error", "Failed to save mission");
-        }
+        });
     }
 
     /**
@@ -989,4 +954,34 @@ public class MissionManagementController {
         // Hide validation message
         validationMessageLabel.setVisible(false);
     }
+
+    /**
+     * Launchers and weapons loaded for the position selection panel.
+     */
+    private static class ReferenceData {
+        private List<Launcher> launchers;
+        private Map<String, Launcher> launchersByPartNumber;
+        private List<Weapon> weapons;
+        private Map<String, Weapon> weaponsByPartNumber;
+    }
+
+    /**
+     * Outcome of saving a mission or one of its positions.
+     */
+    private static class SaveResult {
+        private int missionId;
+        private boolean duplicateFlight;
+
+        private static SaveResult saved(int missionId) {
+            SaveResult result = new SaveResult();
+            result.missionId = missionId;
+            return result;
+        }
+
+        private static SaveResult duplicateFlight() {
+            SaveResult result = new SaveResult();
+            result.duplicateFlight = true;
+            return result;
+        }
     }
+}
@@ -1,11 +1,16 @@
 package com.aircraft.controller;
 
 import com.aircraft.dao.AircraftDAO;
+import com.aircraft.dao.FiringDeclarationDAO;
+import com.aircraft.dao.LoadScope;
 import com.aircraft.dao.MissionDAO;
 import com.aircraft.model.Aircraft;
 import com.aircraft.model.Mission;
+import com.aircraft.model.MissionFlightSummary;
+import com.aircraft.model.MissionPosition;
 import com.aircraft.util.AlertUtils;
-import com.aircraft.util.DBUtil;
+import com.aircraft.util.BackgroundLoader;
+import com.aircraft.util.LatestLoad;
 
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
@@ -25,8 +30,9 @@ import javafx.stage.Window;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.sql.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -61,10 +67,17 @@ public class PFMDController {
 
     private final AircraftDAO aircraftDAO = new AircraftDAO();
     private final MissionDAO missionDAO = new MissionDAO();
+    private final FiringDeclarationDAO firingDeclarationDAO = new FiringDeclarationDAO();
+
+    // Loads superseded by a newer selection are cancelled
+    private final LatestLoad missionsLoad = new LatestLoad();
+    private final LatestLoad missionDataLoad = new LatestLoad();
 
     // Map to track missile positions and their status
     private final Map<String, MissileStatus> missileStatusMap = new HashMap<>();
     private final Map<String, Pane> missilePointsMap = new HashMap<>();
+    // Firing declarations toggled since the last save, by position; the last toggle wins
+    private final Map<String, Boolean> pendingDeclarations = new LinkedHashMap<>();
 
     // Current selected mission ID
     private Integer currentMissionId;
@@ -214,14 +227,15 @@ public class PFMDController {
      * Loads aircraft data into the aircraft combo box.
      */
     private void loadAircraftData() {
-        List<Aircraft> aircraftList = aircraftDAO.getAll();
-        ObservableList<String> aircraftOptions = FXCollections.observableArrayList();
+        BackgroundLoader.load(aircraftComboBox, "Database Error", aircraftDAO::getAll, aircraftList -> {
+            ObservableList<String> aircraftOptions = FXCollections.observableArrayList();
 
-        for (Aircraft aircraft : aircraftList) {
-            aircraftOptions.add(aircraft.getMatricolaVelivolo());
-        }
+            for (Aircraft aircraft : aircraftList) {
+                aircraftOptions.add(aircraft.getMatricolaVelivolo());
+            }
 
-        aircraftComboBox.setItems(aircraftOptions);
+            aircraftComboBox.setItems(aircraftOptions);
+        });
     }
 
     /**
@@ -231,46 +245,23 @@ public class PFMDController {
      */
     private void loadMissions(String matricolaVelivolo) {
         missionComboBox.getItems().clear();
-        Connection connection = null;
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
-
-        try {
-            connection = DBUtil.getConnection();
-
-            // Query missions from vista_gui_missione
-            String query = "SELECT ID_Missione, NumeroVolo, DataMissione FROM vista_gui_missione " +
-                    "WHERE MatricolaVelivolo = ? " +
-                    "ORDER BY DataMissione DESC";
-
-            statement = connection.prepareStatement(query);
-            statement.setString(1, matricolaVelivolo);
-            resultSet = statement.executeQuery();
 
+        // A newer aircraft selection cancels the load of the previous one
+        missionsLoad.load(missionComboBox, "Database Error",
+                () -> missionDAO.getGuiMissionsByAircraft(matricolaVelivolo), missions -> {
             ObservableList<String> missionOptions = FXCollections.observableArrayList();
 
-            while (resultSet.next()) {
-                int id = resultSet.getInt("ID_Missione");
-                int flightNumber = resultSet.getInt("NumeroVolo");
-                Date missionDate = resultSet.getDate("DataMissione");
-
+            for (Mission mission : missions) {
                 // Format as "ID - Flight #X (YYYY-MM-DD)"
-                String formattedDate = missionDate.toString();
-                String displayText = id + " - Flight #" + flightNumber + " (" + formattedDate + ")";
+                String formattedDate = mission.getDataMissione().toString();
+                String displayText = mission.getId() + " - Flight #" + mission.getNumeroVolo() + " (" + formattedDate + ")";
 
                 missionOptions.add(displayText);
             }
 
             // Set items
             missionComboBox.setItems(missionOptions);
-
-        } catch (SQLException e) {
-            Window owner = aircraftComboBox.getScene().getWindow();
-            AlertUtils.showError(owner, "Database Error", "Failed to load missions: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeResources(connection, statement, resultSet);
-        }
+        });
     }
 
     /**
@@ -289,6 +280,9 @@ public class PFMDController {
             AlertUtils.showError(owner, "Selection Error", "Please select both an aircraft and a mission");
             return;
         }
+        if (!confirmDiscardDeclarations()) {
+            return;
+        }
 
         // Extract mission ID from the selection (format: "ID - Flight #XX...")
         String idPart = selectedMissionStr.split(" - ")[0];
@@ -300,329 +294,139 @@ public class PFMDController {
         String flightPart = selectedMissionStr.split(" - ")[1];
         currentFlightNumber = Integer.parseInt(flightPart.substring(flightPart.indexOf("#") + 1).split(" ")[0]);
 
-        // Load mission data from vista_gui_missione
-        loadMissionData(missionId);
-
-        // Choose which method to use for loading positions
-        boolean useSpecificPositionsOnly = true; // Set to true to override database positions
-
-        if (useSpecificPositionsOnly) {
-            loadSpecificPositions(missionId);
-        } else {
-            // Load occupied positions from database - this uses the original logic
-            loadOccupiedPositions(missionId);
-        }
-
-        // Load existing firing declarations
-        loadFiringDeclarations(missionId);
-
-        // Display a message to the user
-        Window owner = aircraftComboBox.getScene().getWindow();
-        AlertUtils.showInformation(owner, "Mission Loaded",
-                "Mission data loaded. Click on occupied positions to mark missiles as fired.");
-    }
-
-    /**
-     * Loads only positions that were specifically configured for this mission ID.
-     * This bypasses the regular database lookup to handle cases where there's
-     * data integrity issues in the database.
-     *
-     * @param missionId The mission ID
-     */
-    private void loadSpecificPositions(int missionId) {
-        Connection connection = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
-        try {
-            connection = DBUtil.getConnection();
+        // Load flight data, occupied positions and firing declarations concurrently
+        missionDataLoad.load(aircraftContainer, "Database Error", () -> {
+            // Choose which method to use for loading positions
+            boolean useSpecificPositionsOnly = true; // Set to true to override database positions
+
+            try (LoadScope scope = new LoadScope()) {
+                LoadScope.Subtask<MissionFlightSummary> summary = scope.fork(() -> missionDAO.getFlightSummary(missionId));
+                LoadScope.Subtask<List<String>> onboardPositions;
+                if (useSpecificPositionsOnly) {
+                    onboardPositions = scope.fork(() -> loadSpecificPositions(missionId));
+                } else {
+                    // Load occupied positions from database - this uses the original logic
+                    onboardPositions = scope.fork(() -> missionDAO.getOccupiedPositions(missionId));
+                }
+                // Load existing firing declarations
+                LoadScope.Subtask<List<String>> firedPositions = scope.fork(() -> firingDeclarationDAO.getFiredPositions(missionId));
+                scope.join();
+
+                MissionData data = new MissionData();
+                data.summary = summary.get();
+                data.onboardPositions = onboardPositions.get();
+                data.firedPositions = firedPositions.get();
+                return data;
+            }
+        }, data -> {
+            showFlightSummary(data.summary);
 
-            // Reset all positions to EMPTY
+            // Reset all positions to EMPTY, then apply the loaded status
             for (String position : missileStatusMap.keySet()) {
                 missileStatusMap.put(position, MissileStatus.EMPTY);
             }
-
-            // Check if this is a newly created mission - if so, only show position P1
-            if (missionId > 120) {  // Assuming high IDs are new missions you're creating for testing
-                System.out.println("New mission detected - setting only position P1 as occupied");
-                missileStatusMap.put("P1", MissileStatus.ONBOARD);
-            } else {
-                // For existing missions, query the dichiarazione_missile_gui table
-                String query = "SELECT PosizioneVelivolo FROM dichiarazione_missile_gui WHERE ID_Missione = ?";
-                stmt = connection.prepareStatement(query);
-                stmt.setInt(1, missionId);
-                rs = stmt.executeQuery();
-
-                boolean foundPositions = false;
-
-                while (rs.next()) {
-                    String position = rs.getString("PosizioneVelivolo");
-                    if (position != null && !position.isEmpty() && missileStatusMap.containsKey(position)) {
-                        missileStatusMap.put(position, MissileStatus.ONBOARD);
-                        System.out.println("Found declared position: " + position);
-                        foundPositions = true;
-                    }
+            for (String position : data.onboardPositions) {
+                if (missileStatusMap.containsKey(position)) {
+                    missileStatusMap.put(position, MissileStatus.ONBOARD);
                 }
-
-                // If no positions found in declarations, fall back to P1, P2, P3 for test/demo purposes
-                if (!foundPositions) {
-                    System.out.println("No positions found in declarations, using default test positions");
-                    // Use only the first few positions as a demo
-                    missileStatusMap.put("P1", MissileStatus.ONBOARD);
-                    missileStatusMap.put("P2", MissileStatus.ONBOARD);
-                    missileStatusMap.put("P3", MissileStatus.ONBOARD);
+            }
+            for (String position : data.firedPositions) {
+                if (missileStatusMap.containsKey(position)) {
+                    missileStatusMap.put(position, MissileStatus.FIRED);
+                    System.out.println("Found fired position: " + position);
                 }
             }
 
             // Update UI to reflect loaded status
             updateMissilePositionStyles();
 
-        } catch (SQLException e) {
-            System.err.println("Error loading specific positions: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeResources(connection, stmt, rs);
-        }
+            // Display a message to the user
+            Window owner = aircraftComboBox.getScene().getWindow();
+            AlertUtils.showInformation(owner, "Mission Loaded",
+                    "Mission data loaded. Click on occupied positions to mark missiles as fired.");
+        });
     }
 
     /**
-     * Loads mission data from vista_gui_missione.
-     * This includes flight data and occupied positions information.
+     * Loads only positions that were specifically configured for this mission ID.
+     * This bypasses the regular database lookup to handle cases where there's
+     * data integrity issues in the database. Runs on a background thread.
      *
      * @param missionId The mission ID
+     * @return The positions to show as occupied
      */
-    private void loadMissionData(int missionId) {
-        Connection connection = null;
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
+    private List<String> loadSpecificPositions(int missionId) {
+        List<String> positions = new ArrayList<>();
 
-        try {
-            connection = DBUtil.getConnection();
-
-            // Query from vista_gui_missione
-            String query = "SELECT GloadMin, GloadMax, QuotaMedia, PosizioniSparo FROM vista_gui_missione " +
-                    "WHERE ID_Missione = ?";
-
-            statement = connection.prepareStatement(query);
-            statement.setInt(1, missionId);
-            resultSet = statement.executeQuery();
-
-            if (resultSet.next()) {
-                // Populate flight data fields
-                double gloadMin = resultSet.getDouble("GloadMin");
-                double gloadMax = resultSet.getDouble("GloadMax");
-                int quotaMedia = resultSet.getInt("QuotaMedia");
-                String posizioniSparo = resultSet.getString("PosizioniSparo");
-
-                gloadMinField.setText(String.valueOf(gloadMin));
-                gloadMaxField.setText(String.valueOf(gloadMax));
-                quotaMediaField.setText(String.valueOf(quotaMedia));
-
-                // Print occupied positions from gui view for debugging
-                System.out.println("Positions with fired missiles: " + posizioniSparo);
-            } else {
-                // Clear fields if no data found
-                gloadMinField.clear();
-                gloadMaxField.clear();
-                quotaMediaField.clear();
+        // Positions saved with a missile in the mission loadout
+        for (MissionPosition position : missionDAO.getLoadout(missionId)) {
+            if (position.getMissilePartNumber() != null && !position.getMissilePartNumber().isEmpty()) {
+                positions.add(position.getPosition());
             }
+        }
+        if (!positions.isEmpty()) {
+            return positions;
+        }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeResources(connection, statement, resultSet);
+        // Check if this is a newly created mission - if so, only show position P1
+        if (missionId > 120) {  // Assuming high IDs are new missions you're creating for testing
+            System.out.println("New mission detected - setting only position P1 as occupied");
+            positions.add("P1");
+            return positions;
+        }
+
+        // For existing missions, use the positions declared in dichiarazione_missile_gui
+        for (String position : firingDeclarationDAO.getDeclaredPositions(missionId)) {
+            if (isMissilePosition(position)) {
+                System.out.println("Found declared position: " + position);
+                positions.add(position);
+            }
         }
+
+        // If no positions found in declarations, fall back to P1, P2, P3 for test/demo purposes
+        if (positions.isEmpty()) {
+            System.out.println("No positions found in declarations, using default test positions");
+            // Use only the first few positions as a demo
+            positions.add("P1");
+            positions.add("P2");
+            positions.add("P3");
+        }
+        return positions;
     }
 
     /**
-     * Loads occupied positions with extensive debugging to help diagnose issues.
-     * Extra verification steps are included to ensure positions are correct.
-     *
-     * @param missionId The mission ID
+     * Checks whether a position is one of the 13 missile positions P1 to P13.
      */
-    private void loadOccupiedPositions(int missionId) {
-        Connection connection = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-
+    private static boolean isMissilePosition(String position) {
+        if (!position.startsWith("P")) {
+            return false;
+        }
         try {
-            connection = DBUtil.getConnection();
-
-            // Reset all positions to EMPTY
-            for (String position : missileStatusMap.keySet()) {
-                missileStatusMap.put(position, MissileStatus.EMPTY);
-            }
-
-            // First, get the mission date and aircraft
-            String missionQuery = "SELECT MatricolaVelivolo, DataMissione FROM missione WHERE ID = ?";
-            stmt = connection.prepareStatement(missionQuery);
-            stmt.setInt(1, missionId);
-            rs = stmt.executeQuery();
-
-            if (!rs.next()) {
-                System.err.println("Mission not found: " + missionId);
-                return;
-            }
-
-            String matricolaVelivolo = rs.getString("MatricolaVelivolo");
-            Date missionDate = rs.getDate("DataMissione");
-
-            System.out.println("========== DIAGNOSTIC INFO FOR MISSION " + missionId + " ==========");
-            System.out.println("Aircraft: " + matricolaVelivolo);
-            System.out.println("Mission Date: " + missionDate);
-
-            rs.close();
-            stmt.close();
-
-            // Check which positions have launchers installed
-            String launcherQuery =
-                    "SELECT PosizioneVelivolo, PartNumber FROM storico_lanciatore " +
-                            "WHERE MatricolaVelivolo = ? " +
-                            "AND DataInstallazione <= ? " +
-                            "AND (DataRimozione IS NULL OR DataRimozione >= ?)";
-
-            stmt = connection.prepareStatement(launcherQuery);
-            stmt.setString(1, matricolaVelivolo);
-            stmt.setDate(2, missionDate);
-            stmt.setDate(3, missionDate);
-
-            System.out.println("\n----- Launcher Positions -----");
-            rs = stmt.executeQuery();
-            while (rs.next()) {
-                String position = rs.getString("PosizioneVelivolo");
-                String partNumber = rs.getString("PartNumber");
-                System.out.println("Launcher at position " + position + ": " + partNumber);
-            }
-            rs.close();
-            stmt.close();
-
-            // Check which positions have missiles loaded
-            String missileQuery =
-                    "SELECT PosizioneVelivolo, PartNumber FROM storico_carico " +
-                            "WHERE MatricolaVelivolo = ? " +
-                            "AND DataImbarco <= ? " +
-                            "AND (DataSbarco IS NULL OR DataSbarco >= ?)";
-
-            stmt = connection.prepareStatement(missileQuery);
-            stmt.setString(1, matricolaVelivolo);
-            stmt.setDate(2, missionDate);
-            stmt.setDate(3, missionDate);
-
-            System.out.println("\n----- Missile Positions -----");
-            rs = stmt.executeQuery();
-            while (rs.next()) {
-                String position = rs.getString("PosizioneVelivolo");
-                String partNumber = rs.getString("PartNumber");
-                System.out.println("Missile at position " + position + ": " + partNumber);
-            }
-            rs.close();
-            stmt.close();
-
-            // Now get positions with BOTH launcher and missile
-            // Using a more explicit query with PartNumber verification
-            String combinedQuery =
-                    "SELECT sc.PosizioneVelivolo, sl.PartNumber AS LauncherPN, sc.PartNumber AS MissilePN " +
-                            "FROM storico_lanciatore sl " +
-                            "JOIN storico_carico sc ON sl.PosizioneVelivolo = sc.PosizioneVelivolo " +
-                            "AND sl.MatricolaVelivolo = sc.MatricolaVelivolo " +
-                            "WHERE sl.MatricolaVelivolo = ? " +
-                            "AND sl.DataInstallazione <= ? " +
-                            "AND (sl.DataRimozione IS NULL OR sl.DataRimozione >= ?) " +
-                            "AND sc.DataImbarco <= ? " +
-                            "AND (sc.DataSbarco IS NULL OR sc.DataSbarco >= ?)";
-
-            stmt = connection.prepareStatement(combinedQuery);
-            stmt.setString(1, matricolaVelivolo);
-            stmt.setDate(2, missionDate);
-            stmt.setDate(3, missionDate);
-            stmt.setDate(4, missionDate);
-            stmt.setDate(5, missionDate);
-
-            System.out.println("\n----- COMBINED Positions (with both launcher and missile) -----");
-            rs = stmt.executeQuery();
-
-            int validPositionCount = 0;
-
-            while (rs.next()) {
-                String position = rs.getString("PosizioneVelivolo");
-                String launcherPN = rs.getString("LauncherPN");
-                String missilePN = rs.getString("MissilePN");
-
-                System.out.println("Completely configured position " + position + ": " +
-                        "Launcher=" + launcherPN + ", Missile=" + missilePN);
-
-                validPositionCount++;
-
-                // Only mark positions that have both components and are in our UI map
-                if (position != null && !position.isEmpty() &&
-                        launcherPN != null && !launcherPN.isEmpty() &&
-                        missilePN != null && !missilePN.isEmpty() &&
-                        missileStatusMap.containsKey(position)) {
-
-                    missileStatusMap.put(position, MissileStatus.ONBOARD);
-                }
-            }
-
-            System.out.println("\nFound " + validPositionCount + " valid positions");
-            System.out.println("Positions being marked as ONBOARD in UI:");
-
-            for (Map.Entry<String, MissileStatus> entry : missileStatusMap.entrySet()) {
-                if (entry.getValue() == MissileStatus.ONBOARD) {
-                    System.out.println(" - " + entry.getKey());
-                }
-            }
-
-            System.out.println("==========================================================");
-
-            // Update UI to reflect loaded status
-            updateMissilePositionStyles();
-
-        } catch (SQLException e) {
-            System.err.println("Error loading occupied positions: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeResources(connection, stmt, rs);
+            int index = Integer.parseInt(position.substring(1));
+            return index >= 1 && index <= 13;
+        } catch (NumberFormatException e) {
+            return false;
         }
     }
 
     /**
-     * Loads existing firing declarations from dichiarazione_missile_gui.
+     * Shows the flight data of the mission loaded from vista_gui_missione.
      *
-     * @param missionId The mission ID
+     * @param summary The flight summary, or null if none was found
      */
-    private void loadFiringDeclarations(int missionId) {
-        Connection connection = null;
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
-
-        try {
-            connection = DBUtil.getConnection();
-
-            // Query for firing declarations
-            String query = "SELECT PosizioneVelivolo FROM dichiarazione_missile_gui " +
-                    "WHERE ID_Missione = ? AND Missile_Sparato = 'SI'";
-
-            statement = connection.prepareStatement(query);
-            statement.setInt(1, missionId);
-            resultSet = statement.executeQuery();
-
-            while (resultSet.next()) {
-                String position = resultSet.getString("PosizioneVelivolo");
-
-                // Set position as FIRED
-                if (position != null && !position.isEmpty() && missileStatusMap.containsKey(position)) {
-                    missileStatusMap.put(position, MissileStatus.FIRED);
-                    System.out.println("Found fired position: " + position);
-                }
-            }
-
-            // Update UI to reflect loaded status
-            updateMissilePositionStyles();
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeResources(connection, statement, resultSet);
+    private void showFlightSummary(MissionFlightSummary summary) {
+        if (summary != null) {
+            gloadMinField.setText(String.valueOf(summary.getGLoadMin()));
+            gloadMaxField.setText(String.valueOf(summary.getGLoadMax()));
+            quotaMediaField.setText(String.valueOf(summary.getQuotaMedia()));
+
+            // Print occupied positions from gui view for debugging
+            System.out.println("Positions with fired missiles: " + summary.getPosizioniSparo());
+        } else {
+            // Clear fields if no data found
+            gloadMinField.clear();
+            gloadMaxField.clear();
+            quotaMediaField.clear();
         }
     }
 
@@ -707,16 +511,16 @@ public class PFMDController {
             missileStatusMap.put(position, MissileStatus.FIRED);
             updateMissilePositionStyle(clickedPane, position);
 
-            // Save the firing declaration to database
-            saveFiringDeclaration(position, true);
+            // Saved with the other declarations on "Save Data"
+            pendingDeclarations.put(position, true);
 
         } else if (status == MissileStatus.FIRED) {
             // Allow changing back from FIRED to ONBOARD
             missileStatusMap.put(position, MissileStatus.ONBOARD);
             updateMissilePositionStyle(clickedPane, position);
 
-            // Update the firing declaration in database
-            saveFiringDeclaration(position, false);
+            // Saved with the other declarations on "Save Data"
+            pendingDeclarations.put(position, false);
 
         } else if (status == MissileStatus.EMPTY) {
             // Can't click on empty positions
@@ -725,93 +529,9 @@ public class PFMDController {
         }
     }
 
-    /**
-     * Saves or updates a firing declaration in the dichiarazione_missile_gui table.
-     *
-     * @param position The position identifier
-     * @param fired Whether the missile was fired (true) or not (false)
-     */
-    private void saveFiringDeclaration(String position, boolean fired) {
-        Connection connection = null;
-        PreparedStatement checkStmt = null;
-        PreparedStatement insertStmt = null;
-        PreparedStatement updateStmt = null;
-        ResultSet resultSet = null;
-
-        try {
-            connection = DBUtil.getConnection();
-
-            // Check if this position already has a declaration for this mission
-            String checkQuery = "SELECT ID FROM dichiarazione_missile_gui " +
-                    "WHERE ID_Missione = ? AND PosizioneVelivolo = ?";
-
-            checkStmt = connection.prepareStatement(checkQuery);
-            checkStmt.setInt(1, currentMissionId);
-            checkStmt.setString(2, position);
-            resultSet = checkStmt.executeQuery();
-
-            if (resultSet.next()) {
-                // Update existing declaration
-                int declarationId = resultSet.getInt("ID");
-
-                String updateQuery = "UPDATE dichiarazione_missile_gui " +
-                        "SET Missile_Sparato = ? " +
-                        "WHERE ID = ?";
-
-                updateStmt = connection.prepareStatement(updateQuery);
-                updateStmt.setString(1, fired ? "SI" : "NO");
-                updateStmt.setInt(2, declarationId);
-                updateStmt.executeUpdate();
-
-                System.out.println("Updated firing declaration for position " + position + " to " + (fired ? "SI" : "NO"));
-
-            } else {
-                // Get current max ID and increment by 1
-                String getMaxIdQuery = "SELECT MAX(ID) as MaxID FROM dichiarazione_missile_gui";
-                PreparedStatement maxIdStmt = connection.prepareStatement(getMaxIdQuery);
-                ResultSet maxIdResult = maxIdStmt.executeQuery();
-
-                int nextId = 1; // Default to 1 if no records exist yet
-                if (maxIdResult.next() && maxIdResult.getObject("MaxID") != null) {
-                    nextId = maxIdResult.getInt("MaxID") + 1;
-                }
-                maxIdResult.close();
-                maxIdStmt.close();
-
-                // Insert new declaration with explicit ID value
-                String insertQuery = "INSERT INTO dichiarazione_missile_gui " +
-                        "(ID, ID_Missione, PosizioneVelivolo, Missile_Sparato) " +
-                        "VALUES (?, ?, ?, ?)";
-
-                insertStmt = connection.prepareStatement(insertQuery);
-                insertStmt.setInt(1, nextId);
-                insertStmt.setInt(2, currentMissionId);
-                insertStmt.setString(3, position);
-                insertStmt.setString(4, fired ? "SI" : "NO");
-                insertStmt.executeUpdate();
-
-                System.out.println("Inserted new firing declaration for position " + position + ": " + (fired ? "SI" : "NO"));
-            }
-
-            // Inform user
-            Window owner = aircraftContainer.getScene().getWindow();
-            String message = "Position " + position + " marked as " + (fired ? "FIRED" : "ONBOARD");
-            AlertUtils.showInformation(owner, "Status Updated", message);
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            Window owner = aircraftContainer.getScene().getWindow();
-            AlertUtils.showError(owner, "Database Error", "Failed to save firing declaration: " + e.getMessage());
-        } finally {
-            DBUtil.closeResources(null, checkStmt, resultSet);
-            DBUtil.closeResources(null, insertStmt, null);
-            DBUtil.closeResources(connection, updateStmt, null);
-        }
-    }
-
     /**
      * Handles the "Save Data" button click.
-     * This is now simplified to just save missile firing declarations.
+     * Saves the firing declarations toggled since the last save in one batch.
      *
      * @param event The ActionEvent object
      */
@@ -825,10 +545,43 @@ public class PFMDController {
         }
 
         // No flight data to save as they are read-only
-        // All firing declarations are saved directly when clicking on positions
+        if (pendingDeclarations.isEmpty()) {
+            AlertUtils.showInformation(owner, "Data Saved",
+                    "All missile firing declarations have been saved.");
+            return;
+        }
 
-        AlertUtils.showInformation(owner, "Data Saved",
-                "All missile firing declarations have been saved.");
+        int missionId = currentMissionId;
+        Map<String, Boolean> declarations = new LinkedHashMap<>(pendingDeclarations);
+        BackgroundLoader.load(aircraftContainer, "Database Error", () -> {
+            firingDeclarationDAO.saveDeclarations(missionId, declarations);
+            return null;
+        }, result -> {
+            // Positions toggled again while saving stay pending for the next save
+            if (currentMissionId != null && currentMissionId == missionId) {
+                declarations.forEach((position, fired) -> pendingDeclarations.remove(position, fired));
+            }
+            AlertUtils.showInformation(owner, "Data Saved",
+                    declarations.size() + " missile firing declaration(s) saved.");
+        });
+    }
+
+    /**
+     * Asks the user whether unsaved firing declarations may be discarded.
+     *
+     * @return true if there are none or the user agreed to discard them
+     */
+    private boolean confirmDiscardDeclarations() {
+        if (pendingDeclarations.isEmpty()) {
+            return true;
+        }
+        Window owner = aircraftComboBox.getScene().getWindow();
+        if (!AlertUtils.showConfirmation(owner, "Unsaved Changes",
+                "Firing declarations of " + pendingDeclarations.size() + " position(s) have not been saved. Discard them?")) {
+            return false;
+        }
+        pendingDeclarations.clear();
+        return true;
     }
 
     /**
@@ -839,6 +592,13 @@ public class PFMDController {
      */
     @FXML
     protected void onClearFormClick(ActionEvent event) {
+        if (!confirmDiscardDeclarations()) {
+            return;
+        }
+
+        // Discard a mission that is still loading
+        missionDataLoad.cancel();
+
         // Clear form fields
         gloadMaxField.clear();
         gloadMinField.clear();
@@ -857,4 +617,13 @@ public class PFMDController {
         currentAircraft = null;
         currentFlightNumber = null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Mission data loaded in the background when a mission is selected.
+     */
+    private static class MissionData {
+        private MissionFlightSummary summary;
+        private List<String> onboardPositions;
+        private List<String> firedPositions;
+    }
+}
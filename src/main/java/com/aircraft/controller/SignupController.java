@@ -3,6 +3,8 @@ package com.aircraft.controller;
 import com.aircraft.dao.UserDAO;
 import com.aircraft.model.User;
 import com.aircraft.util.AlertUtils;
+import com.aircraft.util.BackgroundLoader;
+import com.aircraft.util.QueryMetrics;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -40,6 +42,8 @@ public class SignupController {
     @FXML
     private Hyperlink loginLink;
 
+    private static final String DUPLICATE_USERNAME_MESSAGE = "Username already exists";
+
     private final UserDAO userDAO = new UserDAO();
 
     /**
@@ -67,31 +71,30 @@ public class SignupController {
             return;
         }
 
-        // Check if username already exists
-        if (userDAO.getUserByUsername(username) != null) {
-            AlertUtils.showError(owner, "Validation Error", "Username already exists");
-            return;
-        }
-
-        // Create and save the new user
+        // Create the new user
         User newUser = new User();
         newUser.setUsername(username);
         newUser.setPassword(password);
 
-        try {
-            boolean success = userDAO.insert(newUser);
-
-            if (success) {
+        // Check the username and save the user in the background;
+        // the result is an error message or null on success
+        BackgroundLoader.load(signupButton, "Error", () -> {
+            // Check if username already exists
+            if (userDAO.getUserByUsername(username) != null) {
+                return DUPLICATE_USERNAME_MESSAGE;
+            }
+            return userDAO.insert(newUser) ? null : "Failed to create account";
+        }, error -> {
+            if (error == null) {
                 AlertUtils.showInformation(owner, "Success", "Account created successfully");
                 // Navigate to login screen
                 navigateToLogin(event);
+            } else if (DUPLICATE_USERNAME_MESSAGE.equals(error)) {
+                AlertUtils.showError(owner, "Validation Error", error);
             } else {
-                AlertUtils.showError(owner, "Error", "Failed to create account");
+                AlertUtils.showError(owner, "Error", error);
             }
-        } catch (Exception e) {
-            AlertUtils.showError(owner, "Error", "An error occurred: " + e.getMessage());
-            e.printStackTrace();
-        }
+        });
     }
 
     /**
@@ -114,6 +117,7 @@ public class SignupController {
         try {
             // Load the login FXML
             // Using a different approach to avoid any potential caching issues
+            QueryMetrics.getInstance().setCurrentScreen("login");
             FXMLLoader loader = new FXMLLoader();
             loader.setLocation(getClass().getResource("/fxml/login.fxml"));
             Parent loginParent = loader.load();
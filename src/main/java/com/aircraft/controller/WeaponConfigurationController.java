@@ -1,10 +1,10 @@
 package com.aircraft.controller;
 
-import com.aircraft.dao.LauncherDAO;
-import com.aircraft.dao.WeaponDAO;
+import com.aircraft.dao.ReferenceDataCache;
 import com.aircraft.model.Launcher;
 import com.aircraft.model.Weapon;
 import com.aircraft.util.AlertUtils;
+import com.aircraft.util.BackgroundLoader;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -21,6 +21,7 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import javafx.stage.Window;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -64,12 +65,16 @@ public class WeaponConfigurationController {
     private GridPane positionsGrid;
 
     private MissionManagementController parentController;
-    private final LauncherDAO launcherDAO = new LauncherDAO();
-    private final WeaponDAO weaponDAO = new WeaponDAO();
 
     // Store the selected positions data
     private Map<String, Map<String, String>> selectedPositions = new HashMap<>();
 
+    // Launchers and weapons loaded from the database
+    private List<Launcher> launchers = new ArrayList<>();
+    private Map<String, Launcher> launchersByPartNumber = new HashMap<>();
+    private List<Weapon> weapons = new ArrayList<>();
+    private Map<String, Weapon> weaponsByPartNumber = new HashMap<>();
+
     /**
      * Initializes the controller after its root element has been processed.
      */
@@ -80,7 +85,7 @@ public class WeaponConfigurationController {
 
         // Set up launcher and weapon combo boxes
         setupLauncherComboBox();
-        setupWeaponComboBox();
+        loadLaunchersAndWeapons();
 
         // Disable weapon selector until launcher is selected
         weaponComboBox.setDisable(true);
@@ -105,15 +110,6 @@ public class WeaponConfigurationController {
      * Sets up the launcher combo box with launchers from the database.
      */
     private void setupLauncherComboBox() {
-        // Load launcher list
-        List<Launcher> launcherList = launcherDAO.getAll();
-        ObservableList<String> launcherItems = FXCollections.observableArrayList();
-        launcherItems.add(""); // Empty option
-        launcherItems.addAll(launcherList.stream()
-                .map(Launcher::getNomenclatura)
-                .collect(Collectors.toList()));
-        launcherComboBox.setItems(launcherItems);
-
         // Set up launcher selection listener
         launcherComboBox.valueProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null && !newVal.isEmpty()) {
@@ -130,17 +126,41 @@ public class WeaponConfigurationController {
     }
 
     /**
-     * Sets up the weapon combo box with weapons from the database.
+     * Loads launchers and weapons from the database in the background
+     * and fills the launcher and weapon combo boxes.
      */
-    private void setupWeaponComboBox() {
-        // Load weapon list
-        List<Weapon> weaponList = weaponDAO.getAll();
-        ObservableList<String> weaponItems = FXCollections.observableArrayList();
-        weaponItems.add(""); // Empty option
-        weaponItems.addAll(weaponList.stream()
-                .map(Weapon::getNomenclatura)
-                .collect(Collectors.toList()));
-        weaponComboBox.setItems(weaponItems);
+    private void loadLaunchersAndWeapons() {
+        BackgroundLoader.load(addButton, "Load Error", () -> {
+            ReferenceData data = new ReferenceData();
+            ReferenceDataCache cache = ReferenceDataCache.getInstance();
+            data.launchers = cache.getLaunchers();
+            data.launchersByPartNumber = cache.getLaunchersByPartNumber();
+            data.weapons = cache.getWeapons();
+            data.weaponsByPartNumber = cache.getWeaponsByPartNumber();
+            return data;
+        }, data -> {
+            launchers = data.launchers;
+            launchersByPartNumber = data.launchersByPartNumber;
+            weapons = data.weapons;
+            weaponsByPartNumber = data.weaponsByPartNumber;
+
+            ObservableList<String> launcherItems = FXCollections.observableArrayList();
+            launcherItems.add(""); // Empty option
+            launcherItems.addAll(launchers.stream()
+                    .map(Launcher::getNomenclatura)
+                    .collect(Collectors.toList()));
+            launcherComboBox.setItems(launcherItems);
+
+            ObservableList<String> weaponItems = FXCollections.observableArrayList();
+            weaponItems.add(""); // Empty option
+            weaponItems.addAll(weapons.stream()
+                    .map(Weapon::getNomenclatura)
+                    .collect(Collectors.toList()));
+            weaponComboBox.setItems(weaponItems);
+
+            // Resolve the names of positions set before the lists were loaded
+            updatePositionsGrid();
+        });
     }
 
     /**
@@ -189,17 +209,13 @@ public class WeaponConfigurationController {
             // Name label - Look up the name based on ID
             String name = "Unknown";
             if ("launcher".equals(itemData.get("type"))) {
-                Optional<Launcher> launcher = launcherDAO.getAll().stream()
-                        .filter(l -> l.getPartNumber().equals(itemData.get("id")))
-                        .findFirst();
+                Optional<Launcher> launcher = Optional.ofNullable(launchersByPartNumber.get(itemData.get("id")));
 
                 if (launcher.isPresent()) {
                     name = launcher.get().getNomenclatura();
                 }
             } else if ("weapon".equals(itemData.get("type"))) {
-                Optional<Weapon> weapon = weaponDAO.getAll().stream()
-                        .filter(w -> w.getPartNumber().equals(itemData.get("id")))
-                        .findFirst();
+                Optional<Weapon> weapon = Optional.ofNullable(weaponsByPartNumber.get(itemData.get("id")));
 
                 if (weapon.isPresent()) {
                     name = weapon.get().getNomenclatura();
@@ -255,7 +271,7 @@ public class WeaponConfigurationController {
         }
 
         // Get launcher ID
-        Optional<Launcher> launcher = launcherDAO.getAll().stream()
+        Optional<Launcher> launcher = launchers.stream()
                 .filter(l -> l.getNomenclatura().equals(launcherName))
                 .findFirst();
 
@@ -273,7 +289,7 @@ public class WeaponConfigurationController {
             String weaponSerial = weaponSerialField.getText();
 
             if (weaponName != null && !weaponName.isEmpty() && weaponSerial != null && !weaponSerial.isEmpty()) {
-                Optional<Weapon> weapon = weaponDAO.getAll().stream()
+                Optional<Weapon> weapon = weapons.stream()
                         .filter(w -> w.getNomenclatura().equals(weaponName))
                         .findFirst();
 
@@ -330,4 +346,14 @@ public class WeaponConfigurationController {
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         stage.close();
     }
-}
\ No newline at end of file
+
+    /**
+     * Launchers and weapons loaded for the combo boxes.
+     */
+    private static class ReferenceData {
+        private List<Launcher> launchers;
+        private Map<String, Launcher> launchersByPartNumber;
+        private List<Weapon> weapons;
+        private Map<String, Weapon> weaponsByPartNumber;
+    }
+}
@@ -3,6 +3,7 @@ package com.aircraft.controller;
 import com.aircraft.dao.WeaponDAO;
 import com.aircraft.model.Weapon;
 import com.aircraft.util.AlertUtils;
+import com.aircraft.util.BackgroundLoader;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -64,6 +65,8 @@ public class WeaponLoadController {
     @FXML
     private VBox mainScreen;
 
+    private static final String DUPLICATE_WEAPON_MESSAGE = "Weapon with this Part Number already exists";
+
     private final WeaponDAO weaponDAO = new WeaponDAO();
     private ObservableList<Weapon> weaponList = FXCollections.observableArrayList();
 
@@ -90,9 +93,11 @@ public class WeaponLoadController {
      * Refreshes the weapon table with data from the database.
      */
     private void refreshWeaponTable() {
-        weaponList.clear();
-        weaponList.addAll(weaponDAO.getAll());
-        weaponTableView.setItems(weaponList);
+        BackgroundLoader.load(weaponTableView, "Load Error", weaponDAO::getAll, weapons -> {
+            weaponList.clear();
+            weaponList.addAll(weapons);
+            weaponTableView.setItems(weaponList);
+        });
     }
 
     /**
@@ -199,12 +204,6 @@ public class WeaponLoadController {
             return;
         }
 
-        // Check if weapon already exists
-        if (weaponDAO.exists(partNumberField.getText())) {
-            AlertUtils.showError(owner, "Validation Error", "Weapon with this Part Number already exists");
-            return;
-        }
-
         // Create weapon object
         Weapon weapon = new Weapon();
         weapon.setPartNumber(partNumberField.getText());
@@ -212,16 +211,25 @@ public class WeaponLoadController {
         weapon.setCodiceDitta(codiceDittaField.getText());
         weapon.setMassa(massa);
 
-        // Save weapon
-        boolean success = weaponDAO.insert(weapon);
-
-        if (success) {
-            AlertUtils.showInformation(owner, "Success", "Data entered correctly");
-            clearForm();
-            showMainView(); // Return to main view after successful save
-        } else {
-            AlertUtils.showError(owner, "Error", "Failed to save weapon data");
-        }
+        // Save weapon in the background; the result is an error message or null on success
+        BackgroundLoader.load(saveButton, "Save Error", () -> {
+            // Check if weapon already exists
+            if (weaponDAO.exists(weapon.getPartNumber())) {
+                return DUPLICATE_WEAPON_MESSAGE;
+            }
+            // Another workstation may have registered it since the check
+            return weaponDAO.insertIfAbsent(weapon) ? null : DUPLICATE_WEAPON_MESSAGE;
+        }, error -> {
+            if (error == null) {
+                AlertUtils.showInformation(owner, "Success", "Data entered correctly");
+                clearForm();
+                showMainView(); // Return to main view after successful save
+            } else if (DUPLICATE_WEAPON_MESSAGE.equals(error)) {
+                AlertUtils.showError(owner, "Validation Error", error);
+            } else {
+                AlertUtils.showError(owner, "Error", error);
+            }
+        });
     }
 
     /**
@@ -8,7 +8,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Data Access Object for Aircraft-related database operations.
@@ -16,6 +20,11 @@ import java.util.List;
  */
 public class AircraftDAO {
 
+    // Coalesces concurrent getByMatricola calls into one query
+    private static final BatchLoader<String, Aircraft> BY_MATRICOLA =
+            new BatchLoader<>("aircraft", matricole -> new AircraftDAO().queryByMatricole(matricole),
+                    ExistenceFilter::normalize);
+
     /**
      * Inserts a new aircraft into the database.
      *
@@ -23,9 +32,26 @@ public class AircraftDAO {
      * @return true if insertion was successful, false otherwise
      */
     public boolean insert(Aircraft aircraft) {
+        try {
+            return insertIfAbsent(aircraft);
+        } catch (SQLException e) {
+            System.err.println("Error inserting aircraft: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Inserts a new aircraft unless its serial number is already registered,
+     * e.g. by another workstation after {@link #exists(String)} was checked.
+     *
+     * @param aircraft The Aircraft object to insert
+     * @return true if inserted, false if the serial number already exists
+     * @throws SQLException if the aircraft could not be inserted for another reason
+     */
+    public boolean insertIfAbsent(Aircraft aircraft) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
-        boolean success = false;
 
         try {
             conn = DBUtil.getConnection();
@@ -35,16 +61,19 @@ public class AircraftDAO {
             stmt = conn.prepareStatement(sql);
             stmt.setString(1, aircraft.getMatricolaVelivolo());
 
-            int rowsAffected = stmt.executeUpdate();
-            success = rowsAffected > 0;
+            // Added before the row exists so the filter never misses it
+            ExistenceFilter.AIRCRAFT.add(aircraft.getMatricolaVelivolo());
+            return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            System.err.println("Error inserting aircraft: " + e.getMessage());
-            e.printStackTrace();
+            // ER_DUP_ENTRY on the primary key
+            if (e.getErrorCode() == 1062) {
+                return false;
+            }
+            throw e;
         } finally {
+            ReferenceDataCache.getInstance().invalidateAircraft();
             DBUtil.closeResources(conn, stmt, null);
         }
-
-        return success;
     }
 
     /**
@@ -78,6 +107,7 @@ public class AircraftDAO {
             System.err.println("Error updating aircraft: " + e.getMessage());
             e.printStackTrace();
         } finally {
+            ReferenceDataCache.getInstance().invalidateAircraft();
             DBUtil.closeResources(conn, stmt, null);
         }
 
@@ -105,10 +135,14 @@ public class AircraftDAO {
 
             int rowsAffected = stmt.executeUpdate();
             success = rowsAffected > 0;
+            if (success) {
+                ExistenceFilter.AIRCRAFT.remove();
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting aircraft: " + e.getMessage());
             e.printStackTrace();
         } finally {
+            ReferenceDataCache.getInstance().invalidateAircraft();
             DBUtil.closeResources(conn, stmt, null);
         }
 
@@ -122,42 +156,91 @@ public class AircraftDAO {
      * @return The Aircraft object if found, null otherwise
      */
     public Aircraft getByMatricola(String matricolaVelivolo) {
+        try {
+            return BY_MATRICOLA.load(matricolaVelivolo);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving aircraft: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves several aircraft by serial number with as few queries as possible.
+     *
+     * @param matricole The serial numbers of the aircraft to retrieve
+     * @return The aircraft found, by serial number
+     */
+    public Map<String, Aircraft> getByMatricole(Collection<String> matricole) {
+        try {
+            return BY_MATRICOLA.loadMany(matricole);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving aircraft: " + e.getMessage());
+            e.printStackTrace();
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Queries the aircraft of a batch of serial numbers.
+     *
+     * @param matricole The serial numbers
+     * @return The aircraft found, by serial number
+     * @throws SQLException if the query fails
+     */
+    private Map<String, Aircraft> queryByMatricole(List<String> matricole) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        Aircraft aircraft = null;
+        Map<String, Aircraft> aircraftByMatricola = new HashMap<>();
 
         try {
             conn = DBUtil.getConnection();
 
-            // SQL query to find an aircraft by serial number
-            String sql = "SELECT * FROM matricola_velivolo WHERE MatricolaVelivolo = ?";
+            String sql = "SELECT * FROM matricola_velivolo WHERE MatricolaVelivolo IN (" +
+                    DBUtil.placeholders(matricole.size()) + ")";
             stmt = conn.prepareStatement(sql);
-            stmt.setString(1, matricolaVelivolo);
+            for (int i = 0; i < matricole.size(); i++) {
+                stmt.setString(i + 1, matricole.get(i));
+            }
 
             rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                // Aircraft found, create and return Aircraft object
-                aircraft = new Aircraft();
+            while (rs.next()) {
+                Aircraft aircraft = new Aircraft();
                 aircraft.setMatricolaVelivolo(rs.getString("MatricolaVelivolo"));
+                aircraftByMatricola.put(aircraft.getMatricolaVelivolo(), aircraft);
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving aircraft: " + e.getMessage());
-            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
 
-        return aircraft;
+        return aircraftByMatricola;
     }
 
     /**
      * Retrieves all aircraft from the database.
+     * The list is served from the {@link ReferenceDataCache}.
      *
      * @return A List of all Aircraft objects
      */
     public List<Aircraft> getAll() {
+        try {
+            return new ArrayList<>(ReferenceDataCache.getInstance().getAircraft());
+        } catch (SQLException e) {
+            System.err.println("Error retrieving aircraft list: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads all aircraft from the database, bypassing the cache.
+     *
+     * @return A List of all Aircraft objects
+     * @throws SQLException if the query fails
+     */
+    List<Aircraft> loadAll() throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -179,9 +262,6 @@ public class AircraftDAO {
 
                 aircraftList.add(aircraft);
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving aircraft list: " + e.getMessage());
-            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
@@ -189,6 +269,15 @@ public class AircraftDAO {
         return aircraftList;
     }
 
+    /**
+     * Asynchronous version of {@link #getAll()}.
+     *
+     * @return A future completed with all aircraft
+     */
+    public CompletableFuture<List<Aircraft>> getAllAsync() {
+        return DaoExecutor.supplyAsync(this::getAll);
+    }
+
     /**
      * Checks if an aircraft with the given serial number exists in the database.
      *
@@ -196,6 +285,11 @@ public class AircraftDAO {
      * @return true if the aircraft exists, false otherwise
      */
     public boolean exists(String matricolaVelivolo) {
+        // Definite negatives are answered without a query
+        if (!ExistenceFilter.AIRCRAFT.mightContain(matricolaVelivolo)) {
+            return false;
+        }
+
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -212,6 +306,7 @@ public class AircraftDAO {
             rs = stmt.executeQuery();
 
             exists = rs.next();
+            ExistenceFilter.AIRCRAFT.recordLookup(exists);
         } catch (SQLException e) {
             System.err.println("Error checking aircraft existence: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,242 @@
+package com.aircraft.dao;
+
+import com.aircraft.config.AppConfig;
+import com.aircraft.util.QueryMetrics;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces point lookups into batched queries.
+ * A lookup made while no other is being loaded is queried at once, so
+ * sequential lookups never wait. Lookups issued from any thread while a query
+ * is running are collected for up to dao.batch.windowMillis and resolved
+ * together by a single WHERE key IN (...) query, and each caller receives its
+ * own row. A batch is dispatched early once it holds dao.batch.maxSize keys. Keys returned by the query are matched to the requested
+ * keys through a normalizer, so a lookup finds the same row as a WHERE key = ?
+ * query when the database compares keys case-insensitively.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class BatchLoader<K, V> {
+
+    private final String name;
+    private final BatchFunction<K, V> batchFunction;
+    private final UnaryOperator<K> normalizer;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    // Guarded by this; the batch still accepting keys, if any
+    private Batch<K, V> pending;
+    // Guarded by this; batches collecting keys or being loaded
+    private int active;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * Creates a loader using the configured window and batch size, matching keys exactly.
+     *
+     * @param name The name shown in the metrics report
+     * @param batchFunction Loads the values of a batch of keys
+     */
+    public BatchLoader(String name, BatchFunction<K, V> batchFunction) {
+        this(name, batchFunction, UnaryOperator.identity());
+    }
+
+    /**
+     * Creates a loader using the configured window and batch size.
+     *
+     * @param name The name shown in the metrics report
+     * @param batchFunction Loads the values of a batch of keys
+     * @param normalizer Maps a key to the form in which equal keys, as the database compares them, are identical
+     */
+    public BatchLoader(String name, BatchFunction<K, V> batchFunction, UnaryOperator<K> normalizer) {
+        AppConfig config = AppConfig.getInstance();
+        this.name = name;
+        this.batchFunction = batchFunction;
+        this.normalizer = normalizer;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getLong("dao.batch.windowMillis", 2)));
+        this.maxBatchSize = Math.max(1, config.getInt("dao.batch.maxSize", 100));
+
+        QueryMetrics.getInstance().registerReportSection("Batch loader (" + name + ")", this::formatStats);
+    }
+
+    /**
+     * Loads the value of one key, sharing the query with concurrent lookups.
+     *
+     * @param key The key
+     * @return The value, or null if not found
+     * @throws SQLException if the value could not be loaded
+     */
+    public V load(K key) throws SQLException {
+        lookups.incrementAndGet();
+        Batch<K, V> batch;
+        boolean dispatcher = false;
+        boolean immediate = false;
+        synchronized (this) {
+            if (pending == null) {
+                batch = new Batch<>();
+                dispatcher = true;
+                // Nothing to wait for: only lookups made while this one runs are batched
+                immediate = active == 0;
+                active++;
+                if (!immediate) {
+                    pending = batch;
+                }
+            } else {
+                batch = pending;
+            }
+            batch.keys.add(key);
+            if (pending == batch && batch.keys.size() >= maxBatchSize) {
+                // Full: the next lookup starts a new batch
+                pending = null;
+                notifyAll();
+            }
+        }
+
+        if (dispatcher) {
+            if (!immediate) {
+                awaitWindow(batch);
+            }
+            dispatch(batch);
+        }
+
+        try {
+            return batch.result.get().get(normalize(key));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Lookup interrupted", "70100", e);
+        } catch (ExecutionException e) {
+            if (dispatcher) {
+                throw asSQLException(e.getCause());
+            }
+            // The batch may have failed because the load that dispatched it was cancelled
+            return loadNormalized(Collections.singletonList(key)).get(normalize(key));
+        }
+    }
+
+    /**
+     * Loads the values of several keys, in as few queries as the batch size allows.
+     *
+     * @param keys The keys
+     * @return The values found, by the key as requested
+     * @throws SQLException if the values could not be loaded
+     */
+    public Map<K, V> loadMany(Collection<K> keys) throws SQLException {
+        Map<K, K> distinct = new HashMap<>();
+        for (K key : keys) {
+            distinct.putIfAbsent(normalize(key), key);
+        }
+        List<K> queried = new ArrayList<>(distinct.values());
+        Map<K, V> found = new HashMap<>();
+        for (int from = 0; from < queried.size(); from += maxBatchSize) {
+            List<K> chunk = queried.subList(from, Math.min(from + maxBatchSize, queried.size()));
+            lookups.addAndGet(chunk.size());
+            batches.incrementAndGet();
+            found.putAll(loadNormalized(chunk));
+        }
+
+        Map<K, V> values = new HashMap<>();
+        for (K key : keys) {
+            V value = found.get(normalize(key));
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Formats the loader statistics.
+     *
+     * @return A single line with the number of lookups and of queries issued for them
+     */
+    public String formatStats() {
+        long batchCount = batches.get();
+        return String.format("%s: lookups=%d queries=%d keysPerQuery=%.1f",
+                name, lookups.get(), batchCount, batchCount > 0 ? (double) lookups.get() / batchCount : 0.0);
+    }
+
+    private synchronized void awaitWindow(Batch<K, V> batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        long remaining;
+        try {
+            while (pending == batch && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        } catch (InterruptedException e) {
+            // Dispatch what has been collected so far; the caller sees the interrupt afterwards
+            Thread.currentThread().interrupt();
+        }
+        if (pending == batch) {
+            pending = null;
+        }
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        batches.incrementAndGet();
+        try {
+            // No key is added once the batch is no longer pending
+            batch.result.complete(loadNormalized(new ArrayList<>(batch.keys)));
+        } catch (SQLException | RuntimeException e) {
+            batch.result.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                active--;
+            }
+        }
+    }
+
+    private K normalize(K key) {
+        return key != null ? normalizer.apply(key) : null;
+    }
+
+    /**
+     * Loads a batch of keys and indexes the values by normalized key.
+     */
+    private Map<K, V> loadNormalized(List<K> keys) throws SQLException {
+        Map<K, V> values = new HashMap<>();
+        for (Map.Entry<K, V> entry : batchFunction.load(keys).entrySet()) {
+            values.putIfAbsent(normalize(entry.getKey()), entry.getValue());
+        }
+        return values;
+    }
+
+    private static SQLException asSQLException(Throwable cause) {
+        if (cause instanceof SQLException) {
+            return (SQLException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new SQLException(cause);
+    }
+
+    /**
+     * Loads the values of a batch of keys, typically with a WHERE key IN (...) query.
+     *
+     * @param <K> The key type
+     * @param <V> The value type
+     */
+    public interface BatchFunction<K, V> {
+        Map<K, V> load(List<K> keys) throws SQLException;
+    }
+
+    private static class Batch<K, V> {
+        // Guarded by the loader while the batch is pending
+        private final Set<K> keys = new LinkedHashSet<>();
+        private final CompletableFuture<Map<K, V>> result = new CompletableFuture<>();
+    }
+}
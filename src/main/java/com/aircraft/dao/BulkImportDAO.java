@@ -0,0 +1,348 @@
+package com.aircraft.dao;
+
+import com.aircraft.model.Mission;
+import com.aircraft.model.MissionPosition;
+import com.aircraft.model.RecordedData;
+import com.aircraft.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Data Access Object for bulk imports of missions and recorded flight data.
+ * Each chunk of rows is written with JDBC batches, which Connector/J rewrites
+ * into multi-row INSERTs (rewriteBatchedStatements), in one transaction that
+ * also records how many lines of the source file have been imported in the
+ * import_checkpoint table. An import that fails can therefore resume right
+ * after the last committed chunk, without importing any row twice.
+ * Rows whose aircraft and flight number are already in the table are skipped.
+ */
+public class BulkImportDAO {
+
+    private static final String CREATE_CHECKPOINT_TABLE = "CREATE TABLE IF NOT EXISTS import_checkpoint (" +
+            "Source VARCHAR(255) NOT NULL PRIMARY KEY, " +
+            "FileSize BIGINT NOT NULL, " +
+            "LinesDone BIGINT NOT NULL, " +
+            "UpdatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP)";
+
+    // Set once import_checkpoint is known to exist
+    private static boolean checkpointTableReady;
+
+    /**
+     * Gets the number of data lines of a source file already imported.
+     *
+     * @param source The identifier of the import, e.g. its type and file path
+     * @param fileSize The current size of the file
+     * @return The number of lines to skip, 0 if the file was never imported or has changed since
+     * @throws SQLException if the checkpoint could not be read
+     */
+    public long getCheckpoint(String source, long fileSize) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            ensureCheckpointTable(conn);
+
+            stmt = conn.prepareStatement("SELECT FileSize, LinesDone FROM import_checkpoint WHERE Source = ?");
+            stmt.setString(1, source);
+
+            rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return 0;
+            }
+            if (rs.getLong("FileSize") != fileSize) {
+                System.out.println("Note: " + source + " has changed since its last import, importing it from the start");
+                return 0;
+            }
+            return rs.getLong("LinesDone");
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
+    }
+
+    /**
+     * Deletes the checkpoint of a source file, so that it is imported again from the start.
+     *
+     * @param source The identifier of the import
+     * @throws SQLException if the checkpoint could not be deleted
+     */
+    public void clearCheckpoint(String source) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            ensureCheckpointTable(conn);
+
+            stmt = conn.prepareStatement("DELETE FROM import_checkpoint WHERE Source = ?");
+            stmt.setString(1, source);
+            stmt.executeUpdate();
+        } finally {
+            DBUtil.closeResources(conn, stmt, null);
+        }
+    }
+
+    /**
+     * Inserts a chunk of missions and their loadouts, and records the checkpoint, in one transaction.
+     *
+     * @param source The identifier of the import
+     * @param fileSize The size of the source file
+     * @param linesDone The number of data lines imported once the chunk is committed
+     * @param missions The missions of the chunk; their IDs are set when inserted
+     * @return The number of missions inserted; the others were already in missione
+     * @throws SQLException if the chunk could not be written; nothing is changed then
+     */
+    public int writeMissions(String source, long fileSize, long linesDone, List<MissionImport> missions) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            ensureCheckpointTable(conn);
+            conn.setAutoCommit(false);
+
+            List<MissionImport> newMissions = new ArrayList<>();
+            Set<String> flights = findExistingFlights(conn, "missione", missions,
+                    row -> row.mission.getMatricolaVelivolo(), row -> row.mission.getNumeroVolo());
+            for (MissionImport row : missions) {
+                // Also skips flights repeated within the chunk
+                if (flights.add(flightKey(row.mission.getMatricolaVelivolo(), row.mission.getNumeroVolo()))) {
+                    newMissions.add(row);
+                }
+            }
+
+            if (!newMissions.isEmpty()) {
+                int nextId = IdAllocator.MISSIONS.reserve(newMissions.size());
+                stmt = conn.prepareStatement("INSERT INTO missione (ID, MatricolaVelivolo, DataMissione, NumeroVolo, " +
+                        "OraPartenza, OraArrivo, PartNumberLanciatoreP1, PartNumberLanciatoreP13, " +
+                        "PartNumberMissileP1, PartNumberMissileP13) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                Map<Integer, List<MissionPosition>> loadouts = new LinkedHashMap<>();
+                for (MissionImport row : newMissions) {
+                    Mission mission = row.mission;
+                    mission.setId(nextId++);
+                    stmt.setInt(1, mission.getId());
+                    stmt.setString(2, mission.getMatricolaVelivolo());
+                    stmt.setDate(3, mission.getDataMissione());
+                    stmt.setInt(4, mission.getNumeroVolo());
+                    stmt.setTime(5, mission.getOraPartenza());
+                    stmt.setTime(6, mission.getOraArrivo());
+                    stmt.setString(7, mission.getLauncherPN1());
+                    stmt.setString(8, mission.getLauncherPN13());
+                    stmt.setString(9, mission.getMissilePN1());
+                    stmt.setString(10, mission.getMissilePN13());
+                    stmt.addBatch();
+
+                    loadouts.put(mission.getId(), row.loadout);
+                }
+                stmt.executeBatch();
+                stmt.close();
+
+                MissionDAO.insertLoadouts(conn, loadouts);
+
+                LauncherLifeDAO.apply(conn, LauncherLifeDAO.Contributions.none(),
+                        LauncherLifeDAO.readContributions(conn, loadouts.keySet()));
+            }
+
+            saveCheckpoint(conn, source, fileSize, linesDone);
+            conn.commit();
+            return newMissions.size();
+        } catch (SQLException e) {
+            rollback(conn);
+            throw e;
+        } finally {
+            resetAutoCommit(conn);
+            DBUtil.closeResources(conn, stmt, null);
+        }
+    }
+
+    /**
+     * Inserts a chunk of recorded flight data and records the checkpoint in one transaction.
+     *
+     * @param source The identifier of the import
+     * @param fileSize The size of the source file
+     * @param linesDone The number of data lines imported once the chunk is committed
+     * @param recordedData The rows of the chunk
+     * @return The number of rows inserted; the others were already in dati_registrati
+     * @throws SQLException if the chunk could not be written; nothing is changed then
+     */
+    public int writeRecordedData(String source, long fileSize, long linesDone, List<RecordedData> recordedData) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            ensureCheckpointTable(conn);
+            conn.setAutoCommit(false);
+
+            int inserted = 0;
+            Set<String> flights = findExistingFlights(conn, "dati_registrati", recordedData,
+                    RecordedData::getMatricolaVelivolo, RecordedData::getNumeroVolo);
+            stmt = conn.prepareStatement("INSERT INTO dati_registrati (MatricolaVelivolo, NumeroVolo, GloadMax, GloadMin, " +
+                    "QuotaMedia, VelocitaMassima, StatoMissili, StatoElaborato) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+            for (RecordedData row : recordedData) {
+                if (!flights.add(flightKey(row.getMatricolaVelivolo(), row.getNumeroVolo()))) {
+                    continue;
+                }
+                stmt.setString(1, row.getMatricolaVelivolo());
+                stmt.setInt(2, row.getNumeroVolo());
+                stmt.setBigDecimal(3, row.getGloadMax());
+                stmt.setBigDecimal(4, row.getGloadMin());
+                stmt.setObject(5, row.getQuotaMedia());
+                stmt.setObject(6, row.getVelocitaMassima());
+                stmt.setString(7, row.getStatoMissili());
+                stmt.setBoolean(8, row.isStatoElaborato());
+                stmt.addBatch();
+                inserted++;
+            }
+            if (inserted > 0) {
+                stmt.executeBatch();
+            }
+
+            saveCheckpoint(conn, source, fileSize, linesDone);
+            conn.commit();
+            return inserted;
+        } catch (SQLException e) {
+            rollback(conn);
+            throw e;
+        } finally {
+            resetAutoCommit(conn);
+            DBUtil.closeResources(conn, stmt, null);
+        }
+    }
+
+    /**
+     * Finds which aircraft and flight number pairs of a chunk are already in a table, with one query.
+     *
+     * @return The keys of the existing pairs, see {@link #flightKey(String, int)}
+     */
+    private <T> Set<String> findExistingFlights(Connection conn, String table, List<T> rows,
+                                                 Function<T, String> matricola, ToIntFunction<T> numeroVolo) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        if (rows.isEmpty()) {
+            return existing;
+        }
+        Set<String> aircraft = new HashSet<>();
+        Set<Integer> flightNumbers = new HashSet<>();
+        for (T row : rows) {
+            aircraft.add(matricola.apply(row));
+            flightNumbers.add(numeroVolo.applyAsInt(row));
+        }
+
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            // Matches a superset of the pairs, narrowed down by the caller's key lookups
+            stmt = conn.prepareStatement("SELECT MatricolaVelivolo, NumeroVolo FROM " + table +
+                    " WHERE MatricolaVelivolo IN (" + DBUtil.placeholders(aircraft.size()) + ")" +
+                    " AND NumeroVolo IN (" + DBUtil.placeholders(flightNumbers.size()) + ")");
+            int index = 1;
+            for (String matricolaVelivolo : aircraft) {
+                stmt.setString(index++, matricolaVelivolo);
+            }
+            for (Integer flightNumber : flightNumbers) {
+                stmt.setInt(index++, flightNumber);
+            }
+
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                existing.add(flightKey(rs.getString("MatricolaVelivolo"), rs.getInt("NumeroVolo")));
+            }
+        } finally {
+            DBUtil.closeResources(null, stmt, rs);
+        }
+        return existing;
+    }
+
+    private static String flightKey(String matricolaVelivolo, int numeroVolo) {
+        // MySQL compares serial numbers case-insensitively
+        return matricolaVelivolo.toLowerCase(Locale.ROOT) + "/" + numeroVolo;
+    }
+
+    private void saveCheckpoint(Connection conn, String source, long fileSize, long linesDone) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement("INSERT INTO import_checkpoint (Source, FileSize, LinesDone) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE FileSize = VALUES(FileSize), LinesDone = VALUES(LinesDone)");
+            stmt.setString(1, source);
+            stmt.setLong(2, fileSize);
+            stmt.setLong(3, linesDone);
+            stmt.executeUpdate();
+        } finally {
+            DBUtil.closeResources(null, stmt, null);
+        }
+    }
+
+    private static synchronized void ensureCheckpointTable(Connection conn) throws SQLException {
+        if (checkpointTableReady) {
+            return;
+        }
+        Statement stmt = null;
+        try {
+            stmt = conn.createStatement();
+            stmt.execute(CREATE_CHECKPOINT_TABLE);
+            checkpointTableReady = true;
+        } finally {
+            DBUtil.closeResources(null, stmt, null);
+        }
+    }
+
+    private static void rollback(Connection conn) {
+        // Rollback transaction in case of error
+        try {
+            if (conn != null) {
+                conn.rollback();
+            }
+        } catch (SQLException ex) {
+            System.err.println("Error rolling back transaction: " + ex.getMessage());
+        }
+    }
+
+    private static void resetAutoCommit(Connection conn) {
+        // Reset auto-commit
+        try {
+            if (conn != null) {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error resetting auto-commit: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A mission of an import with the launcher and missile of each loaded
+     * position. The P1 and P13 entries must also be set in the fixed fields of
+     * the mission, which the views still read.
+     */
+    public static class MissionImport {
+        private final Mission mission;
+        private final List<MissionPosition> loadout;
+
+        public MissionImport(Mission mission, List<MissionPosition> loadout) {
+            this.mission = mission;
+            this.loadout = loadout;
+        }
+
+        public Mission getMission() {
+            return mission;
+        }
+
+        public List<MissionPosition> getLoadout() {
+            return loadout;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.aircraft.dao;
+
+import com.aircraft.config.DBConfig;
+import com.aircraft.util.CancellationToken;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor behind the asynchronous DAO methods.
+ * The number of threads equals the maximum size of the connection pool, so
+ * queries started concurrently never wait for each other's connections.
+ * Threads are daemons and the executor is created on first use.
+ */
+public class DaoExecutor {
+
+    private static ExecutorService executor;
+
+    private DaoExecutor() {
+    }
+
+    /**
+     * Runs a DAO call asynchronously.
+     *
+     * @param call The DAO call
+     * @param <T> The result type
+     * @return A future completed with the result of the call
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        // Statements of the call are cancelled together with the load that started it
+        CancellationToken token = CancellationToken.current();
+        if (token == null) {
+            return CompletableFuture.supplyAsync(call, getExecutor());
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return token.callWith(call::get);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, getExecutor());
+    }
+
+    /**
+     * Runs a background task that is not part of any load, so it is not
+     * cancelled together with the load that triggered it.
+     *
+     * @param task The task
+     */
+    static void execute(Runnable task) {
+        getExecutor().execute(task);
+    }
+
+    /**
+     * Stops the executor, waiting briefly for running calls. Called when the application exits.
+     */
+    public static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            int threads = Math.max(1, DBConfig.getInstance().getPoolMaxSize());
+            AtomicInteger counter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "dao-async-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,250 @@
+package com.aircraft.dao;
+
+import com.aircraft.config.AppConfig;
+import com.aircraft.util.BloomFilter;
+import com.aircraft.util.DBUtil;
+import com.aircraft.util.QueryMetrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filter of the keys of one table, answering existence checks locally
+ * when the key is definitely absent. Only possible positives are checked
+ * against the database.
+ * The filter is built from the table in the background on first use (or by
+ * {@link #warmUpAll()} at startup), updated when the DAOs insert a key, and
+ * rebuilt in the background after cache.bloom.rebuildSeconds so keys inserted
+ * by other workstations are picked up. Lookups never wait for a build: until
+ * the first one completes every key is checked in the database, and during a
+ * rebuild the previous filter is used. Deleted keys stay in the filter until
+ * the next rebuild, which is brought forward when they make up a large part of it.
+ * Until that rebuild a key inserted on another workstation is reported absent,
+ * so filters only cover tables whose primary key rejects a duplicate insert
+ * anyway. Checks that must see every workstation's rows, such as user names
+ * at signup and flight numbers, always query the database.
+ */
+public class ExistenceFilter {
+
+    /** Aircraft serial numbers of matricola_velivolo. */
+    static final ExistenceFilter AIRCRAFT = new ExistenceFilter("aircraft",
+            "SELECT MatricolaVelivolo FROM matricola_velivolo");
+    /** Weapon part numbers of anagrafica_carichi. */
+    static final ExistenceFilter WEAPONS = new ExistenceFilter("weapons",
+            "SELECT PartNumber FROM anagrafica_carichi");
+
+    private static final ExistenceFilter[] ALL = {AIRCRAFT, WEAPONS};
+    private static final long RETRY_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    static {
+        QueryMetrics.getInstance().registerReportSection("Existence filters", ExistenceFilter::formatAllStats);
+    }
+
+    private final String name;
+    private final String keysSql;
+    private final double falsePositiveRate;
+    private final long rebuildNanos;
+    private volatile BloomFilter filter;
+    private volatile long builtAt;
+    private volatile long builtKeys;
+    // Keys inserted while the filter is being built, added to the new filter once it is published
+    private final Queue<String> addedDuringBuild = new ConcurrentLinkedQueue<>();
+    private volatile boolean building;
+    // Set while a build is queued or running, so only one is started
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // After a failed build, no new one is started before this time
+    private volatile long retryAt;
+    private final AtomicLong removedKeys = new AtomicLong();
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong positives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private ExistenceFilter(String name, String keysSql) {
+        AppConfig config = AppConfig.getInstance();
+        this.name = name;
+        this.keysSql = keysSql;
+        this.falsePositiveRate = config.getDouble("cache.bloom.falsePositiveRate", 0.01);
+        this.rebuildNanos = TimeUnit.SECONDS.toNanos(config.getLong("cache.bloom.rebuildSeconds", 300));
+    }
+
+    /**
+     * Builds all filters in the background. Called when the application starts.
+     */
+    public static void warmUpAll() {
+        for (ExistenceFilter existenceFilter : ALL) {
+            existenceFilter.current();
+        }
+    }
+
+    /**
+     * Checks whether a key may exist. The caller must then query the database
+     * and report the outcome with {@link #recordLookup(boolean)}.
+     *
+     * @param key The key
+     * @return false if the key definitely does not exist
+     */
+    boolean mightContain(String key) {
+        BloomFilter current = current();
+        // Without a filter every key has to be checked in the database
+        if (current != null && key != null && !current.mightContain(normalize(key))) {
+            negatives.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records the database answer for a key that passed {@link #mightContain(String)}.
+     *
+     * @param found Whether the key was found in the database
+     */
+    void recordLookup(boolean found) {
+        positives.incrementAndGet();
+        if (!found) {
+            falsePositives.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds a key after it has been inserted.
+     *
+     * @param key The key
+     */
+    void add(String key) {
+        if (key == null) {
+            return;
+        }
+        String normalized = normalize(key);
+        if (building) {
+            addedDuringBuild.add(normalized);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(normalized);
+        }
+    }
+
+    /**
+     * Records that a key has been deleted.
+     */
+    void remove() {
+        removedKeys.incrementAndGet();
+    }
+
+    /**
+     * Gets the filter to use now, starting a background build if it is missing
+     * or due for a rebuild.
+     *
+     * @return The current filter, possibly due for a rebuild, or null if none has been built yet
+     */
+    private BloomFilter current() {
+        BloomFilter current = filter;
+        if (!isFresh(current) && System.nanoTime() - retryAt >= 0 && rebuilding.compareAndSet(false, true)) {
+            DaoExecutor.execute(this::rebuild);
+        }
+        return current;
+    }
+
+    private void rebuild() {
+        building = true;
+        try {
+            filter = build();
+        } catch (SQLException e) {
+            // Keep using the previous filter, if any
+            System.err.println("Error building " + name + " existence filter: " + e.getMessage());
+            e.printStackTrace();
+            retryAt = System.nanoTime() + RETRY_NANOS;
+        } finally {
+            building = false;
+            // The query may have missed keys inserted while it ran; keys added from now on see the new filter
+            BloomFilter current = filter;
+            String added;
+            while ((added = addedDuringBuild.poll()) != null) {
+                if (current != null) {
+                    current.put(added);
+                }
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private boolean isFresh(BloomFilter current) {
+        return current != null
+                && (rebuildNanos <= 0 || System.nanoTime() - builtAt < rebuildNanos)
+                && removedKeys.get() <= builtKeys / 10;
+    }
+
+    private BloomFilter build() throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<String> keys = new ArrayList<>();
+
+        try {
+            conn = DBUtil.getConnection();
+            stmt = conn.prepareStatement(keysSql);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                String key = rs.getString(1);
+                if (key != null) {
+                    keys.add(normalize(key));
+                }
+            }
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
+
+        // Room for the keys inserted before the next rebuild
+        BloomFilter built = new BloomFilter(Math.max(1024, keys.size() * 2L), falsePositiveRate);
+        for (String key : keys) {
+            built.put(key);
+        }
+        builtAt = System.nanoTime();
+        builtKeys = keys.size();
+        removedKeys.set(0);
+        return built;
+    }
+
+    /**
+     * Normalizes a key the way MySQL compares these columns: case-insensitively, ignoring trailing spaces.
+     *
+     * @param key The key
+     * @return The normalized key
+     */
+    static String normalize(String key) {
+        return key.stripTrailing().toLowerCase(Locale.ROOT);
+    }
+
+    private String formatStats() {
+        BloomFilter current = filter;
+        long negativeCount = negatives.get();
+        long falsePositiveCount = falsePositives.get();
+        long trueNegatives = negativeCount + falsePositiveCount;
+        return String.format("%-14s keys=%d bits=%d localNegatives=%d dbChecks=%d falsePositives=%d"
+                        + " measuredFpRate=%.2f%% expectedFpRate=%.2f%%",
+                name, builtKeys, current != null ? current.getNumBits() : 0, negativeCount, positives.get(),
+                falsePositiveCount, trueNegatives > 0 ? 100.0 * falsePositiveCount / trueNegatives : 0.0,
+                current != null ? 100.0 * current.expectedFalsePositiveRate() : 0.0);
+    }
+
+    private static String formatAllStats() {
+        StringBuilder sb = new StringBuilder();
+        for (ExistenceFilter existenceFilter : ALL) {
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(existenceFilter.formatStats());
+        }
+        return sb.toString();
+    }
+}
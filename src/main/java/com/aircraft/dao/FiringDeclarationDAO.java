@@ -0,0 +1,206 @@
+package com.aircraft.dao;
+
+import com.aircraft.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Data Access Object for missile firing declarations stored in dichiarazione_missile_gui.
+ */
+public class FiringDeclarationDAO {
+
+    /**
+     * Retrieves the positions that have a firing declaration for a mission.
+     *
+     * @param missionId The mission ID
+     * @return A list of positions, empty if none are declared
+     */
+    public List<String> getDeclaredPositions(int missionId) {
+        return getPositions("SELECT PosizioneVelivolo FROM dichiarazione_missile_gui WHERE ID_Missione = ?", missionId);
+    }
+
+    /**
+     * Asynchronous version of {@link #getDeclaredPositions(int)}.
+     *
+     * @param missionId The mission ID
+     * @return A future completed with the declared positions
+     */
+    public CompletableFuture<List<String>> getDeclaredPositionsAsync(int missionId) {
+        return DaoExecutor.supplyAsync(() -> getDeclaredPositions(missionId));
+    }
+
+    /**
+     * Retrieves the positions whose missile was declared as fired for a mission.
+     *
+     * @param missionId The mission ID
+     * @return A list of positions, empty if no missile was fired
+     */
+    public List<String> getFiredPositions(int missionId) {
+        return getPositions("SELECT PosizioneVelivolo FROM dichiarazione_missile_gui " +
+                "WHERE ID_Missione = ? AND Missile_Sparato = 'SI'", missionId);
+    }
+
+    /**
+     * Asynchronous version of {@link #getFiredPositions(int)}.
+     *
+     * @param missionId The mission ID
+     * @return A future completed with the positions whose missile was fired
+     */
+    public CompletableFuture<List<String>> getFiredPositionsAsync(int missionId) {
+        return DaoExecutor.supplyAsync(() -> getFiredPositions(missionId));
+    }
+
+    /**
+     * Saves the firing declarations of several positions of a mission in one
+     * transaction. Positions that already have a declaration are updated in one
+     * batch; the others are inserted in a second batch with allocated IDs.
+     *
+     * @param missionId The mission ID
+     * @param declarations Whether the missile was fired, by position
+     * @throws SQLException if the declarations could not be saved; none are saved then
+     */
+    public void saveDeclarations(int missionId, Map<String, Boolean> declarations) throws SQLException {
+        if (declarations.isEmpty()) {
+            return;
+        }
+
+        Connection conn = null;
+        PreparedStatement updateStmt = null;
+        PreparedStatement insertStmt = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            updateStmt = conn.prepareStatement("UPDATE dichiarazione_missile_gui SET Missile_Sparato = ? " +
+                    "WHERE ID_Missione = ? AND PosizioneVelivolo = ?");
+            // A plain INSERT, so an ID already taken fails with ER_DUP_ENTRY instead of updating another row
+            insertStmt = conn.prepareStatement("INSERT INTO dichiarazione_missile_gui " +
+                    "(ID, ID_Missione, PosizioneVelivolo, Missile_Sparato) VALUES (?, ?, ?, ?)");
+
+            LauncherLifeDAO.Contributions before;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    // Firings count towards the life of the mission's launchers; read again after a rollback
+                    before = LauncherLifeDAO.readContributions(conn, Collections.singleton(missionId));
+                    Set<String> existing = lockDeclaredPositions(conn, missionId);
+
+                    for (Map.Entry<String, Boolean> declaration : declarations.entrySet()) {
+                        String fired = declaration.getValue() ? "SI" : "NO";
+                        if (existing.contains(declaration.getKey())) {
+                            updateStmt.setString(1, fired);
+                            updateStmt.setInt(2, missionId);
+                            updateStmt.setString(3, declaration.getKey());
+                            updateStmt.addBatch();
+                        } else {
+                            insertStmt.setInt(1, IdAllocator.FIRING_DECLARATIONS.nextId());
+                            insertStmt.setInt(2, missionId);
+                            insertStmt.setString(3, declaration.getKey());
+                            insertStmt.setString(4, fired);
+                            insertStmt.addBatch();
+                        }
+                    }
+                    updateStmt.executeBatch();
+                    insertStmt.executeBatch();
+                    break;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    updateStmt.clearBatch();
+                    insertStmt.clearBatch();
+                    // An ID was taken by a client still using MAX(ID) + 1; retry with new IDs
+                    if (!IdAllocator.isDuplicateId(e) || attempt >= IdAllocator.MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+
+            LauncherLifeDAO.apply(conn, before, LauncherLifeDAO.readContributions(conn,
+                    Collections.singleton(missionId)));
+            conn.commit();
+            System.out.println("Saved " + declarations.size() + " firing declarations for mission " + missionId);
+        } catch (SQLException e) {
+            // Rollback transaction in case of error
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
+            throw e;
+        } finally {
+            // Reset auto-commit
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error resetting auto-commit: " + e.getMessage());
+                e.printStackTrace();
+            }
+
+            DBUtil.closeResources(null, updateStmt, null);
+            DBUtil.closeResources(conn, insertStmt, null);
+        }
+    }
+
+    /**
+     * Reads the declared positions of a mission inside the caller's transaction,
+     * locking them so that no other client inserts the same positions meanwhile.
+     */
+    private static Set<String> lockDeclaredPositions(Connection conn, int missionId) throws SQLException {
+        Set<String> positions = new HashSet<>();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = conn.prepareStatement("SELECT PosizioneVelivolo FROM dichiarazione_missile_gui " +
+                    "WHERE ID_Missione = ? FOR UPDATE");
+            stmt.setInt(1, missionId);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                positions.add(rs.getString("PosizioneVelivolo"));
+            }
+        } finally {
+            DBUtil.closeResources(null, stmt, rs);
+        }
+        return positions;
+    }
+
+    private List<String> getPositions(String sql, int missionId) {
+        List<String> positions = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, missionId);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                String position = rs.getString("PosizioneVelivolo");
+                if (position != null && !position.isEmpty()) {
+                    positions.add(position);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving firing declarations: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
+
+        return positions;
+    }
+}
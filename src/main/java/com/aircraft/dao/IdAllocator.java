@@ -0,0 +1,170 @@
+package com.aircraft.dao;
+
+import com.aircraft.config.AppConfig;
+import com.aircraft.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hi/lo allocator of primary keys for tables without AUTO_INCREMENT.
+ * Blocks of dao.idBlockSize consecutive IDs are reserved from the id_sequence
+ * table with a single atomic UPDATE, so concurrent writers on any workstation
+ * never receive the same ID. IDs within a reserved block are handed out
+ * without touching the database or taking a lock. IDs of a block that is not
+ * used up before the application exits are skipped.
+ */
+public class IdAllocator {
+
+    /** IDs of missione. */
+    static final IdAllocator MISSIONS = new IdAllocator("missione");
+    /** IDs of dichiarazione_missile_gui. */
+    static final IdAllocator FIRING_DECLARATIONS = new IdAllocator("dichiarazione_missile_gui");
+
+    /** Attempts of an insert whose allocated ID turns out to be taken, see {@link #isDuplicateId(SQLException)}. */
+    static final int MAX_ATTEMPTS = 3;
+
+    private static final String CREATE_SEQUENCE_TABLE = "CREATE TABLE IF NOT EXISTS id_sequence (" +
+            "Name VARCHAR(64) NOT NULL PRIMARY KEY, NextValue BIGINT NOT NULL)";
+
+    private final String table;
+    private final int blockSize;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+
+    private IdAllocator(String table) {
+        this.table = table;
+        this.blockSize = Math.max(1, AppConfig.getInstance().getInt("dao.idBlockSize", 20));
+    }
+
+    /**
+     * Allocates the next ID.
+     *
+     * @return A new ID, never returned before by any allocator of the table
+     * @throws SQLException if a new block could not be reserved
+     */
+    public int nextId() throws SQLException {
+        while (true) {
+            Block current = block.get();
+            long id = current.next.getAndIncrement();
+            if (id < current.limit) {
+                return Math.toIntExact(id);
+            }
+            synchronized (this) {
+                // Another thread may have reserved a new block meanwhile
+                if (block.get() == current) {
+                    block.set(reserveBlock());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reserves a range of consecutive IDs for a bulk insert, with a single
+     * UPDATE of id_sequence, independently of the block used by {@link #nextId()}.
+     *
+     * @param count The number of IDs
+     * @return The first ID of the range; the range ends at the returned ID + count - 1
+     * @throws SQLException if the range could not be reserved
+     */
+    public int reserve(int count) throws SQLException {
+        long limit = reserveRange(count);
+        return Math.toIntExact(limit - count);
+    }
+
+    /**
+     * Checks whether an insert failed because its ID was already taken, e.g. by
+     * an older client still computing MAX(ID) + 1.
+     *
+     * @param e The exception thrown by the insert
+     * @return true if the primary key was duplicated
+     */
+    static boolean isDuplicateId(SQLException e) {
+        return e.getErrorCode() == 1062 && e.getMessage() != null && e.getMessage().contains("PRIMARY");
+    }
+
+    private Block reserveBlock() throws SQLException {
+        long limit = reserveRange(blockSize);
+        return new Block(limit - blockSize, limit);
+    }
+
+    /**
+     * Reserves a range of IDs.
+     *
+     * @return The end of the range (exclusive)
+     */
+    private long reserveRange(int count) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            if (advanceSequence(conn, count) == 0) {
+                // First range ever reserved for the table
+                createSequence(conn);
+                if (advanceSequence(conn, count) == 0) {
+                    throw new SQLException("Could not create the id_sequence row of " + table);
+                }
+            }
+
+            stmt = conn.prepareStatement("SELECT LAST_INSERT_ID()");
+            rs = stmt.executeQuery();
+            rs.next();
+            long limit = rs.getLong(1);
+            System.out.println("Reserved IDs " + (limit - count) + "-" + (limit - 1) + " of " + table);
+            return limit;
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
+    }
+
+    private int advanceSequence(Connection conn, int count) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            // LAST_INSERT_ID(expr) returns the new value to this connection only
+            stmt = conn.prepareStatement("UPDATE id_sequence SET NextValue = LAST_INSERT_ID(NextValue + ?) WHERE Name = ?");
+            stmt.setInt(1, count);
+            stmt.setString(2, table);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            // ER_NO_SUCH_TABLE: the sequence table is created below
+            if (e.getErrorCode() == 1146) {
+                return 0;
+            }
+            throw e;
+        } finally {
+            DBUtil.closeResources(null, stmt, null);
+        }
+    }
+
+    private void createSequence(Connection conn) throws SQLException {
+        Statement stmt = null;
+        try {
+            stmt = conn.createStatement();
+            stmt.execute(CREATE_SEQUENCE_TABLE);
+            // Start after the IDs already in use; a no-op if another workstation created the row first
+            stmt.executeUpdate("INSERT IGNORE INTO id_sequence (Name, NextValue) " +
+                    "SELECT '" + table + "', COALESCE(MAX(ID), 0) + 1 FROM " + table);
+        } finally {
+            DBUtil.closeResources(null, stmt, null);
+        }
+    }
+
+    /**
+     * A reserved range of IDs, from next (inclusive) to limit (exclusive).
+     */
+    private static class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long first, long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+    }
+}
@@ -4,20 +4,65 @@ import com.aircraft.model.Launcher;
 import com.aircraft.model.LauncherMission;
 import com.aircraft.model.LauncherStatus;
 import com.aircraft.util.DBUtil;
+import com.aircraft.util.FatigueEngine;
+import com.aircraft.util.QueryCache;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Data Access Object for Launcher-related operations.
  */
 public class LauncherDAO {
 
+    // Coalesces concurrent getByPartNumber calls into one query
+    private static final BatchLoader<String, Launcher> BY_PART_NUMBER =
+            new BatchLoader<>("launchers", partNumbers -> new LauncherDAO().queryByPartNumbers(partNumbers),
+                    ExistenceFilter::normalize);
+
+    // Rows marked stale are read from the view instead
+    private static final String LAUNCHER_STATUS_SQL =
+            "SELECT PartNumber, Nomenclatura, NumeroMissioni, NumeroSpari, " +
+            "OreTotali, VitaResiduaPercentuale " +
+            "FROM vita_lanciatore v " +
+            "WHERE PartNumber = ? AND NOT EXISTS (SELECT 1 FROM " + LauncherLifeDAO.STALE_TABLE + " d " +
+            "WHERE d.PartNumber = v.PartNumber)";
+    private static final String LAUNCHER_STATUS_VIEW_SQL =
+            "SELECT PartNumber, Nomenclatura, NumeroMissioni, NumeroSpari, " +
+            "OreTotali, VitaResiduaPercentuale " +
+            "FROM vista_lanciatore_statistiche " +
+            "WHERE PartNumber = ?";
+    private static final String MISSION_HISTORY_SQL =
+            "SELECT DISTINCT m.ID as MissionId, m.DataMissione, m.MatricolaVelivolo as Aircraft, m.NumeroVolo, " +
+            "TIMESTAMPDIFF(HOUR, m.OraPartenza, m.OraArrivo) as FlightHours, dr.GloadMin, dr.GloadMax " +
+            "FROM missione m " +
+            // Only the missions flown while the launcher was installed on the aircraft
+            "JOIN storico_lanciatore sl ON m.MatricolaVelivolo = sl.MatricolaVelivolo " +
+            "AND sl.DataInstallazione <= m.DataMissione " +
+            "AND (sl.DataRimozione IS NULL OR sl.DataRimozione >= m.DataMissione) " +
+            // One row per flight, so a flight recorded more than once is not listed and counted twice
+            "LEFT JOIN LATERAL (SELECT MIN(r.GloadMin) AS GloadMin, MAX(r.GloadMax) AS GloadMax " +
+            "FROM dati_registrati r WHERE r.MatricolaVelivolo = m.MatricolaVelivolo AND r.NumeroVolo = m.NumeroVolo) dr ON TRUE " +
+            "WHERE sl.PartNumber = ? " +
+            "ORDER BY m.DataMissione DESC";
+    // vita_lanciatore and the tables behind vista_lanciatore_statistiche, in case a refresh of it fails
+    private static final Set<String> LAUNCHER_STATUS_TABLES = QueryCache.tables("vita_lanciatore", LauncherLifeDAO.STALE_TABLE,
+            "anagrafica_lanciatore", "storico_lanciatore", "missione", "dichiarazione_missile_gui", "storico_carico");
+    private static final Set<String> MISSION_HISTORY_TABLES = QueryCache.tables("missione", "storico_lanciatore", "dati_registrati");
+
     /**
      * Retrieves a launcher by its part number.
      *
@@ -25,7 +70,38 @@ public class LauncherDAO {
      * @return The Launcher object or null if not found
      */
     public Launcher getByPartNumber(String partNumber) {
-        Launcher launcher = null;
+        try {
+            return BY_PART_NUMBER.load(partNumber);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves several launchers by part number with as few queries as possible.
+     *
+     * @param partNumbers The part numbers to search for
+     * @return The launchers found, by part number
+     */
+    public Map<String, Launcher> getByPartNumbers(Collection<String> partNumbers) {
+        try {
+            return BY_PART_NUMBER.loadMany(partNumbers);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Queries the launchers of a batch of part numbers.
+     *
+     * @param partNumbers The part numbers
+     * @return The launchers found, by part number
+     * @throws SQLException if the query fails
+     */
+    private Map<String, Launcher> queryByPartNumbers(List<String> partNumbers) throws SQLException {
+        Map<String, Launcher> launchers = new HashMap<>();
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -34,34 +110,52 @@ public class LauncherDAO {
             conn = DBUtil.getConnection();
             String query = "SELECT PartNumber, Nomenclatura, CodiceDitta, OreVitaOperativa " +
                     "FROM anagrafica_lanciatore " +
-                    "WHERE PartNumber = ?";
+                    "WHERE PartNumber IN (" + DBUtil.placeholders(partNumbers.size()) + ")";
 
             stmt = conn.prepareStatement(query);
-            stmt.setString(1, partNumber);
+            for (int i = 0; i < partNumbers.size(); i++) {
+                stmt.setString(i + 1, partNumbers.get(i));
+            }
 
             rs = stmt.executeQuery();
-            if (rs.next()) {
-                launcher = new Launcher();
+            while (rs.next()) {
+                Launcher launcher = new Launcher();
                 launcher.setPartNumber(rs.getString("PartNumber"));
                 launcher.setNomenclatura(rs.getString("Nomenclatura"));
                 launcher.setCodiceDitta(rs.getString("CodiceDitta"));
                 launcher.setOreVitaOperativa(rs.getBigDecimal("OreVitaOperativa"));
+                launchers.put(launcher.getPartNumber(), launcher);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
 
-        return launcher;
+        return launchers;
     }
 
     /**
      * Retrieves all launchers from the database.
+     * The list is served from the {@link ReferenceDataCache}.
      *
-     * @return A list of all Launcher objects
+     * @return A List of all Launcher objects
      */
     public List<Launcher> getAll() {
+        try {
+            return new ArrayList<>(ReferenceDataCache.getInstance().getLaunchers());
+        } catch (SQLException e) {
+            System.err.println("Error retrieving launchers: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads all launchers from the database, bypassing the cache.
+     *
+     * @return A List of all Launcher objects
+     * @throws SQLException if the query fails
+     */
+    List<Launcher> loadAll() throws SQLException {
         List<Launcher> launchers = new ArrayList<>();
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -83,21 +177,48 @@ public class LauncherDAO {
                 launcher.setOreVitaOperativa(rs.getBigDecimal("OreVitaOperativa"));
                 launchers.add(launcher);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
 
         return launchers;
     }
+
     /**
-     * Gets the launcher statistics by its part number using vista_lanciatore_statistiche view.
+     * Asynchronous version of {@link #getAll()}.
+     *
+     * @return A future completed with all launchers
+     */
+    public CompletableFuture<List<Launcher>> getAllAsync() {
+        return DaoExecutor.supplyAsync(this::getAll);
+    }
+
+    /**
+     * Gets the launcher statistics by its part number from vita_lanciatore, the
+     * materialized vista_lanciatore_statistiche view (see {@link LauncherLifeDAO}).
      *
      * @param partNumber The part number to look up
      * @return The LauncherStatus object or null if not found
      */
     public LauncherStatus getLauncherStatusByPartNumber(String partNumber) {
+        try {
+            return QueryCache.getInstance().get(LAUNCHER_STATUS_SQL, Arrays.asList(partNumber),
+                    LAUNCHER_STATUS_TABLES, () -> queryLauncherStatus(partNumber), LauncherStatus::new);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving launcher status: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Reads vita_lanciatore by primary key, bypassing the {@link QueryCache}.
+     *
+     * @param partNumber The part number to look up
+     * @return The LauncherStatus object or null if not found
+     * @throws SQLException if the query fails
+     */
+    private LauncherStatus queryLauncherStatus(String partNumber) throws SQLException {
         LauncherStatus status = null;
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -105,20 +226,24 @@ public class LauncherDAO {
 
         try {
             conn = DBUtil.getConnection();
-
-            // Directly query vista_lanciatore_statistiche as required in the specifications
-            String query = "SELECT PartNumber, Nomenclatura, NumeroMissioni, NumeroSpari, " +
-                    "OreTotali, VitaResiduaPercentuale " +
-                    "FROM vista_lanciatore_statistiche " +
-                    "WHERE PartNumber = ?";
-
-            stmt = conn.prepareStatement(query);
-            stmt.setString(1, partNumber);
-
             System.out.println("Executing query for part number: " + partNumber);
-            rs = stmt.executeQuery();
+            boolean found = false;
+            if (LauncherLifeDAO.tablesReady(conn)) {
+                stmt = conn.prepareStatement(LAUNCHER_STATUS_SQL);
+                stmt.setString(1, partNumber);
+                rs = stmt.executeQuery();
+                found = rs.next();
+            }
+            if (!found) {
+                // Not materialized yet, or stale: read the view
+                DBUtil.closeResources(null, stmt, rs);
+                stmt = conn.prepareStatement(LAUNCHER_STATUS_VIEW_SQL);
+                stmt.setString(1, partNumber);
+                rs = stmt.executeQuery();
+                found = rs.next();
+            }
 
-            if (rs.next()) {
+            if (found) {
                 status = new LauncherStatus();
                 status.setPartNumber(rs.getString("PartNumber"));
                 status.setLauncherName(rs.getString("Nomenclatura"));
@@ -149,9 +274,6 @@ public class LauncherDAO {
             } else {
                 System.out.println("No launcher found with part number: " + partNumber);
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving launcher status: " + e.getMessage());
-            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
@@ -159,6 +281,16 @@ public class LauncherDAO {
         return status;
     }
 
+    /**
+     * Asynchronous version of {@link #getLauncherStatusByPartNumber(String)}.
+     *
+     * @param partNumber The launcher part number
+     * @return A future completed with the launcher status, or null if not found
+     */
+    public CompletableFuture<LauncherStatus> getLauncherStatusByPartNumberAsync(String partNumber) {
+        return DaoExecutor.supplyAsync(() -> getLauncherStatusByPartNumber(partNumber));
+    }
+
     /**
      * Gets all launcher part numbers from the database.
      *
@@ -211,11 +343,13 @@ public class LauncherDAO {
             stmt.setBigDecimal(4, launcher.getOreVitaOperativa());
 
             int rowsAffected = stmt.executeUpdate();
+            LauncherLifeDAO.markStale(conn, Collections.singleton(launcher.getPartNumber()));
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         } finally {
+            ReferenceDataCache.getInstance().invalidateLaunchers();
             DBUtil.closeResources(conn, stmt, null);
         }
     }
@@ -243,11 +377,14 @@ public class LauncherDAO {
             stmt.setString(4, launcher.getPartNumber());
 
             int rowsAffected = stmt.executeUpdate();
+            // Residual life depends on OreVitaOperativa
+            LauncherLifeDAO.markStale(conn, Collections.singleton(launcher.getPartNumber()));
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         } finally {
+            ReferenceDataCache.getInstance().invalidateLaunchers();
             DBUtil.closeResources(conn, stmt, null);
         }
     }
@@ -270,11 +407,13 @@ public class LauncherDAO {
             stmt.setString(1, partNumber);
 
             int rowsAffected = stmt.executeUpdate();
+            LauncherLifeDAO.markStale(conn, Collections.singleton(partNumber));
             return rowsAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         } finally {
+            ReferenceDataCache.getInstance().invalidateLaunchers();
             DBUtil.closeResources(conn, stmt, null);
         }
     }
@@ -310,7 +449,9 @@ public class LauncherDAO {
     }
 
     /**
-     * Gets the launcher status by its serial number from vista_stato_vita_lanciatore view.
+     * Gets the launcher status by its serial number from vita_lanciatore_seriale, the
+     * materialized join of vista_stato_vita_lanciatore and vista_predizione_manutenzione_lanciatore
+     * (see {@link LauncherLifeDAO}). Falls back to the views for a launcher not materialized yet.
      *
      * @param serialNumber The serial number to look up
      * @return The LauncherStatus object or null if not found
@@ -323,19 +464,41 @@ public class LauncherDAO {
 
         try {
             conn = DBUtil.getConnection();
-            String query = "SELECT v.Nome_Lanciatore, v.Lanciatore_PartNumber, v.Lanciatore_SerialNumber, " +
-                    "v.Numero_Missioni, v.Missioni_con_Sparo, v.Missioni_senza_Sparo, " +
-                    "v.Ore_di_Volo_Totali, v.Vita_Residua_Percentuale, p.Stato_Manutentivo " +
-                    "FROM vista_stato_vita_lanciatore v " +
-                    "JOIN vista_predizione_manutenzione_lanciatore p " +
-                    "ON v.Lanciatore_SerialNumber = p.Lanciatore_SerialNumber " +
-                    "WHERE v.Lanciatore_SerialNumber = ?";
-
-            stmt = conn.prepareStatement(query);
-            stmt.setString(1, serialNumber);
+            boolean found = false;
+            String query;
+            if (LauncherLifeDAO.tablesReady(conn)) {
+                query = "SELECT NomeLanciatore AS Nome_Lanciatore, PartNumber AS Lanciatore_PartNumber, " +
+                        "SerialNumber AS Lanciatore_SerialNumber, NumeroMissioni AS Numero_Missioni, " +
+                        "MissioniConSparo AS Missioni_con_Sparo, MissioniSenzaSparo AS Missioni_senza_Sparo, " +
+                        "OreVoloTotali AS Ore_di_Volo_Totali, VitaResiduaPercentuale AS Vita_Residua_Percentuale, " +
+                        "StatoManutentivo AS Stato_Manutentivo " +
+                        "FROM vita_lanciatore_seriale v " +
+                        "WHERE SerialNumber = ? AND NOT EXISTS (SELECT 1 FROM " + LauncherLifeDAO.STALE_TABLE + " d " +
+                        "WHERE d.PartNumber = v.PartNumber)";
+
+                stmt = conn.prepareStatement(query);
+                stmt.setString(1, serialNumber);
+
+                rs = stmt.executeQuery();
+                found = rs.next();
+            }
+            if (!found) {
+                // Not materialized yet, or stale: read the views
+                DBUtil.closeResources(null, stmt, rs);
+                query = "SELECT v.Nome_Lanciatore, v.Lanciatore_PartNumber, v.Lanciatore_SerialNumber, " +
+                        "v.Numero_Missioni, v.Missioni_con_Sparo, v.Missioni_senza_Sparo, " +
+                        "v.Ore_di_Volo_Totali, v.Vita_Residua_Percentuale, p.Stato_Manutentivo " +
+                        "FROM vista_stato_vita_lanciatore v " +
+                        "JOIN vista_predizione_manutenzione_lanciatore p " +
+                        "ON v.Lanciatore_SerialNumber = p.Lanciatore_SerialNumber " +
+                        "WHERE v.Lanciatore_SerialNumber = ?";
+                stmt = conn.prepareStatement(query);
+                stmt.setString(1, serialNumber);
+                rs = stmt.executeQuery();
+                found = rs.next();
+            }
 
-            rs = stmt.executeQuery();
-            if (rs.next()) {
+            if (found) {
                 status = new LauncherStatus();
                 status.setLauncherName(rs.getString("Nome_Lanciatore"));
                 status.setPartNumber(rs.getString("Lanciatore_PartNumber"));
@@ -363,7 +526,26 @@ public class LauncherDAO {
      * @return A list of LauncherMission objects
      */
     public List<LauncherMission> getMissionHistoryByPartNumber(String partNumber) {
-        List<LauncherMission> missions = new ArrayList<>();
+        try {
+            return QueryCache.getInstance().get(MISSION_HISTORY_SQL, Arrays.asList(partNumber),
+                    MISSION_HISTORY_TABLES, () -> queryMissionHistory(partNumber),
+                    QueryCache.copyEach(LauncherMission::new));
+        } catch (SQLException e) {
+            System.err.println("Error retrieving mission history: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Queries the missions flown with a launcher, bypassing the {@link QueryCache}.
+     *
+     * @param partNumber The part number to look up
+     * @return A list of LauncherMission objects
+     * @throws SQLException if the query fails
+     */
+    private List<LauncherMission> queryMissionHistory(String partNumber) throws SQLException {
+        List<FlightLoads> flights = new ArrayList<>();
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -371,16 +553,7 @@ public class LauncherDAO {
         try {
             conn = DBUtil.getConnection();
             System.out.println("Retrieving mission history for part number: " + partNumber);
-
-            // A more direct query that should work with your database structure
-            String query = "SELECT DISTINCT m.ID as MissionId, m.DataMissione, m.MatricolaVelivolo as Aircraft, " +
-                    "TIMESTAMPDIFF(HOUR, m.OraPartenza, m.OraArrivo) as FlightHours " +
-                    "FROM missione m " +
-                    "JOIN storico_lanciatore sl ON m.MatricolaVelivolo = sl.MatricolaVelivolo " +
-                    "WHERE sl.PartNumber = ? " +
-                    "ORDER BY m.DataMissione DESC";
-
-            stmt = conn.prepareStatement(query);
+            stmt = conn.prepareStatement(MISSION_HISTORY_SQL);
             stmt.setString(1, partNumber);
 
             rs = stmt.executeQuery();
@@ -402,28 +575,77 @@ public class LauncherDAO {
                 double flightTime = (flightTimeObj != null) ? rs.getDouble("FlightHours") : 0.0;
                 mission.setFlightTime(flightTime);
 
-                // Set a standard damage factor - can be refined based on your business logic
-                mission.setDamageFactor(0.05);
-
                 // Store the part number
                 mission.setLauncherPartNumber(partNumber);
 
-                missions.add(mission);
-                System.out.println("Added mission: ID=" + mission.getMissionId() +
-                        ", Date=" + mission.getMissionDate() +
-                        ", Aircraft=" + mission.getAircraft());
+                flights.add(new FlightLoads(mission, rs.getInt("NumeroVolo"),
+                        rs.getBigDecimal("GloadMin"), rs.getBigDecimal("GloadMax")));
             }
-
-            System.out.println("Total missions found: " + missions.size());
-        } catch (SQLException e) {
-            System.err.println("Error retrieving mission history: " + e.getMessage());
-            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
 
+        // Rainflow/Miner damage of each flight's G-load history, read from the sample
+        // store after the connection is returned; a flight listed twice is read once
+        List<LauncherMission> missions = new ArrayList<>();
+        Map<String, Double> damageByFlight = new HashMap<>();
+        for (FlightLoads flight : flights) {
+            LauncherMission mission = flight.mission;
+            mission.setDamageFactor(damageByFlight.computeIfAbsent(mission.getAircraft() + "#" + flight.numeroVolo,
+                    key -> FatigueEngine.getInstance().flightDamage(mission.getAircraft(), flight.numeroVolo,
+                            flight.gLoadMin, flight.gLoadMax)));
+            missions.add(mission);
+            System.out.println("Added mission: ID=" + mission.getMissionId() +
+                    ", Date=" + mission.getMissionDate() +
+                    ", Aircraft=" + mission.getAircraft());
+        }
+
+        System.out.println("Total missions found: " + missions.size());
         return missions;
     }
 
+    /**
+     * Gets the Palmgren-Miner damage a launcher has accumulated over the missions
+     * flown while it was installed, see {@link FatigueEngine}.
+     *
+     * @param partNumber The launcher part number
+     * @return The sum of the damage of its missions; the launcher has no life left at 1
+     */
+    public double getCumulativeDamage(String partNumber) {
+        double damage = 0;
+        for (LauncherMission mission : getMissionHistoryByPartNumber(partNumber)) {
+            damage += mission.getDamageFactor();
+        }
+        return damage;
+    }
+
+    /**
+     * Asynchronous version of {@link #getMissionHistoryByPartNumber(String)}.
+     *
+     * @param partNumber The launcher part number
+     * @return A future completed with the missions flown with the launcher
+     */
+    public CompletableFuture<List<LauncherMission>> getMissionHistoryByPartNumberAsync(String partNumber) {
+        return DaoExecutor.supplyAsync(() -> getMissionHistoryByPartNumber(partNumber));
+    }
+
 
-}
\ No newline at end of file
+
+    /**
+     * A mission of the history query with the G-loads of its flight, held until
+     * the damage is computed.
+     */
+    private static final class FlightLoads {
+        private final LauncherMission mission;
+        private final int numeroVolo;
+        private final BigDecimal gLoadMin;
+        private final BigDecimal gLoadMax;
+
+        private FlightLoads(LauncherMission mission, int numeroVolo, BigDecimal gLoadMin, BigDecimal gLoadMax) {
+            this.mission = mission;
+            this.numeroVolo = numeroVolo;
+            this.gLoadMin = gLoadMin;
+            this.gLoadMax = gLoadMax;
+        }
+    }
+}
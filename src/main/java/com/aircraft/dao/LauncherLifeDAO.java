@@ -0,0 +1,686 @@
+package com.aircraft.dao;
+
+import com.aircraft.config.AppConfig;
+import com.aircraft.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the launcher life tables, materialized copies of the launcher
+ * life views that the fatigue screen reads by primary key instead of
+ * recomputing mission counts, firing counts, flight hours and residual life
+ * on every request:
+ * <ul>
+ *     <li>vita_lanciatore, by part number, from vista_lanciatore_statistiche</li>
+ *     <li>vita_lanciatore_seriale, by serial number, from vista_stato_vita_lanciatore
+ *     joined with vista_predizione_manutenzione_lanciatore</li>
+ * </ul>
+ * The tables are created and filled by {@link #migrate(Connection)} at startup.
+ * The DAOs that write missions and firing declarations keep them up to date
+ * incrementally: they read the {@link Contributions} of the missions before
+ * and after the write and {@link #apply} the difference with primary key
+ * UPDATEs in the same transaction. A mission counts for the launchers
+ * installed on its aircraft on the mission date, with the flight time, and
+ * as a mission with a firing for the launcher at a position declared fired.
+ * Writes that cannot be expressed as a delta (launchers and movements) and
+ * rows missing from a table mark the part number in vita_lanciatore_da_ricalcolare,
+ * so every workstation reads it from the views until it is rebuilt.
+ * A reconcile job (launcherLife.reconcileMinutes) rebuilds the marked part
+ * numbers from the views, compares both tables with the views and repairs any
+ * drift, e.g. from clients that write without maintaining them, or in the
+ * maintenance status, which only the views compute.
+ */
+public class LauncherLifeDAO {
+
+    private static final Materialization BY_PART_NUMBER = new Materialization("vita_lanciatore",
+            "CREATE TABLE IF NOT EXISTS vita_lanciatore (" +
+                    "PartNumber VARCHAR(50) NOT NULL PRIMARY KEY, " +
+                    "Nomenclatura VARCHAR(255) NULL, " +
+                    "NumeroMissioni INT NULL, " +
+                    "NumeroSpari INT NULL, " +
+                    "OreTotali DOUBLE NULL, " +
+                    "VitaResiduaPercentuale DOUBLE NULL)",
+            "PartNumber", "PartNumber",
+            new String[]{"PartNumber", "Nomenclatura", "NumeroMissioni", "NumeroSpari", "OreTotali", "VitaResiduaPercentuale"},
+            "SELECT PartNumber, Nomenclatura, NumeroMissioni, NumeroSpari, OreTotali, VitaResiduaPercentuale " +
+                    "FROM vista_lanciatore_statistiche",
+            "PartNumber");
+
+    private static final Materialization BY_SERIAL_NUMBER = new Materialization("vita_lanciatore_seriale",
+            "CREATE TABLE IF NOT EXISTS vita_lanciatore_seriale (" +
+                    "SerialNumber VARCHAR(50) NOT NULL PRIMARY KEY, " +
+                    "PartNumber VARCHAR(50) NULL, " +
+                    "NomeLanciatore VARCHAR(255) NULL, " +
+                    "NumeroMissioni INT NULL, " +
+                    "MissioniConSparo INT NULL, " +
+                    "MissioniSenzaSparo INT NULL, " +
+                    "OreVoloTotali DOUBLE NULL, " +
+                    "VitaResiduaPercentuale DOUBLE NULL, " +
+                    "StatoManutentivo VARCHAR(50) NULL, " +
+                    "INDEX idx_vita_lanciatore_seriale_pn (PartNumber))",
+            "SerialNumber", "PartNumber",
+            new String[]{"SerialNumber", "PartNumber", "NomeLanciatore", "NumeroMissioni", "MissioniConSparo",
+                    "MissioniSenzaSparo", "OreVoloTotali", "VitaResiduaPercentuale", "StatoManutentivo"},
+            "SELECT v.Lanciatore_SerialNumber, v.Lanciatore_PartNumber, v.Nome_Lanciatore, v.Numero_Missioni, " +
+                    "v.Missioni_con_Sparo, v.Missioni_senza_Sparo, v.Ore_di_Volo_Totali, v.Vita_Residua_Percentuale, " +
+                    "p.Stato_Manutentivo " +
+                    "FROM vista_stato_vita_lanciatore v " +
+                    "JOIN vista_predizione_manutenzione_lanciatore p " +
+                    "ON v.Lanciatore_SerialNumber = p.Lanciatore_SerialNumber",
+            "v.Lanciatore_PartNumber");
+
+    private static final List<Materialization> MATERIALIZATIONS = Arrays.asList(BY_PART_NUMBER, BY_SERIAL_NUMBER);
+
+    // Part numbers whose rows must be rebuilt from the views, shared by all workstations
+    static final String STALE_TABLE = "vita_lanciatore_da_ricalcolare";
+    private static final String CREATE_STALE_TABLE = "CREATE TABLE IF NOT EXISTS " + STALE_TABLE + " (" +
+            "PartNumber VARCHAR(50) NOT NULL PRIMARY KEY, " +
+            "Dal TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    // Launchers counting a mission: those installed on its aircraft on the mission date
+    private static final String CONTRIBUTIONS_SQL =
+            "SELECT m.ID, sl.PartNumber, sl.SerialNumber, a.OreVitaOperativa, " +
+            "TIMESTAMPDIFF(MINUTE, m.OraPartenza, m.OraArrivo) / 60 AS Ore, " +
+            "EXISTS (SELECT 1 FROM dichiarazione_missile_gui d WHERE d.ID_Missione = m.ID " +
+            "AND d.PosizioneVelivolo = sl.PosizioneVelivolo AND d.Missile_Sparato = 'SI') AS Sparo " +
+            "FROM missione m " +
+            "JOIN storico_lanciatore sl ON sl.MatricolaVelivolo = m.MatricolaVelivolo " +
+            "AND sl.DataInstallazione <= m.DataMissione " +
+            "AND (sl.DataRimozione IS NULL OR sl.DataRimozione >= m.DataMissione) " +
+            "LEFT JOIN anagrafica_lanciatore a ON a.PartNumber = sl.PartNumber " +
+            "WHERE m.ID IN ";
+
+    // Rebuilt in batches, each in a transaction of its own
+    private static final int REBUILD_BATCH_SIZE = 100;
+
+    // Set once the tables are known to exist
+    private static volatile boolean tablesReady;
+    private static ScheduledExecutorService reconciler;
+
+    /**
+     * Starts the periodic reconcile job, every launcherLife.reconcileMinutes minutes (0 disables it).
+     */
+    public static synchronized void startReconcileJob() {
+        long minutes = AppConfig.getInstance().getLong("launcherLife.reconcileMinutes", 60);
+        if (reconciler != null || minutes <= 0) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "launcher-life-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(() -> {
+            try {
+                new LauncherLifeDAO().reconcile();
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Error reconciling launcher life tables: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }, minutes, minutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the reconcile job. Called when the application exits.
+     */
+    public static synchronized void stopReconcileJob() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+    }
+
+    /**
+     * Creates the launcher life tables and fills them from the views, the first
+     * time. Part of {@link SchemaMigration}; never called while a transaction is open.
+     *
+     * @param conn The connection to use
+     * @throws SQLException if the tables cannot be created
+     */
+    static void migrate(Connection conn) throws SQLException {
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = conn.createStatement();
+            stmt.execute(CREATE_STALE_TABLE);
+            for (Materialization materialization : MATERIALIZATIONS) {
+                rs = stmt.executeQuery("SELECT 1 FROM information_schema.TABLES " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + materialization.table + "'");
+                boolean exists = rs.next();
+                rs.close();
+                rs = null;
+                if (!exists) {
+                    stmt.execute(materialization.createSql);
+                    int rows = stmt.executeUpdate(materialization.insertSql());
+                    System.out.println("Created " + materialization.table + " with " + rows + " launchers");
+                }
+            }
+            tablesReady = true;
+        } finally {
+            DBUtil.closeResources(null, stmt, rs);
+        }
+    }
+
+    /**
+     * Checks whether the launcher life tables exist, e.g. created by another
+     * workstation. Until they do, writes have nothing to maintain and reads use the views.
+     *
+     * @param conn The connection to use
+     * @return true if the tables exist
+     * @throws SQLException if the schema cannot be read
+     */
+    static boolean tablesReady(Connection conn) throws SQLException {
+        if (tablesReady) {
+            return true;
+        }
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = conn.prepareStatement("SELECT COUNT(*) FROM information_schema.TABLES " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (?, ?, ?)");
+            stmt.setString(1, BY_PART_NUMBER.table);
+            stmt.setString(2, BY_SERIAL_NUMBER.table);
+            stmt.setString(3, STALE_TABLE);
+            rs = stmt.executeQuery();
+            tablesReady = rs.next() && rs.getInt(1) == 3;
+            return tablesReady;
+        } finally {
+            DBUtil.closeResources(null, stmt, rs);
+        }
+    }
+
+    /**
+     * Rebuilds the part numbers marked stale, then compares the launcher life
+     * tables with the views and rebuilds every part number whose rows differ,
+     * are missing or are left over.
+     *
+     * @return The number of part numbers rebuilt
+     * @throws SQLException if the tables or views cannot be read
+     */
+    public int reconcile() throws SQLException {
+        Connection conn = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = DBUtil.getConnection();
+            if (!tablesReady(conn)) {
+                return 0;
+            }
+
+            Set<String> drifted = new LinkedHashSet<>();
+            stmt = conn.createStatement();
+            rs = stmt.executeQuery("SELECT PartNumber FROM " + STALE_TABLE);
+            while (rs.next()) {
+                drifted.add(rs.getString(1));
+            }
+            DBUtil.closeResources(null, stmt, rs);
+            stmt = null;
+            rs = null;
+
+            for (Materialization materialization : MATERIALIZATIONS) {
+                Map<String, Object[]> expected = readRows(conn, materialization.sourceSql, materialization);
+                Map<String, Object[]> actual = readRows(conn, materialization.selectSql(), materialization);
+                int before = drifted.size();
+                for (Map.Entry<String, Object[]> row : expected.entrySet()) {
+                    Object[] materialized = actual.remove(row.getKey());
+                    if (materialized == null || !sameRow(row.getValue(), materialized)) {
+                        drifted.add(materialization.partNumberOf(row.getValue()));
+                        if (materialized != null) {
+                            drifted.add(materialization.partNumberOf(materialized));
+                        }
+                    }
+                }
+                // Rows no longer in the view
+                for (Object[] leftOver : actual.values()) {
+                    drifted.add(materialization.partNumberOf(leftOver));
+                }
+                if (drifted.size() > before) {
+                    System.out.println("Launcher life: " + materialization.table + " differs from its view for "
+                            + (drifted.size() - before) + " part numbers");
+                }
+            }
+
+            // Rebuilds are keyed by part number, rows without one cannot be targeted
+            drifted.remove(null);
+            List<String> partNumbers = new ArrayList<>(drifted);
+            int rebuilt = 0;
+            for (int from = 0; from < partNumbers.size(); from += REBUILD_BATCH_SIZE) {
+                List<String> batch = partNumbers.subList(from, Math.min(partNumbers.size(), from + REBUILD_BATCH_SIZE));
+                if (rebuild(conn, batch)) {
+                    rebuilt += batch.size();
+                }
+            }
+            System.out.println("Launcher life reconciled: " + rebuilt + " of " + partNumbers.size()
+                    + " part numbers rebuilt");
+            return rebuilt;
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
+    }
+
+    /**
+     * Recomputes the rows of some launchers from the views and clears their
+     * stale marks, in a transaction of its own. Only the reconcile job does this,
+     * so the locks INSERT ... SELECT takes on the views' base rows are never
+     * held by a user's write.
+     *
+     * @return true if the rows were rebuilt
+     */
+    private static boolean rebuild(Connection conn, List<String> partNumbers) {
+        PreparedStatement stmt = null;
+        String in = " IN (" + DBUtil.placeholders(partNumbers.size()) + ")";
+        try {
+            conn.setAutoCommit(false);
+            // Cleared first, so a part number marked again by a concurrent write stays marked
+            stmt = conn.prepareStatement("DELETE FROM " + STALE_TABLE + " WHERE PartNumber" + in);
+            setStrings(stmt, partNumbers);
+            stmt.executeUpdate();
+            stmt.close();
+
+            for (Materialization materialization : MATERIALIZATIONS) {
+                stmt = conn.prepareStatement("DELETE FROM " + materialization.table
+                        + " WHERE " + materialization.partNumberColumn + in);
+                setStrings(stmt, partNumbers);
+                stmt.executeUpdate();
+                stmt.close();
+
+                stmt = conn.prepareStatement(materialization.insertSql()
+                        + " WHERE " + materialization.sourcePartNumberColumn + in);
+                setStrings(stmt, partNumbers);
+                stmt.executeUpdate();
+                stmt.close();
+                stmt = null;
+            }
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding launcher life of " + partNumbers + ": " + e.getMessage());
+            try {
+                conn.rollback();
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
+            return false;
+        } finally {
+            DBUtil.closeResources(null, stmt, null);
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                System.err.println("Error resetting auto-commit: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads what some missions contribute to the life of their launchers. Call
+     * it in the write's transaction before and after the write, and pass both
+     * to {@link #apply}. The missions are locked first, so that two writes of
+     * the same mission read each other's result instead of the same old state.
+     *
+     * @param conn The connection of the write, with its transaction open
+     * @param missionIds The mission IDs
+     * @return The contributions, by part number and by serial number
+     * @throws SQLException if the missions cannot be read
+     */
+    static Contributions readContributions(Connection conn, Collection<Integer> missionIds) throws SQLException {
+        Contributions contributions = new Contributions();
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(missionIds));
+        ids.remove(null);
+        if (ids.isEmpty()) {
+            return contributions;
+        }
+        String in = "(" + DBUtil.placeholders(ids.size()) + ")";
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            // A primary key lock; the read below then sees the latest committed state of the missions
+            stmt = conn.prepareStatement("SELECT ID FROM missione WHERE ID IN " + in + " FOR UPDATE");
+            setInts(stmt, ids);
+            stmt.executeQuery().close();
+            stmt.close();
+
+            stmt = conn.prepareStatement(CONTRIBUTIONS_SQL + in);
+            setInts(stmt, ids);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                int missionId = rs.getInt("ID");
+                String partNumber = rs.getString("PartNumber");
+                double hours = Math.max(0, rs.getDouble("Ore"));
+                boolean fired = rs.getBoolean("Sparo");
+                double lifeHours = rs.getDouble("OreVitaOperativa");
+                if (partNumber != null) {
+                    contributions.byPartNumber.computeIfAbsent(partNumber, k -> new Contribution(lifeHours))
+                            .add(missionId, hours, fired);
+                }
+                String serialNumber = rs.getString("SerialNumber");
+                if (serialNumber != null) {
+                    contributions.bySerialNumber.computeIfAbsent(serialNumber, k -> new Contribution(lifeHours))
+                            .add(missionId, hours, fired);
+                    contributions.partNumberOfSerial.put(serialNumber, partNumber);
+                }
+            }
+        } finally {
+            DBUtil.closeResources(null, stmt, rs);
+        }
+        return contributions;
+    }
+
+    /**
+     * Applies the difference between the contributions of some missions before
+     * and after a write to the launcher life tables, with one primary key UPDATE
+     * per affected launcher, in the write's transaction. Launchers without a row
+     * are marked stale. Residual life drops by the flight time over the
+     * launcher's OreVitaOperativa; the maintenance status is left to the reconcile job.
+     *
+     * @param conn The connection of the write
+     * @param before The contributions read before the write
+     * @param after The contributions read after the write
+     * @throws SQLException if the tables cannot be updated; the caller must roll back
+     */
+    static void apply(Connection conn, Contributions before, Contributions after) throws SQLException {
+        if (!tablesReady(conn)) {
+            return;
+        }
+        Set<String> stale = new TreeSet<>();
+        PreparedStatement stmt = null;
+        try {
+            // Rows are updated in key order, so concurrent writes lock them in the same order
+            List<String> partNumbers = changedKeys(before.byPartNumber, after.byPartNumber);
+            if (!partNumbers.isEmpty()) {
+                stmt = conn.prepareStatement("UPDATE vita_lanciatore SET " +
+                        "NumeroMissioni = COALESCE(NumeroMissioni, 0) + ?, " +
+                        "NumeroSpari = COALESCE(NumeroSpari, 0) + ?, " +
+                        "OreTotali = COALESCE(OreTotali, 0) + ?, " +
+                        "VitaResiduaPercentuale = VitaResiduaPercentuale - ? " +
+                        "WHERE PartNumber = ?");
+                for (String partNumber : partNumbers) {
+                    Contribution delta = Contribution.difference(before.byPartNumber.get(partNumber),
+                            after.byPartNumber.get(partNumber));
+                    stmt.setInt(1, delta.missions);
+                    stmt.setInt(2, delta.firedMissions);
+                    stmt.setDouble(3, delta.hours);
+                    stmt.setDouble(4, delta.lifePercentage());
+                    stmt.setString(5, partNumber);
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        stale.add(partNumbers.get(i));
+                    }
+                }
+                stmt.close();
+                stmt = null;
+            }
+
+            List<String> serialNumbers = changedKeys(before.bySerialNumber, after.bySerialNumber);
+            if (!serialNumbers.isEmpty()) {
+                stmt = conn.prepareStatement("UPDATE vita_lanciatore_seriale SET " +
+                        "NumeroMissioni = COALESCE(NumeroMissioni, 0) + ?, " +
+                        "MissioniConSparo = COALESCE(MissioniConSparo, 0) + ?, " +
+                        "MissioniSenzaSparo = COALESCE(MissioniSenzaSparo, 0) + ?, " +
+                        "OreVoloTotali = COALESCE(OreVoloTotali, 0) + ?, " +
+                        "VitaResiduaPercentuale = VitaResiduaPercentuale - ? " +
+                        "WHERE SerialNumber = ?");
+                for (String serialNumber : serialNumbers) {
+                    Contribution delta = Contribution.difference(before.bySerialNumber.get(serialNumber),
+                            after.bySerialNumber.get(serialNumber));
+                    stmt.setInt(1, delta.missions);
+                    stmt.setInt(2, delta.firedMissions);
+                    stmt.setInt(3, delta.missions - delta.firedMissions);
+                    stmt.setDouble(4, delta.hours);
+                    stmt.setDouble(5, delta.lifePercentage());
+                    stmt.setString(6, serialNumber);
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        String partNumber = after.partNumberOfSerial.containsKey(serialNumbers.get(i))
+                                ? after.partNumberOfSerial.get(serialNumbers.get(i))
+                                : before.partNumberOfSerial.get(serialNumbers.get(i));
+                        if (partNumber != null) {
+                            stale.add(partNumber);
+                        }
+                    }
+                }
+            }
+        } finally {
+            DBUtil.closeResources(null, stmt, null);
+        }
+        markStale(conn, stale);
+    }
+
+    /**
+     * Marks the rows of some launchers stale, for writes whose effect on them
+     * is not maintained incrementally (launchers, movements). Every workstation
+     * then reads them from the views until the reconcile job rebuilds them.
+     * Inside a transaction the mark is part of it and an error is thrown; outside
+     * one the write is already committed, so an error is only logged and the
+     * reconcile job finds the rows by comparing them with the views.
+     *
+     * @param conn The connection of the write
+     * @param partNumbers The part numbers of the launchers
+     * @throws SQLException if the mark cannot be written inside a transaction
+     */
+    static void markStale(Connection conn, Collection<String> partNumbers) throws SQLException {
+        List<String> keys = new ArrayList<>(new TreeSet<>(nonNull(partNumbers)));
+        if (keys.isEmpty()) {
+            return;
+        }
+        PreparedStatement stmt = null;
+        try {
+            if (!tablesReady(conn)) {
+                return;
+            }
+            stmt = conn.prepareStatement("INSERT INTO " + STALE_TABLE + " (PartNumber) VALUES (?) " +
+                    "ON DUPLICATE KEY UPDATE Dal = Dal");
+            for (String partNumber : keys) {
+                stmt.setString(1, partNumber);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            if (!conn.getAutoCommit()) {
+                throw e;
+            }
+            System.err.println("Error marking launcher life of " + keys + " stale: " + e.getMessage());
+        } finally {
+            DBUtil.closeResources(null, stmt, null);
+        }
+    }
+
+    private static List<String> changedKeys(Map<String, Contribution> before, Map<String, Contribution> after) {
+        Set<String> keys = new TreeSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        List<String> changed = new ArrayList<>();
+        for (String key : keys) {
+            if (!Contribution.difference(before.get(key), after.get(key)).isZero()) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    private static List<String> nonNull(Collection<String> values) {
+        List<String> list = new ArrayList<>(values);
+        list.removeIf(Objects::isNull);
+        return list;
+    }
+
+    private static Map<String, Object[]> readRows(Connection conn, String sql, Materialization materialization)
+            throws SQLException {
+        Map<String, Object[]> rows = new HashMap<>();
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = conn.createStatement();
+            rs = stmt.executeQuery(sql);
+            int columns = materialization.columns.length;
+            while (rs.next()) {
+                Object[] row = new Object[columns];
+                for (int i = 0; i < columns; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                rows.put(String.valueOf(row[materialization.keyIndex]), row);
+            }
+        } finally {
+            DBUtil.closeResources(null, stmt, rs);
+        }
+        return rows;
+    }
+
+    private static boolean sameRow(Object[] expected, Object[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            Object a = expected[i];
+            Object b = actual[i];
+            if (a instanceof Number && b instanceof Number) {
+                // The views may compute in DECIMAL, the tables store DOUBLE
+                if (Math.abs(((Number) a).doubleValue() - ((Number) b).doubleValue()) > 1e-6) {
+                    return false;
+                }
+            } else if (!Objects.equals(a == null ? null : a.toString(), b == null ? null : b.toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setStrings(PreparedStatement stmt, List<String> values) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            stmt.setString(i + 1, values.get(i));
+        }
+    }
+
+    private static void setInts(PreparedStatement stmt, List<Integer> values) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            stmt.setInt(i + 1, values.get(i));
+        }
+    }
+
+    /**
+     * What a set of missions contributes to the life of each launcher, see
+     * {@link #readContributions(Connection, Collection)}.
+     */
+    static final class Contributions {
+        private final Map<String, Contribution> byPartNumber = new HashMap<>();
+        private final Map<String, Contribution> bySerialNumber = new HashMap<>();
+        private final Map<String, String> partNumberOfSerial = new HashMap<>();
+
+        /**
+         * Gets the contributions of missions that do not exist, before an insert or after a delete.
+         *
+         * @return Empty contributions
+         */
+        static Contributions none() {
+            return new Contributions();
+        }
+    }
+
+    /**
+     * The missions, missions with a firing and flight hours a launcher gains
+     * from a set of missions. Each mission counts once per launcher.
+     */
+    private static final class Contribution {
+        private final double lifeHours;
+        private final Set<Integer> missionIds = new HashSet<>();
+        private final Set<Integer> firedMissionIds = new HashSet<>();
+        private int missions;
+        private int firedMissions;
+        private double hours;
+
+        private Contribution(double lifeHours) {
+            this.lifeHours = lifeHours;
+        }
+
+        private void add(int missionId, double missionHours, boolean fired) {
+            if (missionIds.add(missionId)) {
+                missions++;
+                hours += missionHours;
+            }
+            if (fired && firedMissionIds.add(missionId)) {
+                firedMissions++;
+            }
+        }
+
+        private static Contribution difference(Contribution before, Contribution after) {
+            Contribution delta = new Contribution(after != null ? after.lifeHours : before != null ? before.lifeHours : 0);
+            if (after != null) {
+                delta.missions = after.missions;
+                delta.firedMissions = after.firedMissions;
+                delta.hours = after.hours;
+            }
+            if (before != null) {
+                delta.missions -= before.missions;
+                delta.firedMissions -= before.firedMissions;
+                delta.hours -= before.hours;
+            }
+            return delta;
+        }
+
+        private boolean isZero() {
+            return missions == 0 && firedMissions == 0 && Math.abs(hours) < 1e-9;
+        }
+
+        private double lifePercentage() {
+            return lifeHours > 0 ? 100 * hours / lifeHours : 0;
+        }
+    }
+
+    /**
+     * A launcher life table and the view query it materializes.
+     */
+    private static class Materialization {
+        private final String table;
+        private final String createSql;
+        private final String partNumberColumn;
+        private final String[] columns;
+        private final String sourceSql;
+        private final String sourcePartNumberColumn;
+        private final int keyIndex;
+        private final int partNumberIndex;
+
+        private Materialization(String table, String createSql, String keyColumn, String partNumberColumn,
+                                String[] columns, String sourceSql, String sourcePartNumberColumn) {
+            this.table = table;
+            this.createSql = createSql;
+            this.partNumberColumn = partNumberColumn;
+            this.columns = columns;
+            this.sourceSql = sourceSql;
+            this.sourcePartNumberColumn = sourcePartNumberColumn;
+            this.keyIndex = Arrays.asList(columns).indexOf(keyColumn);
+            this.partNumberIndex = Arrays.asList(columns).indexOf(partNumberColumn);
+        }
+
+        private String selectSql() {
+            return "SELECT " + String.join(", ", columns) + " FROM " + table;
+        }
+
+        private String insertSql() {
+            return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") " + sourceSql;
+        }
+
+        private String partNumberOf(Object[] row) {
+            Object partNumber = row[partNumberIndex];
+            return partNumber != null ? partNumber.toString() : null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.aircraft.dao;
+
+import com.aircraft.util.CancellationToken;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries of a screen concurrently and waits for all of them.
+ * Queries are forked on {@link DaoExecutor}; {@link #join()} returns once every
+ * query has completed, so loading takes as long as the slowest query rather than
+ * the sum of all of them. If one query fails, or the waiting thread is interrupted,
+ * the queries that have not finished yet are cancelled and the failure is rethrown.
+ * The queries run under a {@link CancellationToken} of the scope, so cancelling
+ * them cancels their JDBC statements; if the scope is created inside a cancellable
+ * load, cancelling the load cancels the scope as well.
+ *
+ * <pre>
+ * try (LoadScope scope = new LoadScope()) {
+ *     LoadScope.Subtask&lt;Mission&gt; mission = scope.fork(() -&gt; missionDAO.getById(id));
+ *     LoadScope.Subtask&lt;List&lt;WeaponStatus&gt;&gt; weapons = scope.fork(() -&gt; missionDAO.getWeaponsForMission(id));
+ *     scope.join();
+ *     show(mission.get(), weapons.get());
+ * }
+ * </pre>
+ */
+public class LoadScope implements AutoCloseable {
+
+    private final List<CompletableFuture<?>> forks = new ArrayList<>();
+    private final CancellationToken token;
+    // Completed exceptionally by the first query that fails
+    private final CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+    private boolean joined;
+
+    /**
+     * Creates a scope. If the calling thread runs a cancellable load, the scope's
+     * queries are cancelled together with it.
+     */
+    public LoadScope() {
+        CancellationToken current = CancellationToken.current();
+        this.token = current != null ? current.newChild() : new CancellationToken();
+    }
+
+    /**
+     * Starts a query in this scope.
+     *
+     * @param query The query to run
+     * @param <T> The result type
+     * @return A handle to the result, available after {@link #join()}
+     */
+    public <T> Subtask<T> fork(Supplier<T> query) {
+        if (joined) {
+            throw new IllegalStateException("Cannot fork after join");
+        }
+        CompletableFuture<T> future;
+        try {
+            // DaoExecutor runs the query under the token current when it is submitted
+            future = token.callWith(() -> DaoExecutor.supplyAsync(query));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not start query", e);
+        }
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                firstFailure.completeExceptionally(error);
+            }
+        });
+        forks.add(future);
+        return new Subtask<>(future);
+    }
+
+    /**
+     * Waits until all forked queries have completed.
+     *
+     * @throws ExecutionException if a query failed; the other queries are cancelled
+     * @throws InterruptedException if the current thread was interrupted; all queries are cancelled
+     */
+    public void join() throws ExecutionException, InterruptedException {
+        joined = true;
+        CompletableFuture<Void> all = CompletableFuture.allOf(forks.toArray(new CompletableFuture<?>[0]));
+        try {
+            CompletableFuture.anyOf(all, firstFailure).get();
+        } catch (ExecutionException | InterruptedException e) {
+            cancelAll();
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels the queries that have not completed yet.
+     */
+    @Override
+    public void close() {
+        boolean pending = false;
+        for (CompletableFuture<?> future : forks) {
+            pending |= !future.isDone();
+        }
+        if (pending) {
+            cancelAll();
+        }
+        token.release();
+    }
+
+    private void cancelAll() {
+        // Cancels the statements that are still running; the futures alone would leave them running
+        token.cancel();
+        for (CompletableFuture<?> future : forks) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * The result of a query forked in a {@link LoadScope}.
+     *
+     * @param <T> The result type
+     */
+    public static class Subtask<T> {
+        private final CompletableFuture<T> future;
+
+        private Subtask(CompletableFuture<T> future) {
+            this.future = future;
+        }
+
+        /**
+         * Gets the result of the query.
+         *
+         * @return The result
+         * @throws IllegalStateException if the query has not completed successfully
+         */
+        public T get() {
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                throw new IllegalStateException("Query has not completed successfully");
+            }
+            try {
+                return future.join();
+            } catch (CancellationException e) {
+                throw new IllegalStateException("Query was cancelled", e);
+            }
+        }
+    }
+}
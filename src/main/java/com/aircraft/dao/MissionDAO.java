@@ -1,12 +1,21 @@
 package com.aircraft.dao;
 
 import com.aircraft.model.Mission;
+import com.aircraft.model.MissionFlightSummary;
+import com.aircraft.model.MissionPosition;
 import com.aircraft.model.WeaponStatus;
 import com.aircraft.util.DBUtil;
+import com.aircraft.util.QueryCache;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Data Access Object for Mission-related database operations.
@@ -14,57 +23,149 @@ import java.util.List;
  */
 public class MissionDAO {
 
+    private static final String MISSIONS_BY_DATE_RANGE_SQL =
+            "SELECT * FROM missione WHERE DataMissione BETWEEN ? AND ? ORDER BY DataMissione DESC";
+    private static final String MISSIONS_BY_AIRCRAFT_AND_DATE_RANGE_SQL =
+            "SELECT * FROM missione WHERE MatricolaVelivolo = ? AND DataMissione BETWEEN ? AND ? ORDER BY DataMissione DESC";
+    // Inserts a mission unless the aircraft already has one with the same flight number
+    private static final String CREATE_MISSION_SQL =
+            "INSERT INTO missione (ID, MatricolaVelivolo, DataMissione, NumeroVolo, OraPartenza, OraArrivo, " +
+            "PartNumberLanciatoreP1, PartNumberLanciatoreP13, PartNumberMissileP1, PartNumberMissileP13) " +
+            "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ? FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM missione WHERE MatricolaVelivolo = ? AND NumeroVolo = ?)";
+    // Unique key on the flight numbers of an aircraft, see migrate()
+    private static final String FLIGHT_NUMBER_KEY = "uk_missione_volo";
+    // Positions of a mission; missions saved by clients that only write the fixed
+    // columns have no missione_posizione rows, so their P1 and P13 are read from missione
+    private static final String LOADOUT_SQL =
+            "SELECT ID_Missione, Posizione, PartNumberLanciatore, PartNumberMissile " +
+            "FROM missione_posizione WHERE ID_Missione = ? " +
+            "UNION ALL " +
+            "SELECT m.ID, 'P1', m.PartNumberLanciatoreP1, m.PartNumberMissileP1 FROM missione m " +
+            "WHERE m.ID = ? AND (m.PartNumberLanciatoreP1 IS NOT NULL OR m.PartNumberMissileP1 IS NOT NULL) " +
+            "AND NOT EXISTS (SELECT 1 FROM missione_posizione x WHERE x.ID_Missione = m.ID) " +
+            "UNION ALL " +
+            "SELECT m.ID, 'P13', m.PartNumberLanciatoreP13, m.PartNumberMissileP13 FROM missione m " +
+            "WHERE m.ID = ? AND (m.PartNumberLanciatoreP13 IS NOT NULL OR m.PartNumberMissileP13 IS NOT NULL) " +
+            "AND NOT EXISTS (SELECT 1 FROM missione_posizione x WHERE x.ID_Missione = m.ID)";
+    // Tables read by the cached mission queries
+    private static final Set<String> MISSION_TABLES = QueryCache.tables("missione");
+
     /**
-     * Inserts a new mission into the database.
+     * Inserts a new mission into the database with the P1 and P13 loadout of its
+     * fixed fields, see {@link #createMission(Mission, List)}.
      *
-     * @param mission The Mission object to insert
+     * @param mission The Mission object to insert; its ID is set on success
      * @return true if insertion was successful, false otherwise
      */
     public boolean insert(Mission mission) {
+        return insertAndGetId(mission) > 0;
+    }
+
+    /**
+     * Creates a mission together with its loadout in one transaction: the
+     * mission insert, the batched insert of its positions and the launcher life
+     * update of {@link LauncherLifeDAO#apply}. The mission insert itself checks
+     * that the aircraft has no mission with the same flight number, backed by
+     * the unique (MatricolaVelivolo, NumeroVolo) key that {@link #migrate(Connection)}
+     * creates, so no separate existence query is needed. Two concurrent inserts
+     * of the same flight can deadlock on that check; the loser is retried and
+     * then finds the winner's mission. The ID comes from {@link IdAllocator},
+     * which reserves a new block on a connection of its own when one runs out.
+     *
+     * @param mission The mission to create; its ID is set on success
+     * @param loadout The launcher and missile of each loaded position
+     * @return The new mission ID, or -1 if the flight number is already used by the aircraft
+     * @throws SQLException if the mission could not be saved, including when no free ID was found
+     */
+    public int createMission(Mission mission, List<MissionPosition> loadout) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
-        ResultSet generatedKeys = null;
-        boolean success = false;
 
         try {
             conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
 
-            // SQL query to insert a new mission with launcher and missile columns
-            String sql = "INSERT INTO missione (MatricolaVelivolo, DataMissione, NumeroVolo, OraPartenza, OraArrivo, " +
-                    "LauncherPN1, LauncherPN13, MissilePN1, MissilePN13) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            stmt.setString(1, mission.getMatricolaVelivolo());
-            stmt.setDate(2, mission.getDataMissione());
-            stmt.setInt(3, mission.getNumeroVolo());
-            stmt.setTime(4, mission.getOraPartenza());
-            stmt.setTime(5, mission.getOraArrivo());
-            stmt.setString(6, mission.getLauncherPN1());
-            stmt.setString(7, mission.getLauncherPN13());
-            stmt.setString(8, mission.getMissilePN1());
-            stmt.setString(9, mission.getMissilePN13());
-
-            int rowsAffected = stmt.executeUpdate();
-
-            if (rowsAffected > 0) {
-                // Get the generated ID
-                generatedKeys = stmt.getGeneratedKeys();
-                if (generatedKeys.next()) {
-                    mission.setId(generatedKeys.getInt(1));
-                    success = true;
+            // Views still read P1 and P13 from the fixed columns
+            setLegacyLoadout(mission, loadout);
+
+            stmt = conn.prepareStatement(CREATE_MISSION_SQL);
+            stmt.setString(2, mission.getMatricolaVelivolo());
+            stmt.setDate(3, mission.getDataMissione());
+            stmt.setInt(4, mission.getNumeroVolo());
+            stmt.setTime(5, mission.getOraPartenza());
+            stmt.setTime(6, mission.getOraArrivo());
+            stmt.setString(7, mission.getLauncherPN1());
+            stmt.setString(8, mission.getLauncherPN13());
+            stmt.setString(9, mission.getMissilePN1());
+            stmt.setString(10, mission.getMissilePN13());
+            stmt.setString(11, mission.getMatricolaVelivolo());
+            stmt.setInt(12, mission.getNumeroVolo());
+
+            for (int attempt = 1; ; attempt++) {
+                int missionId = IdAllocator.MISSIONS.nextId();
+                stmt.setInt(1, missionId);
+                boolean inserted = false;
+                try {
+                    if (stmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        return -1;
+                    }
+                    inserted = true;
+                    insertLoadout(conn, missionId, loadout);
+                    LauncherLifeDAO.apply(conn, LauncherLifeDAO.Contributions.none(),
+                            LauncherLifeDAO.readContributions(conn, Collections.singleton(missionId)));
+                    conn.commit();
+                } catch (SQLException e) {
+                    if (IdAllocator.isDuplicateId(e) || isDeadlock(e)) {
+                        if (attempt < IdAllocator.MAX_ATTEMPTS) {
+                            // Taken by a client still using MAX(ID) + 1, or a concurrent insert of
+                            // the same flight won; try again, the check then sees its mission
+                            conn.rollback();
+                            continue;
+                        }
+                        // Not a flight number clash, so it must not be reported as one
+                        throw e;
+                    }
+                    if (inserted || e.getErrorCode() != 1062) {
+                        throw e;
+                    }
+                    // ER_DUP_ENTRY on the flight number key: a concurrent insert won
+                    conn.rollback();
+                    return -1;
                 }
+                mission.setId(missionId);
+                return missionId;
             }
         } catch (SQLException e) {
-            System.err.println("Error inserting mission: " + e.getMessage());
-            e.printStackTrace();
+            // Rollback transaction in case of error
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
+            throw e;
         } finally {
-            DBUtil.closeResources(conn, stmt, generatedKeys);
-        }
+            // Reset auto-commit
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error resetting auto-commit: " + e.getMessage());
+                e.printStackTrace();
+            }
 
-        return success;
+            DBUtil.closeResources(conn, stmt, null);
+        }
     }
 
     /**
-     * Updates an existing mission in the database.
+     * Updates an existing mission in the database. The P1 and P13 rows of
+     * missione_posizione are replaced from the fixed loadout fields in the same
+     * transaction; the other positions are left unchanged.
      *
      * @param mission The Mission object to update
      * @return true if update was successful, false otherwise
@@ -76,6 +177,7 @@ public class MissionDAO {
 
         try {
             conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
 
             // SQL query with correct column names
             String sql = "UPDATE missione SET MatricolaVelivolo = ?, DataMissione = ?, NumeroVolo = ?, " +
@@ -93,12 +195,46 @@ public class MissionDAO {
             stmt.setString(9, mission.getMissilePN13());
             stmt.setInt(10, mission.getId());
 
+            // Launchers of the old aircraft and date lose the mission, those of the new ones gain it
+            LauncherLifeDAO.Contributions before = LauncherLifeDAO.readContributions(conn,
+                    Collections.singleton(mission.getId()));
+
             int rowsAffected = stmt.executeUpdate();
+            stmt.close();
             success = rowsAffected > 0;
+            if (success) {
+                stmt = conn.prepareStatement("DELETE FROM missione_posizione " +
+                        "WHERE ID_Missione = ? AND Posizione IN ('P1', 'P13')");
+                stmt.setInt(1, mission.getId());
+                stmt.executeUpdate();
+                insertLoadout(conn, mission.getId(), legacyLoadout(mission));
+
+                LauncherLifeDAO.apply(conn, before,
+                        LauncherLifeDAO.readContributions(conn, Collections.singleton(mission.getId())));
+            }
+            conn.commit();
         } catch (SQLException e) {
             System.err.println("Error updating mission: " + e.getMessage());
             e.printStackTrace();
+            success = false;
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
         } finally {
+            // Reset auto-commit
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error resetting auto-commit: " + e.getMessage());
+                e.printStackTrace();
+            }
+
             DBUtil.closeResources(conn, stmt, null);
         }
 
@@ -123,6 +259,9 @@ public class MissionDAO {
             // Begin transaction
             conn.setAutoCommit(false);
 
+            // Read while the mission and its firing declarations still exist
+            LauncherLifeDAO.Contributions before = LauncherLifeDAO.readContributions(conn, Collections.singleton(id));
+
             // Delete from historical_load first (if table exists)
             try {
                 String sqlHistLoad = "DELETE FROM historical_load WHERE mission_id = ?";
@@ -159,11 +298,24 @@ public class MissionDAO {
                 System.out.println("Error deleting from missione_posizione_automatica: " + e.getMessage());
             }
 
+            // Delete the loadout positions (if table exists)
+            try {
+                String sqlLoadout = "DELETE FROM missione_posizione WHERE ID_Missione = ?";
+                stmt = conn.prepareStatement(sqlLoadout);
+                stmt.setInt(1, id);
+                stmt.executeUpdate();
+                stmt.close();
+            } catch (SQLException e) {
+                // Table is created on first use, continue with deletion
+                System.out.println("Note: missione_posizione table not found or other error: " + e.getMessage());
+            }
+
             // Finally delete the mission
             String sqlMission = "DELETE FROM missione WHERE ID = ?";
             stmt = conn.prepareStatement(sqlMission);
             stmt.setInt(1, id);
             int rowsAffected = stmt.executeUpdate();
+            LauncherLifeDAO.apply(conn, before, LauncherLifeDAO.Contributions.none());
 
             // Commit the transaction
             conn.commit();
@@ -235,6 +387,16 @@ public class MissionDAO {
         return mission;
     }
 
+    /**
+     * Asynchronous version of {@link #getById(int)}.
+     *
+     * @param id The mission ID
+     * @return A future completed with the Mission, or null if not found
+     */
+    public CompletableFuture<Mission> getByIdAsync(int id) {
+        return DaoExecutor.supplyAsync(() -> getById(id));
+    }
+
     /**
      * Retrieves a mission by flight number and aircraft.
      *
@@ -345,6 +507,67 @@ public class MissionDAO {
         return missions;
     }
 
+    /**
+     * Asynchronous version of {@link #getMissionsByAircraft(String)}.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @return A future completed with the missions of the aircraft
+     */
+    public CompletableFuture<List<Mission>> getMissionsByAircraftAsync(String matricolaVelivolo) {
+        return DaoExecutor.supplyAsync(() -> getMissionsByAircraft(matricolaVelivolo));
+    }
+
+    /**
+     * Retrieves the missions of an aircraft listed in the vista_gui_missione view.
+     * Only the ID, flight number and date are populated.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @return A List of Mission objects, most recent first
+     */
+    public List<Mission> getGuiMissionsByAircraft(String matricolaVelivolo) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Mission> missions = new ArrayList<>();
+
+        try {
+            conn = DBUtil.getConnection();
+            String sql = "SELECT ID_Missione, NumeroVolo, DataMissione FROM vista_gui_missione " +
+                    "WHERE MatricolaVelivolo = ? " +
+                    "ORDER BY DataMissione DESC";
+            stmt = conn.prepareStatement(sql);
+            stmt.setString(1, matricolaVelivolo);
+
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                Mission mission = new Mission();
+                mission.setId(rs.getInt("ID_Missione"));
+                mission.setMatricolaVelivolo(matricolaVelivolo);
+                mission.setNumeroVolo(rs.getInt("NumeroVolo"));
+                mission.setDataMissione(rs.getDate("DataMissione"));
+                missions.add(mission);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving missions for aircraft: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
+
+        return missions;
+    }
+
+    /**
+     * Asynchronous version of {@link #getGuiMissionsByAircraft(String)}.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @return A future completed with the missions of the aircraft
+     */
+    public CompletableFuture<List<Mission>> getGuiMissionsByAircraftAsync(String matricolaVelivolo) {
+        return DaoExecutor.supplyAsync(() -> getGuiMissionsByAircraft(matricolaVelivolo));
+    }
+
     /**
      * Retrieves the latest missions, ordered by ID descending.
      *
@@ -415,46 +638,229 @@ public class MissionDAO {
      * @return A List of Mission objects within the specified date range
      */
     public List<Mission> getMissionsByDateRange(Date fromDate, Date toDate) {
+        try {
+            return QueryCache.getInstance().get(MISSIONS_BY_DATE_RANGE_SQL,
+                    Arrays.asList(fromDate, toDate), MISSION_TABLES,
+                    () -> queryMissions(MISSIONS_BY_DATE_RANGE_SQL, fromDate, toDate),
+                    QueryCache.copyEach(Mission::new));
+        } catch (SQLException e) {
+            System.err.println("Error retrieving missions by date range: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #getMissionsByDateRange(Date, Date)}.
+     *
+     * @param fromDate The start date (inclusive)
+     * @param toDate The end date (inclusive)
+     * @return A future completed with the missions in the date range
+     */
+    public CompletableFuture<List<Mission>> getMissionsByDateRangeAsync(Date fromDate, Date toDate) {
+        return DaoExecutor.supplyAsync(() -> getMissionsByDateRange(fromDate, toDate));
+    }
+
+    /**
+     * Retrieves missions by aircraft and date range.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @param fromDate The start date
+     * @param toDate The end date
+     * @return A List of Mission objects for the specified aircraft within the date range
+     */
+    public List<Mission> getMissionsByAircraftAndDateRange(String matricolaVelivolo, Date fromDate, Date toDate) {
+        try {
+            return QueryCache.getInstance().get(MISSIONS_BY_AIRCRAFT_AND_DATE_RANGE_SQL,
+                    Arrays.asList(matricolaVelivolo, fromDate, toDate), MISSION_TABLES,
+                    () -> queryMissions(MISSIONS_BY_AIRCRAFT_AND_DATE_RANGE_SQL, matricolaVelivolo, fromDate, toDate),
+                    QueryCache.copyEach(Mission::new));
+        } catch (SQLException e) {
+            System.err.println("Error retrieving missions by aircraft and date range: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #getMissionsByAircraftAndDateRange(String, Date, Date)}.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @param fromDate The start date (inclusive)
+     * @param toDate The end date (inclusive)
+     * @return A future completed with the missions of the aircraft in the date range
+     */
+    public CompletableFuture<List<Mission>> getMissionsByAircraftAndDateRangeAsync(String matricolaVelivolo, Date fromDate, Date toDate) {
+        return DaoExecutor.supplyAsync(() -> getMissionsByAircraftAndDateRange(matricolaVelivolo, fromDate, toDate));
+    }
+
+    /**
+     * Retrieves one page of missions, most recent first, ordered by (DataMissione, ID).
+     * The page is located by seeking from an anchor mission of an adjacent page
+     * instead of with an OFFSET, so every page costs the same however deep it is,
+     * and concurrent inserts never shift rows between pages.
+     *
+     * @param matricolaVelivolo The aircraft serial number, or null for all aircraft
+     * @param fromDate The start date (inclusive), or null
+     * @param toDate The end date (inclusive), or null
+     * @param anchor The first or last mission of an adjacent page, or null for the first page
+     * @param after true for the missions after the anchor, false for those before it
+     * @param limit The maximum number of missions
+     * @return The missions of the page, most recent first
+     * @throws SQLException if the query fails
+     */
+    public List<Mission> getMissionsPage(String matricolaVelivolo, Date fromDate, Date toDate,
+                                         Mission anchor, boolean after, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM missione");
+        List<Object> parameters = new ArrayList<>();
+        appendMissionFilters(sql, parameters, matricolaVelivolo, fromDate, toDate);
+        if (anchor != null) {
+            // Expanded rather than a row comparison so MySQL can range-scan (DataMissione, ID)
+            String op = after ? "<" : ">";
+            sql.append(" AND (DataMissione ").append(op).append(" ? OR (DataMissione = ? AND ID ").append(op).append(" ?))");
+            parameters.add(anchor.getDataMissione());
+            parameters.add(anchor.getDataMissione());
+            parameters.add(anchor.getId());
+        }
+        // Rows before the anchor are read towards it and reversed
+        String direction = after ? "DESC" : "ASC";
+        sql.append(" ORDER BY DataMissione ").append(direction).append(", ID ").append(direction).append(" LIMIT ?");
+        parameters.add(limit);
+
+        List<Mission> missions = queryMissions(sql.toString(), parameters.toArray());
+        if (!after) {
+            Collections.reverse(missions);
+        }
+        return missions;
+    }
+
+    /**
+     * Counts the missions matching the filters of {@link #getMissionsPage}.
+     *
+     * @param matricolaVelivolo The aircraft serial number, or null for all aircraft
+     * @param fromDate The start date (inclusive), or null
+     * @param toDate The end date (inclusive), or null
+     * @return The number of missions
+     * @throws SQLException if the query fails
+     */
+    public long countMissions(String matricolaVelivolo, Date fromDate, Date toDate) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        List<Mission> missions = new ArrayList<>();
+
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM missione");
+        List<Object> parameters = new ArrayList<>();
+        appendMissionFilters(sql, parameters, matricolaVelivolo, fromDate, toDate);
 
         try {
             conn = DBUtil.getConnection();
+            stmt = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
 
-            // SQL query to retrieve missions within a date range
-            String sql = "SELECT * FROM missione WHERE DataMissione BETWEEN ? AND ? ORDER BY DataMissione DESC";
-            stmt = conn.prepareStatement(sql);
-            stmt.setDate(1, fromDate);
-            stmt.setDate(2, toDate);
+            rs = stmt.executeQuery();
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
+    }
+
+    /**
+     * Streams the missions matching the filters of {@link #getMissionsPage}, most
+     * recent first, to a handler. The rows are read through a forward-only
+     * server-side cursor, one at a time, so memory use does not depend on the
+     * number of missions. The connection is held until the last row is handled,
+     * and the handler must not use the database. Cancelling the background work
+     * running the stream stops the query on the server.
+     *
+     * @param matricolaVelivolo The aircraft serial number, or null for all aircraft
+     * @param fromDate The start date (inclusive), or null
+     * @param toDate The end date (inclusive), or null
+     * @param handler Receives each mission
+     * @return The number of missions streamed
+     * @throws SQLException if the query fails
+     * @throws IOException if the handler fails
+     */
+    public long streamMissions(String matricolaVelivolo, Date fromDate, Date toDate,
+                               RowHandler<Mission> handler) throws SQLException, IOException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM missione");
+        List<Object> parameters = new ArrayList<>();
+        appendMissionFilters(sql, parameters, matricolaVelivolo, fromDate, toDate);
+        sql.append(" ORDER BY DataMissione DESC, ID DESC");
+        boolean complete = false;
+
+        try {
+            conn = DBUtil.getConnection();
+            stmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Integer.MIN_VALUE makes Connector/J stream rows instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            // The stream lasts as long as the handler takes; only cancellation stops it
+            stmt.setQueryTimeout(0);
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
 
             rs = stmt.executeQuery();
 
+            long count = 0;
             while (rs.next()) {
-                // For each row, create a Mission object and add to list
-                Mission mission = createMissionFromResultSet(rs);
-                missions.add(mission);
+                handler.handle(createMissionFromResultSet(rs));
+                count++;
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving missions by date range: " + e.getMessage());
-            e.printStackTrace();
+            complete = true;
+            return count;
         } finally {
+            if (!complete && stmt != null) {
+                // Closing a streaming result set reads all its remaining rows; stop the query first
+                try {
+                    stmt.cancel();
+                } catch (SQLException e) {
+                    System.err.println("Error cancelling mission stream: " + e.getMessage());
+                }
+            }
             DBUtil.closeResources(conn, stmt, rs);
         }
+    }
 
-        return missions;
+    /**
+     * Receives the rows of a streamed query.
+     */
+    public interface RowHandler<T> {
+        void handle(T row) throws IOException;
+    }
+
+    private static void appendMissionFilters(StringBuilder sql, List<Object> parameters,
+                                             String matricolaVelivolo, Date fromDate, Date toDate) {
+        sql.append(" WHERE 1 = 1");
+        if (matricolaVelivolo != null) {
+            sql.append(" AND MatricolaVelivolo = ?");
+            parameters.add(matricolaVelivolo);
+        }
+        if (fromDate != null) {
+            sql.append(" AND DataMissione >= ?");
+            parameters.add(fromDate);
+        }
+        if (toDate != null) {
+            sql.append(" AND DataMissione <= ?");
+            parameters.add(toDate);
+        }
     }
 
     /**
-     * Retrieves missions by aircraft and date range.
+     * Runs a mission query, bypassing the {@link QueryCache}.
      *
-     * @param matricolaVelivolo The aircraft serial number
-     * @param fromDate The start date
-     * @param toDate The end date
-     * @return A List of Mission objects for the specified aircraft within the date range
+     * @param sql The SQL query selecting rows of missione
+     * @param parameters The bound parameters
+     * @return The missions returned by the query
+     * @throws SQLException if the query fails
      */
-    public List<Mission> getMissionsByAircraftAndDateRange(String matricolaVelivolo, Date fromDate, Date toDate) {
+    private List<Mission> queryMissions(String sql, Object... parameters) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -462,24 +868,16 @@ public class MissionDAO {
 
         try {
             conn = DBUtil.getConnection();
-
-            // SQL query to retrieve missions for a specific aircraft within a date range
-            String sql = "SELECT * FROM missione WHERE MatricolaVelivolo = ? AND DataMissione BETWEEN ? AND ? ORDER BY DataMissione DESC";
             stmt = conn.prepareStatement(sql);
-            stmt.setString(1, matricolaVelivolo);
-            stmt.setDate(2, fromDate);
-            stmt.setDate(3, toDate);
+            for (int i = 0; i < parameters.length; i++) {
+                stmt.setObject(i + 1, parameters[i]);
+            }
 
             rs = stmt.executeQuery();
 
             while (rs.next()) {
-                // For each row, create a Mission object and add to list
-                Mission mission = createMissionFromResultSet(rs);
-                missions.add(mission);
+                missions.add(createMissionFromResultSet(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving missions by aircraft and date range: " + e.getMessage());
-            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
@@ -567,46 +965,87 @@ public Object[] getFlightDataForMission(int id) {
     return flightData;
 }
 
-    public List<WeaponStatus> getWeaponsForMission(int id) {
-        List<WeaponStatus> weapons = new ArrayList<>();
+    /**
+     * Retrieves the flight summary of a mission from the vista_gui_missione view.
+     *
+     * @param missionId The mission ID
+     * @return The flight summary, or null if the view has no row for the mission
+     */
+    public MissionFlightSummary getFlightSummary(int missionId) {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
 
         try {
             conn = DBUtil.getConnection();
-            String sql = "SELECT * FROM missione WHERE ID = ?";
+            String sql = "SELECT GloadMin, GloadMax, QuotaMedia, PosizioniSparo FROM vista_gui_missione " +
+                    "WHERE ID_Missione = ?";
+
             stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, id);
+            stmt.setInt(1, missionId);
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                // Position P1
-                if (rs.getString("PartNumberLanciatoreP1") != null) {
-                    WeaponStatus weapon1 = new WeaponStatus();
-                    weapon1.setPosition("P1");
-                    weapon1.setLauncherPartNumber(rs.getString("PartNumberLanciatoreP1"));
-                    weapon1.setLauncherSerialNumber(""); // SN not stored
-                    weapon1.setMissilePartNumber(rs.getString("PartNumberMissileP1"));
-                    weapon1.setMissileName(getMissileNameByPN(rs.getString("PartNumberMissileP1")));
-                    weapon1.setStatus(getFiringStatus(id, "P1"));
-                    weapons.add(weapon1);
-                }
+                return new MissionFlightSummary(
+                        missionId,
+                        rs.getDouble("GloadMin"),
+                        rs.getDouble("GloadMax"),
+                        rs.getInt("QuotaMedia"),
+                        rs.getString("PosizioniSparo")
+                );
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving flight summary: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
 
-                // Position P13
-                if (rs.getString("PartNumberLanciatoreP13") != null) {
-                    WeaponStatus weapon13 = new WeaponStatus();
-                    weapon13.setPosition("P13");
-                    weapon13.setLauncherPartNumber(rs.getString("PartNumberLanciatoreP13"));
-                    weapon13.setLauncherSerialNumber(""); // SN not stored
-                    weapon13.setMissilePartNumber(rs.getString("PartNumberMissileP13"));
-                    weapon13.setMissileName(getMissileNameByPN(rs.getString("PartNumberMissileP13")));
-                    weapon13.setStatus(getFiringStatus(id, "P13"));
-                    weapons.add(weapon13);
-                }
+        return null;
+    }
+
+    /**
+     * Asynchronous version of {@link #getFlightSummary(int)}.
+     *
+     * @param missionId The mission ID
+     * @return A future completed with the flight summary, or null if none was found
+     */
+    public CompletableFuture<MissionFlightSummary> getFlightSummaryAsync(int missionId) {
+        return DaoExecutor.supplyAsync(() -> getFlightSummary(missionId));
+    }
+
+    /**
+     * Retrieves the weapons loaded at the positions of a mission from missione_posizione.
+     * Part numbers, missile nomenclature and firing status are read with a single query.
+     *
+     * @param id The mission ID
+     * @return A List of WeaponStatus objects for the mission, ordered from P1 to P13
+     */
+    public List<WeaponStatus> getWeaponsForMission(int id) {
+        List<WeaponStatus> weapons = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
 
-                System.out.println("Found " + weapons.size() + " weapons for mission ID: " + id);
+        try {
+            conn = DBUtil.getConnection();
+            String sql = "SELECT p.Posizione, p.PartNumberLanciatore, p.PartNumberMissile, " +
+                    "COALESCE(" +
+                    "(SELECT w.Nomenclatura FROM view_weapon_list w WHERE w.PartNumber = p.PartNumberMissile LIMIT 1), " +
+                    "(SELECT c.Nomenclatura FROM anagrafica_carichi c WHERE c.PartNumber = p.PartNumberMissile LIMIT 1)" +
+                    ") AS NomenclaturaMissile, " +
+                    "(SELECT d.Missile_Sparato FROM dichiarazione_missile_gui d " +
+                    "WHERE d.ID_Missione = p.ID_Missione AND d.PosizioneVelivolo = p.Posizione LIMIT 1) AS MissileSparato " +
+                    "FROM (" + LOADOUT_SQL + ") p WHERE p.PartNumberLanciatore IS NOT NULL " +
+                    "ORDER BY CAST(SUBSTRING(p.Posizione, 2) AS UNSIGNED)";
+            stmt = conn.prepareStatement(sql);
+            setLoadoutParameters(stmt, id);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                weapons.add(createWeaponStatus(rs));
             }
+            System.out.println("Found " + weapons.size() + " weapons for mission ID: " + id);
         } catch (SQLException e) {
             System.err.println("Error retrieving weapons: " + e.getMessage());
             e.printStackTrace();
@@ -618,22 +1057,47 @@ public Object[] getFlightDataForMission(int id) {
     }
 
     /**
-     * Gets missile name by part number.
+     * Asynchronous version of {@link #getWeaponsForMission(int)}.
      *
-     * @param partNumber The missile part number
-     * @return The missile name
+     * @param id The mission ID
+     * @return A future completed with the weapons of the mission
      */
+    public CompletableFuture<List<WeaponStatus>> getWeaponsForMissionAsync(int id) {
+        return DaoExecutor.supplyAsync(() -> getWeaponsForMission(id));
+    }
+
     /**
-     * Gets missile name by part number.
-     *
-     * @param partNumber The missile part number
-     * @return The missile name or the part number itself if lookup fails
+     * Creates a WeaponStatus from a row of the weapons query.
      */
-    private String getMissileNameByPN(String partNumber) {
-        if (partNumber == null || partNumber.isEmpty()) {
-            return "";
+    private WeaponStatus createWeaponStatus(ResultSet rs) throws SQLException {
+        String missilePartNumber = rs.getString("PartNumberMissile");
+        String missileName = rs.getString("NomenclaturaMissile");
+
+        WeaponStatus weapon = new WeaponStatus();
+        weapon.setPosition(rs.getString("Posizione"));
+        weapon.setLauncherPartNumber(rs.getString("PartNumberLanciatore"));
+        weapon.setLauncherSerialNumber(""); // SN not stored
+        weapon.setMissilePartNumber(missilePartNumber);
+        // Fall back to the part number if the missile is not in the registry
+        if (missilePartNumber == null || missilePartNumber.isEmpty()) {
+            weapon.setMissileName("");
+        } else {
+            weapon.setMissileName(missileName != null ? missileName : missilePartNumber);
         }
+        // Convert SI/NO to FIRED/ONBOARD
+        weapon.setStatus("SI".equals(rs.getString("MissileSparato")) ? "FIRED" : "ONBOARD");
+        return weapon;
+    }
 
+    /**
+     * Retrieves the positions that had both a launcher installed and a missile loaded
+     * on the date of a mission, according to storico_lanciatore and storico_carico.
+     *
+     * @param missionId The mission ID
+     * @return A list of positions, empty if the mission does not exist
+     */
+    public List<String> getOccupiedPositions(int missionId) {
+        List<String> positions = new ArrayList<>();
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -641,94 +1105,343 @@ public Object[] getFlightDataForMission(int id) {
         try {
             conn = DBUtil.getConnection();
 
-            // First try looking up from view_weapon_list view
-            try {
-                String sql = "SELECT Nomenclatura FROM view_weapon_list WHERE PartNumber = ? LIMIT 1";
-                stmt = conn.prepareStatement(sql);
-                stmt.setString(1, partNumber);
-                rs = stmt.executeQuery();
+            // First, get the mission date and aircraft
+            String missionQuery = "SELECT MatricolaVelivolo, DataMissione FROM missione WHERE ID = ?";
+            stmt = conn.prepareStatement(missionQuery);
+            stmt.setInt(1, missionId);
+            rs = stmt.executeQuery();
 
-                if (rs.next() && rs.getString("Nomenclatura") != null) {
-                    return rs.getString("Nomenclatura");
-                }
-            } catch (SQLException e) {
-                // View might not exist, continue to next source
-            } finally {
-                DBUtil.closeResources(null, stmt, rs);
+            if (!rs.next()) {
+                System.err.println("Mission not found: " + missionId);
+                return positions;
             }
 
-            // Try looking up from armi table
-            try {
-                String sql = "SELECT Nomenclatura FROM armi WHERE PartNumber = ? LIMIT 1";
-                stmt = conn.prepareStatement(sql);
-                stmt.setString(1, partNumber);
-                rs = stmt.executeQuery();
+            String matricolaVelivolo = rs.getString("MatricolaVelivolo");
+            Date missionDate = rs.getDate("DataMissione");
+            DBUtil.closeResources(null, stmt, rs);
+
+            // Get positions with BOTH launcher and missile
+            String combinedQuery =
+                    "SELECT sc.PosizioneVelivolo, sl.PartNumber AS LauncherPN, sc.PartNumber AS MissilePN " +
+                            "FROM storico_lanciatore sl " +
+                            "JOIN storico_carico sc ON sl.PosizioneVelivolo = sc.PosizioneVelivolo " +
+                            "AND sl.MatricolaVelivolo = sc.MatricolaVelivolo " +
+                            "WHERE sl.MatricolaVelivolo = ? " +
+                            "AND sl.DataInstallazione <= ? " +
+                            "AND (sl.DataRimozione IS NULL OR sl.DataRimozione >= ?) " +
+                            "AND sc.DataImbarco <= ? " +
+                            "AND (sc.DataSbarco IS NULL OR sc.DataSbarco >= ?)";
+
+            stmt = conn.prepareStatement(combinedQuery);
+            stmt.setString(1, matricolaVelivolo);
+            stmt.setDate(2, missionDate);
+            stmt.setDate(3, missionDate);
+            stmt.setDate(4, missionDate);
+            stmt.setDate(5, missionDate);
+            rs = stmt.executeQuery();
 
-                if (rs.next() && rs.getString("Nomenclatura") != null) {
-                    return rs.getString("Nomenclatura");
+            while (rs.next()) {
+                String position = rs.getString("PosizioneVelivolo");
+                String launcherPN = rs.getString("LauncherPN");
+                String missilePN = rs.getString("MissilePN");
+
+                // Only return positions that have both components
+                if (position != null && !position.isEmpty() &&
+                        launcherPN != null && !launcherPN.isEmpty() &&
+                        missilePN != null && !missilePN.isEmpty()) {
+                    positions.add(position);
                 }
-            } catch (SQLException e) {
-                // Table might not exist, continue to next source
-            } finally {
-                DBUtil.closeResources(null, stmt, rs);
             }
-
-            // Continue with other lookup sources...
-            // (keeping the rest of your existing code)
-
         } catch (SQLException e) {
-            System.err.println("Error in missile name lookup: " + e.getMessage());
+            System.err.println("Error loading occupied positions: " + e.getMessage());
+            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
 
-        // If all lookups fail, return the part number itself
-        return partNumber;
+        return positions;
     }
 
     /**
-     * Gets firing status from dichiarazione_missile_gui table.
+     * Asynchronous version of {@link #getOccupiedPositions(int)}.
      *
      * @param missionId The mission ID
-     * @param position The missile position
-     * @return "FIRED" if missile was fired, "ONBOARD" otherwise
+     * @return A future completed with the occupied positions
      */
-    private String getFiringStatus(int missionId, String position) {
+    public CompletableFuture<List<String>> getOccupiedPositionsAsync(int missionId) {
+        return DaoExecutor.supplyAsync(() -> getOccupiedPositions(missionId));
+    }
+
+    /**
+     * Replaces the loadout of a mission in one transaction: the positions are
+     * written with a single JDBC batch and the P1 and P13 columns of missione
+     * are kept in sync for the views that still read them.
+     *
+     * @param missionId The mission ID
+     * @param loadout The launcher and missile of each loaded position
+     * @throws SQLException if the loadout could not be saved; nothing is changed then
+     */
+    public void saveLoadout(int missionId, List<MissionPosition> loadout) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            stmt = conn.prepareStatement("DELETE FROM missione_posizione WHERE ID_Missione = ?");
+            stmt.setInt(1, missionId);
+            stmt.executeUpdate();
+            stmt.close();
+
+            insertLoadout(conn, missionId, loadout);
+
+            Mission legacy = new Mission();
+            setLegacyLoadout(legacy, loadout);
+            stmt = conn.prepareStatement("UPDATE missione SET PartNumberLanciatoreP1 = ?, PartNumberLanciatoreP13 = ?, " +
+                    "PartNumberMissileP1 = ?, PartNumberMissileP13 = ? WHERE ID = ?");
+            stmt.setString(1, legacy.getLauncherPN1());
+            stmt.setString(2, legacy.getLauncherPN13());
+            stmt.setString(3, legacy.getMissilePN1());
+            stmt.setString(4, legacy.getMissilePN13());
+            stmt.setInt(5, missionId);
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("Mission " + missionId + " not found");
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            // Rollback transaction in case of error
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
+            throw e;
+        } finally {
+            // Reset auto-commit
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error resetting auto-commit: " + e.getMessage());
+                e.printStackTrace();
+            }
+
+            DBUtil.closeResources(conn, stmt, null);
+        }
+    }
+
+    /**
+     * Retrieves the loadout of a mission with a single query.
+     *
+     * @param missionId The mission ID
+     * @return The loaded positions ordered from P1 to P13, empty if none
+     */
+    public List<MissionPosition> getLoadout(int missionId) {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        String status = "ONBOARD"; // Default status
+        List<MissionPosition> loadout = new ArrayList<>();
 
         try {
             conn = DBUtil.getConnection();
-            String sql = "SELECT Missile_Sparato FROM dichiarazione_missile_gui " +
-                    "WHERE ID_Missione = ? AND PosizioneVelivolo = ?";
+
+            String sql = "SELECT Posizione, PartNumberLanciatore, PartNumberMissile FROM (" + LOADOUT_SQL + ") p " +
+                    "ORDER BY CAST(SUBSTRING(Posizione, 2) AS UNSIGNED)";
             stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, missionId);
-            stmt.setString(2, position);
+            setLoadoutParameters(stmt, missionId);
+
             rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                // Convert SI/NO to FIRED/ONBOARD
-                String dbStatus = rs.getString("Missile_Sparato");
-                status = "SI".equals(dbStatus) ? "FIRED" : "ONBOARD";
+            while (rs.next()) {
+                loadout.add(new MissionPosition(rs.getString("Posizione"),
+                        rs.getString("PartNumberLanciatore"), rs.getString("PartNumberMissile")));
             }
         } catch (SQLException e) {
-            System.err.println("Error retrieving firing status: " + e.getMessage());
+            System.err.println("Error retrieving mission loadout: " + e.getMessage());
+            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
 
-        return status;
+        return loadout;
+    }
+
+    /**
+     * Asynchronous version of {@link #getLoadout(int)}.
+     *
+     * @param missionId The mission ID
+     * @return A future completed with the loaded positions of the mission
+     */
+    public CompletableFuture<List<MissionPosition>> getLoadoutAsync(int missionId) {
+        return DaoExecutor.supplyAsync(() -> getLoadout(missionId));
+    }
+
+    /**
+     * Inserts the positions of a loadout with one JDBC batch, on the caller's transaction.
+     */
+    private void insertLoadout(Connection conn, int missionId, List<MissionPosition> loadout) throws SQLException {
+        insertLoadouts(conn, Collections.singletonMap(missionId, loadout));
+    }
+
+    /**
+     * Inserts the loadouts of several missions with one JDBC batch, on the caller's transaction.
+     * The table must exist, see {@link #migrate(Connection)}.
+     *
+     * @param conn The connection of the transaction
+     * @param loadouts The loadout of each mission, by mission ID
+     * @throws SQLException if the positions could not be inserted
+     */
+    static void insertLoadouts(Connection conn, Map<Integer, List<MissionPosition>> loadouts) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement("INSERT INTO missione_posizione " +
+                    "(ID_Missione, Posizione, PartNumberLanciatore, PartNumberMissile) VALUES (?, ?, ?, ?)");
+            int positions = 0;
+            for (Map.Entry<Integer, List<MissionPosition>> loadout : loadouts.entrySet()) {
+                for (MissionPosition position : loadout.getValue()) {
+                    stmt.setInt(1, loadout.getKey());
+                    stmt.setString(2, position.getPosition());
+                    stmt.setString(3, position.getLauncherPartNumber());
+                    stmt.setString(4, position.getMissilePartNumber());
+                    stmt.addBatch();
+                    positions++;
+                }
+            }
+            if (positions > 0) {
+                stmt.executeBatch();
+            }
+        } finally {
+            DBUtil.closeResources(null, stmt, null);
+        }
+    }
+
+    /**
+     * Builds the loadout of a mission from its fixed P1 and P13 fields.
+     *
+     * @param mission The mission
+     * @return The P1 and P13 positions that have a launcher
+     */
+    static List<MissionPosition> legacyLoadout(Mission mission) {
+        List<MissionPosition> loadout = new ArrayList<>();
+        if (mission.getLauncherPN1() != null) {
+            loadout.add(new MissionPosition("P1", mission.getLauncherPN1(), mission.getMissilePN1()));
+        }
+        if (mission.getLauncherPN13() != null) {
+            loadout.add(new MissionPosition("P13", mission.getLauncherPN13(), mission.getMissilePN13()));
+        }
+        return loadout;
     }
 
+    /**
+     * Copies the P1 and P13 entries of a loadout to the fixed columns of a mission.
+     */
+    private static void setLegacyLoadout(Mission mission, List<MissionPosition> loadout) {
+        mission.setLauncherPN1(null);
+        mission.setMissilePN1(null);
+        mission.setLauncherPN13(null);
+        mission.setMissilePN13(null);
+        for (MissionPosition position : loadout) {
+            if ("P1".equals(position.getPosition())) {
+                mission.setLauncherPN1(position.getLauncherPartNumber());
+                mission.setMissilePN1(position.getMissilePartNumber());
+            } else if ("P13".equals(position.getPosition())) {
+                mission.setLauncherPN13(position.getLauncherPartNumber());
+                mission.setMissilePN13(position.getMissilePartNumber());
+            }
+        }
+    }
 
     /**
-     * Inserts a new mission into the database and returns the generated ID.
+     * Creates missione_posizione and adds the unique (MatricolaVelivolo, NumeroVolo)
+     * key to missione, the first time. Part of {@link SchemaMigration}. The key
+     * is skipped with a warning while the table holds duplicate flights, which
+     * must be resolved by hand first.
      *
-     * @param mission The Mission object to insert
-     * @return The generated mission ID, or -1 if insertion fails
+     * @param conn The connection to use
+     * @throws SQLException if the key cannot be created
+     */
+    static void migrate(Connection conn) throws SQLException {
+        Statement stmt = null;
+        ResultSet rs = null;
+        try {
+            stmt = conn.createStatement();
+            migrateLoadoutTable(stmt);
+
+            rs = stmt.executeQuery("SELECT 1 FROM information_schema.STATISTICS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'missione' AND INDEX_NAME = '" +
+                    FLIGHT_NUMBER_KEY + "'");
+            boolean exists = rs.next();
+            rs.close();
+            rs = null;
+            if (exists) {
+                return;
+            }
+
+            rs = stmt.executeQuery("SELECT MatricolaVelivolo, NumeroVolo FROM missione " +
+                    "GROUP BY MatricolaVelivolo, NumeroVolo HAVING COUNT(*) > 1 LIMIT 1");
+            if (rs.next()) {
+                System.err.println("Not adding " + FLIGHT_NUMBER_KEY + ": flight " + rs.getInt("NumeroVolo")
+                        + " of aircraft " + rs.getString("MatricolaVelivolo") + " is recorded more than once");
+                return;
+            }
+            rs.close();
+            rs = null;
+
+            stmt.execute("ALTER TABLE missione ADD UNIQUE KEY " + FLIGHT_NUMBER_KEY + " (MatricolaVelivolo, NumeroVolo)");
+            System.out.println("Added " + FLIGHT_NUMBER_KEY + " to missione");
+        } finally {
+            DBUtil.closeResources(null, stmt, rs);
+        }
+    }
+
+    /**
+     * Checks whether a statement failed because InnoDB chose its transaction as
+     * a deadlock victim and rolled it back.
      */
+    private static boolean isDeadlock(SQLException e) {
+        return e.getErrorCode() == 1213 || "40001".equals(e.getSQLState());
+    }
+
+    /**
+     * Creates missione_posizione and copies the P1 and P13 loadouts stored in
+     * the fixed columns of missione, the first time. Missions saved later by
+     * clients that do not write the table are read through {@link #LOADOUT_SQL}.
+     */
+    private static void migrateLoadoutTable(Statement stmt) throws SQLException {
+        ResultSet rs = stmt.executeQuery("SELECT 1 FROM information_schema.TABLES " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'missione_posizione'");
+        boolean exists = rs.next();
+        rs.close();
+        if (exists) {
+            return;
+        }
+        stmt.execute("CREATE TABLE IF NOT EXISTS missione_posizione (" +
+                "ID_Missione INT NOT NULL, " +
+                "Posizione VARCHAR(8) NOT NULL, " +
+                "PartNumberLanciatore VARCHAR(50) NULL, " +
+                "PartNumberMissile VARCHAR(50) NULL, " +
+                "PRIMARY KEY (ID_Missione, Posizione))");
+        // Idempotent, in case another workstation migrates at the same time
+        int migrated = stmt.executeUpdate("INSERT IGNORE INTO missione_posizione " +
+                "(ID_Missione, Posizione, PartNumberLanciatore, PartNumberMissile) " +
+                "SELECT ID, 'P1', PartNumberLanciatoreP1, PartNumberMissileP1 FROM missione " +
+                "WHERE PartNumberLanciatoreP1 IS NOT NULL OR PartNumberMissileP1 IS NOT NULL " +
+                "UNION ALL " +
+                "SELECT ID, 'P13', PartNumberLanciatoreP13, PartNumberMissileP13 FROM missione " +
+                "WHERE PartNumberLanciatoreP13 IS NOT NULL OR PartNumberMissileP13 IS NOT NULL");
+        System.out.println("Created missione_posizione and migrated " + migrated + " P1/P13 loadouts");
+    }
+
+    private static void setLoadoutParameters(PreparedStatement stmt, int missionId) throws SQLException {
+        stmt.setInt(1, missionId);
+        stmt.setInt(2, missionId);
+        stmt.setInt(3, missionId);
+    }
 
     /**
      * Checks if a flight number already exists for the specified aircraft.
@@ -765,79 +1478,20 @@ public Object[] getFlightDataForMission(int id) {
     }
 
     /**
-     * Inserts a new mission into the database and returns the generated ID.
+     * Inserts a new mission into the database with the P1 and P13 loadout of its
+     * fixed fields and returns the allocated ID, see {@link #createMission(Mission, List)}.
      *
-     * @param mission The Mission object to insert
-     * @return The generated mission ID, or -1 if insertion fails
-     */
-    /**
-     * Inserts a new mission into the database and returns the generated ID.
+     * @param mission The Mission object to insert; its ID is set on success
+     * @return The mission ID, or -1 if insertion fails or the flight number is already used
      */
     public int insertAndGetId(Mission mission) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        int nextId = -1;
-
         try {
-            conn = DBUtil.getConnection();
-
-            // First, get the next available ID
-            String getMaxIdSql = "SELECT COALESCE(MAX(ID), 0) + 1 AS next_id FROM missione";
-            stmt = conn.prepareStatement(getMaxIdSql);
-            rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                nextId = rs.getInt("next_id");
-            } else {
-                nextId = 1;
-            }
-
-            rs.close();
-            stmt.close();
-
-            try {
-                // Now insert with the ID
-                String sql = "INSERT INTO missione (ID, MatricolaVelivolo, DataMissione, NumeroVolo, OraPartenza, OraArrivo, " +
-                         "PartNumberLanciatoreP1, PartNumberLanciatoreP13, PartNumberMissileP1, PartNumberMissileP13) " +
-                         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-                stmt = conn.prepareStatement(sql);
-                stmt.setInt(1, nextId);
-                stmt.setString(2, mission.getMatricolaVelivolo());
-                stmt.setDate(3, mission.getDataMissione());
-                stmt.setInt(4, mission.getNumeroVolo());
-                stmt.setTime(5, mission.getOraPartenza());
-                stmt.setTime(6, mission.getOraArrivo());
-                stmt.setString(7, mission.getLauncherPN1());
-                stmt.setString(8, mission.getLauncherPN13());
-                stmt.setString(9, mission.getMissilePN1());
-                stmt.setString(10, mission.getMissilePN13());
-
-                int rowsAffected = stmt.executeUpdate();
-
-                if (rowsAffected > 0) {
-                    mission.setId(nextId);
-                    return nextId;
-                }
-            } catch (SQLException e) {
-                if (e.getMessage().contains("Missione_Posizione_Automatica doesn't exist")) {
-                    // This error is expected and can be ignored
-                    System.out.println("Warning: Missing table reference in trigger, but mission was created successfully");
-                    mission.setId(nextId);
-                    return nextId;
-                } else {
-                    throw e; // Re-throw other SQL exceptions
-                }
-            }
+            return createMission(mission, legacyLoadout(mission));
         } catch (SQLException e) {
-            System.err.println("Error inserting mission with ID: " + e.getMessage());
+            System.err.println("Error inserting mission: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            DBUtil.closeResources(conn, stmt, rs);
+            return -1;
         }
-
-        return -1;
     }
 }
 
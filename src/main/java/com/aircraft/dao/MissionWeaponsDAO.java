@@ -18,72 +18,14 @@ public class MissionWeaponsDAO {
 
     /**
      * Retrieves weapons for a specific mission.
-     * Shows launcher and missile information along with status.
+     * Shows launcher and missile information along with status for each position
+     * of the mission's loadout, see {@link MissionDAO#getWeaponsForMission(int)}.
      *
      * @param id The mission ID
      * @return A List of WeaponStatus objects for the specified mission
      */
     public List<WeaponStatus> getWeaponsForMission(int id) {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        ResultSet rs = null;
-        List<WeaponStatus> weapons = new ArrayList<>();
-
-        try {
-            conn = DBUtil.getConnection();
-            System.out.println("Fetching weapons for mission ID: " + id);
-
-            // Get mission details first
-            String sqlMission = "SELECT MatricolaVelivolo FROM missione WHERE ID = ?";
-            stmt = conn.prepareStatement(sqlMission);
-            stmt.setInt(1, id);
-            rs = stmt.executeQuery();
-
-            String matricola = null;
-            if (rs.next()) {
-                matricola = rs.getString("MatricolaVelivolo");
-                rs.close();
-                stmt.close();
-            } else {
-                return weapons; // Return empty list if mission not found
-            }
-
-            // Use only columns that actually exist in your database tables
-            String sqlWeapons =
-                "SELECT sl.PosizioneVelivolo, sl.PartNumber AS LauncherPN, '' AS LauncherSN, " +
-                "sc.PartNumber AS MissilePN, sc.Nomenclatura AS MissileName, " +
-                "'ONBOARD' AS Status " +
-                "FROM storico_lanciatore sl " +
-                "LEFT JOIN storico_carico sc ON sl.PosizioneVelivolo = sc.PosizioneVelivolo " +
-                "AND sl.MatricolaVelivolo = sc.MatricolaVelivolo " +
-                "WHERE sl.MatricolaVelivolo = ? " +
-                "ORDER BY sl.PosizioneVelivolo";
-
-            stmt = conn.prepareStatement(sqlWeapons);
-            stmt.setString(1, matricola);
-            rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                WeaponStatus weapon = new WeaponStatus();
-                String position = rs.getString("PosizioneVelivolo");
-                weapon.setPosition(position);
-                weapon.setMissilePartNumber(rs.getString("MissilePN"));
-                weapon.setMissileName(rs.getString("MissileName"));
-                weapon.setStatus(rs.getString("Status"));
-                weapon.setLauncherPartNumber(rs.getString("LauncherPN"));
-                weapon.setLauncherSerialNumber(rs.getString("LauncherSN"));
-                weapons.add(weapon);
-            }
-
-            System.out.println("Found " + weapons.size() + " weapons for mission ID: " + id);
-        } catch (SQLException e) {
-            System.err.println("Error retrieving weapons: " + e.getMessage());
-            e.printStackTrace();
-        } finally {
-            DBUtil.closeResources(conn, stmt, rs);
-        }
-
-        return weapons;
+        return new MissionDAO().getWeaponsForMission(id);
     }
 
     /**
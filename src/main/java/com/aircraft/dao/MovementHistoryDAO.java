@@ -9,6 +9,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -16,6 +17,9 @@ import java.util.List;
  */
 public class MovementHistoryDAO {
 
+    // Sort key of getHistoryPage, unique among the records of a part number
+    private static final String[] HISTORY_KEY = {"DataInstallazione", "MatricolaVelivolo", "PosizioneVelivolo", "Sequenza"};
+
     /**
      * Retrieves all movement history records for a specific part number.
      *
@@ -187,6 +191,144 @@ public class MovementHistoryDAO {
         return historyList;
     }
 
+    /**
+     * Retrieves one page of the movement history of a part number, most recent
+     * installation first. The page is located by seeking from an anchor record of
+     * an adjacent page on (DataInstallazione, MatricolaVelivolo, PosizioneVelivolo,
+     * sequence) instead of with an OFFSET. Several items with the same part number
+     * can be moved at the same position on the same day, so the sequence numbers
+     * those records to make the key unique.
+     *
+     * @param partNumber The part number to search for
+     * @param tipoComponente 'Lanciatore' or 'Carico'
+     * @param anchor The first or last record of an adjacent page, or null for the first page
+     * @param after true for the records after the anchor, false for those before it
+     * @param limit The maximum number of records
+     * @return The records of the page, most recent first
+     * @throws SQLException if the query fails
+     */
+    public List<MovementHistory> getHistoryPage(String partNumber, String tipoComponente,
+                                                MovementHistory anchor, boolean after, int limit) throws SQLException {
+        List<MovementHistory> historyList = new ArrayList<>();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        // The part number filter is applied inside, so only the records of that part are numbered
+        StringBuilder sql = new StringBuilder("SELECT * FROM (" +
+                "SELECT PartNumber, Nomenclatura, DataInstallazione, DataRimozione, " +
+                "PosizioneVelivolo, MatricolaVelivolo, TipoComponente, " +
+                "ROW_NUMBER() OVER (PARTITION BY DataInstallazione, MatricolaVelivolo, PosizioneVelivolo " +
+                "ORDER BY DataRimozione, Nomenclatura) AS Sequenza " +
+                "FROM views_material_handling " +
+                "WHERE PartNumber = ? AND TipoComponente = ?) h");
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(partNumber);
+        parameters.add(tipoComponente);
+        if (anchor != null) {
+            Object[] anchorKey = {
+                    anchor.getDate() != null ? java.sql.Date.valueOf(anchor.getDate()) : null,
+                    anchor.getAircraftId(), anchor.getLocation(), anchor.getSequence()};
+            sql.append(" WHERE ");
+            appendSeek(sql, parameters, anchorKey, 0, after);
+        }
+        // Rows before the anchor are read towards it and reversed
+        String direction = after ? " DESC" : " ASC";
+        sql.append(" ORDER BY ");
+        for (int i = 0; i < HISTORY_KEY.length; i++) {
+            sql.append(i > 0 ? ", " : "").append(HISTORY_KEY[i]).append(direction);
+        }
+        sql.append(" LIMIT ?");
+        parameters.add(limit);
+
+        try {
+            conn = DBUtil.getConnection();
+            stmt = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                MovementHistory history = new MovementHistory();
+                history.setPartNumber(rs.getString("PartNumber"));
+                history.setItemName(rs.getString("Nomenclatura"));
+                if ("Carico".equals(tipoComponente)) {
+                    history.setItemType("Missile"); // Use "Missile" instead of "Carico" for UI consistency
+                } else {
+                    history.setItemType(rs.getString("TipoComponente"));
+                    history.setSerialNumber("");
+                }
+
+                // Handle date conversion from SQL Date to LocalDate
+                java.sql.Date installDate = rs.getDate("DataInstallazione");
+                if (installDate != null) {
+                    history.setDate(installDate.toLocalDate());
+                }
+
+                // Determine action type based on dates
+                java.sql.Date removalDate = rs.getDate("DataRimozione");
+                String actionType = (removalDate == null) ? "Embarkation" : "Disembarkation";
+                history.setActionType(actionType);
+
+                history.setLocation(rs.getString("PosizioneVelivolo"));
+                history.setAircraftId(rs.getString("MatricolaVelivolo"));
+                history.setSequence(rs.getInt("Sequenza"));
+
+                historyList.add(history);
+            }
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
+
+        if (!after) {
+            Collections.reverse(historyList);
+        }
+        return historyList;
+    }
+
+    /**
+     * Appends the condition selecting the records whose key, from column {@code from}
+     * on, sorts before (or after) the anchor's. The comparison is expanded column by
+     * column instead of written as a row comparison over COALESCEd columns, and NULLs
+     * sort first as in MySQL's ORDER BY.
+     */
+    private static void appendSeek(StringBuilder sql, List<Object> parameters, Object[] anchorKey,
+                                   int from, boolean before) {
+        String column = HISTORY_KEY[from];
+        Object value = anchorKey[from];
+        boolean last = from == HISTORY_KEY.length - 1;
+
+        sql.append('(');
+        if (value == null) {
+            // Nothing sorts before NULL; everything else sorts after it
+            if (!before) {
+                sql.append(column).append(" IS NOT NULL");
+            } else {
+                sql.append("FALSE");
+            }
+        } else if (before) {
+            sql.append(column).append(" IS NULL OR ").append(column).append(" < ?");
+            parameters.add(value);
+        } else {
+            sql.append(column).append(" > ?");
+            parameters.add(value);
+        }
+        if (!last) {
+            sql.append(" OR (");
+            if (value == null) {
+                sql.append(column).append(" IS NULL");
+            } else {
+                sql.append(column).append(" = ?");
+                parameters.add(value);
+            }
+            sql.append(" AND ");
+            appendSeek(sql, parameters, anchorKey, from + 1, before);
+            sql.append(')');
+        }
+        sql.append(')');
+    }
+
     /**
      * Determines if a part number exists in the system and what type it is.
      * Uses the views_material_handling view.
@@ -318,6 +460,11 @@ public class MovementHistoryDAO {
             if (stmt != null) {
                 int rowsAffected = stmt.executeUpdate();
                 success = rowsAffected > 0;
+
+                // Installations decide which missions count towards a launcher's life
+                if ("Launcher".equals(itemType)) {
+                    LauncherLifeDAO.markStale(conn, Collections.singleton(partNumber));
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -66,6 +66,74 @@ public class RecordedDataDAO {
         return success;
     }
 
+    /**
+     * Inserts several rows of recorded data with one JDBC batch in one transaction.
+     * Their IDs are set from the generated keys.
+     *
+     * @param recordedData The rows to insert; altitude and speed may be null
+     * @throws SQLException if the rows could not be inserted; none are inserted then
+     */
+    public void insertBatch(List<RecordedData> recordedData) throws SQLException {
+        if (recordedData.isEmpty()) {
+            return;
+        }
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet generatedKeys = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            String sql = "INSERT INTO dati_registrati (MatricolaVelivolo, NumeroVolo, GloadMax, GloadMin, " +
+                    "QuotaMedia, VelocitaMassima, StatoMissili, StatoElaborato) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+            stmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS);
+            for (RecordedData row : recordedData) {
+                stmt.setString(1, row.getMatricolaVelivolo());
+                stmt.setInt(2, row.getNumeroVolo());
+                stmt.setBigDecimal(3, row.getGloadMax());
+                stmt.setBigDecimal(4, row.getGloadMin());
+                stmt.setObject(5, row.getQuotaMedia());
+                stmt.setObject(6, row.getVelocitaMassima());
+                stmt.setString(7, row.getStatoMissili());
+                stmt.setBoolean(8, row.isStatoElaborato());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            generatedKeys = stmt.getGeneratedKeys();
+            for (RecordedData row : recordedData) {
+                if (!generatedKeys.next()) {
+                    break;
+                }
+                row.setId(generatedKeys.getInt(1));
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            // Rollback transaction in case of error
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException ex) {
+                System.err.println("Error rolling back transaction: " + ex.getMessage());
+            }
+            throw e;
+        } finally {
+            // Reset auto-commit
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error resetting auto-commit: " + e.getMessage());
+            }
+            DBUtil.closeResources(conn, stmt, generatedKeys);
+        }
+    }
+
     /**
      * Updates existing recorded data in the database.
      *
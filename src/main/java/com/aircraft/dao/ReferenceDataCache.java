@@ -0,0 +1,277 @@
+package com.aircraft.dao;
+
+import com.aircraft.config.AppConfig;
+import com.aircraft.model.Aircraft;
+import com.aircraft.model.Launcher;
+import com.aircraft.model.Weapon;
+import com.aircraft.util.QueryMetrics;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-memory cache of the reference lists read from view_launcher_list,
+ * view_weapon_list and view_aircraft_list.
+ * Each list is loaded once and indexed by its key (part number or aircraft
+ * serial number) for constant-time lookups. Single lookups ignore case and
+ * trailing spaces, as MySQL compares the keys. The DAO write methods invalidate
+ * the affected list; entries also expire after cache.reference.ttlSeconds so
+ * changes made by other workstations are eventually picked up.
+ */
+public class ReferenceDataCache {
+
+    // Singleton instance
+    private static ReferenceDataCache instance;
+
+    private final CachedList<Launcher> launchers;
+    private final CachedList<Weapon> weapons;
+    private final CachedList<Aircraft> aircraft;
+
+    private ReferenceDataCache(AppConfig config) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(config.getLong("cache.reference.ttlSeconds", 300));
+        launchers = new CachedList<>("launchers", ttlNanos, () -> new LauncherDAO().loadAll(), Launcher::getPartNumber);
+        weapons = new CachedList<>("weapons", ttlNanos, () -> new WeaponDAO().loadAll(), Weapon::getPartNumber);
+        aircraft = new CachedList<>("aircraft", ttlNanos, () -> new AircraftDAO().loadAll(), Aircraft::getMatricolaVelivolo);
+
+        QueryMetrics.getInstance().registerReportSection("Reference data cache", this::formatStats);
+    }
+
+    /**
+     * Gets the singleton instance of the ReferenceDataCache.
+     *
+     * @return The ReferenceDataCache instance
+     */
+    public static synchronized ReferenceDataCache getInstance() {
+        if (instance == null) {
+            instance = new ReferenceDataCache(AppConfig.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Gets all launchers, loading them if necessary.
+     *
+     * @return An unmodifiable list of launchers
+     * @throws SQLException if the launchers could not be loaded
+     */
+    public List<Launcher> getLaunchers() throws SQLException {
+        return launchers.get().list;
+    }
+
+    /**
+     * Gets all launchers indexed by part number.
+     *
+     * @return An unmodifiable map of launchers by part number
+     * @throws SQLException if the launchers could not be loaded
+     */
+    public Map<String, Launcher> getLaunchersByPartNumber() throws SQLException {
+        return launchers.get().byKey;
+    }
+
+    /**
+     * Finds a launcher by part number.
+     *
+     * @param partNumber The part number
+     * @return The launcher, or null if not found
+     * @throws SQLException if the launchers could not be loaded
+     */
+    public Launcher getLauncher(String partNumber) throws SQLException {
+        return launchers.get().find(partNumber);
+    }
+
+    /**
+     * Gets all weapons, loading them if necessary.
+     *
+     * @return An unmodifiable list of weapons
+     * @throws SQLException if the weapons could not be loaded
+     */
+    public List<Weapon> getWeapons() throws SQLException {
+        return weapons.get().list;
+    }
+
+    /**
+     * Gets all weapons indexed by part number.
+     *
+     * @return An unmodifiable map of weapons by part number
+     * @throws SQLException if the weapons could not be loaded
+     */
+    public Map<String, Weapon> getWeaponsByPartNumber() throws SQLException {
+        return weapons.get().byKey;
+    }
+
+    /**
+     * Finds a weapon by part number.
+     *
+     * @param partNumber The part number
+     * @return The weapon, or null if not found
+     * @throws SQLException if the weapons could not be loaded
+     */
+    public Weapon getWeapon(String partNumber) throws SQLException {
+        return weapons.get().find(partNumber);
+    }
+
+    /**
+     * Gets all aircraft, loading them if necessary.
+     *
+     * @return An unmodifiable list of aircraft
+     * @throws SQLException if the aircraft could not be loaded
+     */
+    public List<Aircraft> getAircraft() throws SQLException {
+        return aircraft.get().list;
+    }
+
+    /**
+     * Finds an aircraft by serial number.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @return The aircraft, or null if not found
+     * @throws SQLException if the aircraft could not be loaded
+     */
+    public Aircraft getAircraft(String matricolaVelivolo) throws SQLException {
+        return aircraft.get().find(matricolaVelivolo);
+    }
+
+    /**
+     * Discards the cached launchers. Called after a launcher is written.
+     */
+    public void invalidateLaunchers() {
+        launchers.invalidate();
+    }
+
+    /**
+     * Discards the cached weapons. Called after a weapon is written.
+     */
+    public void invalidateWeapons() {
+        weapons.invalidate();
+    }
+
+    /**
+     * Discards the cached aircraft. Called after an aircraft is written.
+     */
+    public void invalidateAircraft() {
+        aircraft.invalidate();
+    }
+
+    /**
+     * Discards all cached lists.
+     */
+    public void invalidateAll() {
+        launchers.invalidate();
+        weapons.invalidate();
+        aircraft.invalidate();
+    }
+
+    /**
+     * Formats the hit and miss counts of each list.
+     *
+     * @return One line per list
+     */
+    public String formatStats() {
+        return launchers.formatStats() + '\n' + weapons.formatStats() + '\n' + aircraft.formatStats();
+    }
+
+    /**
+     * Loads one reference list from the database.
+     */
+    interface Loader<T> {
+        List<T> load() throws SQLException;
+    }
+
+    /**
+     * Immutable, indexed copy of a reference list.
+     */
+    private static class Snapshot<T> {
+        private final List<T> list;
+        private final Map<String, T> byKey;
+        // Keyed by ExistenceFilter.normalize, so lookups match as the database compares keys
+        private final Map<String, T> byNormalizedKey;
+        private final long loadedAt = System.nanoTime();
+
+        private Snapshot(List<T> items, Function<T, String> key) {
+            Map<String, T> index = new LinkedHashMap<>();
+            Map<String, T> normalizedIndex = new HashMap<>();
+            for (T item : items) {
+                String itemKey = key.apply(item);
+                index.putIfAbsent(itemKey, item);
+                if (itemKey != null) {
+                    normalizedIndex.putIfAbsent(ExistenceFilter.normalize(itemKey), item);
+                }
+            }
+            this.list = Collections.unmodifiableList(items);
+            this.byKey = Collections.unmodifiableMap(index);
+            this.byNormalizedKey = normalizedIndex;
+        }
+
+        private T find(String key) {
+            return key != null ? byNormalizedKey.get(ExistenceFilter.normalize(key)) : null;
+        }
+    }
+
+    /**
+     * One cached reference list with its statistics.
+     */
+    private static class CachedList<T> {
+        private final String name;
+        private final long ttlNanos;
+        private final Loader<T> loader;
+        private final Function<T, String> key;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong invalidations = new AtomicLong();
+        private volatile Snapshot<T> snapshot;
+
+        private CachedList(String name, long ttlNanos, Loader<T> loader, Function<T, String> key) {
+            this.name = name;
+            this.ttlNanos = ttlNanos;
+            this.loader = loader;
+            this.key = key;
+        }
+
+        private Snapshot<T> get() throws SQLException {
+            Snapshot<T> current = snapshot;
+            if (isFresh(current)) {
+                hits.incrementAndGet();
+                return current;
+            }
+            synchronized (this) {
+                current = snapshot;
+                if (isFresh(current)) {
+                    hits.incrementAndGet();
+                    return current;
+                }
+                misses.incrementAndGet();
+                current = new Snapshot<>(loader.load(), key);
+                snapshot = current;
+                return current;
+            }
+        }
+
+        private boolean isFresh(Snapshot<T> current) {
+            return current != null && (ttlNanos <= 0 || System.nanoTime() - current.loadedAt < ttlNanos);
+        }
+
+        private void invalidate() {
+            // Waits for a load in progress, which may not include the write
+            synchronized (this) {
+                snapshot = null;
+            }
+            invalidations.incrementAndGet();
+        }
+
+        private String formatStats() {
+            long hitCount = hits.get();
+            long total = hitCount + misses.get();
+            Snapshot<T> current = snapshot;
+            return String.format("%-10s size=%d hits=%d misses=%d invalidations=%d hitRatio=%.1f%%",
+                    name, current != null ? current.list.size() : 0, hitCount, misses.get(), invalidations.get(),
+                    total > 0 ? 100.0 * hitCount / total : 0.0);
+        }
+    }
+}
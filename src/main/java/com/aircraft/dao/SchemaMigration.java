@@ -0,0 +1,39 @@
+package com.aircraft.dao;
+
+import com.aircraft.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Creates and fills the tables the application maintains itself, so that
+ * reads never run DDL or writes. Run once when the application or an import
+ * starts; every step is skipped when it has already been applied.
+ */
+public class SchemaMigration {
+
+    private SchemaMigration() {
+    }
+
+    /**
+     * Runs all migration steps.
+     *
+     * @return true if every step succeeded
+     */
+    public static boolean migrate() {
+        Connection conn = null;
+        try {
+            conn = DBUtil.getConnection();
+            MissionDAO.migrate(conn);
+            LauncherLifeDAO.migrate(conn);
+            return true;
+        } catch (SQLException e) {
+            // Reads fall back to the views until a later start migrates
+            System.err.println("Error migrating the database schema: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            DBUtil.closeResources(conn, null, null);
+        }
+    }
+}
@@ -9,7 +9,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Data Access Object for Weapon-related database operations.
@@ -17,6 +21,11 @@ import java.util.List;
  */
 public class WeaponDAO {
 
+    // Coalesces concurrent getByPartNumber calls into one query
+    private static final BatchLoader<String, Weapon> BY_PART_NUMBER =
+            new BatchLoader<>("weapons", partNumbers -> new WeaponDAO().queryByPartNumbers(partNumbers),
+                    ExistenceFilter::normalize);
+
     /**
      * Inserts a new weapon into the database.
      *
@@ -24,9 +33,26 @@ public class WeaponDAO {
      * @return true if insertion was successful, false otherwise
      */
     public boolean insert(Weapon weapon) {
+        try {
+            return insertIfAbsent(weapon);
+        } catch (SQLException e) {
+            System.err.println("Error inserting weapon: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Inserts a new weapon unless its part number is already registered,
+     * e.g. by another workstation after {@link #exists(String)} was checked.
+     *
+     * @param weapon The Weapon object to insert
+     * @return true if inserted, false if the part number already exists
+     * @throws SQLException if the weapon could not be inserted for another reason
+     */
+    public boolean insertIfAbsent(Weapon weapon) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
-        boolean success = false;
 
         try {
             conn = DBUtil.getConnection();
@@ -44,16 +70,19 @@ public class WeaponDAO {
                 stmt.setNull(4, java.sql.Types.DECIMAL);
             }
 
-            int rowsAffected = stmt.executeUpdate();
-            success = rowsAffected > 0;
+            // Added before the row exists so the filter never misses it
+            ExistenceFilter.WEAPONS.add(weapon.getPartNumber());
+            return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            System.err.println("Error inserting weapon: " + e.getMessage());
-            e.printStackTrace();
+            // ER_DUP_ENTRY on the primary key
+            if (e.getErrorCode() == 1062) {
+                return false;
+            }
+            throw e;
         } finally {
+            ReferenceDataCache.getInstance().invalidateWeapons();
             DBUtil.closeResources(conn, stmt, null);
         }
-
-        return success;
     }
 
     /**
@@ -90,6 +119,7 @@ public class WeaponDAO {
             System.err.println("Error updating weapon: " + e.getMessage());
             e.printStackTrace();
         } finally {
+            ReferenceDataCache.getInstance().invalidateWeapons();
             DBUtil.closeResources(conn, stmt, null);
         }
 
@@ -117,10 +147,14 @@ public class WeaponDAO {
 
             int rowsAffected = stmt.executeUpdate();
             success = rowsAffected > 0;
+            if (success) {
+                ExistenceFilter.WEAPONS.remove();
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting weapon: " + e.getMessage());
             e.printStackTrace();
         } finally {
+            ReferenceDataCache.getInstance().invalidateWeapons();
             DBUtil.closeResources(conn, stmt, null);
         }
 
@@ -134,33 +168,65 @@ public class WeaponDAO {
      * @return The Weapon object if found, null otherwise
      */
     public Weapon getByPartNumber(String partNumber) {
+        try {
+            return BY_PART_NUMBER.load(partNumber);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving weapon: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves several weapons by part number with as few queries as possible.
+     *
+     * @param partNumbers The part numbers of the weapons to retrieve
+     * @return The weapons found, by part number
+     */
+    public Map<String, Weapon> getByPartNumbers(Collection<String> partNumbers) {
+        try {
+            return BY_PART_NUMBER.loadMany(partNumbers);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving weapons: " + e.getMessage());
+            e.printStackTrace();
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Queries the weapons of a batch of part numbers.
+     *
+     * @param partNumbers The part numbers
+     * @return The weapons found, by part number
+     * @throws SQLException if the query fails
+     */
+    private Map<String, Weapon> queryByPartNumbers(List<String> partNumbers) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
-        Weapon weapon = null;
+        Map<String, Weapon> weapons = new HashMap<>();
 
         try {
             conn = DBUtil.getConnection();
 
-            // SQL query to find a weapon by part number
-            String sql = "SELECT * FROM anagrafica_carichi WHERE PartNumber = ?";
+            String sql = "SELECT * FROM anagrafica_carichi WHERE PartNumber IN (" +
+                    DBUtil.placeholders(partNumbers.size()) + ")";
             stmt = conn.prepareStatement(sql);
-            stmt.setString(1, partNumber);
+            for (int i = 0; i < partNumbers.size(); i++) {
+                stmt.setString(i + 1, partNumbers.get(i));
+            }
 
             rs = stmt.executeQuery();
 
-            if (rs.next()) {
-                // Weapon found, create and return Weapon object
-                weapon = createWeaponFromResultSet(rs);
+            while (rs.next()) {
+                Weapon weapon = createWeaponFromResultSet(rs);
+                weapons.put(weapon.getPartNumber(), weapon);
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving weapon: " + e.getMessage());
-            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
 
-        return weapon;
+        return weapons;
     }
 
     /**
@@ -170,6 +236,11 @@ public class WeaponDAO {
      * @return true if a weapon with the part number exists, false otherwise
      */
     public boolean existsByPartNumber(String partNumber) {
+        // Definite negatives are answered without a query
+        if (!ExistenceFilter.WEAPONS.mightContain(partNumber)) {
+            return false;
+        }
+
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -186,6 +257,7 @@ public class WeaponDAO {
             rs = stmt.executeQuery();
 
             exists = rs.next();
+            ExistenceFilter.WEAPONS.recordLookup(exists);
         } catch (SQLException e) {
             System.err.println("Error checking weapon existence: " + e.getMessage());
             e.printStackTrace();
@@ -198,10 +270,27 @@ public class WeaponDAO {
 
     /**
      * Retrieves all weapons from the database.
+     * The list is served from the {@link ReferenceDataCache}.
      *
      * @return A List of all Weapon objects
      */
     public List<Weapon> getAll() {
+        try {
+            return new ArrayList<>(ReferenceDataCache.getInstance().getWeapons());
+        } catch (SQLException e) {
+            System.err.println("Error retrieving weapons: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads all weapons from the database, bypassing the cache.
+     *
+     * @return A List of all Weapon objects
+     * @throws SQLException if the query fails
+     */
+    List<Weapon> loadAll() throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -220,9 +309,6 @@ public class WeaponDAO {
                 Weapon weapon = createWeaponFromResultSet(rs);
                 weapons.add(weapon);
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving weapons: " + e.getMessage());
-            e.printStackTrace();
         } finally {
             DBUtil.closeResources(conn, stmt, rs);
         }
@@ -230,6 +316,15 @@ public class WeaponDAO {
         return weapons;
     }
 
+    /**
+     * Asynchronous version of {@link #getAll()}.
+     *
+     * @return A future completed with all weapons
+     */
+    public CompletableFuture<List<Weapon>> getAllAsync() {
+        return DaoExecutor.supplyAsync(this::getAll);
+    }
+
     /**
      * Creates a Weapon object from a ResultSet row.
      *
@@ -37,6 +37,17 @@ public class LauncherMission {
         this.launcherSerialNumber = launcherSerialNumber;
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other The mission record to copy
+     */
+    public LauncherMission(LauncherMission other) {
+        this(other.missionId, other.missionDate, other.aircraft, other.flightTime, other.damageFactor,
+                other.launcherSerialNumber);
+        this.launcherPartNumber = other.launcherPartNumber;
+    }
+
     public int getMissionId() {
         return missionId;
     }
@@ -32,6 +32,16 @@ public class LauncherStatus {
         this.maintenanceStatus = maintenanceStatus;
     }
 
+    /**
+     * Copy constructor.
+     *
+     * @param other The status to copy
+     */
+    public LauncherStatus(LauncherStatus other) {
+        this(other.launcherName, other.partNumber, other.serialNumber, other.missionCount, other.firingCount,
+                other.nonFiringCount, other.flightTime, other.remainingLifePercentage, other.maintenanceStatus);
+    }
+
     public String getLauncherName() {
         return launcherName;
     }
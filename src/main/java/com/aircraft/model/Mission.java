@@ -43,6 +43,23 @@ public class Mission {
         this.oraPartenza = oraPartenza;
         this.oraArrivo = oraArrivo;
     }
+
+    /**
+     * Copy constructor. The mutable date and time values are copied as well.
+     *
+     * @param other The mission to copy
+     */
+    public Mission(Mission other) {
+        this(other.id, other.matricolaVelivolo,
+                other.dataMissione != null ? new Date(other.dataMissione.getTime()) : null,
+                other.numeroVolo,
+                other.oraPartenza != null ? new Time(other.oraPartenza.getTime()) : null,
+                other.oraArrivo != null ? new Time(other.oraArrivo.getTime()) : null);
+        this.launcherPN1 = other.launcherPN1;
+        this.launcherPN13 = other.launcherPN13;
+        this.missilePN1 = other.missilePN1;
+        this.missilePN13 = other.missilePN13;
+    }
     // Getters and setters for the new fields
     public String getLauncherPN1() {
         return launcherPN1;
@@ -0,0 +1,63 @@
+package com.aircraft.model;
+
+/**
+ * Model class representing the flight summary of a mission as exposed by the vista_gui_missione view.
+ */
+public class MissionFlightSummary {
+    private int missionId;
+    private double gLoadMin;
+    private double gLoadMax;
+    private int quotaMedia;
+    private String posizioniSparo;
+
+    public MissionFlightSummary() {
+    }
+
+    public MissionFlightSummary(int missionId, double gLoadMin, double gLoadMax, int quotaMedia, String posizioniSparo) {
+        this.missionId = missionId;
+        this.gLoadMin = gLoadMin;
+        this.gLoadMax = gLoadMax;
+        this.quotaMedia = quotaMedia;
+        this.posizioniSparo = posizioniSparo;
+    }
+
+    public int getMissionId() {
+        return missionId;
+    }
+
+    public void setMissionId(int missionId) {
+        this.missionId = missionId;
+    }
+
+    public double getGLoadMin() {
+        return gLoadMin;
+    }
+
+    public void setGLoadMin(double gLoadMin) {
+        this.gLoadMin = gLoadMin;
+    }
+
+    public double getGLoadMax() {
+        return gLoadMax;
+    }
+
+    public void setGLoadMax(double gLoadMax) {
+        this.gLoadMax = gLoadMax;
+    }
+
+    public int getQuotaMedia() {
+        return quotaMedia;
+    }
+
+    public void setQuotaMedia(int quotaMedia) {
+        this.quotaMedia = quotaMedia;
+    }
+
+    public String getPosizioniSparo() {
+        return posizioniSparo;
+    }
+
+    public void setPosizioniSparo(String posizioniSparo) {
+        this.posizioniSparo = posizioniSparo;
+    }
+}
@@ -0,0 +1,48 @@
+package com.aircraft.model;
+
+/**
+ * Model class representing the launcher and missile loaded at one position (P1 to P13) for a mission.
+ */
+public class MissionPosition {
+    private String position;
+    private String launcherPartNumber;
+    private String missilePartNumber;
+
+    public MissionPosition() {
+    }
+
+    public MissionPosition(String position, String launcherPartNumber, String missilePartNumber) {
+        this.position = position;
+        this.launcherPartNumber = launcherPartNumber;
+        this.missilePartNumber = missilePartNumber;
+    }
+
+    public String getPosition() {
+        return position;
+    }
+
+    public void setPosition(String position) {
+        this.position = position;
+    }
+
+    public String getLauncherPartNumber() {
+        return launcherPartNumber;
+    }
+
+    public void setLauncherPartNumber(String launcherPartNumber) {
+        this.launcherPartNumber = launcherPartNumber;
+    }
+
+    public String getMissilePartNumber() {
+        return missilePartNumber;
+    }
+
+    public void setMissilePartNumber(String missilePartNumber) {
+        this.missilePartNumber = missilePartNumber;
+    }
+
+    @Override
+    public String toString() {
+        return position + ": " + launcherPartNumber + " / " + missilePartNumber;
+    }
+}
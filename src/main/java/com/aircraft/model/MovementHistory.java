@@ -15,6 +15,7 @@ public class MovementHistory {
     private String actionType; // "Embarkation" or "Disembarkation"
     private String location; // PosizioneVelivolo
     private String aircraftId; // MatricolaVelivolo (may be null for some records)
+    private int sequence; // Tiebreaker among records with the same date, aircraft and position
 
     public MovementHistory() {
     }
@@ -107,4 +108,12 @@ public class MovementHistory {
     public void setAircraftId(String aircraftId) {
         this.aircraftId = aircraftId;
     }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
 }
\ No newline at end of file
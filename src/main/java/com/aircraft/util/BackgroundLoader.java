@@ -0,0 +1,232 @@
+package com.aircraft.util;
+
+import com.aircraft.config.AppConfig;
+import javafx.concurrent.Task;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Utility class for running database work off the JavaFX Application Thread.
+ * Work is wrapped in a {@link Task} and executed on a small pool of daemon
+ * threads. While it runs, the given node is disabled and the window shows a
+ * wait cursor; the result is delivered on the FX thread and failures are
+ * reported with {@link AlertUtils}. Cancelling the task also cancels the
+ * statements it is running, see {@link CancellationToken}. The statements are
+ * cancelled on a separate thread, because the driver opens a new server
+ * connection to do so and that must not block the FX thread.
+ */
+public class BackgroundLoader {
+
+    private static final String BUSY_COUNT_KEY = "com.aircraft.busyCount";
+    private static final String SAVED_CURSOR_KEY = "com.aircraft.savedCursor";
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+    private static final ExecutorService CANCELLER = createCanceller();
+
+    private BackgroundLoader() {
+    }
+
+    /**
+     * Loads a value in the background and passes it to a callback on the FX thread.
+     * Must be called on the FX thread.
+     *
+     * @param busyNode The node to disable while loading, or null
+     * @param errorTitle The title of the error alert shown if loading fails
+     * @param work The work to run in the background
+     * @param onSuccess The callback receiving the result on the FX thread
+     * @param <T> The result type
+     * @return The submitted task, which can be cancelled
+     */
+    public static <T> Task<T> load(Node busyNode, String errorTitle, Callable<T> work, Consumer<T> onSuccess) {
+        CancellationToken token = new CancellationToken();
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return token.callWith(work);
+            }
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                // Stop the statements of the load on the server as well, without waiting for the server
+                CANCELLER.execute(token::cancel);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        return start(task, busyNode, errorTitle, onSuccess);
+    }
+
+    /**
+     * Runs a long job in the background that reports its progress through the
+     * returned task's progress and message properties, e.g. for a progress bar.
+     * Must be called on the FX thread.
+     *
+     * @param busyNode The node to disable while running, or null to leave it enabled, e.g. to cancel the job
+     * @param errorTitle The title of the error alert shown if the job fails
+     * @param work The job to run in the background
+     * @param onSuccess The callback receiving the result on the FX thread
+     * @param <T> The result type
+     * @return The submitted task, which can be cancelled
+     */
+    public static <T> Task<T> loadWithProgress(Node busyNode, String errorTitle, ProgressWork<T> work, Consumer<T> onSuccess) {
+        CancellationToken token = new CancellationToken();
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return token.callWith(() -> work.call((done, total, message) -> {
+                    updateProgress(done, total);
+                    updateMessage(message);
+                }));
+            }
+
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                // Stop the statements of the job on the server as well, without waiting for the server
+                CANCELLER.execute(token::cancel);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        return start(task, busyNode, errorTitle, onSuccess);
+    }
+
+    private static <T> Task<T> start(Task<T> task, Node busyNode, String errorTitle, Consumer<T> onSuccess) {
+        Scene busyScene = markBusy(busyNode);
+        task.setOnSucceeded(event -> {
+            markIdle(busyNode, busyScene);
+            if (onSuccess != null) {
+                onSuccess.accept(task.getValue());
+            }
+        });
+        task.setOnFailed(event -> {
+            markIdle(busyNode, busyScene);
+            Throwable error = task.getException();
+            System.err.println(errorTitle + ": " + error.getMessage());
+            error.printStackTrace();
+            AlertUtils.showError(windowOf(busyNode), errorTitle,
+                    error.getMessage() != null ? error.getMessage() : error.toString());
+        });
+        task.setOnCancelled(event -> markIdle(busyNode, busyScene));
+
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /**
+     * Runs work without a result in the background.
+     *
+     * @param busyNode The node to disable while running, or null
+     * @param errorTitle The title of the error alert shown if the work fails
+     * @param work The work to run in the background
+     * @param onSuccess The callback run on the FX thread after the work completes, or null
+     * @return The submitted task, which can be cancelled
+     */
+    public static Task<Void> run(Node busyNode, String errorTitle, Runnable work, Runnable onSuccess) {
+        return load(busyNode, errorTitle, () -> {
+            work.run();
+            return null;
+        }, result -> {
+            if (onSuccess != null) {
+                onSuccess.run();
+            }
+        });
+    }
+
+    /**
+     * Work that reports its progress, see {@link #loadWithProgress}.
+     */
+    public interface ProgressWork<T> {
+        T call(Progress progress) throws Exception;
+    }
+
+    /**
+     * Receives the progress of a {@link ProgressWork}. Updates are coalesced on the FX thread,
+     * so it can be called often.
+     */
+    public interface Progress {
+        /**
+         * Reports the progress.
+         *
+         * @param done The work done so far
+         * @param total The total work, or -1 if unknown
+         * @param message A message describing the progress
+         */
+        void update(long done, long total, String message);
+    }
+
+    /**
+     * Marks a node and its scene as busy. Calls are counted so that overlapping
+     * loads on the same node only restore it when the last one finishes.
+     *
+     * @return The scene whose cursor was changed, or null
+     */
+    private static Scene markBusy(Node node) {
+        if (node == null) {
+            return null;
+        }
+        if (adjustCount(node.getProperties(), true) == 1) {
+            node.setDisable(true);
+        }
+
+        // The scene is null while a controller is still being initialized
+        Scene scene = node.getScene();
+        if (scene != null && adjustCount(scene.getProperties(), true) == 1) {
+            scene.getProperties().put(SAVED_CURSOR_KEY, scene.getCursor());
+            scene.setCursor(Cursor.WAIT);
+        }
+        return scene;
+    }
+
+    /**
+     * Reverts {@link #markBusy(Node)}.
+     */
+    private static void markIdle(Node node, Scene scene) {
+        if (node == null) {
+            return;
+        }
+        if (adjustCount(node.getProperties(), false) == 0) {
+            node.setDisable(false);
+        }
+        if (scene != null && adjustCount(scene.getProperties(), false) == 0) {
+            scene.setCursor((Cursor) scene.getProperties().remove(SAVED_CURSOR_KEY));
+        }
+    }
+
+    private static int adjustCount(Map<Object, Object> properties, boolean increment) {
+        int count = (Integer) properties.getOrDefault(BUSY_COUNT_KEY, 0);
+        count = Math.max(0, count + (increment ? 1 : -1));
+        properties.put(BUSY_COUNT_KEY, count);
+        return count;
+    }
+
+    private static Window windowOf(Node node) {
+        return node != null && node.getScene() != null ? node.getScene().getWindow() : null;
+    }
+
+    private static ExecutorService createExecutor() {
+        int threads = Math.max(1, AppConfig.getInstance().getInt("ui.loaderThreads", 4));
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "ui-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ExecutorService createCanceller() {
+        // Threads are created on demand, so one cancel stuck on an unreachable server does not delay the next
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "ui-loader-cancel-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.aircraft.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over string keys.
+ * {@link #mightContain(String)} never returns false for a key that was added,
+ * and returns true for a key that was not added with roughly the false positive
+ * rate the filter was sized for. Keys cannot be removed. Safe for concurrent use.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    /**
+     * Creates a filter sized for a number of keys and a false positive rate.
+     *
+     * @param expectedKeys The number of keys expected to be added
+     * @param falsePositiveRate The target false positive rate, between 0 and 1 exclusive
+     */
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        long keys = Math.max(1, expectedKeys);
+        double rate = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        double optimalBits = -keys * Math.log(rate) / (Math.log(2) * Math.log(2));
+        long words = Math.max(1, (long) Math.ceil(optimalBits / Long.SIZE));
+        this.bits = new AtomicLongArray((int) Math.min(words, Integer.MAX_VALUE / Long.SIZE));
+        this.numBits = bits.length() * Long.SIZE;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / keys * Math.log(2)));
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key The key
+     */
+    public void put(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) numBits);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                // Another key set a bit of the same word concurrently; retry
+            }
+        }
+    }
+
+    /**
+     * Checks whether a key may have been added.
+     *
+     * @param key The key
+     * @return false if the key was definitely not added, true if it may have been
+     */
+    public boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) numBits);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the current false positive rate from the fraction of bits set.
+     *
+     * @return The expected false positive rate
+     */
+    public double expectedFalsePositiveRate() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) set / numBits, numHashes);
+    }
+
+    /**
+     * Gets the size of the filter.
+     *
+     * @return The number of bits
+     */
+    public int getNumBits() {
+        return numBits;
+    }
+
+    private static long hash(String key) {
+        // FNV-1a over the UTF-16 code units, finished with a 64-bit mixer
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,148 @@
+package com.aircraft.util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Allows the statements of a background load to be cancelled on the server.
+ * While work runs inside {@link #callWith(Callable)}, every statement created by
+ * a pooled connection on that thread is registered with the token.
+ * {@link #cancel()} calls {@link Statement#cancel()} on the statements that are
+ * still open and makes further statements fail, so a superseded load stops
+ * using the database as soon as possible. A child token created with
+ * {@link #newChild()} is cancelled together with its parent, so a group of
+ * queries can be cancelled on its own without losing the parent's cancellation.
+ */
+public class CancellationToken {
+
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private final Set<CancellationToken> children = ConcurrentHashMap.newKeySet();
+    private final CancellationToken parent;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a token without a parent.
+     */
+    public CancellationToken() {
+        this(null);
+    }
+
+    private CancellationToken(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Gets the token of the work running on the current thread.
+     *
+     * @return The current token, or null if the thread is not running cancellable work
+     */
+    public static CancellationToken current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Creates a token that is cancelled when this token is cancelled.
+     * The child must be released with {@link #release()} once its work is done.
+     *
+     * @return The child token
+     */
+    public CancellationToken newChild() {
+        CancellationToken child = new CancellationToken(this);
+        children.add(child);
+        // cancel() may have run before the child was added
+        if (cancelled) {
+            child.cancel();
+        }
+        return child;
+    }
+
+    /**
+     * Detaches this token from its parent. Does nothing for a token without a parent.
+     */
+    public void release() {
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+    }
+
+    /**
+     * Runs work with this token as the current token of the calling thread.
+     *
+     * @param work The work to run
+     * @param <T> The result type
+     * @return The result of the work
+     * @throws Exception if the work fails
+     */
+    public <T> T callWith(Callable<T> work) throws Exception {
+        CancellationToken previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Cancels the work: running statements are cancelled and new ones are rejected.
+     * Child tokens are cancelled as well.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // The statement may already have completed or been closed
+            }
+        }
+        for (CancellationToken child : children) {
+            child.cancel();
+        }
+    }
+
+    /**
+     * Checks whether the work has been cancelled.
+     *
+     * @return true if {@link #cancel()} was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registers a statement created for the work.
+     *
+     * @param statement The statement
+     * @throws SQLException if the work has already been cancelled
+     */
+    void register(Statement statement) throws SQLException {
+        if (cancelled) {
+            throw new SQLException("Load cancelled", "70100");
+        }
+        statements.add(statement);
+        // cancel() may have run between the check and the registration
+        if (cancelled) {
+            statements.remove(statement);
+            throw new SQLException("Load cancelled", "70100");
+        }
+    }
+
+    /**
+     * Unregisters a statement that has been closed.
+     *
+     * @param statement The statement
+     */
+    void unregister(Statement statement) {
+        statements.remove(statement);
+    }
+}
@@ -0,0 +1,552 @@
+package com.aircraft.util;
+
+import com.aircraft.config.DBConfig;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool used by {@link DBUtil}.
+ * Connections are validated on borrow, evicted when idle for too long or past
+ * their maximum lifetime, and handed out as proxies whose close() returns the
+ * physical connection to the pool instead of closing it.
+ */
+public class ConnectionPool {
+
+    // Connections used within this window are not re-validated on borrow
+    private static final long VALIDATION_BYPASS_MS = 500;
+
+    private final String jdbcUrl;
+    private final Properties connectionProperties;
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+    private final int validationTimeoutSeconds;
+    private final int queryTimeoutSeconds;
+
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore leasePermits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    // Statistics
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong connectionsDestroyed = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates a new connection pool.
+     *
+     * @param config The database configuration supplying the URL, driver properties and pool limits
+     */
+    public ConnectionPool(DBConfig config) {
+        this.jdbcUrl = config.getJdbcUrl();
+        this.connectionProperties = config.toConnectionProperties();
+        this.maxSize = config.getPoolMaxSize();
+        this.minIdle = Math.min(config.getPoolMinIdle(), maxSize);
+        this.borrowTimeoutMs = config.getPoolBorrowTimeoutMs();
+        this.idleTimeoutMs = config.getPoolIdleTimeoutMs();
+        this.maxLifetimeMs = config.getPoolMaxLifetimeMs();
+        this.validationTimeoutSeconds = config.getPoolValidationTimeoutSeconds();
+        this.queryTimeoutSeconds = config.getQueryTimeoutSeconds();
+        this.leasePermits = new Semaphore(maxSize, true);
+
+        long housekeepingIntervalMs = config.getPoolHousekeepingIntervalMs();
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep,
+                housekeepingIntervalMs, housekeepingIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, creating a new one if none is idle.
+     *
+     * @return A connection whose close() returns it to the pool
+     * @throws SQLException If no connection becomes available in time or the database is unreachable
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!leasePermits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMs +
+                        " ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = idleConnections.pollFirst()) != null) {
+                if (isExpired(pooled) || !isValid(pooled)) {
+                    destroy(pooled);
+                    continue;
+                }
+                return lease(pooled, waitStart);
+            }
+
+            return lease(createConnection(), waitStart);
+        } catch (SQLException | RuntimeException e) {
+            leasePermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool statistics.
+     *
+     * @return The current pool statistics
+     */
+    public Stats getStats() {
+        long borrows = borrowCount.get();
+        return new Stats(
+                totalConnections.get(),
+                activeConnections.get(),
+                idleConnections.size(),
+                maxSize,
+                connectionsCreated.get(),
+                connectionsDestroyed.get(),
+                borrows,
+                borrowTimeouts.get(),
+                validationFailures.get(),
+                borrows == 0 ? 0 : totalWaitNanos.get() / borrows / 1_000,
+                maxWaitNanos.get() / 1_000
+        );
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeping task.
+     * Connections currently in use are closed when they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    private Connection lease(PooledConnection pooled, long waitStart) {
+        long waited = System.nanoTime() - waitStart;
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        activeConnections.incrementAndGet();
+
+        LeaseHandler handler = new LeaseHandler(pooled);
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                handler);
+    }
+
+    /**
+     * Called by a lease handle when the caller closes its connection.
+     */
+    private void release(PooledConnection pooled, boolean broken) {
+        activeConnections.decrementAndGet();
+        try {
+            if (closed || broken || isExpired(pooled) || !resetState(pooled)) {
+                destroy(pooled);
+            } else {
+                pooled.lastUsed = System.currentTimeMillis();
+                idleConnections.offerFirst(pooled);
+            }
+        } finally {
+            leasePermits.release();
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        if (totalConnections.incrementAndGet() > maxSize) {
+            totalConnections.decrementAndGet();
+            throw new SQLTransientConnectionException("Connection pool exhausted (pool size " + maxSize + ")");
+        }
+
+        try {
+            Connection raw = DriverManager.getConnection(jdbcUrl, connectionProperties);
+            connectionsCreated.incrementAndGet();
+            return new PooledConnection(raw);
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        connectionsDestroyed.incrementAndGet();
+        try {
+            pooled.raw.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled) {
+        return maxLifetimeMs > 0 && System.currentTimeMillis() - pooled.createdAt > maxLifetimeMs;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastUsed < VALIDATION_BYPASS_MS) {
+            return true;
+        }
+
+        try {
+            if (pooled.raw.isValid(validationTimeoutSeconds)) {
+                return true;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error validating pooled connection: " + e.getMessage());
+        }
+
+        validationFailures.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Restores the session defaults a DAO may have changed while holding the connection.
+     */
+    private boolean resetState(PooledConnection pooled) {
+        try {
+            if (!pooled.raw.getAutoCommit()) {
+                pooled.raw.rollback();
+                pooled.raw.setAutoCommit(true);
+            }
+            if (pooled.raw.isReadOnly()) {
+                pooled.raw.setReadOnly(false);
+            }
+            pooled.raw.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error resetting pooled connection: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Evicts idle and expired connections and keeps the minimum number of idle connections ready.
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            List<PooledConnection> snapshot = new ArrayList<>(idleConnections);
+
+            for (PooledConnection pooled : snapshot) {
+                boolean idleTooLong = idleTimeoutMs > 0 && now - pooled.lastUsed > idleTimeoutMs
+                        && idleConnections.size() > minIdle;
+                if ((idleTooLong || isExpired(pooled)) && idleConnections.remove(pooled)) {
+                    destroy(pooled);
+                }
+            }
+
+            while (!closed && idleConnections.size() < minIdle && totalConnections.get() < maxSize) {
+                idleConnections.offerLast(createConnection());
+            }
+        } catch (SQLException e) {
+            System.err.println("Error filling connection pool: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error in connection pool housekeeping: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private static class PooledConnection {
+        private final Connection raw;
+        private final long createdAt;
+        private volatile long lastUsed;
+
+        private PooledConnection(Connection raw) {
+            this.raw = raw;
+            this.createdAt = System.currentTimeMillis();
+            this.lastUsed = createdAt;
+        }
+    }
+
+    /**
+     * Handle given to a single borrower. Closing it returns the physical connection
+     * to the pool; any statements the borrower left open are closed at that point.
+     */
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final List<Statement> openStatements = new ArrayList<>();
+        // Tables written through this lease, invalidated in the QueryCache when it is returned
+        private final Set<String> writtenTables = new HashSet<>();
+        // Token of the background load that borrowed the connection, if any
+        private final CancellationToken cancellationToken = CancellationToken.current();
+        private boolean handleClosed = false;
+        private boolean broken = false;
+
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    closeHandle();
+                    return null;
+                case "isClosed":
+                    return handleClosed || pooled.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.raw + "]";
+                case "unwrap":
+                case "isWrapperFor":
+                    break;
+                default:
+                    if (handleClosed) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+            }
+
+            try {
+                Object result = method.invoke(pooled.raw, args);
+                if (result instanceof Statement) {
+                    Statement statement = (Statement) result;
+                    if (queryTimeoutSeconds > 0) {
+                        statement.setQueryTimeout(queryTimeoutSeconds);
+                    }
+                    openStatements.add(statement);
+                    if (cancellationToken != null) {
+                        cancellationToken.register(statement);
+                    }
+                    String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                    if (sql != null) {
+                        noteWrite(sql);
+                    } else {
+                        // A plain Statement receives its SQL on execute or addBatch
+                        statement = (Statement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                                new Class<?>[]{method.getReturnType()}, new WriteTrackingHandler(statement));
+                        result = statement;
+                    }
+                    if (InstrumentedStatement.isActive()) {
+                        return InstrumentedStatement.wrap(statement, method.getReturnType(), sql);
+                    }
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String sqlState = ((SQLException) cause).getSQLState();
+                    // SQLState class 08 signals a broken connection
+                    if (sqlState != null && sqlState.startsWith("08")) {
+                        broken = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+
+        /**
+         * Invalidates the cached results of the table an SQL statement writes, if any.
+         */
+        private void noteWrite(String sql) {
+            String writtenTable = QueryCache.getWrittenTable(sql);
+            if (writtenTable != null && writtenTables.add(writtenTable)) {
+                // Stop concurrent reads from caching the data about to change
+                QueryCache.getInstance().invalidateTable(writtenTable);
+            }
+        }
+
+        /**
+         * Passes the SQL given to execute and addBatch of a plain Statement to {@link #noteWrite(String)}.
+         */
+        private class WriteTrackingHandler implements InvocationHandler {
+            private final Statement target;
+
+            private WriteTrackingHandler(Statement target) {
+                this.target = target;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return target.toString();
+                    default:
+                        break;
+                }
+                if ((method.getName().startsWith("execute") || "addBatch".equals(method.getName()))
+                        && args != null && args.length > 0 && args[0] instanceof String) {
+                    noteWrite((String) args[0]);
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+
+        private void closeHandle() {
+            if (handleClosed) {
+                return;
+            }
+            handleClosed = true;
+
+            for (Statement statement : openStatements) {
+                if (cancellationToken != null) {
+                    cancellationToken.unregister(statement);
+                }
+                try {
+                    if (!statement.isClosed()) {
+                        statement.close();
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error closing leaked Statement: " + e.getMessage());
+                }
+            }
+            openStatements.clear();
+
+            // Reads made before the write was committed may have been cached meanwhile
+            for (String table : writtenTables) {
+                QueryCache.getInstance().invalidateTable(table);
+            }
+            writtenTables.clear();
+
+            release(pooled, broken);
+        }
+    }
+
+    /**
+     * Immutable snapshot of pool statistics.
+     */
+    public static class Stats {
+        private final int totalConnections;
+        private final int activeConnections;
+        private final int idleConnections;
+        private final int maxSize;
+        private final long connectionsCreated;
+        private final long connectionsDestroyed;
+        private final long borrowCount;
+        private final long borrowTimeouts;
+        private final long validationFailures;
+        private final long averageWaitMicros;
+        private final long maxWaitMicros;
+
+        private Stats(int totalConnections, int activeConnections, int idleConnections, int maxSize,
+                      long connectionsCreated, long connectionsDestroyed, long borrowCount,
+                      long borrowTimeouts, long validationFailures, long averageWaitMicros, long maxWaitMicros) {
+            this.totalConnections = totalConnections;
+            this.activeConnections = activeConnections;
+            this.idleConnections = idleConnections;
+            this.maxSize = maxSize;
+            this.connectionsCreated = connectionsCreated;
+            this.connectionsDestroyed = connectionsDestroyed;
+            this.borrowCount = borrowCount;
+            this.borrowTimeouts = borrowTimeouts;
+            this.validationFailures = validationFailures;
+            this.averageWaitMicros = averageWaitMicros;
+            this.maxWaitMicros = maxWaitMicros;
+        }
+
+        public int getTotalConnections() {
+            return totalConnections;
+        }
+
+        public int getActiveConnections() {
+            return activeConnections;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public long getConnectionsCreated() {
+            return connectionsCreated;
+        }
+
+        public long getConnectionsDestroyed() {
+            return connectionsDestroyed;
+        }
+
+        public long getBorrowCount() {
+            return borrowCount;
+        }
+
+        public long getBorrowTimeouts() {
+            return borrowTimeouts;
+        }
+
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        public long getAverageWaitMicros() {
+            return averageWaitMicros;
+        }
+
+        public long getMaxWaitMicros() {
+            return maxWaitMicros;
+        }
+
+        @Override
+        public String toString() {
+            return "Pool[total=" + totalConnections +
+                    ", active=" + activeConnections +
+                    ", idle=" + idleConnections +
+                    ", max=" + maxSize +
+                    ", created=" + connectionsCreated +
+                    ", destroyed=" + connectionsDestroyed +
+                    ", borrows=" + borrowCount +
+                    ", timeouts=" + borrowTimeouts +
+                    ", validationFailures=" + validationFailures +
+                    ", avgWaitUs=" + averageWaitMicros +
+                    ", maxWaitUs=" + maxWaitMicros + "]";
+        }
+    }
+}
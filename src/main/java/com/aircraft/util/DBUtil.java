@@ -3,34 +3,93 @@ package com.aircraft.util;
 import com.aircraft.config.DBConfig;
 
 import java.sql.*;
+import java.util.Collections;
 
 /**
  * Utility class for database operations.
+ * Connections are served from a shared {@link ConnectionPool}; closing them
+ * returns them to the pool.
  */
 public class DBUtil {
 
+    private static volatile ConnectionPool pool;
+
     /**
      * Gets a connection to the database.
      */
     public static Connection getConnection() throws SQLException {
+        ConnectionPool current = getPool();
+        long start = System.nanoTime();
+        Connection conn = current.borrow();
+        QueryMetrics.getInstance().recordAcquireWait(System.nanoTime() - start);
+        return conn;
+    }
+
+    /**
+     * Gets the statistics of the connection pool.
+     *
+     * @return The current pool statistics, or null if no connection has been requested yet
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStats() : null;
+    }
+
+    /**
+     * Closes all pooled connections. Called when the application exits.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            System.out.println("Shutting down connection pool: " + pool.getStats());
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    /**
+     * Returns the shared connection pool, creating it on first use.
+     */
+    private static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBUtil.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool();
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static ConnectionPool createPool() throws SQLException {
+        DBConfig config = DBConfig.getInstance();
         try {
-            // Load the JDBC driver
-            Class.forName(DBConfig.DRIVER_CLASS);
-
-            // Return a connection to the database
-            return DriverManager.getConnection(
-                    DBConfig.JDBC_URL,
-                    DBConfig.USERNAME,
-                    DBConfig.PASSWORD
-            );
+            // Load the JDBC driver once for the lifetime of the pool
+            Class.forName(config.getDriverClass());
         } catch (ClassNotFoundException e) {
             System.err.println("JDBC Driver not found: " + e.getMessage());
             throw new SQLException("JDBC Driver not found", e);
         }
+
+        System.out.println("Creating connection pool: " + config);
+        return new ConnectionPool(config);
+    }
+
+    /**
+     * Builds the placeholder list of an IN (...) clause.
+     *
+     * @param count The number of parameters, at least one
+     * @return The placeholders separated by commas, e.g. "?, ?, ?"
+     */
+    public static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
     }
 
     /**
      * Closes database resources safely.
+     * Closing the connection returns it to the pool.
      */
     public static void closeResources(Connection conn, Statement stmt, ResultSet rs) {
         try {
@@ -51,4 +110,4 @@ public class DBUtil {
             System.err.println("Error closing Connection: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -23,6 +23,8 @@ public class FXMLUtils {
      * @throws IOException If the FXML file cannot be loaded
      */
     public static Parent loadFXML(String fxml) throws IOException {
+        // Attribute the queries run while the screen loads to that screen
+        QueryMetrics.getInstance().setCurrentScreen(fxml);
         FXMLLoader fxmlLoader = new FXMLLoader(
                 Main.class.getResource("/fxml/" + fxml + ".fxml")
         );
@@ -0,0 +1,160 @@
+package com.aircraft.util;
+
+import com.aircraft.config.AppConfig;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.NoSuchFileException;
+
+/**
+ * Computes the fatigue damage of flights with rainflow cycle counting and the
+ * Palmgren-Miner rule. Each G-load cycle of range S consumes 1/N(S) of the
+ * launcher's life, with the S-N curve N(S) = fatigue.referenceCycles *
+ * (fatigue.referenceRange / S) ^ fatigue.snExponent; a launcher's damage is the
+ * sum over its flights, and it has no life left at 1.
+ *
+ * <p>The G-load history of a flight is streamed from the {@link FlightSampleStore}.
+ * Flights without stored samples count one cycle between their recorded
+ * minimum and maximum G-load, and flights without any load data count one
+ * cycle of the reference mission range fatigue.defaultMissionRange on the same
+ * curve. Counters are reused per thread, so damage is
+ * computed without allocating per sample.</p>
+ */
+public class FatigueEngine {
+
+    private static FatigueEngine instance;
+
+    private final FlightSampleStore sampleStore;
+    private final double referenceRange;
+    private final double referenceCycles;
+    private final double snExponent;
+    private final double defaultMissionRange;
+    private final ThreadLocal<Calculator> calculators;
+
+    /**
+     * Creates an engine.
+     *
+     * @param sampleStore The store of the flight samples
+     * @param hysteresis The smallest G-load reversal counted
+     * @param referenceRange The G-load range of the reference point of the S-N curve
+     * @param referenceCycles The cycles to failure at the reference range
+     * @param snExponent The slope of the S-N curve
+     * @param defaultMissionRange The G-load range of the one cycle counted for a flight without load data
+     */
+    public FatigueEngine(FlightSampleStore sampleStore, double hysteresis, double referenceRange,
+                         double referenceCycles, double snExponent, double defaultMissionRange) {
+        this.sampleStore = sampleStore;
+        this.referenceRange = referenceRange;
+        this.referenceCycles = referenceCycles;
+        this.snExponent = snExponent;
+        this.defaultMissionRange = defaultMissionRange;
+        this.calculators = ThreadLocal.withInitial(() -> new Calculator(hysteresis));
+    }
+
+    /**
+     * Gets the engine configured by the fatigue.* settings.
+     *
+     * @return The engine
+     */
+    public static synchronized FatigueEngine getInstance() {
+        if (instance == null) {
+            AppConfig config = AppConfig.getInstance();
+            instance = new FatigueEngine(FlightSampleStore.getInstance(),
+                    config.getDouble("fatigue.hysteresis", 0.2),
+                    config.getDouble("fatigue.referenceRange", 7.0),
+                    config.getDouble("fatigue.referenceCycles", 2000),
+                    config.getDouble("fatigue.snExponent", 4.0),
+                    config.getDouble("fatigue.defaultMissionRange", 9.0));
+        }
+        return instance;
+    }
+
+    /**
+     * Computes the damage of a flight.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @param numeroVolo The flight number
+     * @param gLoadMin The recorded minimum G-load, used without stored samples; may be null
+     * @param gLoadMax The recorded maximum G-load, used without stored samples; may be null
+     * @return The fraction of life consumed by the flight
+     */
+    public double flightDamage(String matricolaVelivolo, int numeroVolo, BigDecimal gLoadMin, BigDecimal gLoadMax) {
+        if (matricolaVelivolo != null) {
+            try {
+                FlightSampleSegment segment = sampleStore.open(matricolaVelivolo, numeroVolo);
+                Calculator calculator = calculators.get();
+                calculator.damage = 0;
+                segment.scan(FlightSampleStore.Column.G_LOAD, Integer.MIN_VALUE, Integer.MAX_VALUE, calculator.counter);
+                calculator.counter.finish();
+                return calculator.damage;
+            } catch (NoSuchFileException e) {
+                // No stored samples, fall back to the recorded aggregates
+            } catch (IOException e) {
+                System.err.println("Error reading the samples of flight " + numeroVolo + " of " + matricolaVelivolo
+                        + ": " + e.getMessage());
+            }
+        }
+
+        if (gLoadMin != null && gLoadMax != null) {
+            return cycleDamage(gLoadMax.doubleValue() - gLoadMin.doubleValue(), 1.0);
+        }
+        return cycleDamage(defaultMissionRange, 1.0);
+    }
+
+    /**
+     * Computes the damage of a G-load history held in an array.
+     *
+     * @param gLoads The G-load values in time order
+     * @param from The index of the first value, inclusive
+     * @param to The index of the last value, exclusive
+     * @return The fraction of life consumed
+     */
+    public double damage(float[] gLoads, int from, int to) {
+        Calculator calculator = calculators.get();
+        calculator.damage = 0;
+        calculator.counter.add(gLoads, from, to);
+        calculator.counter.finish();
+        return calculator.damage;
+    }
+
+    /**
+     * Computes the damage of cycles of a G-load range with the S-N curve.
+     *
+     * @param range The G-load range of the cycles
+     * @param count The number of cycles, 0.5 for a half cycle
+     * @return The fraction of life consumed
+     */
+    public double cycleDamage(double range, double count) {
+        if (range <= 0) {
+            return 0;
+        }
+        return count * Math.pow(range / referenceRange, snExponent) / referenceCycles;
+    }
+
+    /**
+     * Converts an accumulated damage to the remaining life.
+     *
+     * @param damage The sum of the damage of the flights
+     * @return The remaining life in percent, 0 once the damage reaches 1
+     */
+    public static double remainingLifePercentage(double damage) {
+        return Math.max(0, 100.0 * (1 - damage));
+    }
+
+    /**
+     * The counter and damage sum of one thread.
+     */
+    private class Calculator implements RainflowCounter.CycleHandler {
+        private final RainflowCounter counter;
+        private double damage;
+
+        private Calculator(double hysteresis) {
+            this.counter = new RainflowCounter(hysteresis, this);
+        }
+
+        @Override
+        public void cycle(double range, double mean, double count) {
+            damage += cycleDamage(range, count);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.aircraft.util;
+
+import com.aircraft.model.RecordedData;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Computes the dati_registrati aggregates of a flight (maximum and minimum
+ * G-load, average altitude, maximum speed) in a single pass over its samples,
+ * using primitive accumulators only. NaN samples are left out of each channel.
+ */
+public class FlightAggregates implements FlightRecorderFile.SampleHandler {
+
+    private long samples;
+    private double gLoadMax = Double.NEGATIVE_INFINITY;
+    private double gLoadMin = Double.POSITIVE_INFINITY;
+    private double altitudeSum;
+    private long altitudeSamples;
+    private double speedMax = Double.NEGATIVE_INFINITY;
+
+    @Override
+    public void sample(int timeMillis, float gLoad, float altitude, float speed) {
+        samples++;
+        // Comparisons with NaN are false, so NaN samples never change the extremes
+        if (gLoad > gLoadMax) {
+            gLoadMax = gLoad;
+        }
+        if (gLoad < gLoadMin) {
+            gLoadMin = gLoad;
+        }
+        if (!Float.isNaN(altitude)) {
+            altitudeSum += altitude;
+            altitudeSamples++;
+        }
+        if (speed > speedMax) {
+            speedMax = speed;
+        }
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Checks whether the flight has at least one G-load sample, without which
+     * dati_registrati cannot be filled.
+     */
+    public boolean hasGLoad() {
+        return gLoadMax != Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Builds the recorded data of the flight.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @param numeroVolo The flight number
+     * @return The recorded data, not yet processed; altitude and speed are null if never sampled
+     */
+    public RecordedData toRecordedData(String matricolaVelivolo, int numeroVolo) {
+        RecordedData recordedData = new RecordedData();
+        recordedData.setMatricolaVelivolo(matricolaVelivolo);
+        recordedData.setNumeroVolo(numeroVolo);
+        if (hasGLoad()) {
+            recordedData.setGloadMax(BigDecimal.valueOf(gLoadMax).setScale(2, RoundingMode.HALF_UP));
+            recordedData.setGloadMin(BigDecimal.valueOf(gLoadMin).setScale(2, RoundingMode.HALF_UP));
+        }
+        recordedData.setQuotaMedia(altitudeSamples > 0 ? (int) Math.round(altitudeSum / altitudeSamples) : null);
+        recordedData.setVelocitaMassima(speedMax != Double.NEGATIVE_INFINITY ? (int) Math.round(speedMax) : null);
+        recordedData.setStatoElaborato(false);
+        return recordedData;
+    }
+}
@@ -0,0 +1,172 @@
+package com.aircraft.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a raw flight recorder file (.clfr) with memory-mapped I/O.
+ *
+ * <p>The file is big-endian and starts with a 40-byte header:</p>
+ * <pre>
+ * offset size
+ *      0    4  magic "CLFR"
+ *      4    2  format version (1)
+ *      6    2  sample size in bytes (at least 16; extra bytes are ignored)
+ *      8   16  aircraft serial number (MatricolaVelivolo), ASCII, padded with NUL
+ *     24    4  flight number (NumeroVolo)
+ *     28    8  recording start, epoch milliseconds
+ *     36    4  reserved
+ * </pre>
+ * followed by fixed-size samples:
+ * <pre>
+ *      0    4  time since the recording start, milliseconds (int)
+ *      4    4  G-load (float)
+ *      8    4  altitude, feet (float)
+ *     12    4  speed, knots (float)
+ * </pre>
+ * A channel the recorder could not sample is NaN. Samples are handed to a
+ * {@link SampleHandler} as primitives straight from the mapped file, so a scan
+ * allocates nothing per sample and the heap stays flat whatever the file size.
+ */
+public class FlightRecorderFile implements AutoCloseable {
+
+    public static final String EXTENSION = ".clfr";
+
+    private static final int MAGIC = 0x434C4652; // "CLFR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int MIN_SAMPLE_SIZE = 16;
+    // Files larger than this are mapped one window at a time
+    private static final long MAX_WINDOW = 1L << 30;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int sampleSize;
+    private final String matricolaVelivolo;
+    private final int numeroVolo;
+    private final long startMillis;
+    private final long sampleCount;
+
+    private FlightRecorderFile(Path path, FileChannel channel) throws IOException {
+        this.path = path;
+        this.channel = channel;
+
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException(path + " is not a flight recorder file: too short");
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a flight recorder file: bad magic number");
+        }
+        int version = header.getShort(4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new IOException(path + " has unsupported format version " + version);
+        }
+        this.sampleSize = header.getShort(6) & 0xFFFF;
+        if (sampleSize < MIN_SAMPLE_SIZE) {
+            throw new IOException(path + " has an invalid sample size of " + sampleSize + " bytes");
+        }
+
+        byte[] serial = new byte[16];
+        header.get(8, serial);
+        int length = 0;
+        while (length < serial.length && serial[length] != 0) {
+            length++;
+        }
+        this.matricolaVelivolo = new String(serial, 0, length, StandardCharsets.US_ASCII).trim();
+        this.numeroVolo = header.getInt(24);
+        this.startMillis = header.getLong(28);
+
+        long dataSize = size - HEADER_SIZE;
+        this.sampleCount = dataSize / sampleSize;
+        if (dataSize % sampleSize != 0) {
+            System.out.println("Warning: " + path + " ends with a partial sample, which is ignored");
+        }
+    }
+
+    /**
+     * Opens a flight recorder file and reads its header.
+     *
+     * @param path The file
+     * @return The open file, to be closed by the caller
+     * @throws IOException if the file cannot be read or is not a flight recorder file
+     */
+    public static FlightRecorderFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new FlightRecorderFile(path, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Passes every sample of the file, in order, to a handler.
+     *
+     * @param handler The handler receiving the samples
+     * @throws IOException if the file cannot be mapped
+     */
+    public void scan(SampleHandler handler) throws IOException {
+        // Windows hold whole samples, so none straddles two mappings
+        long samplesPerWindow = MAX_WINDOW / sampleSize;
+        long done = 0;
+        while (done < sampleCount) {
+            long samples = Math.min(samplesPerWindow, sampleCount - done);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + done * sampleSize, samples * sampleSize);
+            int end = (int) (samples * sampleSize);
+            for (int offset = 0; offset < end; offset += sampleSize) {
+                handler.sample(window.getInt(offset), window.getFloat(offset + 4),
+                        window.getFloat(offset + 8), window.getFloat(offset + 12));
+            }
+            done += samples;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getMatricolaVelivolo() {
+        return matricolaVelivolo;
+    }
+
+    public int getNumeroVolo() {
+        return numeroVolo;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Receives the samples of a flight recorder file.
+     */
+    public interface SampleHandler {
+
+        /**
+         * Handles one sample.
+         *
+         * @param timeMillis The time since the recording start in milliseconds
+         * @param gLoad The G-load, or NaN if not sampled
+         * @param altitude The altitude in feet, or NaN if not sampled
+         * @param speed The speed in knots, or NaN if not sampled
+         */
+        void sample(int timeMillis, float gLoad, float altitude, float speed);
+    }
+}
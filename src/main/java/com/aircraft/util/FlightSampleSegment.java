@@ -0,0 +1,214 @@
+package com.aircraft.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The stored samples of one flight, memory-mapped read-only.
+ *
+ * <p>A segment file is big-endian:</p>
+ * <pre>
+ * header   magic "CLTS" (4), version (2), reserved (2), recording start in epoch ms (8)
+ * blocks   up to samples.blockSize samples each, one column after the other:
+ *          time since the recording start (ms), G-load, altitude, speed,
+ *          each encoded on its own by {@link SampleCodec}
+ * index    per block: first and last time, sample count, offset of each column (7 ints)
+ * footer   sample count (8), index offset (4), block count (4), magic (4)
+ * </pre>
+ * Scans locate the first block of a time range in the index, and only decode
+ * the columns they need, straight from the mapping into primitive callbacks.
+ * Nothing is allocated per sample, so whole fleets can be rescanned cheaply.
+ * A segment is immutable once written; scans may run concurrently.
+ * The mapping has no explicit release and is only unmapped when the segment is
+ * garbage collected. Until then Windows refuses to replace or delete the file,
+ * so segments should not be held across an ingestion of the same flights.
+ */
+public class FlightSampleSegment {
+
+    static final int MAGIC = 0x434C5453; // "CLTS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int FOOTER_SIZE = 20;
+    static final int COLUMN_COUNT = 4;
+    static final int INDEX_ENTRY_INTS = 3 + COLUMN_COUNT;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long startMillis;
+    private final long sampleCount;
+    private final int blockCount;
+    private final int indexOffset;
+
+    private FlightSampleSegment(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+
+        int size = buffer.capacity();
+        if (size < HEADER_SIZE + FOOTER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(size - 4) != MAGIC) {
+            throw new IOException(path + " is not a sample segment or is incomplete");
+        }
+        int version = buffer.getShort(4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new IOException(path + " has unsupported format version " + version);
+        }
+        this.startMillis = buffer.getLong(8);
+        this.sampleCount = buffer.getLong(size - FOOTER_SIZE);
+        this.indexOffset = buffer.getInt(size - FOOTER_SIZE + 8);
+        this.blockCount = buffer.getInt(size - FOOTER_SIZE + 12);
+        if (indexOffset < HEADER_SIZE || (long) indexOffset + (long) blockCount * INDEX_ENTRY_INTS * 4 != size - FOOTER_SIZE) {
+            throw new IOException(path + " has a corrupt block index");
+        }
+    }
+
+    /**
+     * Maps a segment file.
+     *
+     * @param path The segment file
+     * @return The segment
+     * @throws IOException if the file cannot be read or is not a complete segment
+     */
+    static FlightSampleSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " exceeds 2 GB");
+            }
+            // The mapping stays valid once the channel is closed
+            return new FlightSampleSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Gets the recording start, to which sample times are relative.
+     *
+     * @return The recording start in epoch milliseconds
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Gets the time of the first sample.
+     *
+     * @return The time since the recording start in milliseconds, 0 if there are no samples
+     */
+    public int getFirstMillis() {
+        return blockCount > 0 ? indexInt(0, 0) : 0;
+    }
+
+    /**
+     * Gets the time of the last sample.
+     *
+     * @return The time since the recording start in milliseconds, 0 if there are no samples
+     */
+    public int getLastMillis() {
+        return blockCount > 0 ? indexInt(blockCount - 1, 1) : 0;
+    }
+
+    /**
+     * Passes every sample of the flight, in order, to a handler.
+     *
+     * @param handler The handler receiving the samples
+     */
+    public void scan(FlightRecorderFile.SampleHandler handler) {
+        scan(Integer.MIN_VALUE, Integer.MAX_VALUE, handler);
+    }
+
+    /**
+     * Passes the samples of a time range, in order, to a handler.
+     *
+     * @param fromMillis The start of the range, inclusive, in milliseconds since the recording start
+     * @param toMillis The end of the range, exclusive
+     * @param handler The handler receiving the samples
+     */
+    public void scan(int fromMillis, int toMillis, FlightRecorderFile.SampleHandler handler) {
+        SampleCodec.TimeDecoder time = new SampleCodec.TimeDecoder();
+        SampleCodec.FloatDecoder gLoad = new SampleCodec.FloatDecoder();
+        SampleCodec.FloatDecoder altitude = new SampleCodec.FloatDecoder();
+        SampleCodec.FloatDecoder speed = new SampleCodec.FloatDecoder();
+
+        for (int block = firstBlock(fromMillis); block < blockCount && indexInt(block, 0) < toMillis; block++) {
+            time.reset(buffer, indexInt(block, 3));
+            gLoad.reset(buffer, indexInt(block, 4 + FlightSampleStore.Column.G_LOAD.ordinal()));
+            altitude.reset(buffer, indexInt(block, 4 + FlightSampleStore.Column.ALTITUDE.ordinal()));
+            speed.reset(buffer, indexInt(block, 4 + FlightSampleStore.Column.SPEED.ordinal()));
+
+            int samples = indexInt(block, 2);
+            for (int i = 0; i < samples; i++) {
+                int t = time.next();
+                // Values are XOR-chained, so skipped samples must still be decoded
+                float g = gLoad.next();
+                float a = altitude.next();
+                float s = speed.next();
+                if (t >= toMillis) {
+                    return;
+                }
+                if (t >= fromMillis) {
+                    handler.sample(t, g, a, s);
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes the values of one column in a time range, in order, to a handler.
+     * Only the time and that column are decoded.
+     *
+     * @param column The column
+     * @param fromMillis The start of the range, inclusive, in milliseconds since the recording start
+     * @param toMillis The end of the range, exclusive
+     * @param handler The handler receiving the values
+     */
+    public void scan(FlightSampleStore.Column column, int fromMillis, int toMillis, FlightSampleStore.ValueHandler handler) {
+        SampleCodec.TimeDecoder time = new SampleCodec.TimeDecoder();
+        SampleCodec.FloatDecoder values = new SampleCodec.FloatDecoder();
+
+        for (int block = firstBlock(fromMillis); block < blockCount && indexInt(block, 0) < toMillis; block++) {
+            time.reset(buffer, indexInt(block, 3));
+            values.reset(buffer, indexInt(block, 4 + column.ordinal()));
+
+            int samples = indexInt(block, 2);
+            for (int i = 0; i < samples; i++) {
+                int t = time.next();
+                float value = values.next();
+                if (t >= toMillis) {
+                    return;
+                }
+                if (t >= fromMillis) {
+                    handler.value(t, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the first block whose last sample is at or after a time.
+     */
+    private int firstBlock(int fromMillis) {
+        int low = 0;
+        int high = blockCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (indexInt(middle, 1) < fromMillis) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int indexInt(int block, int field) {
+        return buffer.getInt(indexOffset + (block * INDEX_ENTRY_INTS + field) * 4);
+    }
+}
@@ -0,0 +1,156 @@
+package com.aircraft.util;
+
+import com.aircraft.config.AppConfig;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * On-disk store of the raw samples of each flight, kept alongside the
+ * dati_registrati aggregates so that fatigue and analytics code can re-derive
+ * statistics without MySQL or the original recorder files.
+ * Each flight is one compressed columnar segment file,
+ * &lt;samples.directory&gt;/&lt;MATRICOLA&gt;/&lt;NumeroVolo&gt;.clts; see
+ * {@link FlightSampleSegment} for the layout.
+ */
+public class FlightSampleStore {
+
+    public static final String EXTENSION = ".clts";
+
+    private static FlightSampleStore instance;
+
+    private final Path directory;
+    private final int blockSize;
+
+    /**
+     * Creates a store.
+     *
+     * @param directory The directory holding the segments
+     * @param blockSize The number of samples per block
+     */
+    public FlightSampleStore(Path directory, int blockSize) {
+        this.directory = directory;
+        this.blockSize = Math.max(16, blockSize);
+    }
+
+    /**
+     * Gets the store configured by samples.directory and samples.blockSize.
+     *
+     * @return The store
+     */
+    public static synchronized FlightSampleStore getInstance() {
+        if (instance == null) {
+            AppConfig config = AppConfig.getInstance();
+            instance = new FlightSampleStore(Paths.get(config.getString("samples.directory", "data/samples")),
+                    config.getInt("samples.blockSize", 4096));
+        }
+        return instance;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Checks whether the samples of a flight are stored.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @param numeroVolo The flight number
+     * @return true if the flight has a segment
+     */
+    public boolean contains(String matricolaVelivolo, int numeroVolo) {
+        return Files.isRegularFile(segmentPath(matricolaVelivolo, numeroVolo));
+    }
+
+    /**
+     * Starts writing the samples of a flight. The segment replaces any stored one when committed.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @param numeroVolo The flight number
+     * @param startMillis The recording start in epoch milliseconds
+     * @return The writer, to be closed by the caller
+     * @throws IOException if the segment file cannot be created
+     */
+    public FlightSampleWriter create(String matricolaVelivolo, int numeroVolo, long startMillis) throws IOException {
+        return new FlightSampleWriter(segmentPath(matricolaVelivolo, numeroVolo), startMillis, blockSize);
+    }
+
+    /**
+     * Opens the samples of a flight.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @param numeroVolo The flight number
+     * @return The segment of the flight
+     * @throws java.nio.file.NoSuchFileException if the flight has no stored samples
+     * @throws IOException if the segment cannot be read
+     */
+    public FlightSampleSegment open(String matricolaVelivolo, int numeroVolo) throws IOException {
+        return FlightSampleSegment.open(segmentPath(matricolaVelivolo, numeroVolo));
+    }
+
+    /**
+     * Lists the flights of an aircraft with stored samples.
+     *
+     * @param matricolaVelivolo The aircraft serial number
+     * @return The flight numbers in ascending order
+     * @throws IOException if the directory cannot be read
+     */
+    public List<Integer> getFlights(String matricolaVelivolo) throws IOException {
+        List<Integer> flights = new ArrayList<>();
+        Path aircraftDirectory = aircraftDirectory(matricolaVelivolo);
+        if (!Files.isDirectory(aircraftDirectory)) {
+            return flights;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(aircraftDirectory, "*" + EXTENSION)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    flights.add(Integer.parseInt(name.substring(0, name.length() - EXTENSION.length())));
+                } catch (NumberFormatException e) {
+                    // Not a segment of this store
+                }
+            }
+        }
+        Collections.sort(flights);
+        return flights;
+    }
+
+    private Path segmentPath(String matricolaVelivolo, int numeroVolo) {
+        return aircraftDirectory(matricolaVelivolo).resolve(numeroVolo + EXTENSION);
+    }
+
+    private Path aircraftDirectory(String matricolaVelivolo) {
+        // Serial numbers compare case-insensitively in MySQL; keep file names portable
+        return directory.resolve(matricolaVelivolo.trim().toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9._-]", "_"));
+    }
+
+    /**
+     * The value columns of a segment.
+     */
+    public enum Column {
+        G_LOAD,
+        ALTITUDE,
+        SPEED
+    }
+
+    /**
+     * Receives the values of one column of a segment.
+     */
+    public interface ValueHandler {
+
+        /**
+         * Handles one value.
+         *
+         * @param timeMillis The time since the recording start in milliseconds
+         * @param value The value, or NaN if not sampled
+         */
+        void value(int timeMillis, float value);
+    }
+}
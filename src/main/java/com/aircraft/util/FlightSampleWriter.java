@@ -0,0 +1,185 @@
+package com.aircraft.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes the sample segment of one flight, see {@link FlightSampleSegment} for
+ * the layout. Samples are buffered and encoded one block at a time, so memory
+ * use does not depend on the length of the flight. The segment is written to a
+ * temporary file of its own and only replaces the stored one when committed;
+ * closing a writer that was not committed discards it. On Windows the stored
+ * segment cannot be replaced while a {@link FlightSampleSegment} of it is
+ * mapped, and the commit fails.
+ *
+ * <pre>
+ * try (FlightSampleWriter writer = store.create(matricolaVelivolo, numeroVolo, startMillis)) {
+ *     recorderFile.scan(writer);
+ *     writer.commit();
+ * }
+ * </pre>
+ */
+public class FlightSampleWriter implements FlightRecorderFile.SampleHandler, AutoCloseable {
+
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final int blockSize;
+
+    private final SampleCodec.BitWriter[] columns = new SampleCodec.BitWriter[FlightSampleSegment.COLUMN_COUNT];
+    private final SampleCodec.TimeEncoder timeEncoder;
+    private final SampleCodec.FloatEncoder[] valueEncoders = new SampleCodec.FloatEncoder[FlightSampleStore.Column.values().length];
+
+    // Per block: first time, last time, sample count and the offset of each column
+    private int[] index = new int[64 * FlightSampleSegment.INDEX_ENTRY_INTS];
+    private int blockCount;
+    private int blockSamples;
+    private int blockFirstMillis;
+    private int lastMillis;
+    private long sampleCount;
+    private boolean committed;
+    private boolean closed;
+
+    FlightSampleWriter(Path target, long startMillis, int blockSize) throws IOException {
+        this.target = target;
+        this.blockSize = blockSize;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new SampleCodec.BitWriter();
+        }
+        this.timeEncoder = new SampleCodec.TimeEncoder(columns[0]);
+        for (int i = 0; i < valueEncoders.length; i++) {
+            valueEncoders[i] = new SampleCodec.FloatEncoder(columns[i + 1]);
+        }
+
+        Files.createDirectories(target.getParent());
+        // A file of its own, so concurrent writers of the same flight cannot interleave
+        this.temporary = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        this.channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(FlightSampleSegment.HEADER_SIZE);
+        header.putInt(FlightSampleSegment.MAGIC);
+        header.putShort((short) FlightSampleSegment.VERSION);
+        header.putShort((short) 0);
+        header.putLong(startMillis);
+        header.flip();
+        writeFully(header);
+    }
+
+    /**
+     * Appends a sample. Samples must be in time order.
+     *
+     * @throws IllegalArgumentException if the sample is older than the previous one
+     * @throws UncheckedIOException if a full block cannot be written
+     */
+    @Override
+    public void sample(int timeMillis, float gLoad, float altitude, float speed) {
+        if (sampleCount > 0 && timeMillis < lastMillis) {
+            throw new IllegalArgumentException("Samples are out of time order at " + timeMillis + " ms");
+        }
+        if (blockSamples == 0) {
+            blockFirstMillis = timeMillis;
+        }
+        timeEncoder.write(timeMillis);
+        valueEncoders[FlightSampleStore.Column.G_LOAD.ordinal()].write(gLoad);
+        valueEncoders[FlightSampleStore.Column.ALTITUDE.ordinal()].write(altitude);
+        valueEncoders[FlightSampleStore.Column.SPEED.ordinal()].write(speed);
+        lastMillis = timeMillis;
+        blockSamples++;
+        sampleCount++;
+
+        if (blockSamples == blockSize) {
+            try {
+                flushBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Writes the index and replaces the stored segment of the flight with this one.
+     *
+     * @throws IOException if the segment cannot be written
+     */
+    public void commit() throws IOException {
+        if (blockSamples > 0) {
+            flushBlock();
+        }
+        long indexOffset = channel.position();
+        ByteBuffer buffer = ByteBuffer.allocate(blockCount * FlightSampleSegment.INDEX_ENTRY_INTS * 4 + FlightSampleSegment.FOOTER_SIZE);
+        buffer.asIntBuffer().put(index, 0, blockCount * FlightSampleSegment.INDEX_ENTRY_INTS);
+        buffer.position(blockCount * FlightSampleSegment.INDEX_ENTRY_INTS * 4);
+        buffer.putLong(sampleCount);
+        buffer.putInt((int) indexOffset);
+        buffer.putInt(blockCount);
+        buffer.putInt(FlightSampleSegment.MAGIC);
+        buffer.flip();
+        writeFully(buffer);
+        if (channel.position() > Integer.MAX_VALUE) {
+            throw new IOException("Sample segment " + target + " exceeds 2 GB");
+        }
+
+        channel.force(true);
+        channel.close();
+        closed = true;
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    /**
+     * Discards the segment unless it was committed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            channel.close();
+            closed = true;
+        }
+        if (!committed) {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        int entry = blockCount * FlightSampleSegment.INDEX_ENTRY_INTS;
+        if (entry + FlightSampleSegment.INDEX_ENTRY_INTS > index.length) {
+            index = Arrays.copyOf(index, index.length * 2);
+        }
+        index[entry] = blockFirstMillis;
+        index[entry + 1] = lastMillis;
+        index[entry + 2] = blockSamples;
+        for (int i = 0; i < columns.length; i++) {
+            long offset = channel.position();
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Sample segment " + target + " exceeds 2 GB");
+            }
+            index[entry + 3 + i] = (int) offset;
+            writeFully(columns[i].toByteBuffer());
+            columns[i].clear();
+        }
+        blockCount++;
+
+        // Each block decodes on its own, so scans can start at any block
+        timeEncoder.reset();
+        for (SampleCodec.FloatEncoder encoder : valueEncoders) {
+            encoder.reset();
+        }
+        blockSamples = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.aircraft.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Wraps JDBC statements so that every execution is recorded in {@link QueryMetrics}
+ * and, when it exceeds the threshold, in the {@link SlowQueryLog}.
+ * Result sets returned by a wrapped statement are wrapped as well to count the
+ * rows actually read by the caller.
+ */
+public class InstrumentedStatement {
+
+    private InstrumentedStatement() {
+    }
+
+    /**
+     * Checks whether statements should be wrapped at all.
+     *
+     * @return true if query metrics or the slow query log are enabled
+     */
+    public static boolean isActive() {
+        return QueryMetrics.getInstance().isEnabled() || SlowQueryLog.getInstance().isEnabled();
+    }
+
+    /**
+     * Wraps a statement created by a pooled connection.
+     *
+     * @param statement The statement to wrap
+     * @param type The statement interface to expose (Statement, PreparedStatement or CallableStatement)
+     * @param sql The SQL the statement was prepared with, or null for a plain Statement
+     * @return A statement that records its executions
+     */
+    public static Statement wrap(Statement statement, Class<?> type, String sql) {
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        QueryMetrics.TemplateStats prepared = sql != null ? metrics.getTemplate(sql, true) : null;
+        return (Statement) Proxy.newProxyInstance(
+                InstrumentedStatement.class.getClassLoader(),
+                new Class<?>[]{type},
+                new StatementHandler(statement, metrics, sql, prepared));
+    }
+
+    private static boolean isExecute(String methodName) {
+        return methodName.startsWith("execute");
+    }
+
+    private static boolean isParameterSetter(Method method, Object[] args) {
+        return method.getName().startsWith("set") && args != null && args.length >= 2
+                && method.getParameterTypes()[0] == int.class;
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final QueryMetrics metrics;
+        private final String preparedSql;
+        private final QueryMetrics.TemplateStats prepared;
+        // Bound parameters by index, kept for the slow query log
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private QueryMetrics.TemplateStats lastTemplate;
+
+        private StatementHandler(Statement target, QueryMetrics metrics, String preparedSql,
+                                 QueryMetrics.TemplateStats prepared) {
+            this.target = target;
+            this.metrics = metrics;
+            this.preparedSql = preparedSql;
+            this.prepared = prepared;
+            this.lastTemplate = prepared;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return target.toString();
+                default:
+                    break;
+            }
+
+            if (!isExecute(name)) {
+                if (isParameterSetter(method, args)) {
+                    // setNull(index, type) binds NULL, not the SQL type code
+                    parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+                } else if ("clearParameters".equals(name)) {
+                    parameters.clear();
+                }
+                Object result = invokeTarget(method, args);
+                if (result instanceof ResultSet && "getResultSet".equals(name)) {
+                    return wrapResultSet((ResultSet) result, lastTemplate);
+                }
+                return result;
+            }
+
+            QueryMetrics.TemplateStats template = prepared;
+            String sql = preparedSql;
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                // Plain Statement: the SQL is passed to execute
+                sql = (String) args[0];
+                template = metrics.getTemplate(sql, false);
+            }
+            if (template == null) {
+                template = metrics.getTemplate(null, false);
+            }
+            lastTemplate = template;
+
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invokeTarget(method, args);
+                failed = false;
+                if (result instanceof ResultSet) {
+                    return wrapResultSet((ResultSet) result, template);
+                }
+                recordUpdateCount(template, result);
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                template.recordExecution(elapsed, failed);
+
+                SlowQueryLog slowQueryLog = SlowQueryLog.getInstance();
+                if (slowQueryLog.isSlow(elapsed)) {
+                    Map<Integer, Object> bound = sql == preparedSql ? new TreeMap<>(parameters) : Collections.emptyMap();
+                    slowQueryLog.record(template, sql, bound, elapsed, failed);
+                }
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void recordUpdateCount(QueryMetrics.TemplateStats template, Object result) {
+            if (result instanceof Integer) {
+                template.addRows((Integer) result);
+            } else if (result instanceof Long) {
+                template.addRows((Long) result);
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    template.addRows(count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    template.addRows(count);
+                }
+            }
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet, QueryMetrics.TemplateStats template) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    InstrumentedStatement.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    new ResultSetHandler(resultSet, template));
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final QueryMetrics.TemplateStats template;
+
+        private ResultSetHandler(ResultSet target, QueryMetrics.TemplateStats template) {
+            this.target = target;
+            this.template = template;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next":
+                    boolean hasRow = target.next();
+                    if (hasRow) {
+                        template.addRows(1);
+                    }
+                    return hasRow;
+                default:
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.aircraft.util;
+
+import javafx.concurrent.Task;
+import javafx.scene.Node;
+
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Background load driven by a selection, where only the latest selection matters.
+ * Starting a new load cancels the previous one, including its running statements,
+ * and the result of a superseded load never reaches the UI. Must be used on the
+ * FX thread.
+ */
+public class LatestLoad {
+
+    private Task<?> current;
+    private long generation;
+
+    /**
+     * Starts a load, cancelling the previous one.
+     *
+     * @param busyNode The node to disable while loading, or null
+     * @param errorTitle The title of the error alert shown if loading fails
+     * @param work The work to run in the background
+     * @param onSuccess The callback receiving the result on the FX thread
+     * @param <T> The result type
+     * @return The submitted task
+     */
+    public <T> Task<T> load(Node busyNode, String errorTitle, Callable<T> work, Consumer<T> onSuccess) {
+        cancel();
+        long loadGeneration = generation;
+        Task<T> task = BackgroundLoader.load(busyNode, errorTitle, work, result -> {
+            // The task may have completed just before it was superseded
+            if (loadGeneration == generation) {
+                current = null;
+                onSuccess.accept(result);
+            }
+        });
+        current = task;
+        return task;
+    }
+
+    /**
+     * Cancels the current load, if any, and discards its result.
+     */
+    public void cancel() {
+        generation++;
+        if (current != null) {
+            current.cancel();
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.aircraft.util;
+
+import com.aircraft.config.AppConfig;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.concurrent.WorkerStateEvent;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fills a TableView page by page from a keyset-paginated query while the user
+ * scrolls. The next page is fetched when the last rows come into view and the
+ * previous one when scrolling back to the first rows. At most ui.table.maxRows
+ * rows are kept: rows scrolled far out of view are dropped and fetched again
+ * if the user scrolls back, so memory stays bounded however long the history.
+ * Pages of ui.table.pageSize rows are fetched in the background. Must be used
+ * on the FX thread.
+ */
+public class PagedTableLoader<T> {
+
+    private final TableView<T> table;
+    private final int pageSize;
+    private final int maxRows;
+    private final ObservableList<T> rows = FXCollections.observableArrayList();
+    private final LatestLoad load = new LatestLoad();
+
+    private VirtualFlow<?> flow;
+    private PageSource<T> source;
+    private String errorTitle;
+    private boolean loading;
+    // Whether the first and last rows of the query are in the table
+    private boolean startReached = true;
+    private boolean endReached = true;
+
+    /**
+     * Creates a loader for a table. The table's items are replaced by the loaded rows.
+     *
+     * @param table The table to fill
+     */
+    public PagedTableLoader(TableView<T> table) {
+        AppConfig config = AppConfig.getInstance();
+        this.table = table;
+        this.pageSize = Math.max(10, config.getInt("ui.table.pageSize", 200));
+        this.maxRows = Math.max(3 * pageSize, config.getInt("ui.table.maxRows", 2000));
+        table.setItems(rows);
+
+        // The scroll position is only available once the table has a skin
+        attachFlow();
+        table.skinProperty().addListener((obs, oldSkin, newSkin) -> attachFlow());
+    }
+
+    /**
+     * Discards the rows shown and starts showing the rows of a new query from its first page.
+     *
+     * @param errorTitle The title of the error alert shown if a page cannot be loaded
+     * @param source Fetches the pages of the query
+     * @param onFirstPage The callback receiving the first page on the FX thread, or null
+     */
+    public void reset(String errorTitle, PageSource<T> source, Consumer<List<T>> onFirstPage) {
+        this.errorTitle = errorTitle;
+        this.source = source;
+        fetch(table, null, true, page -> {
+            rows.setAll(page);
+            startReached = true;
+            endReached = page.size() < pageSize;
+            table.scrollTo(0);
+            if (onFirstPage != null) {
+                onFirstPage.accept(page);
+            }
+        });
+    }
+
+    /**
+     * Discards the rows shown and cancels any page being loaded.
+     */
+    public void clear() {
+        load.cancel();
+        loading = false;
+        source = null;
+        rows.clear();
+        startReached = true;
+        endReached = true;
+    }
+
+    private void attachFlow() {
+        VirtualFlow<?> found = (VirtualFlow<?>) table.lookup(".virtual-flow");
+        if (found == null || found == flow) {
+            return;
+        }
+        flow = found;
+        flow.positionProperty().addListener((obs, oldPosition, newPosition) -> onScroll());
+    }
+
+    private void onScroll() {
+        if (loading || source == null || rows.isEmpty()) {
+            return;
+        }
+        IndexedCell<?> first = flow.getFirstVisibleCell();
+        IndexedCell<?> last = flow.getLastVisibleCell();
+        if (first == null || last == null) {
+            return;
+        }
+
+        int margin = pageSize / 2;
+        if (!endReached && last.getIndex() >= rows.size() - margin) {
+            fetch(null, rows.get(rows.size() - 1), true, this::append);
+        } else if (!startReached && first.getIndex() < margin) {
+            fetch(null, rows.get(0), false, this::prepend);
+        }
+    }
+
+    private void append(List<T> page) {
+        endReached = page.size() < pageSize;
+        rows.addAll(page);
+
+        int excess = rows.size() - maxRows;
+        if (excess > 0) {
+            // Keep the rows in view where they are while the oldest ones are dropped
+            int firstVisible = firstVisibleIndex();
+            rows.remove(0, excess);
+            startReached = false;
+            table.scrollTo(Math.max(0, firstVisible - excess));
+        }
+    }
+
+    private void prepend(List<T> page) {
+        startReached = page.size() < pageSize;
+        int firstVisible = firstVisibleIndex();
+        rows.addAll(0, page);
+        table.scrollTo(firstVisible + page.size());
+
+        int excess = rows.size() - maxRows;
+        if (excess > 0) {
+            rows.remove(rows.size() - excess, rows.size());
+            endReached = false;
+        }
+    }
+
+    private int firstVisibleIndex() {
+        IndexedCell<?> first = flow != null ? flow.getFirstVisibleCell() : null;
+        return first != null ? Math.max(0, first.getIndex()) : 0;
+    }
+
+    private void fetch(Node busyNode, T anchor, boolean after, Consumer<List<T>> onPage) {
+        PageSource<T> pageSource = source;
+        loading = true;
+        // A reset supersedes the page being fetched, so its rows never mix with the new query
+        Task<List<T>> task = load.load(busyNode, errorTitle, () -> pageSource.fetch(anchor, after, pageSize), page -> {
+            loading = false;
+            onPage.accept(page);
+        });
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_FAILED, event -> loading = false);
+    }
+
+    /**
+     * Fetches the pages of a query ordered by a unique key.
+     */
+    public interface PageSource<T> {
+
+        /**
+         * Fetches the rows adjacent to an anchor row, in display order.
+         *
+         * @param anchor The first or last row of a page already fetched, or null for the first page
+         * @param after true for the rows after the anchor, false for the rows before it
+         * @param limit The maximum number of rows
+         * @return The rows; fewer than limit when the end of the query is reached
+         * @throws SQLException if the page cannot be fetched
+         */
+        List<T> fetch(T anchor, boolean after, int limit) throws SQLException;
+    }
+}
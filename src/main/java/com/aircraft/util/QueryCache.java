@@ -0,0 +1,287 @@
+package com.aircraft.util;
+
+import com.aircraft.config.AppConfig;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cache of DAO query results keyed by SQL template and bound parameters.
+ * Each entry records the tables it was read from. Statements that write a
+ * table through a pooled connection invalidate the entries depending on it
+ * (see {@link ConnectionPool}), so cached results never outlive a local write.
+ * The cache holds at most cache.query.maxEntries entries, evicting the least
+ * recently used, and entries expire after cache.query.ttlSeconds to pick up
+ * writes made by other workstations. Concurrent identical queries, cached or
+ * not, share a single execution (see {@link SingleFlight}).
+ */
+public class QueryCache {
+
+    private static final Pattern WRITE_STATEMENT = Pattern.compile(
+            "^\\s*(?:INSERT\\s+(?:IGNORE\\s+)?INTO|REPLACE\\s+INTO|UPDATE|DELETE\\s+FROM)\\s+`?(\\w+)`?",
+            Pattern.CASE_INSENSITIVE);
+
+    // Singleton instance
+    private static QueryCache instance;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlNanos;
+    // Guarded by this; iteration order is least recently used first
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Incremented on every invalidation of a table, so results read concurrently with a write are not cached
+    private final Map<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final SingleFlight<Key> inFlight = new SingleFlight<>();
+
+    private QueryCache(AppConfig config) {
+        this.enabled = config.getBoolean("cache.query.enabled", true);
+        this.maxEntries = Math.max(1, config.getInt("cache.query.maxEntries", 500));
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(config.getLong("cache.query.ttlSeconds", 60));
+
+        QueryMetrics.getInstance().registerReportSection("Query result cache", this::formatStats);
+    }
+
+    /**
+     * Gets the singleton instance of the QueryCache.
+     *
+     * @return The QueryCache instance
+     */
+    public static synchronized QueryCache getInstance() {
+        if (instance == null) {
+            instance = new QueryCache(AppConfig.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Gets a copy of the result of a query from the cache, running the query on a miss.
+     * The cached result stays private to the cache, so callers may modify the copy.
+     *
+     * @param sql The SQL template of the query
+     * @param parameters The bound parameters
+     * @param tables The tables the query reads, including those behind views
+     * @param loader Runs the query
+     * @param copier Copies a result, e.g. a copy constructor or {@link #copyEach(UnaryOperator)}
+     * @param <T> The result type
+     * @return A copy of the cached or loaded result, or null if the result is null
+     * @throws SQLException if the query fails; failures are not cached
+     */
+    public <T> T get(String sql, List<?> parameters, Set<String> tables, Loader<T> loader,
+                     UnaryOperator<T> copier) throws SQLException {
+        T value = get(sql, parameters, tables, loader);
+        return value != null ? copier.apply(value) : null;
+    }
+
+    /**
+     * Gets the result of a query from the cache, running the query on a miss.
+     * The result is shared between callers and must not be modified; use the
+     * variant taking a copier for mutable results.
+     *
+     * @param sql The SQL template of the query
+     * @param parameters The bound parameters
+     * @param tables The tables the query reads, including those behind views
+     * @param loader Runs the query
+     * @param <T> The result type
+     * @return The cached or loaded result
+     * @throws SQLException if the query fails; failures are not cached
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String sql, List<?> parameters, Set<String> tables, Loader<T> loader) throws SQLException {
+        Key key = new Key(sql, parameters);
+        if (!enabled) {
+            return inFlight.execute(key, loader);
+        }
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits.incrementAndGet();
+                    return (T) entry.value;
+                }
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+
+        // Concurrent misses on the same key, e.g. right after expiry, share one query
+        return inFlight.execute(key, () -> loadAndCache(key, tables, loader));
+    }
+
+    private <T> T loadAndCache(Key key, Set<String> tables, Loader<T> loader) throws SQLException {
+        long[] versions = readVersions(tables);
+        T value = loader.load();
+
+        synchronized (this) {
+            // Skip caching if one of the tables was written while the query ran
+            if (Arrays.equals(versions, readVersions(tables))) {
+                entries.put(key, new Entry(value, tables));
+                Iterator<Entry> oldest = entries.values().iterator();
+                while (entries.size() > maxEntries) {
+                    oldest.next();
+                    oldest.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Discards the results that depend on a table.
+     *
+     * @param table The table that was written
+     */
+    public void invalidateTable(String table) {
+        String name = table.toLowerCase(Locale.ROOT);
+        tableVersions.computeIfAbsent(name, key -> new AtomicLong()).incrementAndGet();
+        synchronized (this) {
+            entries.values().removeIf(entry -> entry.tables.contains(name));
+        }
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Discards all cached results.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Finds the table written by an INSERT, REPLACE, UPDATE or DELETE statement.
+     *
+     * @param sql The SQL text
+     * @return The table name in lower case, or null if the statement does not write a table
+     */
+    public static String getWrittenTable(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        Matcher matcher = WRITE_STATEMENT.matcher(sql);
+        return matcher.find() ? matcher.group(1).toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Formats the cache statistics.
+     *
+     * @return A single line with the size, hit ratio, evictions and invalidations
+     */
+    public String formatStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return String.format("size=%d/%d hits=%d misses=%d hitRatio=%.1f%% evictions=%d invalidations=%d"
+                        + " queries=%d sharedInFlight=%d",
+                size, maxEntries, hitCount, misses.get(), total > 0 ? 100.0 * hitCount / total : 0.0,
+                evictions.get(), invalidations.get(), inFlight.getExecutionCount(), inFlight.getSharedCount());
+    }
+
+    private long[] readVersions(Set<String> tables) {
+        long[] versions = new long[tables.size()];
+        int i = 0;
+        for (String table : tables) {
+            AtomicLong version = tableVersions.get(table);
+            versions[i++] = version != null ? version.get() : 0;
+        }
+        return versions;
+    }
+
+    /**
+     * Builds the set of tables a query depends on.
+     *
+     * @param tables The table names
+     * @return An immutable, ordered set of lower-case table names
+     */
+    public static Set<String> tables(String... tables) {
+        Set<String> result = new TreeSet<>();
+        for (String table : tables) {
+            result.add(table.toLowerCase(Locale.ROOT));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Builds a copier for list results that copies each element into a new list.
+     *
+     * @param elementCopier Copies an element
+     * @param <E> The element type
+     * @return The list copier
+     */
+    public static <E> UnaryOperator<List<E>> copyEach(UnaryOperator<E> elementCopier) {
+        return list -> {
+            List<E> copy = new ArrayList<>(list.size());
+            for (E element : list) {
+                copy.add(element != null ? elementCopier.apply(element) : null);
+            }
+            return copy;
+        };
+    }
+
+    /**
+     * Runs a query whose result is cached.
+     */
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    private static class Key {
+        private final String sql;
+        private final List<Object> parameters;
+
+        private Key(String sql, List<?> parameters) {
+            this.sql = sql;
+            this.parameters = new ArrayList<>(parameters);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return sql.equals(other.sql) && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + parameters.hashCode();
+        }
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final Set<String> tables;
+        private final long loadedAt = System.nanoTime();
+
+        private Entry(Object value, Set<String> tables) {
+            this.value = value;
+            this.tables = tables;
+        }
+    }
+}
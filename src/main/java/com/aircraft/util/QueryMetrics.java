@@ -0,0 +1,325 @@
+package com.aircraft.util;
+
+import com.aircraft.config.AppConfig;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Collects per-SQL statistics for every statement executed through {@link DBUtil}.
+ * Statistics are grouped by the screen that was active when the statement ran,
+ * so the report shows what each screen costs the database. The report is
+ * available in-process via {@link #formatReport()} and is periodically written
+ * to the file configured by metrics.dumpFile.
+ */
+public class QueryMetrics {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^'\\\\]|\\\\.|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern PLACEHOLDER_ROWS = Pattern.compile("\\(\\?\\.\\.\\.\\)(?:\\s*,\\s*\\(\\?\\.\\.\\.\\))+");
+
+    // Singleton instance
+    private static QueryMetrics instance;
+
+    private final boolean enabled;
+    private final Path dumpFile;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final Map<String, TemplateStats> templates = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> acquireWaits = new ConcurrentHashMap<>();
+    // Additional report sections, such as cache statistics, by title
+    private final Map<String, Supplier<String>> reportSections = new ConcurrentSkipListMap<>();
+    private volatile String currentScreen = "startup";
+    private ScheduledExecutorService dumper;
+
+    private QueryMetrics(AppConfig config) {
+        this.enabled = config.getBoolean("metrics.enabled", true);
+        this.dumpFile = Paths.get(config.getString("metrics.dumpFile", "logs/query-metrics.txt"));
+
+        long intervalSeconds = config.getLong("metrics.dumpIntervalSeconds", 60);
+        if (enabled && intervalSeconds > 0) {
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "query-metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleWithFixedDelay(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Gets the singleton instance of the QueryMetrics.
+     *
+     * @return The QueryMetrics instance
+     */
+    public static synchronized QueryMetrics getInstance() {
+        if (instance == null) {
+            instance = new QueryMetrics(AppConfig.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Checks whether statements should be instrumented.
+     *
+     * @return true if metrics are enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the screen that subsequent statements are attributed to.
+     *
+     * @param screen The screen name, usually the FXML name
+     */
+    public void setCurrentScreen(String screen) {
+        if (screen != null) {
+            currentScreen = screen;
+        }
+    }
+
+    /**
+     * Gets the screen that statements are currently attributed to.
+     *
+     * @return The current screen name
+     */
+    public String getCurrentScreen() {
+        return currentScreen;
+    }
+
+    /**
+     * Gets the statistics of a SQL template on the current screen, creating them if necessary.
+     *
+     * @param sql The SQL text
+     * @param prepared true if the SQL comes from a PreparedStatement and is already parameterized
+     * @return The statistics for the template
+     */
+    public TemplateStats getTemplate(String sql, boolean prepared) {
+        String screen = currentScreen;
+        String template = normalize(sql, prepared);
+        return templates.computeIfAbsent(screen + '\n' + template, key -> new TemplateStats(screen, template));
+    }
+
+    /**
+     * Records the time spent waiting for a pooled connection.
+     *
+     * @param nanos The wait time in nanoseconds
+     */
+    public void recordAcquireWait(long nanos) {
+        acquireWaits.computeIfAbsent(currentScreen, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Adds a section to the report, replacing any section with the same title.
+     *
+     * @param title The section title
+     * @param section Supplies the text of the section when the report is formatted
+     */
+    public void registerReportSection(String title, Supplier<String> section) {
+        reportSections.put(title, section);
+    }
+
+    /**
+     * Gets a snapshot of the statistics of all templates.
+     *
+     * @return The statistics, ordered by total execution time, highest first
+     */
+    public List<TemplateStats> getTemplates() {
+        List<TemplateStats> result = new ArrayList<>(templates.values());
+        result.sort(Comparator.comparingLong((TemplateStats stats) -> stats.getLatency().getTotalMicros()).reversed());
+        return result;
+    }
+
+    /**
+     * Clears all collected statistics.
+     */
+    public void reset() {
+        templates.clear();
+        acquireWaits.clear();
+    }
+
+    /**
+     * Formats the collected statistics as a plain-text report grouped by screen.
+     *
+     * @return The report
+     */
+    public String formatReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("Query metrics at ").append(LocalDateTime.now().format(TIMESTAMP_FORMAT))
+                .append(" (since ").append(startedAt.format(TIMESTAMP_FORMAT)).append(")\n");
+
+        ConnectionPool.Stats poolStats = DBUtil.getPoolStats();
+        if (poolStats != null) {
+            report.append(poolStats).append('\n');
+        }
+
+        Map<String, List<TemplateStats>> byScreen = new TreeMap<>();
+        for (TemplateStats stats : getTemplates()) {
+            byScreen.computeIfAbsent(stats.getScreen(), key -> new ArrayList<>()).add(stats);
+        }
+        for (String screen : acquireWaits.keySet()) {
+            byScreen.computeIfAbsent(screen, key -> new ArrayList<>());
+        }
+
+        for (Map.Entry<String, List<TemplateStats>> entry : byScreen.entrySet()) {
+            report.append("\n== Screen: ").append(entry.getKey()).append(" ==\n");
+
+            LatencyHistogram acquire = acquireWaits.get(entry.getKey());
+            if (acquire != null) {
+                report.append(String.format("Connection acquire: count=%d p50=%dus p95=%dus p99=%dus max=%dus%n",
+                        acquire.getCount(), acquire.getPercentileMicros(50), acquire.getPercentileMicros(95),
+                        acquire.getPercentileMicros(99), acquire.getMaxMicros()));
+            }
+
+            report.append(String.format("%8s %6s %10s %10s %10s %10s %10s %10s %12s  %s%n",
+                    "count", "errors", "rows", "mean(us)", "p50(us)", "p95(us)", "p99(us)", "max(us)", "total(ms)", "sql"));
+            for (TemplateStats stats : entry.getValue()) {
+                LatencyHistogram latency = stats.getLatency();
+                report.append(String.format("%8d %6d %10d %10d %10d %10d %10d %10d %12d  %s%n",
+                        latency.getCount(), stats.getErrors(), stats.getRows(), latency.getMeanMicros(),
+                        latency.getPercentileMicros(50), latency.getPercentileMicros(95),
+                        latency.getPercentileMicros(99), latency.getMaxMicros(),
+                        latency.getTotalMicros() / 1_000, stats.getSql()));
+            }
+        }
+
+        for (Map.Entry<String, Supplier<String>> section : reportSections.entrySet()) {
+            report.append("\n== ").append(section.getKey()).append(" ==\n").append(section.getValue().get()).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Writes the report to the dump file, replacing the previous one.
+     */
+    public void dump() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Path parent = dumpFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = dumpFile.resolveSibling(dumpFile.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write(formatReport());
+            }
+            Files.move(temp, dumpFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error writing query metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a final report and stops the periodic dump. Called when the application exits.
+     */
+    public void shutdown() {
+        if (dumper != null) {
+            dumper.shutdownNow();
+        }
+        dump();
+    }
+
+    /**
+     * Reduces a SQL string to its template so that executions with different values are grouped.
+     * Lists of placeholders collapse to {@code (?...)}, so batches of any size share one template.
+     */
+    static String normalize(String sql, boolean prepared) {
+        if (sql == null) {
+            return "(unknown)";
+        }
+        String template = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        if (!prepared) {
+            template = STRING_LITERAL.matcher(template).replaceAll("?");
+            template = NUMBER_LITERAL.matcher(template).replaceAll("?");
+        }
+        // IN lists and multi-row VALUES vary in length with the batch size
+        template = PLACEHOLDER_LIST.matcher(template).replaceAll("(?...)");
+        return PLACEHOLDER_ROWS.matcher(template).replaceAll("(?...), ...");
+    }
+
+    /**
+     * Statistics of one SQL template on one screen.
+     */
+    public static class TemplateStats {
+        private final String screen;
+        private final String sql;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+
+        private TemplateStats(String screen, String sql) {
+            this.screen = screen;
+            this.sql = sql;
+        }
+
+        /**
+         * Records one execution.
+         *
+         * @param nanos The execution time in nanoseconds
+         * @param failed true if the execution threw an exception
+         */
+        public void recordExecution(long nanos, boolean failed) {
+            latency.record(nanos);
+            if (failed) {
+                errors.incrementAndGet();
+            }
+        }
+
+        /**
+         * Adds rows returned or affected by the template.
+         *
+         * @param count The number of rows
+         */
+        public void addRows(long count) {
+            if (count > 0) {
+                rows.addAndGet(count);
+            }
+        }
+
+        public String getScreen() {
+            return screen;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+    }
+}
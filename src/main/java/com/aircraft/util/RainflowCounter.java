@@ -0,0 +1,148 @@
+package com.aircraft.util;
+
+import java.util.Arrays;
+
+/**
+ * Rainflow cycle counting (ASTM E1049 three-point method) over a stream of
+ * load values. Values are reduced to turning points on the fly, ignoring
+ * reversals smaller than the hysteresis gate, and each turning point is pushed
+ * onto a stack from which closed cycles are extracted immediately; the
+ * remaining residue is counted as half cycles by {@link #finish()}.
+ *
+ * <p>The counter works on primitives and reuses its stack, so after it has
+ * grown to the largest residue seen, counting allocates nothing. A counter
+ * is not thread-safe; use one per thread.</p>
+ */
+public class RainflowCounter implements FlightSampleStore.ValueHandler {
+
+    private final double hysteresis;
+    private final CycleHandler handler;
+
+    private double[] stack = new double[64];
+    private int size;
+    private boolean started;
+    // Direction of the load since the last turning point: 1 rising, -1 falling, 0 not yet known
+    private int direction;
+    private double extreme;
+
+    /**
+     * Creates a counter.
+     *
+     * @param hysteresis The smallest reversal counted, in load units; smaller ones are treated as noise
+     * @param handler The handler receiving the counted cycles
+     */
+    public RainflowCounter(double hysteresis, CycleHandler handler) {
+        this.hysteresis = hysteresis;
+        this.handler = handler;
+    }
+
+    @Override
+    public void value(int timeMillis, float value) {
+        add(value);
+    }
+
+    /**
+     * Adds the next load value. NaN values are ignored.
+     *
+     * @param value The load value
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (!started) {
+            started = true;
+            extreme = value;
+            push(value);
+            return;
+        }
+
+        if (direction == 0) {
+            if (Math.abs(value - extreme) >= hysteresis) {
+                direction = value > extreme ? 1 : -1;
+                extreme = value;
+            }
+        } else if ((value - extreme) * direction > 0) {
+            // Still moving the same way
+            extreme = value;
+        } else if (Math.abs(extreme - value) >= hysteresis) {
+            push(extreme);
+            direction = -direction;
+            extreme = value;
+        }
+    }
+
+    /**
+     * Adds a range of load values.
+     *
+     * @param values The load values
+     * @param from The index of the first value, inclusive
+     * @param to The index of the last value, exclusive
+     */
+    public void add(float[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            add(values[i]);
+        }
+    }
+
+    /**
+     * Ends the history: the last turning point is pushed and the ranges left
+     * on the stack are counted as half cycles. The counter can then be reused.
+     */
+    public void finish() {
+        if (direction != 0) {
+            push(extreme);
+        }
+        for (int i = 0; i + 1 < size; i++) {
+            cycle(stack[i], stack[i + 1], 0.5);
+        }
+        size = 0;
+        started = false;
+        direction = 0;
+    }
+
+    private void push(double turningPoint) {
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+        }
+        stack[size++] = turningPoint;
+
+        while (size >= 3) {
+            double x = Math.abs(stack[size - 1] - stack[size - 2]);
+            double y = Math.abs(stack[size - 2] - stack[size - 3]);
+            if (x < y) {
+                return;
+            }
+            if (size == 3) {
+                // Y contains the starting point: a half cycle, and the start is discarded
+                cycle(stack[0], stack[1], 0.5);
+                stack[0] = stack[1];
+                stack[1] = stack[2];
+                size = 2;
+            } else {
+                cycle(stack[size - 3], stack[size - 2], 1.0);
+                stack[size - 3] = stack[size - 1];
+                size -= 2;
+            }
+        }
+    }
+
+    private void cycle(double from, double to, double count) {
+        handler.cycle(Math.abs(to - from), (from + to) / 2, count);
+    }
+
+    /**
+     * Receives the cycles counted by a {@link RainflowCounter}.
+     */
+    public interface CycleHandler {
+
+        /**
+         * Handles a counted cycle.
+         *
+         * @param range The load range of the cycle (peak to valley)
+         * @param mean The mean load of the cycle
+         * @param count 1 for a full cycle, 0.5 for a half cycle
+         */
+        void cycle(double range, double mean, double count);
+    }
+}
@@ -0,0 +1,267 @@
+package com.aircraft.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bit-level encoders and decoders of the columns of a flight sample segment,
+ * after the Gorilla time-series format. Timestamps are stored as deltas of
+ * deltas, which take one bit per sample at a fixed sampling rate. Floats are
+ * XORed with the previous value of the column, and only the bits between the
+ * leading and trailing zeros of the result are stored, so a value that barely
+ * changes takes a few bits and an unchanged one a single bit.
+ */
+final class SampleCodec {
+
+    private SampleCodec() {
+    }
+
+    /**
+     * A growable buffer written bit by bit, most significant bit first.
+     */
+    static final class BitWriter {
+        private byte[] bytes = new byte[1024];
+        private long bitLength;
+
+        void writeBits(long value, int bits) {
+            while (bits > 0) {
+                int byteIndex = (int) (bitLength >>> 3);
+                if (byteIndex == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int free = 8 - (int) (bitLength & 7);
+                int n = Math.min(free, bits);
+                int chunk = (int) ((value >>> (bits - n)) & ((1 << n) - 1));
+                bytes[byteIndex] |= (byte) (chunk << (free - n));
+                bitLength += n;
+                bits -= n;
+            }
+        }
+
+        /**
+         * Gets the buffer contents, padded to whole bytes.
+         */
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(bytes, 0, (int) ((bitLength + 7) >>> 3));
+        }
+
+        void clear() {
+            Arrays.fill(bytes, 0, (int) Math.min(bytes.length, (bitLength + 7) >>> 3), (byte) 0);
+            bitLength = 0;
+        }
+    }
+
+    /**
+     * Reads bits from a buffer starting at a byte offset, without changing the buffer's position.
+     */
+    static class BitReader {
+        private ByteBuffer buffer;
+        private long bitPosition;
+
+        void reset(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.bitPosition = (long) offset << 3;
+        }
+
+        final boolean readBit() {
+            int b = buffer.get((int) (bitPosition >>> 3));
+            boolean bit = ((b >>> (7 - (int) (bitPosition & 7))) & 1) != 0;
+            bitPosition++;
+            return bit;
+        }
+
+        final long readBits(int bits) {
+            long value = 0;
+            while (bits > 0) {
+                int b = buffer.get((int) (bitPosition >>> 3)) & 0xFF;
+                int available = 8 - (int) (bitPosition & 7);
+                int n = Math.min(available, bits);
+                value = (value << n) | ((b >>> (available - n)) & ((1 << n) - 1));
+                bitPosition += n;
+                bits -= n;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Encodes the timestamps of a block.
+     */
+    static final class TimeEncoder {
+        private final BitWriter out;
+        private boolean first = true;
+        private int previous;
+        private int previousDelta;
+
+        TimeEncoder(BitWriter out) {
+            this.out = out;
+        }
+
+        void write(int timeMillis) {
+            if (first) {
+                out.writeBits(timeMillis, 32);
+                first = false;
+            } else {
+                int delta = timeMillis - previous;
+                int deltaOfDelta = delta - previousDelta;
+                // Zigzag, so small negative values also have few significant bits
+                long zigzag = ((long) deltaOfDelta << 1) ^ (deltaOfDelta >> 31);
+                zigzag &= 0xFFFFFFFFL;
+                if (zigzag == 0) {
+                    out.writeBits(0b0, 1);
+                } else if (zigzag < (1 << 7)) {
+                    out.writeBits(0b10, 2);
+                    out.writeBits(zigzag, 7);
+                } else if (zigzag < (1 << 9)) {
+                    out.writeBits(0b110, 3);
+                    out.writeBits(zigzag, 9);
+                } else if (zigzag < (1 << 12)) {
+                    out.writeBits(0b1110, 4);
+                    out.writeBits(zigzag, 12);
+                } else {
+                    out.writeBits(0b1111, 4);
+                    out.writeBits(zigzag, 32);
+                }
+                previousDelta = delta;
+            }
+            previous = timeMillis;
+        }
+
+        void reset() {
+            first = true;
+            previous = 0;
+            previousDelta = 0;
+        }
+    }
+
+    /**
+     * Decodes the timestamps written by a {@link TimeEncoder}.
+     */
+    static final class TimeDecoder extends BitReader {
+        private boolean first;
+        private int previous;
+        private int previousDelta;
+
+        @Override
+        void reset(ByteBuffer buffer, int offset) {
+            super.reset(buffer, offset);
+            first = true;
+            previous = 0;
+            previousDelta = 0;
+        }
+
+        int next() {
+            if (first) {
+                first = false;
+                previous = (int) readBits(32);
+                return previous;
+            }
+            int zigzag;
+            if (!readBit()) {
+                zigzag = 0;
+            } else if (!readBit()) {
+                zigzag = (int) readBits(7);
+            } else if (!readBit()) {
+                zigzag = (int) readBits(9);
+            } else if (!readBit()) {
+                zigzag = (int) readBits(12);
+            } else {
+                zigzag = (int) readBits(32);
+            }
+            int deltaOfDelta = (zigzag >>> 1) ^ -(zigzag & 1);
+            previousDelta += deltaOfDelta;
+            previous += previousDelta;
+            return previous;
+        }
+    }
+
+    /**
+     * Encodes the values of a float column of a block.
+     */
+    static final class FloatEncoder {
+        private final BitWriter out;
+        private boolean first = true;
+        private int previous;
+        private int leadingZeros = -1;
+        private int trailingZeros;
+
+        FloatEncoder(BitWriter out) {
+            this.out = out;
+        }
+
+        void write(float value) {
+            int bits = Float.floatToRawIntBits(value);
+            if (first) {
+                out.writeBits(bits, 32);
+                first = false;
+                previous = bits;
+                return;
+            }
+
+            int xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBits(0b0, 1);
+                return;
+            }
+            out.writeBits(0b1, 1);
+            int leading = Integer.numberOfLeadingZeros(xor);
+            int trailing = Integer.numberOfTrailingZeros(xor);
+            if (leadingZeros >= 0 && leading >= leadingZeros && trailing >= trailingZeros) {
+                // The meaningful bits fit in the previous window
+                out.writeBits(0b0, 1);
+                out.writeBits(xor >>> trailingZeros, 32 - leadingZeros - trailingZeros);
+            } else {
+                int length = 32 - leading - trailing;
+                out.writeBits(0b1, 1);
+                out.writeBits(leading, 5);
+                out.writeBits(length - 1, 5);
+                out.writeBits(xor >>> trailing, length);
+                leadingZeros = leading;
+                trailingZeros = trailing;
+            }
+        }
+
+        void reset() {
+            first = true;
+            previous = 0;
+            leadingZeros = -1;
+            trailingZeros = 0;
+        }
+    }
+
+    /**
+     * Decodes the values written by a {@link FloatEncoder}.
+     */
+    static final class FloatDecoder extends BitReader {
+        private boolean first;
+        private int previous;
+        private int leadingZeros;
+        private int trailingZeros;
+
+        @Override
+        void reset(ByteBuffer buffer, int offset) {
+            super.reset(buffer, offset);
+            first = true;
+            previous = 0;
+            leadingZeros = 0;
+            trailingZeros = 0;
+        }
+
+        float next() {
+            if (first) {
+                first = false;
+                previous = (int) readBits(32);
+            } else if (readBit()) {
+                if (readBit()) {
+                    leadingZeros = (int) readBits(5);
+                    int length = (int) readBits(5) + 1;
+                    trailingZeros = 32 - leadingZeros - length;
+                }
+                int length = 32 - leadingZeros - trailingZeros;
+                previous ^= (int) readBits(length) << trailingZeros;
+            }
+            return Float.intBitsToFloat(previous);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.aircraft.util;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares one execution between concurrent identical calls.
+ * The first caller for a key runs the call; callers arriving while it is in
+ * flight wait for it and receive the same result or failure. Nothing is kept
+ * once the call completes, so later callers run it again.
+ *
+ * @param <K> The key identifying identical calls
+ */
+public class SingleFlight<K> {
+
+    private static final String CANCELLED_STATE = "70100";
+
+    private final Map<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * Runs a call, or waits for the identical call already in flight.
+     *
+     * @param key The key of the call
+     * @param call The call
+     * @param <T> The result type
+     * @return The result of the call
+     * @throws SQLException if the call fails
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(K key, QueryCache.Loader<T> call) throws SQLException {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+            executions.incrementAndGet();
+            try {
+                T result = call.load();
+                flight.complete(result);
+                return result;
+            } catch (SQLException | RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+
+        shared.incrementAndGet();
+        try {
+            return (T) existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Load interrupted", CANCELLED_STATE, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                if (CANCELLED_STATE.equals(((SQLException) cause).getSQLState())) {
+                    // The load that ran the call was cancelled, this one was not
+                    return execute(key, call);
+                }
+                throw (SQLException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        }
+    }
+
+    /**
+     * Gets the number of calls that were actually run.
+     *
+     * @return The number of executions
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+
+    /**
+     * Gets the number of calls that shared an execution already in flight.
+     *
+     * @return The number of shared calls
+     */
+    public long getSharedCount() {
+        return shared.get();
+    }
+}
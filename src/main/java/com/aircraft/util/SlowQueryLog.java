@@ -0,0 +1,273 @@
+package com.aircraft.util;
+
+import com.aircraft.config.AppConfig;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Log of statements slower than slowQuery.thresholdMs.
+ * Each entry contains the SQL, its bound parameters and the elapsed time.
+ * The first time a SELECT template is logged, its execution plan is captured
+ * with EXPLAIN FORMAT=JSON so it can be handed to a DBA. Entries are written
+ * on a background thread to a size-limited, rolling log file.
+ * Statements matching slowQuery.redactPattern (by default those on utenti or
+ * naming a password column) are logged with parameter types only and are
+ * never re-run for EXPLAIN, so credentials do not reach the log.
+ */
+public class SlowQueryLog {
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final int MAX_VALUE_LENGTH = 200;
+    private static final int MAX_PENDING_ENTRIES = 1000;
+
+    // Singleton instance
+    private static SlowQueryLog instance;
+
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final boolean explainEnabled;
+    private final Path logFile;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final Pattern redactPattern;
+    private final Set<String> explainedTemplates = ConcurrentHashMap.newKeySet();
+    private final ExecutorService writer;
+
+    private SlowQueryLog(AppConfig config) {
+        this.enabled = config.getBoolean("slowQuery.enabled", true);
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getLong("slowQuery.thresholdMs", 500));
+        this.explainEnabled = config.getBoolean("slowQuery.explain", true);
+        this.logFile = Paths.get(config.getString("slowQuery.logFile", "logs/slow-query.log"));
+        this.maxFileBytes = config.getLong("slowQuery.maxFileBytes", 5L * 1024 * 1024);
+        this.maxFiles = Math.max(1, config.getInt("slowQuery.maxFiles", 5));
+        this.redactPattern = Pattern.compile(
+                config.getString("slowQuery.redactPattern", "\\butenti\\b|password"), Pattern.CASE_INSENSITIVE);
+
+        // A single thread keeps the entries in order; the bounded queue drops entries under overload
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_PENDING_ENTRIES), r -> {
+            Thread thread = new Thread(r, "slow-query-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the singleton instance of the SlowQueryLog.
+     *
+     * @return The SlowQueryLog instance
+     */
+    public static synchronized SlowQueryLog getInstance() {
+        if (instance == null) {
+            instance = new SlowQueryLog(AppConfig.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Checks whether slow statements are logged.
+     *
+     * @return true if the slow query log is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checks whether an execution is slow enough to be logged.
+     *
+     * @param nanos The execution time in nanoseconds
+     * @return true if the execution exceeds the threshold
+     */
+    public boolean isSlow(long nanos) {
+        return enabled && nanos >= thresholdNanos;
+    }
+
+    /**
+     * Logs a slow execution. The entry is written asynchronously.
+     *
+     * @param template The template statistics of the statement
+     * @param sql The SQL as executed
+     * @param parameters The bound parameters by index, may be empty
+     * @param nanos The execution time in nanoseconds
+     * @param failed true if the execution threw an exception
+     */
+    public void record(QueryMetrics.TemplateStats template, String sql, Map<Integer, Object> parameters,
+                       long nanos, boolean failed) {
+        if (!isSlow(nanos) || sql == null || isExplain(sql)) {
+            return;
+        }
+
+        String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
+        String thread = Thread.currentThread().getName();
+        boolean redact = redactPattern.matcher(sql).find();
+        boolean explain = explainEnabled && !redact && isSelect(sql) && explainedTemplates.add(template.getSql());
+
+        try {
+            writer.execute(() -> {
+                StringBuilder entry = new StringBuilder();
+                entry.append("# ").append(timestamp)
+                        .append(" elapsed=").append(TimeUnit.NANOSECONDS.toMillis(nanos)).append("ms")
+                        .append(" screen=").append(template.getScreen())
+                        .append(" thread=").append(thread)
+                        .append(failed ? " FAILED" : "").append('\n');
+                entry.append("SQL: ").append(template.getSql()).append('\n');
+                if (!parameters.isEmpty()) {
+                    entry.append("Parameters: ").append(formatParameters(parameters, redact)).append('\n');
+                }
+                if (explain) {
+                    entry.append("EXPLAIN:\n").append(explain(sql, parameters)).append('\n');
+                }
+                entry.append('\n');
+                append(entry.toString());
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("Slow query log queue is full, entry dropped: " + template.getSql());
+        }
+    }
+
+    /**
+     * Waits for pending entries to be written. Called when the application exits.
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs EXPLAIN FORMAT=JSON for the statement with the same parameters.
+     */
+    private String explain(String sql, Map<Integer, Object> parameters) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DBUtil.getConnection();
+            stmt = conn.prepareStatement("EXPLAIN FORMAT=JSON " + sql);
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                stmt.setObject(parameter.getKey(), parameter.getValue());
+            }
+
+            rs = stmt.executeQuery();
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1));
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            return "(EXPLAIN failed: " + e.getMessage() + ")";
+        } finally {
+            DBUtil.closeResources(conn, stmt, rs);
+        }
+    }
+
+    /**
+     * Appends an entry to the log file, rolling it over when it is full.
+     */
+    private void append(String entry) {
+        try {
+            Path parent = logFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (Files.exists(logFile) && Files.size(logFile) + entry.length() > maxFileBytes) {
+                roll();
+            }
+            try (Writer out = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(entry);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing slow query log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Renames slow-query.log to slow-query.log.1, shifting older files and deleting the oldest.
+     */
+    private void roll() throws IOException {
+        if (maxFiles == 1) {
+            Files.delete(logFile);
+            return;
+        }
+        Files.deleteIfExists(rolledFile(maxFiles - 1));
+        for (int i = maxFiles - 2; i >= 1; i--) {
+            Path source = rolledFile(i);
+            if (Files.exists(source)) {
+                Files.move(source, rolledFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(logFile, rolledFile(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolledFile(int index) {
+        return logFile.resolveSibling(logFile.getFileName() + "." + index);
+    }
+
+    private static String formatParameters(Map<Integer, Object> parameters, boolean redact) {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+            if (result.length() > 0) {
+                result.append(", ");
+            }
+            result.append(parameter.getKey()).append('=')
+                    .append(redact ? formatType(parameter.getValue()) : formatValue(parameter.getValue()));
+        }
+        return result.toString();
+    }
+
+    private static String formatType(Object value) {
+        return value == null ? "NULL" : "<redacted " + value.getClass().getSimpleName() + ">";
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        String text = value.toString();
+        if (text.length() > MAX_VALUE_LENGTH) {
+            text = text.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+        return value instanceof Number || value instanceof Boolean ? text : "'" + text + "'";
+    }
+
+    private static boolean isSelect(String sql) {
+        String start = sql.trim().toUpperCase(Locale.ROOT);
+        return start.startsWith("SELECT") || start.startsWith("WITH") || start.startsWith("(");
+    }
+
+    private static boolean isExplain(String sql) {
+        return sql.trim().toUpperCase(Locale.ROOT).startsWith("EXPLAIN");
+    }
+}
@@ -0,0 +1,361 @@
+package com.aircraft.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightSampleSegmentTest {
+
+    // The smallest block size the store accepts, so tests cross many blocks
+    private static final int BLOCK_SIZE = 16;
+    private static final String AIRCRAFT = "MM7001";
+
+    @TempDir
+    Path directory;
+
+    /**
+     * One recorded sample, compared bit for bit.
+     */
+    private static final class Sample {
+        private final int time;
+        private final float gLoad;
+        private final float altitude;
+        private final float speed;
+
+        private Sample(int time, float gLoad, float altitude, float speed) {
+            this.time = time;
+            this.gLoad = gLoad;
+            this.altitude = altitude;
+            this.speed = speed;
+        }
+
+        private float value(FlightSampleStore.Column column) {
+            switch (column) {
+                case G_LOAD:
+                    return gLoad;
+                case ALTITUDE:
+                    return altitude;
+                default:
+                    return speed;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Sample)) {
+                return false;
+            }
+            Sample other = (Sample) o;
+            return time == other.time
+                    && Float.floatToRawIntBits(gLoad) == Float.floatToRawIntBits(other.gLoad)
+                    && Float.floatToRawIntBits(altitude) == Float.floatToRawIntBits(other.altitude)
+                    && Float.floatToRawIntBits(speed) == Float.floatToRawIntBits(other.speed);
+        }
+
+        @Override
+        public int hashCode() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return time + ":" + gLoad + "/" + altitude + "/" + speed;
+        }
+    }
+
+    private FlightSampleStore store() {
+        return new FlightSampleStore(directory, BLOCK_SIZE);
+    }
+
+    private FlightSampleSegment write(int flight, List<Sample> samples) throws IOException {
+        FlightSampleStore store = store();
+        try (FlightSampleWriter writer = store.create(AIRCRAFT, flight, 1_700_000_000_000L)) {
+            for (Sample sample : samples) {
+                writer.sample(sample.time, sample.gLoad, sample.altitude, sample.speed);
+            }
+            writer.commit();
+        }
+        return store.open(AIRCRAFT, flight);
+    }
+
+    private static List<Sample> scan(FlightSampleSegment segment, int fromMillis, int toMillis) {
+        List<Sample> samples = new ArrayList<>();
+        segment.scan(fromMillis, toMillis, (t, g, a, s) -> samples.add(new Sample(t, g, a, s)));
+        return samples;
+    }
+
+    private static List<Sample> between(List<Sample> samples, int fromMillis, int toMillis) {
+        List<Sample> selected = new ArrayList<>();
+        for (Sample sample : samples) {
+            if (sample.time >= fromMillis && sample.time < toMillis) {
+                selected.add(sample);
+            }
+        }
+        return selected;
+    }
+
+    private static void assertColumnScans(FlightSampleSegment segment, List<Sample> expected, int fromMillis, int toMillis) {
+        for (FlightSampleStore.Column column : FlightSampleStore.Column.values()) {
+            List<Integer> times = new ArrayList<>();
+            List<Integer> values = new ArrayList<>();
+            segment.scan(column, fromMillis, toMillis, (t, v) -> {
+                times.add(t);
+                values.add(Float.floatToRawIntBits(v));
+            });
+            List<Integer> expectedTimes = new ArrayList<>();
+            List<Integer> expectedValues = new ArrayList<>();
+            for (Sample sample : between(expected, fromMillis, toMillis)) {
+                expectedTimes.add(sample.time);
+                expectedValues.add(Float.floatToRawIntBits(sample.value(column)));
+            }
+            assertEquals(expectedTimes, times, column + " times in [" + fromMillis + ", " + toMillis + ")");
+            assertEquals(expectedValues, values, column + " values in [" + fromMillis + ", " + toMillis + ")");
+        }
+    }
+
+    /**
+     * Random samples with repeated values, NaN, infinities, repeated times and long gaps.
+     */
+    private static List<Sample> randomSamples(Random random, int count) {
+        List<Sample> samples = new ArrayList<>();
+        int time = 0;
+        float gLoad = 1.0f;
+        float altitude = 0.0f;
+        float speed = 0.0f;
+        for (int i = 0; i < count; i++) {
+            int gap = random.nextInt(20);
+            time += gap == 0 ? 0 : gap == 1 ? 1 + random.nextInt(5_000_000) : 125;
+            switch (random.nextInt(8)) {
+                case 0:
+                    gLoad = Float.NaN;
+                    break;
+                case 1:
+                    gLoad = random.nextBoolean() ? Float.POSITIVE_INFINITY : Float.NEGATIVE_INFINITY;
+                    break;
+                case 2:
+                case 3:
+                    // Unchanged
+                    break;
+                default:
+                    gLoad = (float) (1 + random.nextGaussian() * 2);
+            }
+            altitude = random.nextInt(4) == 0 ? altitude : Float.intBitsToFloat(random.nextInt());
+            speed = random.nextBoolean() ? speed : 250 + random.nextInt(300);
+            samples.add(new Sample(time, gLoad, altitude, speed));
+        }
+        return samples;
+    }
+
+    @Test
+    void roundTripsRandomSamples() throws IOException {
+        List<Sample> samples = randomSamples(new Random(1), 5000);
+        FlightSampleSegment segment = write(101, samples);
+
+        assertEquals(samples.size(), segment.getSampleCount());
+        assertEquals(1_700_000_000_000L, segment.getStartMillis());
+        assertEquals(samples.get(0).time, segment.getFirstMillis());
+        assertEquals(samples.get(samples.size() - 1).time, segment.getLastMillis());
+        assertEquals(samples, scan(segment, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertColumnScans(segment, samples, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        List<Sample> all = new ArrayList<>();
+        segment.scan((t, g, a, s) -> all.add(new Sample(t, g, a, s)));
+        assertEquals(samples, all);
+    }
+
+    @Test
+    void roundTripsLargeTimeGaps() throws IOException {
+        List<Sample> samples = new ArrayList<>();
+        int[] times = {-1_000_000, 0, 1, 2, 1_000_000_000, 1_000_000_000, 1_000_000_001,
+                2_000_000_000, Integer.MAX_VALUE - 1};
+        for (int i = 0; i < times.length; i++) {
+            samples.add(new Sample(times[i], i, -i, i * 0.5f));
+        }
+        FlightSampleSegment segment = write(102, samples);
+
+        assertEquals(samples, scan(segment, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(between(samples, 2, 2_000_000_000), scan(segment, 2, 2_000_000_000));
+    }
+
+    @Test
+    void roundTripsAtBlockBoundaries() throws IOException {
+        Random random = new Random(2);
+        int[] counts = {0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 2 * BLOCK_SIZE, 5 * BLOCK_SIZE + 3};
+        for (int count : counts) {
+            List<Sample> samples = randomSamples(random, count);
+            FlightSampleSegment segment = write(200 + count, samples);
+
+            assertEquals(count, segment.getSampleCount(), count + " samples");
+            assertEquals(samples, scan(segment, Integer.MIN_VALUE, Integer.MAX_VALUE), count + " samples");
+            assertColumnScans(segment, samples, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            if (count == 0) {
+                assertEquals(0, segment.getFirstMillis());
+                assertEquals(0, segment.getLastMillis());
+            }
+        }
+    }
+
+    @Test
+    void scansRangesStartingAndEndingMidBlock() throws IOException {
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 10 * BLOCK_SIZE; i++) {
+            samples.add(new Sample(i * 10, i % 7, i, -i));
+        }
+        FlightSampleSegment segment = write(301, samples);
+
+        // Inside one block, across one boundary, across several, on sample times and between them
+        int[][] ranges = {{35, 95}, {150, 170}, {155, 165}, {160, 320}, {45, 1234}, {0, 10}, {10, 10},
+                {1590, 1600}, {1595, 5000}, {-100, 5}, {1600, 2000}, {500, 400}};
+        for (int[] range : ranges) {
+            assertEquals(between(samples, range[0], range[1]), scan(segment, range[0], range[1]),
+                    "[" + range[0] + ", " + range[1] + ")");
+            assertColumnScans(segment, samples, range[0], range[1]);
+        }
+    }
+
+    @Test
+    void scansRandomRanges() throws IOException {
+        Random random = new Random(3);
+        List<Sample> samples = randomSamples(random, 2000);
+        FlightSampleSegment segment = write(302, samples);
+        int last = samples.get(samples.size() - 1).time;
+
+        for (int i = 0; i < 200; i++) {
+            // Mostly on or next to sample times, so ranges start and end on repeated times too
+            int from = samples.get(random.nextInt(samples.size())).time + random.nextInt(3) - 1;
+            int to = random.nextInt(5) == 0 ? last + 1 : from + random.nextInt(Math.max(1, last - from + 2));
+            assertEquals(between(samples, from, to), scan(segment, from, to), "[" + from + ", " + to + ")");
+        }
+        assertColumnScans(segment, samples, samples.get(700).time, samples.get(1300).time);
+    }
+
+    @Test
+    void rejectsSamplesOutOfTimeOrder() throws IOException {
+        try (FlightSampleWriter writer = store().create(AIRCRAFT, 401, 0)) {
+            writer.sample(100, 1, 1, 1);
+            writer.sample(100, 1, 1, 1);
+            assertThrows(IllegalArgumentException.class, () -> writer.sample(99, 1, 1, 1));
+        }
+    }
+
+    @Test
+    void discardsUncommittedSegments() throws IOException {
+        FlightSampleStore store = store();
+        try (FlightSampleWriter writer = store.create(AIRCRAFT, 402, 0)) {
+            for (int i = 0; i < 3 * BLOCK_SIZE; i++) {
+                writer.sample(i, 1, 1, 1);
+            }
+        }
+
+        assertFalse(store.contains(AIRCRAFT, 402));
+        assertThrows(NoSuchFileException.class, () -> store.open(AIRCRAFT, 402));
+        try (Stream<Path> files = Files.list(directory.resolve(AIRCRAFT))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void replacesTheStoredSegmentOnCommit() throws IOException {
+        write(403, randomSamples(new Random(4), 100));
+        List<Sample> samples = randomSamples(new Random(5), 10);
+        FlightSampleSegment segment = write(403, samples);
+
+        assertEquals(samples, scan(segment, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertTrue(store().contains(AIRCRAFT, 403));
+    }
+
+    /**
+     * Writes a valid segment and returns its file, for the corruption tests.
+     */
+    private Path validSegment(int flight) throws IOException {
+        return write(flight, randomSamples(new Random(flight), 3 * BLOCK_SIZE)).getPath();
+    }
+
+    private static void overwriteInt(Path file, long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4).putInt(value);
+            buffer.flip();
+            channel.write(buffer, position);
+        }
+    }
+
+    private static void assertRejected(Path file, String message) {
+        IOException e = assertThrows(IOException.class, () -> FlightSampleSegment.open(file));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    @Test
+    void rejectsACorruptFooterMagic() throws IOException {
+        Path file = validSegment(501);
+        overwriteInt(file, Files.size(file) - 4, 0);
+        assertRejected(file, "is not a sample segment or is incomplete");
+    }
+
+    @Test
+    void rejectsACorruptHeaderMagic() throws IOException {
+        Path file = validSegment(502);
+        overwriteInt(file, 0, 0x12345678);
+        assertRejected(file, "is not a sample segment or is incomplete");
+    }
+
+    @Test
+    void rejectsATruncatedSegment() throws IOException {
+        Path file = validSegment(503);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 7);
+        }
+        assertRejected(file, "is not a sample segment or is incomplete");
+
+        Files.write(file, new byte[FlightSampleSegment.HEADER_SIZE]);
+        assertRejected(file, "is not a sample segment or is incomplete");
+    }
+
+    @Test
+    void rejectsAnUnsupportedVersion() throws IOException {
+        Path file = validSegment(504);
+        overwriteInt(file, 4, (FlightSampleSegment.VERSION + 1) << 16);
+        assertRejected(file, "unsupported format version");
+    }
+
+    @Test
+    void rejectsACorruptIndexOffset() throws IOException {
+        Path file = validSegment(505);
+        long footer = Files.size(file) - FlightSampleSegment.FOOTER_SIZE;
+        overwriteInt(file, footer + 8, 3);
+        assertRejected(file, "corrupt block index");
+
+        file = validSegment(506);
+        footer = Files.size(file) - FlightSampleSegment.FOOTER_SIZE;
+        overwriteInt(file, footer + 8, Integer.MAX_VALUE);
+        assertRejected(file, "corrupt block index");
+    }
+
+    @Test
+    void rejectsACorruptBlockCount() throws IOException {
+        Path file = validSegment(507);
+        long footer = Files.size(file) - FlightSampleSegment.FOOTER_SIZE;
+        overwriteInt(file, footer + 12, 4);
+        assertRejected(file, "corrupt block index");
+
+        file = validSegment(508);
+        footer = Files.size(file) - FlightSampleSegment.FOOTER_SIZE;
+        overwriteInt(file, footer + 12, -1);
+        assertRejected(file, "corrupt block index");
+    }
+}
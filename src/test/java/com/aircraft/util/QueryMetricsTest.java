@@ -0,0 +1,38 @@
+package com.aircraft.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryMetricsTest {
+
+    @Test
+    void collapsesInListsOfAnyLength() {
+        String expected = "SELECT * FROM velivolo WHERE Matricola_Velivolo IN (?...)";
+        assertEquals(expected, QueryMetrics.normalize("SELECT * FROM velivolo WHERE Matricola_Velivolo IN (?)", true));
+        assertEquals(expected, QueryMetrics.normalize(
+                "SELECT * FROM velivolo\n WHERE Matricola_Velivolo IN (?, ?,?,  ?)", true));
+    }
+
+    @Test
+    void collapsesLiteralInListsOfUnpreparedStatements() {
+        assertEquals("DELETE FROM missione WHERE ID IN (?...)",
+                QueryMetrics.normalize("DELETE FROM missione WHERE ID IN (1, 22, 333)", false));
+        assertEquals("SELECT * FROM arma WHERE Nome IN (?...)",
+                QueryMetrics.normalize("SELECT * FROM arma WHERE Nome IN ('A, B', 'it''s')", false));
+    }
+
+    @Test
+    void collapsesMultiRowValues() {
+        String expected = "INSERT INTO missione_posizione VALUES (?...), ...";
+        assertEquals(expected, QueryMetrics.normalize("INSERT INTO missione_posizione VALUES (?, ?), (?, ?)", true));
+        assertEquals(expected, QueryMetrics.normalize(
+                "INSERT INTO missione_posizione VALUES (?, ?), (?, ?), (?, ?)", true));
+    }
+
+    @Test
+    void keepsOtherParentheses() {
+        assertEquals("SELECT COUNT(*) FROM volo WHERE (a = ? OR b = ?)",
+                QueryMetrics.normalize("SELECT COUNT(*) FROM volo WHERE (a = ? OR b = ?)", true));
+    }
+}
@@ -0,0 +1,137 @@
+package com.aircraft.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RainflowCounterTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Counts a load history and returns the cycle count of each range.
+     */
+    private static Map<Double, Double> count(double hysteresis, double... loads) {
+        Map<Double, Double> counts = new TreeMap<>();
+        RainflowCounter counter = new RainflowCounter(hysteresis,
+                (range, mean, count) -> counts.merge(range, count, Double::sum));
+        for (double load : loads) {
+            counter.add(load);
+        }
+        counter.finish();
+        return counts;
+    }
+
+    @Test
+    void countsTheAstmE1049Example() {
+        // ASTM E1049-85, figure 6 and table 4
+        Map<Double, Double> counts = count(0, -2, 1, -3, 5, -1, 3, -4, 4, -2);
+
+        Map<Double, Double> expected = new TreeMap<>();
+        expected.put(3.0, 0.5);
+        expected.put(4.0, 1.5);
+        expected.put(6.0, 0.5);
+        expected.put(8.0, 1.0);
+        expected.put(9.0, 0.5);
+        assertEquals(expected, counts);
+    }
+
+    @Test
+    void countsTheSameCyclesFromIntermediateSamples() {
+        // The example sampled between its turning points, as a recorder would
+        Map<Double, Double> counts = count(0, -2, -1, 0, 1, 0, -3, 0, 2.5, 5, 2, -1, 1, 3, 0, -4, 0, 4, 1, -2);
+
+        assertEquals(count(0, -2, 1, -3, 5, -1, 3, -4, 4, -2), counts);
+    }
+
+    @Test
+    void ignoresReversalsBelowTheHysteresis() {
+        // 1 +- 0.1 of noise on a single 0 -> 4 -> 0 excursion
+        Map<Double, Double> counts = count(0.5, 0, 1, 0.9, 1.1, 0.95, 4, 3.9, 4, 2, 2.1, 0);
+
+        Map<Double, Double> expected = new TreeMap<>();
+        expected.put(4.0, 1.0);
+        assertEquals(expected, counts);
+    }
+
+    @Test
+    void countsReversalsAtTheHysteresis() {
+        Map<Double, Double> counts = count(0.5, 0, 0.5, 0);
+
+        Map<Double, Double> expected = new TreeMap<>();
+        expected.put(0.5, 1.0);
+        assertEquals(expected, counts);
+    }
+
+    @Test
+    void ignoresNaN() {
+        assertEquals(count(0, -2, 1, -3, 5, -1, 3, -4, 4, -2),
+                count(0, -2, Double.NaN, 1, -3, 5, Double.NaN, -1, 3, -4, 4, -2, Double.NaN));
+    }
+
+    @Test
+    void countsNothingWithoutAReversal() {
+        assertTrue(count(0.5).isEmpty());
+        assertTrue(count(0.5, 1, 1.2, 1.1).isEmpty());
+    }
+
+    @Test
+    void canBeReusedAfterFinish() {
+        Map<Double, Double> counts = new TreeMap<>();
+        RainflowCounter counter = new RainflowCounter(0,
+                (range, mean, count) -> counts.merge(range, count, Double::sum));
+        counter.add(new float[]{0, 4, 0}, 0, 3);
+        counter.finish();
+        counter.add(new float[]{9, 0, 2, 0}, 0, 4);
+        counter.finish();
+
+        Map<Double, Double> expected = new TreeMap<>();
+        expected.put(4.0, 1.0);
+        expected.put(2.0, 1.0);
+        expected.put(9.0, 0.5);
+        assertEquals(expected, counts);
+    }
+
+    @Test
+    void cycleDamageFollowsTheSnCurve() {
+        // N(S) = 2000 * (7 / S) ^ 4
+        FatigueEngine engine = new FatigueEngine(null, 0.2, 7.0, 2000, 4.0, 9.0);
+
+        assertEquals(1.0 / 2000, engine.cycleDamage(7.0, 1.0), EPSILON);
+        assertEquals(16.0 / 2000, engine.cycleDamage(14.0, 1.0), EPSILON);
+        assertEquals(0.5 * Math.pow(3.5 / 7.0, 4) / 2000, engine.cycleDamage(3.5, 0.5), EPSILON);
+        assertEquals(0, engine.cycleDamage(0, 1.0), EPSILON);
+        assertEquals(0, engine.cycleDamage(-1, 1.0), EPSILON);
+    }
+
+    @Test
+    void damageIsTheMinerSumOfTheCountedCycles() {
+        FatigueEngine engine = new FatigueEngine(null, 0, 7.0, 2000, 4.0, 9.0);
+        float[] loads = {-2, 1, -3, 5, -1, 3, -4, 4, -2};
+
+        double expected = engine.cycleDamage(3, 0.5) + engine.cycleDamage(4, 1.5) + engine.cycleDamage(6, 0.5)
+                + engine.cycleDamage(8, 1.0) + engine.cycleDamage(9, 0.5);
+        assertEquals(expected, engine.damage(loads, 0, loads.length), EPSILON);
+    }
+
+    @Test
+    void flightsWithoutSamplesCountOneCycle() {
+        FatigueEngine engine = new FatigueEngine(null, 0.2, 7.0, 2000, 4.0, 9.0);
+
+        assertEquals(engine.cycleDamage(6.5, 1.0), engine.flightDamage(null, 1,
+                new BigDecimal("-1.5"), new BigDecimal("5.0")), EPSILON);
+        assertEquals(engine.cycleDamage(9.0, 1.0), engine.flightDamage(null, 1, null, null), EPSILON);
+    }
+
+    @Test
+    void remainingLifeStopsAtZero() {
+        assertEquals(100.0, FatigueEngine.remainingLifePercentage(0), EPSILON);
+        assertEquals(75.0, FatigueEngine.remainingLifePercentage(0.25), EPSILON);
+        assertEquals(0.0, FatigueEngine.remainingLifePercentage(1.5), EPSILON);
+    }
+}
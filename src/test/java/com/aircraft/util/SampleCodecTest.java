@@ -0,0 +1,161 @@
+package com.aircraft.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SampleCodecTest {
+
+    private static void assertTimesRoundTrip(int... times) {
+        SampleCodec.BitWriter out = new SampleCodec.BitWriter();
+        SampleCodec.TimeEncoder encoder = new SampleCodec.TimeEncoder(out);
+        for (int time : times) {
+            encoder.write(time);
+        }
+
+        SampleCodec.TimeDecoder decoder = new SampleCodec.TimeDecoder();
+        decoder.reset(out.toByteBuffer(), 0);
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(times[i], decoder.next(), "time " + i);
+        }
+    }
+
+    private static void assertValuesRoundTrip(float... values) {
+        SampleCodec.BitWriter out = new SampleCodec.BitWriter();
+        SampleCodec.FloatEncoder encoder = new SampleCodec.FloatEncoder(out);
+        for (float value : values) {
+            encoder.write(value);
+        }
+
+        SampleCodec.FloatDecoder decoder = new SampleCodec.FloatDecoder();
+        decoder.reset(out.toByteBuffer(), 0);
+        for (int i = 0; i < values.length; i++) {
+            // Bit for bit, so NaN payloads and -0 are kept
+            assertEquals(Float.floatToRawIntBits(values[i]), Float.floatToRawIntBits(decoder.next()), "value " + i);
+        }
+    }
+
+    @Test
+    void roundTripsTimesAtAFixedRate() {
+        int[] times = new int[1000];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = 500 + i * 125;
+        }
+        assertTimesRoundTrip(times);
+    }
+
+    @Test
+    void roundTripsEveryDeltaOfDeltaWidth() {
+        // Zero, 7, 9, 12 and 32 bit deltas of deltas, rising and falling
+        assertTimesRoundTrip(0, 10, 20, 30, 93, 156, 400, 644, 2000, 3356, 3357, 3357,
+                1_000_000, 1_000_001, 2_000_000_000, 2_000_000_000, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void roundTripsNegativeAndExtremeTimes() {
+        assertTimesRoundTrip(Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE);
+        assertTimesRoundTrip(-5000, -4000, -3000);
+        assertTimesRoundTrip(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void roundTripsRandomTimes() {
+        Random random = new Random(42);
+        int[] times = new int[5000];
+        int time = random.nextInt(1000);
+        for (int i = 0; i < times.length; i++) {
+            // Mostly regular, with jitter, repeats and occasional long gaps
+            switch (random.nextInt(10)) {
+                case 0:
+                    break;
+                case 1:
+                    time += random.nextInt(10_000_000);
+                    break;
+                default:
+                    time += 100 + random.nextInt(5);
+            }
+            times[i] = time;
+        }
+        assertTimesRoundTrip(times);
+    }
+
+    @Test
+    void roundTripsSpecialValues() {
+        assertValuesRoundTrip(Float.NaN, Float.NaN, 1.0f, Float.NaN, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, 0.0f, -0.0f, 0.0f,
+                Float.MIN_VALUE, -Float.MAX_VALUE, Float.MAX_VALUE, Float.intBitsToFloat(0x7FC00123));
+    }
+
+    @Test
+    void roundTripsRepeatedValues() {
+        assertValuesRoundTrip(3.5f, 3.5f, 3.5f, 3.5f, -1.25f, -1.25f, 3.5f, 3.5f);
+        assertValuesRoundTrip(Float.NaN);
+        assertValuesRoundTrip(7.0f, 7.0f);
+    }
+
+    @Test
+    void roundTripsRandomValues() {
+        Random random = new Random(7);
+        float[] values = new float[5000];
+        float value = 1.0f;
+        for (int i = 0; i < values.length; i++) {
+            switch (random.nextInt(6)) {
+                case 0:
+                    // Unchanged
+                    break;
+                case 1:
+                    value = Float.intBitsToFloat(random.nextInt());
+                    break;
+                case 2:
+                    value = random.nextBoolean() ? Float.NaN
+                            : (random.nextBoolean() ? Float.POSITIVE_INFINITY : Float.NEGATIVE_INFINITY);
+                    break;
+                default:
+                    value = (float) (random.nextGaussian() * 3);
+            }
+            values[i] = value;
+        }
+        assertValuesRoundTrip(values);
+    }
+
+    @Test
+    void decodesFromAnOffset() {
+        SampleCodec.BitWriter out = new SampleCodec.BitWriter();
+        out.writeBits(0xAB, 8);
+        out.writeBits(0xCD, 8);
+        int offset = 2;
+        SampleCodec.FloatEncoder encoder = new SampleCodec.FloatEncoder(out);
+        encoder.write(1.5f);
+        encoder.write(-2.75f);
+        encoder.write(-2.75f);
+        ByteBuffer buffer = out.toByteBuffer();
+
+        SampleCodec.FloatDecoder decoder = new SampleCodec.FloatDecoder();
+        decoder.reset(buffer, offset);
+        assertEquals(1.5f, decoder.next());
+        assertEquals(-2.75f, decoder.next());
+        assertEquals(-2.75f, decoder.next());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void writerCanBeReusedAfterClear() {
+        SampleCodec.BitWriter out = new SampleCodec.BitWriter();
+        SampleCodec.TimeEncoder encoder = new SampleCodec.TimeEncoder(out);
+        for (int i = 0; i < 3000; i++) {
+            encoder.write(-i * 7919);
+        }
+        out.clear();
+        encoder.reset();
+        encoder.write(10);
+        encoder.write(20);
+
+        SampleCodec.TimeDecoder decoder = new SampleCodec.TimeDecoder();
+        decoder.reset(out.toByteBuffer(), 0);
+        assertEquals(10, decoder.next());
+        assertEquals(20, decoder.next());
+    }
+}